@@ -29,6 +29,8 @@ import static demo.account.domain.AccountStatus.ACCOUNT_ACTIVE;
 @Transactional
 public class PostOrder extends Action<Account> {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final Logger log = Logger.getLogger(this.getClass());
 
     public Order apply(Account account, Order order) {
@@ -57,7 +59,7 @@ public class PostOrder extends Action<Account> {
     private String getHttpStatusMessage(RestClientResponseException ex) {
         Map<String, String> errorMap = new HashMap<>();
         try {
-            errorMap = new ObjectMapper()
+            errorMap = objectMapper
                     .readValue(ex.getResponseBodyAsString(), errorMap
                             .getClass());
         } catch (IOException e) {
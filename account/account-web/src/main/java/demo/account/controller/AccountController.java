@@ -4,8 +4,8 @@ import demo.account.domain.Account;
 import demo.account.domain.AccountService;
 import demo.account.domain.Accounts;
 import demo.account.event.AccountEvent;
+import demo.event.EventCursor;
 import demo.event.EventService;
-import demo.event.Events;
 import demo.order.domain.Order;
 import demo.order.domain.Orders;
 import org.springframework.data.domain.Page;
@@ -69,8 +69,10 @@ public class AccountController {
     }
 
     @RequestMapping(path = "/accounts/{id}/events")
-    public ResponseEntity getAccountEvents(@PathVariable Long id) {
-        return Optional.of(getAccountEventResources(id))
+    public ResponseEntity getAccountEvents(@PathVariable Long id,
+                                           @RequestParam(value = "after", required = false) Long after,
+                                           @RequestParam(value = "since", required = false) Long since) {
+        return Optional.of(EventCursor.find(eventService, id, after, since))
                 .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("Could not get account events"));
     }
@@ -284,10 +286,6 @@ public class AccountController {
         return eventService.findOne(eventId);
     }
 
-    private Events getAccountEventResources(Long id) {
-        return eventService.find(id);
-    }
-
     private LinkBuilder linkBuilder(String name, Long id) {
         Method method;
 
@@ -316,7 +314,8 @@ public class AccountController {
 
         if (!account.hasLink("events")) {
             // Add get events link
-            account.add(linkBuilder("getAccountEvents", account.getIdentity()).withRel("events"));
+            account.add(linkTo(AccountController.class).slash("accounts").slash(account.getIdentity())
+                    .slash("events").withRel("events"));
         }
 
         if (!account.hasLink("orders")) {
@@ -23,11 +23,13 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(indexes = { @Index(name = "IDX_ACCOUNT_EVENT", columnList = "entity_id") })
+@Table(indexes = { @Index(name = "IDX_ACCOUNT_EVENT", columnList = "entity_id, createdAt") })
 public class AccountEvent extends Event<Account, AccountEventType, Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "account_event")
+    @TableGenerator(name = "account_event", table = "id_generator", pkColumnValue = "account_event",
+            allocationSize = 50)
     private Long eventId;
 
     @Enumerated(EnumType.STRING)
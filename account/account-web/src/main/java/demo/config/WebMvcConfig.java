@@ -2,10 +2,12 @@ package demo.config;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
@@ -36,10 +38,18 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
 
     @Bean
     @LoadBalanced
-    public RestTemplate restTemplate(ObjectMapper objectMapper) {
+    public RestTemplate restTemplate(ObjectMapper objectMapper,
+            ObjectProvider<ClientHttpRequestFactory> clientHttpRequestFactory) {
         MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
         converter.setObjectMapper(objectMapper);
-        return new RestTemplate(Collections.singletonList(converter));
+        RestTemplate restTemplate = new RestTemplate(Collections.singletonList(converter));
+
+        // Share the pooled connections of the HTTP client, where it is configured
+        ClientHttpRequestFactory requestFactory = clientHttpRequestFactory.getIfAvailable();
+        if (requestFactory != null)
+            restTemplate.setRequestFactory(requestFactory);
+
+        return restTemplate;
     }
 
     @Override
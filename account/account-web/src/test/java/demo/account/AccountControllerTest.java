@@ -6,6 +6,7 @@ import demo.account.domain.AccountService;
 import demo.account.event.AccountEvent;
 import demo.account.event.AccountEventType;
 import demo.event.EventService;
+import demo.event.InvalidEventCursorException;
 import demo.event.Events;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -20,6 +21,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Collections;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -54,4 +56,40 @@ public class AccountControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(content));
     }
+
+    @Test
+    public void getAccountEventsAfterCursorShouldReturnTail() throws Exception {
+        given(this.eventService.findAfter(1L, 2L)).willReturn(new Events<>(1L, Collections.emptyList()));
+
+        this.mvc.perform(get("/v1/accounts/1/events").param("after", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(this.eventService).findAfter(1L, 2L);
+    }
+
+    @Test
+    public void getAccountEventsSinceCursorShouldReturnTail() throws Exception {
+        given(this.eventService.findSince(1L, 20L)).willReturn(new Events<>(1L, Collections.emptyList()));
+
+        this.mvc.perform(get("/v1/accounts/1/events").param("since", "20").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(this.eventService).findSince(1L, 20L);
+    }
+
+    @Test
+    public void getAccountEventsWithForeignCursorShouldBeRejected() throws Exception {
+        given(this.eventService.findAfter(1L, 2L))
+                .willThrow(new InvalidEventCursorException("Event 2 is not in the event log of entity 1"));
+
+        this.mvc.perform(get("/v1/accounts/1/events").param("after", "2").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getAccountEventsWithBothCursorsShouldBeRejected() throws Exception {
+        this.mvc.perform(get("/v1/accounts/1/events").param("after", "2").param("since", "20")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,110 @@
+package demo.account;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.account.domain.Account;
+import demo.account.domain.AccountStatus;
+import demo.account.event.AccountEvent;
+import demo.account.event.AccountEventType;
+import demo.domain.CommandRegistry;
+import demo.event.Event;
+import demo.event.Events;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.core.EvoInflectorRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the account fixture of the benchmarks declares the same command links as the {@link Account}
+ * aggregate of this service, and that the fixture and its events serialize to the same HAL resources as the real
+ * classes.
+ */
+public class AccountFixtureTests {
+
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setup() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // The benchmarks serialize their resources with the same mapper
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorRelProvider(), null, null));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void fixtureCommandsMatchAccountCommands() {
+        assertThat(CommandRegistry.getLinks(demo.benchmark.account.Account.class, 1L))
+                .containsExactlyInAnyOrder(CommandRegistry.getLinks(Account.class, 1L).toArray(new Link[0]));
+    }
+
+    @Test
+    public void fixtureSerializesLikeAccount() {
+        assertThat(serialize(fixtureAccount())).isEqualTo(serialize(account()));
+    }
+
+    @Test
+    public void fixtureEventsSerializeLikeAccountEvents() {
+        demo.benchmark.account.Account fixtureAccount = fixtureAccount();
+        List<Event<demo.benchmark.account.Account, demo.benchmark.account.AccountEventType, Long>> fixtureEvents =
+                new ArrayList<>();
+        fixtureEvents.add(new demo.benchmark.account.AccountEvent(1L,
+                demo.benchmark.account.AccountEventType.ACCOUNT_CREATED, fixtureAccount));
+        fixtureEvents.add(new demo.benchmark.account.AccountEvent(2L,
+                demo.benchmark.account.AccountEventType.ACCOUNT_CONFIRMED, fixtureAccount));
+
+        Account account = account();
+        List<Event<Account, AccountEventType, Long>> events = new ArrayList<>();
+        events.add(accountEvent(1L, AccountEventType.ACCOUNT_CREATED, account));
+        events.add(accountEvent(2L, AccountEventType.ACCOUNT_CONFIRMED, account));
+
+        assertThat(serialize(new Events<>(1L, fixtureEvents))).isEqualTo(serialize(new Events<>(1L, events)));
+    }
+
+    private JsonNode serialize(Object resource) {
+        return objectMapper.valueToTree(resource);
+    }
+
+    private demo.benchmark.account.Account fixtureAccount() {
+        demo.benchmark.account.Account account = new demo.benchmark.account.Account(1L, "Jane", "Doe",
+                "jane.doe@example.com");
+        account.setStatus(demo.benchmark.account.AccountStatus.ACCOUNT_ACTIVE);
+        account.setCreatedAt(1L);
+        account.setLastModified(1L);
+        return account;
+    }
+
+    private Account account() {
+        Account account = new Account("Jane", "Doe", "jane.doe@example.com");
+        account.setIdentity(1L);
+        account.setStatus(AccountStatus.ACCOUNT_ACTIVE);
+        account.setCreatedAt(1L);
+        account.setLastModified(1L);
+        return account;
+    }
+
+    private AccountEvent accountEvent(Long eventId, AccountEventType type, Account account) {
+        AccountEvent event = new AccountEvent(type, account);
+        event.setEventId(eventId);
+        event.setCreatedAt(eventId);
+        event.setLastModified(eventId);
+        return event;
+    }
+}
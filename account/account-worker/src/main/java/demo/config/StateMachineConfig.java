@@ -5,20 +5,22 @@ import demo.account.AccountStatus;
 import demo.event.AccountEvent;
 import demo.event.AccountEventType;
 import demo.function.*;
+import demo.hypermedia.HypermediaClient;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 
-import java.net.URI;
 import java.util.EnumSet;
 
 /**
@@ -37,6 +39,37 @@ import java.util.EnumSet;
 public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<AccountStatus, AccountEventType> {
 
     final private Logger log = Logger.getLogger(StateMachineConfig.class);
+    final private HypermediaClient hypermediaClient;
+
+    public StateMachineConfig(HypermediaClient hypermediaClient) {
+        this.hypermediaClient = hypermediaClient;
+    }
+
+    /**
+     * Creates a bounded pool of pre-built state machines that are reused for each replicated {@link AccountEvent}.
+     *
+     * @param stateMachineFactory is the factory used to build the state machines of the pool
+     * @param poolSize            is the number of pre-built state machines
+     * @return the {@link StateMachinePool} for {@link Account} state machines
+     */
+    @Bean
+    public StateMachinePool<AccountStatus, AccountEventType> accountStateMachinePool(
+            StateMachineFactory<AccountStatus, AccountEventType> stateMachineFactory,
+            @Value("${statemachine.pool.size:20}") int poolSize) {
+        return new StateMachinePool<>("account", stateMachineFactory, poolSize);
+    }
+
+    /**
+     * Creates the metrics of the replication of {@link Account} aggregates from their event logs.
+     *
+     * @param logLengthThreshold is the length of an event log above which a warning is logged
+     * @return the {@link ReplayMetrics} for {@link Account} aggregates
+     */
+    @Bean
+    public ReplayMetrics<AccountEventType> accountReplayMetrics(
+            @Value("${replay.log-length.warn-threshold:500}") int logLengthThreshold) {
+        return new ReplayMetrics<>("account", logLengthThreshold);
+    }
 
     /**
      * Configures the initial conditions of a new in-memory {@link StateMachine} for {@link Account}.
@@ -156,7 +189,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
      */
     @Bean
     public Action<AccountStatus, AccountEventType> createAccount() {
-        return context -> applyEvent(context, new CreateAccount(context));
+        return context -> applyEvent(context, new CreateAccount(context, hypermediaClient));
     }
 
     /**
@@ -175,17 +208,9 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
             ConfirmAccount accountFunction;
 
             accountFunction = new ConfirmAccount(context, event -> {
-                // Get the account resource for the event
-                Traverson traverson = new Traverson(
-                        URI.create(event.getLink("account").getHref()),
-                        MediaTypes.HAL_JSON
-                );
-
                 // Follow the command resource to activate the account
-                Account account = traverson.follow("commands")
-                        .follow("activate")
-                        .toEntity(Account.class)
-                        .getBody();
+                Account account = hypermediaClient.follow(event.getLink("account").getHref(), Account.class,
+                        "commands", "activate");
 
                 log.info(event.getType() + ": " + event.getLink("account").getHref());
 
@@ -208,14 +233,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
                 new ActivateAccount(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("account").getHref());
                     // Get the account resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("account").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Account.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("account").getHref(), Account.class);
                 }));
     }
 
@@ -231,14 +249,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
                 new ArchiveAccount(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("account").getHref());
                     // Get the account resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("account").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Account.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("account").getHref(), Account.class);
                 }));
     }
 
@@ -254,14 +265,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
                 new SuspendAccount(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("account").getHref());
                     // Get the account resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("account").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Account.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("account").getHref(), Account.class);
                 }));
     }
 
@@ -277,14 +281,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
                 new UnarchiveAccount(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("account").getHref());
                     // Get the account resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("account").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Account.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("account").getHref(), Account.class);
                 }));
     }
 
@@ -300,14 +297,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Accoun
                 new UnsuspendAccount(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("account").getHref());
                     // Get the account resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("account").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Account.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("account").getHref(), Account.class);
                 }));
     }
 }
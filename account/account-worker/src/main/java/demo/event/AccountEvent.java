@@ -2,6 +2,7 @@ package demo.event;
 
 import demo.account.Account;
 import demo.domain.BaseEntity;
+import demo.domain.EventDigest;
 
 /**
  * The domain event {@link AccountEvent} tracks the type and state of events as
@@ -16,6 +17,7 @@ import demo.domain.BaseEntity;
 public class AccountEvent extends BaseEntity {
 
     private AccountEventType type;
+    private EventDigest<AccountEventType> digest;
 
     public AccountEvent() {
     }
@@ -32,6 +34,14 @@ public class AccountEvent extends BaseEntity {
         this.type = type;
     }
 
+    public EventDigest<AccountEventType> getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest<AccountEventType> digest) {
+        this.digest = digest;
+    }
+
     @Override
     public String toString() {
         return "AccountEvent{" +
@@ -1,17 +1,17 @@
 package demo.event;
 
+import demo.domain.EventDigest;
+import demo.hypermedia.HypermediaClient;
 import demo.account.Account;
 import demo.account.AccountStatus;
+import demo.state.ReplayMetrics;
 import demo.state.StateMachineService;
 import org.apache.log4j.Logger;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,9 +20,14 @@ public class EventService {
 
     final private Logger log = Logger.getLogger(EventService.class);
     final private StateMachineService stateMachineService;
+    final private HypermediaClient hypermediaClient;
+    final private ReplayMetrics<AccountEventType> replayMetrics;
 
-    public EventService(StateMachineService stateMachineService) {
+    public EventService(StateMachineService stateMachineService, HypermediaClient hypermediaClient,
+                        ReplayMetrics<AccountEventType> replayMetrics) {
         this.stateMachineService = stateMachineService;
+        this.hypermediaClient = hypermediaClient;
+        this.replayMetrics = replayMetrics;
     }
 
     public Account apply(AccountEvent accountEvent) {
@@ -31,20 +36,38 @@ public class EventService {
 
         log.info("Account event received: " + accountEvent.getLink("self").getHref());
 
+        ReplayMetrics.Replay replay = replayMetrics.begin(accountEvent.getType());
+
         // Generate a state machine for computing the state of the account resource
         StateMachine<AccountStatus, AccountEventType> stateMachine =
                 stateMachineService.getStateMachine();
 
-        // Follow the hypermedia link to fetch the attached account
-        Traverson traverson = new Traverson(
-                URI.create(accountEvent.getLink("account").getHref()),
-                MediaTypes.HAL_JSON
-        );
+        try {
+            try {
+                replicate(accountEvent, stateMachine, replay);
+            } catch (RuntimeException ex) {
+                replay.fail();
+                throw ex;
+            }
+
+            // Get result
+            Map<Object, Object> context = stateMachine.getExtendedState()
+                    .getVariables();
+
+            // Get the account result
+            result = (Account) context.getOrDefault("account", null);
+        } finally {
+            // Return the state machine to the pool
+            stateMachineService.release(stateMachine);
+        }
+
+        return result;
+    }
 
+    private void replicate(AccountEvent accountEvent, StateMachine<AccountStatus, AccountEventType> stateMachine,
+                           ReplayMetrics.Replay replay) {
         // Get the event log for the attached account resource
-        AccountEvents events = traverson.follow("events")
-                .toEntity(AccountEvents.class)
-                .getBody();
+        AccountEvents events = getEventLog(accountEvent, replay);
 
         // Prepare account event message headers
         Map<String, Object> headerMap = new HashMap<>();
@@ -55,28 +78,30 @@ public class EventService {
                 .stream()
                 .sorted((a1, a2) -> a1.getCreatedAt().compareTo(a2.getCreatedAt()))
                 .forEach(e -> {
-                    MessageHeaders headers = new MessageHeaders(null);
-
                     // Check to see if this is the current event
                     if (e.getLink("self").equals(accountEvent.getLink("self"))) {
-                        headers = new MessageHeaders(headerMap);
+                        // Apply the current event, which runs the action of its transition
+                        replay.action(() -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                new MessageHeaders(headerMap))));
+                    } else {
+                        // Send the event to the state machine
+                        stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), new MessageHeaders(null)));
                     }
-
-                    // Send the event to the state machine
-                    stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), headers));
                 });
 
+        replay.complete(accountEvent.getLink("account").getHref(), events.getContent().size());
+    }
 
-        // Get result
-        Map<Object, Object> context = stateMachine.getExtendedState()
-                .getVariables();
-
-        // Get the account result
-        result = (Account) context.getOrDefault("account", null);
+    private AccountEvents getEventLog(AccountEvent accountEvent, ReplayMetrics.Replay replay) {
+        EventDigest<AccountEventType> digest = accountEvent.getDigest();
 
-        // Destroy the state machine
-        stateMachine.stop();
+        // Replicate from the event log embedded in the message when it has no gaps
+        if (digest != null && digest.isComplete() && digest.contains(accountEvent.getLink("self")))
+            return new AccountEvents(digest.toEvents(accountEvent.getLink("self"), AccountEvent::new,
+                    AccountEvent::setCreatedAt));
 
-        return result;
+        // Follow the hypermedia link to fetch the attached account
+        return replay.fetch(() -> hypermediaClient.follow(accountEvent.getLink("account").getHref(),
+                AccountEvents.class, "events"));
     }
 }
@@ -4,15 +4,9 @@ import demo.account.Account;
 import demo.account.AccountStatus;
 import demo.event.AccountEvent;
 import demo.event.AccountEventType;
+import demo.hypermedia.HypermediaClient;
 import org.apache.log4j.Logger;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
-import org.springframework.http.RequestEntity;
 import org.springframework.statemachine.StateContext;
-import org.springframework.web.client.RestTemplate;
-
-import java.net.URI;
-import java.util.function.Function;
 
 /**
  * The {@link AccountFunction} is an abstraction used to map actions that are triggered by
@@ -24,14 +18,11 @@ import java.util.function.Function;
 public class CreateAccount extends AccountFunction {
 
     final private Logger log = Logger.getLogger(CreateAccount.class);
+    final private HypermediaClient hypermediaClient;
 
-    public CreateAccount(StateContext<AccountStatus, AccountEventType> context) {
-        this(context, null);
-    }
-
-    public CreateAccount(StateContext<AccountStatus, AccountEventType> context,
-                         Function<AccountEvent, Account> function) {
-        super(context, function);
+    public CreateAccount(StateContext<AccountStatus, AccountEventType> context, HypermediaClient hypermediaClient) {
+        super(context, null);
+        this.hypermediaClient = hypermediaClient;
     }
 
     /**
@@ -46,16 +37,8 @@ public class CreateAccount extends AccountFunction {
 
         log.info("Executing workflow for a created account...");
 
-        // Create a traverson for the root account
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("account").getHref()),
-                MediaTypes.HAL_JSON
-        );
-
         // Get the account resource attached to the event
-        account = traverson.follow("self")
-                .toEntity(Account.class)
-                .getBody();
+        account = hypermediaClient.get(event.getLink("account").getHref(), Account.class);
 
         // Set the account to a pending state
         account = setAccountPendingStatus(event, account);
@@ -63,10 +46,8 @@ public class CreateAccount extends AccountFunction {
         // The account can only be confirmed if it is in a pending state
         if (account.getStatus() == AccountStatus.ACCOUNT_PENDING) {
             // Traverse to the confirm account command
-            account = traverson.follow("commands")
-                    .follow("confirm")
-                    .toEntity(Account.class)
-                    .getBody();
+            account = hypermediaClient.follow(event.getLink("account").getHref(), Account.class, "commands",
+                    "confirm");
 
             log.info(event.getType() + ": " +
                     event.getLink("account").getHref());
@@ -87,16 +68,9 @@ public class CreateAccount extends AccountFunction {
     private Account setAccountPendingStatus(AccountEvent event, Account account) {
         // Set the account status to pending
         account.setStatus(AccountStatus.ACCOUNT_PENDING);
-        RestTemplate restTemplate = new RestTemplate();
-
-        // Create a new request entity
-        RequestEntity<Account> requestEntity = RequestEntity.put(
-                URI.create(event.getLink("account").getHref()))
-                .contentType(MediaTypes.HAL_JSON)
-                .body(account);
 
         // Update the account entity's status
-        account = restTemplate.exchange(requestEntity, Account.class).getBody();
+        account = hypermediaClient.put(event.getLink("account").getHref(), account, Account.class);
 
         return account;
     }
@@ -3,13 +3,10 @@ package demo.state;
 import demo.account.AccountStatus;
 import demo.event.AccountEventType;
 import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 /**
- * The {@link StateMachineService} provides factory access to get new state machines for
+ * The {@link StateMachineService} provides pooled access to state machines for
  * replicating the state of an {@link demo.account.Account} from {@link demo.event.AccountEvents}.
  *
  * @author kbastani
@@ -17,26 +14,28 @@ import java.util.UUID;
 @Service
 public class StateMachineService {
 
-    private final StateMachineFactory<AccountStatus, AccountEventType> factory;
+    private final StateMachinePool<AccountStatus, AccountEventType> stateMachinePool;
 
-    public StateMachineService(StateMachineFactory<AccountStatus, AccountEventType> factory) {
-        this.factory = factory;
+    public StateMachineService(StateMachinePool<AccountStatus, AccountEventType> stateMachinePool) {
+        this.stateMachinePool = stateMachinePool;
     }
 
     /**
-     * Create a new state machine that is initially configured and ready for replicating
+     * Acquire a state machine that is initially configured and ready for replicating
      * the state of an {@link demo.account.Account} from a sequence of {@link demo.event.AccountEvent}.
      *
-     * @return a new instance of {@link StateMachine}
+     * @return a started instance of {@link StateMachine}
      */
     public StateMachine<AccountStatus, AccountEventType> getStateMachine() {
-        // Create a new state machine in its initial state
-        StateMachine<AccountStatus, AccountEventType> stateMachine =
-                factory.getStateMachine(UUID.randomUUID().toString());
-
-        // Start the new state machine
-        stateMachine.start();
+        return stateMachinePool.acquire();
+    }
 
-        return stateMachine;
+    /**
+     * Release a state machine after replication has completed, so that it can be reused.
+     *
+     * @param stateMachine is the {@link StateMachine} to release
+     */
+    public void release(StateMachine<AccountStatus, AccountEventType> stateMachine) {
+        stateMachinePool.release(stateMachine);
     }
 }
@@ -0,0 +1,52 @@
+package demo.benchmark;
+
+import demo.benchmark.account.Account;
+import demo.benchmark.order.Order;
+import demo.domain.Aggregate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Link;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the hypermedia of an {@link Aggregate}: the links of its {@link demo.domain.Command}s, which are
+ * resolved once per aggregate type by the {@link demo.domain.CommandRegistry}, and its own links.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregateBenchmark {
+
+    private Order order;
+    private Account account;
+
+    @Setup
+    public void setup() {
+        order = Fixtures.order(1L);
+        account = Fixtures.account(1L);
+    }
+
+    @Benchmark
+    public Aggregate.CommandResources orderCommands() {
+        return order.getCommands();
+    }
+
+    @Benchmark
+    public List<Link> orderLinks() {
+        return order.getLinks();
+    }
+
+    @Benchmark
+    public Aggregate.CommandResources accountCommands() {
+        return account.getCommands();
+    }
+
+    @Benchmark
+    public List<Link> accountLinks() {
+        return account.getLinks();
+    }
+}
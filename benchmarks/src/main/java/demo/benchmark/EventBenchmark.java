@@ -0,0 +1,35 @@
+package demo.benchmark;
+
+import demo.benchmark.order.OrderEvent;
+import demo.benchmark.order.OrderEventType;
+import demo.event.Event;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.Link;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the links of an {@link Event}, which resolves the aggregate type of the event from its generic
+ * superclass and the rel of the aggregate link on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBenchmark {
+
+    private OrderEvent event;
+
+    @Setup
+    public void setup() {
+        event = new OrderEvent(1L, OrderEventType.ORDER_CREATED, Fixtures.order(1L));
+    }
+
+    @Benchmark
+    public List<Link> eventLinks() {
+        return event.getLinks();
+    }
+}
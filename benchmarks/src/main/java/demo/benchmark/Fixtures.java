@@ -0,0 +1,85 @@
+package demo.benchmark;
+
+import demo.benchmark.account.Account;
+import demo.benchmark.order.Address;
+import demo.benchmark.order.AddressType;
+import demo.benchmark.order.LineItem;
+import demo.benchmark.order.Order;
+import demo.benchmark.order.OrderEvent;
+import demo.benchmark.order.OrderEventType;
+import demo.benchmark.order.OrderStatus;
+import demo.event.Event;
+import demo.event.Events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Builds the aggregates and events that the benchmarks operate on.
+ *
+ * @author Kenny Bastani
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static Order order(Long id) {
+        Order order = new Order(id, 1L);
+        order.setStatus(OrderStatus.RESERVATION_PENDING);
+        order.setCreatedAt(1L);
+        order.setLastModified(1L);
+        order.setShippingAddress(shippingAddress());
+        LongStream.range(0, 4).forEach(i -> order.getLineItems()
+                .add(new LineItem("Product " + i, "SKU-" + i, 2, 9.99, .06)));
+        return order;
+    }
+
+    public static Address shippingAddress() {
+        Address address = new Address("1600 Amphitheatre Parkway", null, "CA", "Mountain View", "United States",
+                94043);
+        address.setAddressType(AddressType.SHIPPING);
+        return address;
+    }
+
+    public static Account account(Long id) {
+        Account account = new Account(id, "Jane", "Doe", "jane.doe@example.com");
+        account.setCreatedAt(1L);
+        account.setLastModified(1L);
+        return account;
+    }
+
+    /**
+     * Builds the event log of an order, which starts like the log of an order that is reserving its inventory and
+     * continues with a reservation for every later event.
+     *
+     * @param order  is the order of the events
+     * @param length is the number of events
+     * @return the events of the order
+     */
+    public static List<OrderEvent> orderEvents(Order order, int length) {
+        return LongStream.rangeClosed(1, length)
+                .mapToObj(i -> new OrderEvent(i, orderEventType(i), order))
+                .collect(Collectors.toList());
+    }
+
+    public static Events<Order, OrderEventType, Long> events(Order order, int length) {
+        List<Event<Order, OrderEventType, Long>> content = new ArrayList<>(orderEvents(order, length));
+        return new Events<>(order.getIdentity(), content);
+    }
+
+    private static OrderEventType orderEventType(long i) {
+        switch ((int) Math.min(i, 4)) {
+            case 1:
+                return OrderEventType.ORDER_CREATED;
+            case 2:
+                return OrderEventType.ACCOUNT_CONNECTED;
+            case 3:
+                return OrderEventType.RESERVATION_PENDING;
+            default:
+                return OrderEventType.RESERVATION_ADDED;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.benchmark.account.Account;
+import demo.benchmark.order.Order;
+import demo.benchmark.order.OrderEventType;
+import demo.event.Events;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.core.EvoInflectorRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the HAL serialization of the resources that the services return the most: an order, an account and the
+ * event log of an order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int eventCount;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+    private Account account;
+    private Events<Order, OrderEventType, Long> events;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorRelProvider(), null, null));
+
+        order = Fixtures.order(1L);
+        account = Fixtures.account(1L);
+        events = Fixtures.events(order, eventCount);
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] account() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] events() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(events);
+    }
+}
@@ -2,12 +2,16 @@ package demo.config;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
@@ -36,10 +40,34 @@ public class WebMvcConfig extends WebMvcConfigurerAdapter {
 
     @Bean
     @LoadBalanced
-    protected RestTemplate restTemplate(ObjectMapper objectMapper) {
+    protected RestTemplate restTemplate(ObjectMapper objectMapper,
+            ObjectProvider<ClientHttpRequestFactory> clientHttpRequestFactory) {
         MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
         converter.setObjectMapper(objectMapper);
-        return new RestTemplate(Collections.singletonList(converter));
+        RestTemplate restTemplate = new RestTemplate(Collections.singletonList(converter));
+
+        // Share the pooled connections of the HTTP client, where it is configured
+        ClientHttpRequestFactory requestFactory = clientHttpRequestFactory.getIfAvailable();
+        if (requestFactory != null)
+            restTemplate.setRequestFactory(requestFactory);
+
+        return restTemplate;
+    }
+
+    @Bean
+    @LoadBalanced
+    protected AsyncRestTemplate asyncRestTemplate(ObjectMapper objectMapper,
+            ObjectProvider<AsyncClientHttpRequestFactory> asyncClientHttpRequestFactory) {
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
+        converter.setObjectMapper(objectMapper);
+
+        // Share the pooled connections of the non-blocking HTTP client, where it is configured
+        AsyncClientHttpRequestFactory requestFactory = asyncClientHttpRequestFactory.getIfAvailable();
+        AsyncRestTemplate asyncRestTemplate = requestFactory != null ? new AsyncRestTemplate(requestFactory) :
+                new AsyncRestTemplate();
+        asyncRestTemplate.setMessageConverters(Collections.singletonList(converter));
+
+        return asyncRestTemplate;
     }
 
     @Override
@@ -1,10 +1,12 @@
 package demo.order.action;
 
 import demo.domain.Action;
+import demo.order.domain.LineItem;
 import demo.order.domain.Order;
 import demo.order.domain.OrderModule;
 import demo.order.domain.OrderService;
 import demo.order.domain.OrderStatus;
+import demo.order.domain.ReservationTally;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEventType;
 import demo.reservation.domain.Reservation;
@@ -14,14 +16,24 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static demo.order.domain.OrderStatus.RESERVATION_FAILED;
 import static demo.order.domain.OrderStatus.RESERVATION_SUCCEEDED;
 
 /**
- * Reserves inventory for an {@link Order}.
+ * Completes the reservation of inventory for an {@link Order} once all of its reservations have succeeded, or fails
+ * it once any of its reservations has failed.
+ * <p>
+ * When the command carries the outcome of a single reservation, the outcome is counted by the
+ * {@link ReservationTally} of the order and completion is checked from the tally, without a request to the warehouse
+ * service. The order row is locked while the reservation is counted, so that reservations which complete
+ * concurrently are all counted. Without an outcome, or for an order that was reserved without a tally, every
+ * reservation of the order is fetched from the warehouse service and checked instead.
  *
  * @author Kenny Bastani
  */
@@ -30,8 +42,18 @@ import static demo.order.domain.OrderStatus.RESERVATION_SUCCEEDED;
 public class CompleteReservation extends Action<Order> {
 
     private final Logger log = Logger.getLogger(CompleteReservation.class);
+    private final EntityManager entityManager;
+
+    public CompleteReservation(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public Order apply(Order order, Long reservationId, ReservationStatus reservationStatus, Integer quantity) {
+        if (reservationId != null && reservationStatus != null) {
+            // Reload the order under a row lock, so that the tally is not overwritten by a concurrent reservation
+            entityManager.refresh(order, LockModeType.PESSIMISTIC_WRITE);
+        }
 
-    public Order apply(Order order) {
         if (order.getStatus() != RESERVATION_SUCCEEDED && order.getStatus() != RESERVATION_FAILED) {
             Assert.isTrue(order.getStatus() == OrderStatus.RESERVATION_PENDING,
                     "The order must be in a reservation pending state");
@@ -45,16 +67,29 @@ public class CompleteReservation extends Action<Order> {
         OrderStatus status = order.getStatus();
 
         try {
-            List<Reservation> reservations = order.getReservations().getContent().stream()
-                    .collect(Collectors.toList());
+            Boolean orderReserved;
+            Boolean reservationFailed;
+            ReservationTally tally = order.getReservationTally();
 
-            // Check if all inventory has been reserved
-            Boolean orderReserved = reservations.stream()
-                    .allMatch(r -> r.getStatus() == ReservationStatus.RESERVATION_SUCCEEDED);
+            if (reservationId != null && reservationStatus != null && tally != null && tally.getExpected() != null) {
+                if (tally(order, reservationId, reservationStatus, quantity))
+                    order = orderService.update(order);
 
-            // Check if any inventory reservations have failed
-            Boolean reservationFailed = reservations.stream()
-                    .anyMatch(r -> r.getStatus() == ReservationStatus.RESERVATION_FAILED);
+                orderReserved = tally.isReserved();
+                reservationFailed = tally.isFailed();
+            } else {
+                List<Reservation> reservations = order.getReservations().getContent().stream()
+                        .collect(Collectors.toList());
+
+                // Check if all inventory has been reserved, across every warehouse the order was split between
+                orderReserved = reservations.stream()
+                        .allMatch(r -> r.getStatus() == ReservationStatus.RESERVATION_SUCCEEDED) &&
+                        isCovered(order, reservations);
+
+                // Check if any inventory reservations have failed
+                reservationFailed = reservations.stream()
+                        .anyMatch(r -> r.getStatus() == ReservationStatus.RESERVATION_FAILED);
+            }
 
             if (orderReserved && order.getStatus() == OrderStatus.RESERVATION_PENDING) {
                 // Succeed the reservation and commit all inventory associated with order
@@ -76,4 +111,53 @@ public class CompleteReservation extends Action<Order> {
 
         return order;
     }
+
+    /**
+     * Count the outcome of a reservation in the {@link ReservationTally} of an order. Each reservation is only
+     * counted once, so that a redelivered reservation event does not complete the order early.
+     *
+     * @param order             is the order of the reservation
+     * @param reservationId     is the unique identifier of the reservation
+     * @param reservationStatus is the status of the reservation
+     * @param quantity          is the number of units of the reservation, or null for a single unit
+     * @return true if the tally was changed
+     */
+    private boolean tally(Order order, Long reservationId, ReservationStatus reservationStatus, Integer quantity) {
+        ReservationTally tally = order.getReservationTally();
+
+        if (reservationStatus != ReservationStatus.RESERVATION_SUCCEEDED &&
+                reservationStatus != ReservationStatus.RESERVATION_FAILED)
+            return false;
+
+        if (!order.getCompletedReservationIds().add(reservationId))
+            return false;
+
+        if (reservationStatus == ReservationStatus.RESERVATION_SUCCEEDED)
+            tally.setSucceeded(tally.getSucceeded() + (quantity != null ? quantity : 1));
+        else
+            tally.setFailed(tally.getFailed() + 1);
+
+        return true;
+    }
+
+    /**
+     * Check that the reservations of an order cover the quantity of each of its line items. The reservations of a
+     * split order are requested from each warehouse separately, so the reservations of one warehouse may all
+     * succeed before the reservations of another warehouse are created.
+     *
+     * @param order        is the order that was reserved
+     * @param reservations are the reservations of the order
+     * @return true if every line item is covered by reservations
+     */
+    private boolean isCovered(Order order, List<Reservation> reservations) {
+        Map<String, Long> reserved = reservations.stream()
+                .collect(Collectors.groupingBy(Reservation::getProductId,
+                        Collectors.summingLong(r -> r.getQuantity() != null ? r.getQuantity() : 1)));
+
+        return order.getLineItems().stream()
+                .collect(Collectors.groupingBy(LineItem::getProductId,
+                        Collectors.summingLong(item -> item.getQuantity() != null ? item.getQuantity() : 1)))
+                .entrySet().stream()
+                .allMatch(item -> reserved.getOrDefault(item.getKey(), 0L) >= item.getValue());
+    }
 }
@@ -5,8 +5,10 @@ import demo.order.domain.Order;
 import demo.order.domain.OrderModule;
 import demo.order.domain.OrderService;
 import demo.order.domain.OrderStatus;
+import demo.order.domain.ReservationTally;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEventType;
+import demo.warehouse.domain.FulfilmentPlan;
 import demo.warehouse.domain.Warehouse;
 import demo.warehouse.domain.WarehouseService;
 import demo.warehouse.exception.WarehouseNotFoundException;
@@ -16,9 +18,16 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
- * Reserves inventory for an {@link Order}.
+ * Reserves inventory for an {@link Order}. The line items of the order are split into shipments from the fewest
+ * warehouses that have them in stock, and the inventory of each shipment is reserved from its warehouse in
+ * parallel. The order is only reserved once the reservations of every shipment have succeeded, and if any of them
+ * fails, the inventory of the shipments that were reserved is released before the order fails.
  *
  * @author Kenny Bastani
  */
@@ -43,16 +52,25 @@ public class ReserveInventory extends Action<Order> {
         Assert.isTrue(order
                 .getStatus() == OrderStatus.ACCOUNT_CONNECTED, "The order must be connected to an account");
 
-        Warehouse warehouse;
+        FulfilmentPlan plan;
 
         OrderService orderService = order.getModule(OrderModule.class).getDefaultService();
 
         OrderStatus status = order.getStatus();
         order.setStatus(OrderStatus.RESERVATION_PENDING);
+
+        // Count the units that the reservations must cover, so that their completion is checked locally
+        order.setReservationTally(new ReservationTally(order.getLineItems().stream()
+                .mapToLong(item -> item.getQuantity() != null ? item.getQuantity() : 1)
+                .sum()));
+        order.getCompletedReservationIds().clear();
         order = orderService.update(order);
 
         try {
-            warehouse = warehouseService.findWarehouseWithInventory(order);
+            plan = warehouseService.planFulfilment(order);
+
+            if (plan == null || plan.getShipments().isEmpty() || !plan.getUnfulfilled().isEmpty())
+                throw new WarehouseNotFoundException("Could not find warehouses with available inventory for order");
         } catch (WarehouseNotFoundException ex) {
             log.error("The order contains items that are not available at any warehouse", ex);
             throw ex;
@@ -64,24 +82,36 @@ public class ReserveInventory extends Action<Order> {
             throw ex;
         }
 
+        List<Warehouse> warehouses = plan.getShipments().stream()
+                .map(shipment -> {
+                    Warehouse warehouse = new Warehouse();
+                    warehouse.setIdentity(shipment.getWarehouseId());
+                    return warehouse;
+                }).collect(Collectors.toList());
+
+        List<CompletableFuture<Warehouse>> shipments = reserveShipments(order, plan);
+
         try {
-            // Reserve inventory for the order from the returned warehouse
-            warehouse = warehouseService.reserveInventory(warehouse, order);
+            // Reserve inventory for each shipment of the order from its warehouse
+            CompletableFuture.allOf(shipments.toArray(new CompletableFuture[shipments.size()])).join();
         } catch (Exception ex) {
             log.error("Could not reserve inventory for the order", ex);
 
+            // Release the inventory of the shipments that were reserved before the order fails
+            releaseShipments(order, plan, shipments);
+
             order.setStatus(OrderStatus.ACCOUNT_CONNECTED);
             order = orderService.update(order);
 
             OrderEvent event = new OrderEvent(OrderEventType.RESERVATION_FAILED, order);
-            event.add(warehouse.getLink("self").withRel("warehouse"));
+            warehouses.forEach(warehouse -> event.add(warehouse.getId().withRel("warehouse")));
 
             // Trigger reservation failed
             order.sendAsyncEvent(event);
         } finally {
-            if(order.getStatus() != OrderStatus.ACCOUNT_CONNECTED) {
+            if (order.getStatus() != OrderStatus.ACCOUNT_CONNECTED) {
                 OrderEvent event = new OrderEvent(OrderEventType.RESERVATION_PENDING, order);
-                event.add(warehouse.getLink("self").withRel("warehouse"));
+                warehouses.forEach(warehouse -> event.add(warehouse.getId().withRel("warehouse")));
 
                 // Trigger reservation pending event
                 order.sendAsyncEvent(event);
@@ -90,4 +120,39 @@ public class ReserveInventory extends Action<Order> {
 
         return order;
     }
+
+    private List<CompletableFuture<Warehouse>> reserveShipments(Order order, FulfilmentPlan plan) {
+        return plan.getShipments().stream()
+                .map(shipment -> warehouseService.reserveInventoryAsync(shipment.getWarehouseId(),
+                        getShipmentOrder(order, shipment)))
+                .collect(Collectors.toList());
+    }
+
+    private void releaseShipments(Order order, FulfilmentPlan plan, List<CompletableFuture<Warehouse>> shipments) {
+        // Every future has completed once the future of all of the shipments has completed
+        for (int i = 0; i < shipments.size(); i++) {
+            if (shipments.get(i).isCompletedExceptionally())
+                continue;
+
+            Long warehouseId = plan.getShipments().get(i).getWarehouseId();
+
+            try {
+                warehouseService.releaseInventory(warehouseId, order.getIdentity());
+            } catch (RuntimeException ex) {
+                log.error(String.format("Could not release the inventory of order %s in warehouse %s",
+                        order.getIdentity(), warehouseId), ex);
+            }
+        }
+    }
+
+    private Order getShipmentOrder(Order order, FulfilmentPlan.Shipment shipment) {
+        Order shipmentOrder = new Order();
+        shipmentOrder.setIdentity(order.getIdentity());
+        shipmentOrder.setAccountId(order.getAccountId());
+        shipmentOrder.setShippingAddress(order.getShippingAddress());
+        shipmentOrder.setStatus(order.getStatus());
+        shipmentOrder.setPaymentId(order.getPaymentId());
+        shipmentOrder.setLineItems(new HashSet<>(shipment.getLineItems()));
+        return shipmentOrder;
+    }
 }
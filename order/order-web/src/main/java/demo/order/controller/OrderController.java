@@ -1,11 +1,12 @@
 package demo.order.controller;
 
+import demo.event.EventCursor;
 import demo.event.EventService;
-import demo.event.Events;
 import demo.order.domain.Order;
 import demo.order.domain.OrderService;
 import demo.order.domain.OrderStatus;
 import demo.order.event.OrderEvent;
+import demo.reservation.domain.ReservationStatus;
 import demo.reservation.domain.Reservations;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
@@ -66,8 +67,10 @@ public class OrderController {
     }
 
     @RequestMapping(path = "/orders/{id}/events")
-    public ResponseEntity getOrderEvents(@PathVariable Long id) {
-        return Optional.of(getOrderEventResources(id))
+    public ResponseEntity getOrderEvents(@PathVariable Long id,
+                                         @RequestParam(value = "after", required = false) Long after,
+                                         @RequestParam(value = "since", required = false) Long since) {
+        return Optional.of(EventCursor.find(eventService, id, after, since))
                 .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("Could not get order events"));
     }
@@ -142,8 +145,11 @@ public class OrderController {
     }
 
     @RequestMapping(path = "/orders/{id}/commands/completeReservation")
-    public ResponseEntity completeReservation(@PathVariable Long id) {
-        return Optional.ofNullable(orderService.get(id).completeReservation())
+    public ResponseEntity completeReservation(@PathVariable Long id, @RequestParam(value = "reservationId",
+            required = false) Long reservationId, @RequestParam(value = "reservationStatus", required = false)
+            ReservationStatus reservationStatus, @RequestParam(value = "quantity", required = false) Integer quantity) {
+        return Optional.ofNullable(orderService.get(id).completeReservation(reservationId, reservationStatus,
+                quantity))
                 .map(e -> new ResponseEntity<>(getOrderResource(e), HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("The command could not be applied"));
     }
@@ -260,10 +266,6 @@ public class OrderController {
         return eventService.findOne(eventId);
     }
 
-    private Events getOrderEventResources(Long id) {
-        return eventService.find(id);
-    }
-
     private LinkBuilder linkBuilder(String name, Long id) {
         Method method;
 
@@ -292,7 +294,8 @@ public class OrderController {
 
         if (!order.hasLink("events")) {
             // Add get events link
-            order.add(linkBuilder("getOrderEvents", order.getIdentity()).withRel("events"));
+            order.add(linkTo(OrderController.class).slash("orders").slash(order.getIdentity())
+                    .slash("events").withRel("events"));
         }
 
         if (!order.hasLink("reservations")) {
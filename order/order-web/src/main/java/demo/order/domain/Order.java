@@ -10,6 +10,7 @@ import demo.order.action.*;
 import demo.order.controller.OrderController;
 import demo.order.event.OrderEvent;
 import demo.payment.domain.Payment;
+import demo.reservation.domain.ReservationStatus;
 import demo.reservation.domain.Reservations;
 import org.springframework.hateoas.Link;
 
@@ -19,7 +20,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 @Entity(name = "orders")
 public class Order extends AbstractEntity<OrderEvent, Long> {
@@ -38,6 +39,15 @@ public class Order extends AbstractEntity<OrderEvent, Long> {
     @CollectionTable(name = "reservations")
     private List<Long> reservationIds = new ArrayList<>();
 
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "completed_reservations")
+    private Set<Long> completedReservationIds = new HashSet<>();
+
+    @JsonIgnore
+    @Embedded
+    private ReservationTally reservationTally;
+
     @OneToOne(cascade = CascadeType.ALL)
     private Address shippingAddress;
 
@@ -114,6 +124,28 @@ public class Order extends AbstractEntity<OrderEvent, Long> {
         this.reservationIds = reservationIds;
     }
 
+    /**
+     * Get the identifiers of the reservations that have been counted by the {@link ReservationTally} of the order,
+     * so that a reservation that completes more than once is only counted once.
+     *
+     * @return the identifiers of the completed reservations
+     */
+    public Set<Long> getCompletedReservationIds() {
+        return completedReservationIds;
+    }
+
+    public void setCompletedReservationIds(Set<Long> completedReservationIds) {
+        this.completedReservationIds = completedReservationIds;
+    }
+
+    public ReservationTally getReservationTally() {
+        return reservationTally;
+    }
+
+    public void setReservationTally(ReservationTally reservationTally) {
+        this.reservationTally = reservationTally;
+    }
+
     @JsonIgnore
     public Reservations getReservations() {
         return getAction(GetReservations.class)
@@ -157,9 +189,9 @@ public class Order extends AbstractEntity<OrderEvent, Long> {
     }
 
     @Command(method = "completeReservation", controller = OrderController.class)
-    public Order completeReservation() {
+    public Order completeReservation(Long reservationId, ReservationStatus reservationStatus, Integer quantity) {
         return getAction(CompleteReservation.class)
-                .apply(this);
+                .apply(this, reservationId, reservationStatus, quantity);
     }
 
     @Command(method = "completeOrder", controller = OrderController.class)
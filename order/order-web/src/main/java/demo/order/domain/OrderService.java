@@ -70,6 +70,7 @@ public class OrderService extends Service<Order, Long> {
         currentOrder.setLineItems(order.getLineItems());
         currentOrder.setShippingAddress(order.getShippingAddress());
         currentOrder.setStatus(order.getStatus());
+        currentOrder.setReservationTally(order.getReservationTally());
 
         return orderRepository.saveAndFlush(currentOrder);
     }
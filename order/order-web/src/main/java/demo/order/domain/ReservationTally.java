@@ -0,0 +1,83 @@
+package demo.order.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * Counts the units of an {@link Order} that are expected to be reserved, and the outcome of the reservations that
+ * have completed so far, so that the completion of the reservation of an order is checked without fetching all of
+ * its reservations from the warehouse service.
+ *
+ * @author Kenny Bastani
+ */
+@Embeddable
+public class ReservationTally {
+
+    @Column(name = "reservations_expected")
+    private Long expected;
+
+    @Column(name = "reservations_succeeded")
+    private Long succeeded;
+
+    @Column(name = "reservations_failed")
+    private Integer failed;
+
+    public ReservationTally() {
+    }
+
+    public ReservationTally(Long expected) {
+        this.expected = expected;
+        this.succeeded = 0L;
+        this.failed = 0;
+    }
+
+    /**
+     * @return the number of units that the reservations of the order must cover, or null if it is not tallied
+     */
+    public Long getExpected() {
+        return expected;
+    }
+
+    public void setExpected(Long expected) {
+        this.expected = expected;
+    }
+
+    /**
+     * @return the number of units that have been reserved
+     */
+    public Long getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(Long succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    /**
+     * @return the number of reservations that have failed
+     */
+    public Integer getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Integer failed) {
+        this.failed = failed;
+    }
+
+    public boolean isReserved() {
+        return expected != null && succeeded != null && succeeded >= expected;
+    }
+
+    public boolean isFailed() {
+        return failed != null && failed > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationTally{" +
+                "expected=" + expected +
+                ", succeeded=" + succeeded +
+                ", failed=" + failed +
+                '}';
+    }
+}
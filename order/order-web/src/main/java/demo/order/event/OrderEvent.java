@@ -11,7 +11,7 @@ import org.springframework.hateoas.Link;
 
 import javax.persistence.*;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 /**
  * The domain event {@link OrderEvent} tracks the type and state of events as applied to the {@link Order} domain
@@ -23,11 +23,13 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(indexes = {@Index(name = "IDX_ORDER_EVENT", columnList = "entity_id")})
+@Table(indexes = {@Index(name = "IDX_ORDER_EVENT", columnList = "entity_id, createdAt")})
 public class OrderEvent extends Event<Order, OrderEventType, Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_event")
+    @TableGenerator(name = "order_event", table = "id_generator", pkColumnValue = "order_event",
+            allocationSize = 50)
     private Long eventId;
 
     @Enumerated(EnumType.STRING)
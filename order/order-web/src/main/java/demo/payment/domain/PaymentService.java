@@ -1,7 +1,7 @@
 package demo.payment.domain;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import demo.domain.Service;
+import demo.client.RemoteService;
+import demo.client.ServiceClients;
 import org.apache.log4j.Logger;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.UriTemplate;
@@ -10,18 +10,13 @@ import org.springframework.http.RequestEntity;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
 @org.springframework.stereotype.Service
-public class PaymentService extends Service<Payment, Long> {
+public class PaymentService extends RemoteService<Payment, Long> {
 
     private final Logger log = Logger.getLogger(this.getClass());
-    private final RestTemplate restTemplate;
 
-    public PaymentService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public PaymentService(RestTemplate restTemplate, ServiceClients serviceClients) {
+        super(restTemplate, serviceClients.getExecutor("payment-web"));
     }
 
     @Override
@@ -81,17 +76,4 @@ public class PaymentService extends Service<Payment, Long> {
 
         return true;
     }
-
-    private String getHttpStatusMessage(RestClientResponseException ex) {
-        Map<String, String> errorMap = new HashMap<>();
-        try {
-            errorMap = new ObjectMapper()
-                    .readValue(ex.getResponseBodyAsString(), errorMap
-                            .getClass());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return errorMap.getOrDefault("message", null);
-    }
 }
@@ -16,6 +16,7 @@ public class Reservation extends Aggregate<ReservationEvent, Long> {
     private List<ReservationEvent> events = new ArrayList<>();
     private String productId;
     private Long orderId;
+    private Integer quantity;
 
     public Reservation() {
     }
@@ -54,6 +55,14 @@ public class Reservation extends Aggregate<ReservationEvent, Long> {
         this.productId = productId;
     }
 
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
     @Override
     public List<ReservationEvent> getEvents() {
         return events;
@@ -87,6 +96,7 @@ public class Reservation extends Aggregate<ReservationEvent, Long> {
                 ", events=" + events +
                 ", productId='" + productId + '\'' +
                 ", orderId=" + orderId +
+                ", quantity=" + quantity +
                 "} " + super.toString();
     }
 }
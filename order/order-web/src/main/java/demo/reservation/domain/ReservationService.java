@@ -1,7 +1,7 @@
 package demo.reservation.domain;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import demo.domain.Service;
+import demo.client.RemoteService;
+import demo.client.ServiceClients;
 import org.apache.log4j.Logger;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.UriTemplate;
@@ -10,18 +10,13 @@ import org.springframework.http.RequestEntity;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
 @org.springframework.stereotype.Service
-public class ReservationService extends Service<Reservation, Long> {
+public class ReservationService extends RemoteService<Reservation, Long> {
 
     private final Logger log = Logger.getLogger(this.getClass());
-    private final RestTemplate restTemplate;
 
-    public ReservationService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public ReservationService(RestTemplate restTemplate, ServiceClients serviceClients) {
+        super(restTemplate, serviceClients.getExecutor("warehouse-web"));
     }
 
     @Override
@@ -96,17 +91,4 @@ public class ReservationService extends Service<Reservation, Long> {
 
         return result;
     }
-
-    private String getHttpStatusMessage(RestClientResponseException ex) {
-        Map<String, String> errorMap = new HashMap<>();
-        try {
-            errorMap = new ObjectMapper()
-                    .readValue(ex.getResponseBodyAsString(), errorMap
-                            .getClass());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return errorMap.getOrDefault("message", null);
-    }
 }
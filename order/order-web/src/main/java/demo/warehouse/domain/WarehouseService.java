@@ -1,7 +1,7 @@
 package demo.warehouse.domain;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import demo.domain.Service;
+import demo.client.RemoteService;
+import demo.client.ServiceClients;
 import demo.order.domain.Order;
 import demo.warehouse.exception.WarehouseNotFoundException;
 import org.apache.log4j.Logger;
@@ -9,27 +9,29 @@ import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.TemplateVariable;
 import org.springframework.hateoas.UriTemplate;
 import org.springframework.hateoas.client.Traverson;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
 import java.net.URI;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @org.springframework.stereotype.Service
-public class WarehouseService extends Service<Warehouse, Long> {
+public class WarehouseService extends RemoteService<Warehouse, Long> {
 
     private final Logger log = Logger.getLogger(this.getClass());
-    private final RestTemplate restTemplate;
+    private final AsyncRestTemplate asyncRestTemplate;
 
-    public WarehouseService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    public WarehouseService(RestTemplate restTemplate, AsyncRestTemplate asyncRestTemplate,
+            ServiceClients serviceClients) {
+        super(restTemplate, serviceClients.getExecutor("warehouse-web"));
+        this.asyncRestTemplate = asyncRestTemplate;
     }
 
     @Override
@@ -117,6 +119,86 @@ public class WarehouseService extends Service<Warehouse, Long> {
         return result;
     }
 
+    /**
+     * Plans the shipments of the supplied {@link Order} from one or more {@link Warehouse}s.
+     *
+     * @param order is the {@link Order} containing line items to split across warehouses
+     * @return a {@link FulfilmentPlan} with a shipment for each warehouse and the line items that are unfulfilled
+     */
+    public FulfilmentPlan planFulfilment(Order order) {
+        FulfilmentPlan result;
+        try {
+            result = restTemplate.postForObject("http://warehouse-web/v1/warehouses/search/planFulfilment", order,
+                    FulfilmentPlan.class);
+        } catch (RestClientResponseException ex) {
+            log.error("Plan fulfilment failed", ex);
+            throw new IllegalStateException(getHttpStatusMessage(ex), ex);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reserves inventory for the supplied {@link Order} from the {@link Warehouse} with the supplied identifier.
+     *
+     * @param warehouseId is the unique identifier of the {@link Warehouse}
+     * @param order       is the {@link Order} containing the line items to reserve from the {@link Warehouse}
+     * @return the {@link Warehouse} that reserved the inventory
+     */
+    public Warehouse reserveInventory(Long warehouseId, Order order) {
+        Warehouse result;
+        try {
+            result = restTemplate.postForObject(new UriTemplate("http://warehouse-web/v1/warehouses/{id}/commands" +
+                    "/reserveOrder")
+                    .with("id", TemplateVariable.VariableType.PATH_VARIABLE)
+                    .expand(warehouseId), order, Warehouse.class);
+        } catch (RestClientResponseException ex) {
+            log.error("Reserve inventory command failed", ex);
+            throw new IllegalStateException(getHttpStatusMessage(ex), ex);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reserves inventory for the supplied {@link Order} from the {@link Warehouse} with the supplied identifier
+     * without blocking the caller. The request is sent with the non-blocking client, so a thread is not held for
+     * each shipment while the warehouse reserves its inventory.
+     *
+     * @param warehouseId is the unique identifier of the {@link Warehouse}
+     * @param order       is the {@link Order} containing the line items to reserve from the {@link Warehouse}
+     * @return a future of the {@link Warehouse} that reserved the inventory
+     */
+    public CompletableFuture<Warehouse> reserveInventoryAsync(Long warehouseId, Order order) {
+        return async(asyncRestTemplate.postForEntity(new UriTemplate("http://warehouse-web/v1/warehouses/{id}" +
+                "/commands/reserveOrder")
+                .with("id", TemplateVariable.VariableType.PATH_VARIABLE)
+                .expand(warehouseId), new HttpEntity<>(order), Warehouse.class), "Reserve inventory command failed");
+    }
+
+    /**
+     * Releases the inventory that the {@link Warehouse} with the supplied identifier reserved for an {@link Order}.
+     *
+     * @param warehouseId is the unique identifier of the {@link Warehouse}
+     * @param orderId     is the unique identifier of the {@link Order}
+     * @return the {@link Warehouse} that released the inventory
+     */
+    public Warehouse releaseInventory(Long warehouseId, Long orderId) {
+        Warehouse result;
+        try {
+            result = restTemplate.postForObject(new UriTemplate("http://warehouse-web/v1/warehouses/{id}/commands" +
+                    "/releaseOrder")
+                    .with("id", TemplateVariable.VariableType.PATH_VARIABLE)
+                    .with("orderId", TemplateVariable.VariableType.REQUEST_PARAM)
+                    .expand(warehouseId, orderId), null, Warehouse.class);
+        } catch (RestClientResponseException ex) {
+            log.error("Release inventory command failed", ex);
+            throw new IllegalStateException(getHttpStatusMessage(ex), ex);
+        }
+
+        return result;
+    }
+
     public Warehouse reserveInventory(Warehouse warehouse, Order order) throws WarehouseNotFoundException {
         Warehouse result;
 
@@ -142,17 +224,4 @@ public class WarehouseService extends Service<Warehouse, Long> {
 
         return result;
     }
-
-    private String getHttpStatusMessage(RestClientResponseException ex) {
-        Map<String, String> errorMap = new HashMap<>();
-        try {
-            errorMap = new ObjectMapper()
-                    .readValue(ex.getResponseBodyAsString(), errorMap
-                            .getClass());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return errorMap.getOrDefault("message", null);
-    }
 }
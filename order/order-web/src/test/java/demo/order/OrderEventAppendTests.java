@@ -0,0 +1,132 @@
+package demo.order;
+
+import demo.config.JpaConfig;
+import demo.event.BasicEventService;
+import demo.event.EventService;
+import demo.event.EventSource;
+import demo.order.domain.Order;
+import demo.order.domain.OrderModule;
+import demo.order.domain.OrderService;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventRepository;
+import demo.order.event.OrderEventType;
+import demo.payment.domain.PaymentService;
+import org.apache.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Compares the number of SQL statements prepared against H2 when events are appended to an {@link Order} one at a
+ * time and when they are appended as a batch.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, OrderService.class, OrderModule.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class OrderEventAppendTests {
+
+    private static final Logger log = Logger.getLogger(OrderEventAppendTests.class);
+    private static final int EVENT_COUNT = 50;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void appendEventsBatchesStatements() {
+        Order order = orderService.create(new Order());
+        statistics.clear();
+
+        for (OrderEvent event : getEvents(order)) {
+            order.appendEvent(event);
+        }
+
+        long appendEventStatements = statistics.getPrepareStatementCount();
+
+        Order batchOrder = orderService.create(new Order());
+        statistics.clear();
+
+        List<OrderEvent> events = batchOrder.appendEvents(getEvents(batchOrder));
+        long appendEventsStatements = statistics.getPrepareStatementCount();
+
+        log.info(String.format("Statements per event: appendEvent %.2f, appendEvents %.2f",
+                (double) appendEventStatements / EVENT_COUNT, (double) appendEventsStatements / EVENT_COUNT));
+
+        assertEquals(EVENT_COUNT, events.size());
+        assertEquals(EVENT_COUNT, orderEventRepository.findEventsByEntityId(batchOrder.getIdentity(),
+                null).getTotalElements());
+        assertTrue(appendEventsStatements < appendEventStatements);
+
+        // Event ids are allocated from a table, so the event inserts are batched as well
+        assertTrue(appendEventsStatements < EVENT_COUNT);
+    }
+
+    private List<OrderEvent> getEvents(Order order) {
+        List<OrderEvent> events = new ArrayList<>();
+
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            events.add(new OrderEvent(OrderEventType.RESERVATION_ADDED, order));
+        }
+
+        return events;
+    }
+
+    @TestConfiguration
+    static class EventServiceConfig {
+
+        @Bean
+        public EventService<OrderEvent, Long> eventService(OrderEventRepository orderEventRepository) {
+            return new BasicEventService<>(orderEventRepository, new EventSource(mock(MessageChannel.class)),
+                    new RestTemplate());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package demo.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.config.JpaConfig;
+import demo.event.BasicEventService;
+import demo.event.EventOutboxAutoConfig;
+import demo.event.EventOutboxRelay;
+import demo.event.EventService;
+import demo.event.EventSource;
+import demo.event.OutboxMessageRepository;
+import demo.order.domain.Order;
+import demo.order.domain.OrderModule;
+import demo.order.domain.OrderService;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventRepository;
+import demo.order.event.OrderEventType;
+import demo.payment.domain.PaymentService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that asynchronous {@link OrderEvent}s are written to the event outbox with the event, and that they are
+ * published to the message channel by the relay.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, OrderService.class, OrderModule.class, EventOutboxAutoConfig.class})
+@TestPropertySource(properties = {"events.outbox.enabled=true", "events.outbox.linger-ms=600000"})
+public class OrderEventOutboxTests {
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EventOutboxRelay eventOutboxRelay;
+
+    @Autowired
+    private QueueChannel output;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        output.clear();
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void sendAsyncEventIsRelayedFromOutbox() {
+        Order order = orderService.create(new Order());
+
+        assertTrue(order.sendAsyncEvent(new OrderEvent(OrderEventType.ORDER_CREATED)));
+
+        // The message is not sent in the request that raised the event
+        assertEquals(0, output.getQueueSize());
+        assertEquals(1, outboxMessageRepository.count());
+        assertEquals(order.getIdentity().toString(), outboxMessageRepository.findFirstByOrderByIdAsc()
+                .getAggregateId());
+
+        long published = eventOutboxRelay.getPublished();
+        assertEquals(1, eventOutboxRelay.relay());
+
+        Message<?> message = output.receive(0);
+        assertTrue(message.getPayload().toString().contains(OrderEventType.ORDER_CREATED.toString()));
+        assertEquals(order.getIdentity().toString(), message.getHeaders()
+                .get(BasicEventService.AGGREGATE_ID_HEADER));
+        assertEquals(0, outboxMessageRepository.count());
+        assertEquals(published + 1, eventOutboxRelay.getPublished());
+    }
+
+    @Test
+    public void sendAsyncEventsAreRelayedInOrder() {
+        Order order = orderService.create(new Order());
+
+        order.sendAsyncEvents(Arrays.asList(new OrderEvent(OrderEventType.ORDER_CREATED),
+                new OrderEvent(OrderEventType.ACCOUNT_CONNECTED)));
+
+        assertEquals(2, eventOutboxRelay.relay());
+        assertTrue(output.receive(0).getPayload().toString().contains(OrderEventType.ORDER_CREATED.toString()));
+        assertTrue(output.receive(0).getPayload().toString().contains(OrderEventType.ACCOUNT_CONNECTED.toString()));
+        assertNull(outboxMessageRepository.findFirstByOrderByIdAsc());
+    }
+
+    @Test
+    public void messagesClaimedByAnotherRelayAreSkippedUntilTheClaimExpires() {
+        Order order = orderService.create(new Order());
+        order.sendAsyncEvent(new OrderEvent(OrderEventType.ORDER_CREATED));
+        List<Long> ids = Collections.singletonList(outboxMessageRepository.findFirstByOrderByIdAsc().getId());
+
+        // The relay of another instance is publishing the message
+        long now = System.currentTimeMillis();
+        assertEquals(1, outboxMessageRepository.claim(ids, "other-relay", now, 0L));
+
+        assertEquals(0, eventOutboxRelay.relay());
+        assertEquals(0, output.getQueueSize());
+        assertEquals(1, outboxMessageRepository.count());
+
+        // The other relay stopped before it removed the message, so its claim expires
+        assertEquals(1, outboxMessageRepository.claim(ids, "other-relay", now - 60000L, 0L));
+
+        assertEquals(1, eventOutboxRelay.relay());
+        assertEquals(1, output.getQueueSize());
+        assertEquals(0, outboxMessageRepository.count());
+    }
+
+    @TestConfiguration
+    static class EventServiceConfig {
+
+        @Bean
+        public QueueChannel output() {
+            return new QueueChannel();
+        }
+
+        @Bean
+        public ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        public EventService<OrderEvent, Long> eventService(OrderEventRepository orderEventRepository,
+                MessageChannel output) {
+            return new BasicEventService<>(orderEventRepository, new EventSource(output), new RestTemplate());
+        }
+    }
+}
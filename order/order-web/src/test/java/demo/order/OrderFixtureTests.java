@@ -0,0 +1,124 @@
+package demo.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.domain.CommandRegistry;
+import demo.event.Event;
+import demo.event.Events;
+import demo.order.domain.Address;
+import demo.order.domain.AddressType;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.order.domain.OrderStatus;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.core.EvoInflectorRelProvider;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the order fixture of the benchmarks declares the same command links as the {@link Order} aggregate of
+ * this service, and that the fixture and its events serialize to the same HAL resources as the real classes.
+ */
+public class OrderFixtureTests {
+
+    private ObjectMapper objectMapper;
+
+    @Before
+    public void setup() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // The benchmarks serialize their resources with the same mapper
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new EvoInflectorRelProvider(), null, null));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void fixtureCommandsMatchOrderCommands() {
+        assertThat(CommandRegistry.getLinks(demo.benchmark.order.Order.class, 1L))
+                .containsExactlyInAnyOrder(CommandRegistry.getLinks(Order.class, 1L).toArray(new Link[0]));
+    }
+
+    @Test
+    public void fixtureSerializesLikeOrder() {
+        assertThat(serialize(fixtureOrder())).isEqualTo(serialize(order()));
+    }
+
+    @Test
+    public void fixtureEventsSerializeLikeOrderEvents() {
+        demo.benchmark.order.Order fixtureOrder = fixtureOrder();
+        List<Event<demo.benchmark.order.Order, demo.benchmark.order.OrderEventType, Long>> fixtureEvents =
+                new ArrayList<>();
+        fixtureEvents.add(new demo.benchmark.order.OrderEvent(1L, demo.benchmark.order.OrderEventType.ORDER_CREATED,
+                fixtureOrder));
+        fixtureEvents.add(new demo.benchmark.order.OrderEvent(2L,
+                demo.benchmark.order.OrderEventType.ACCOUNT_CONNECTED, fixtureOrder));
+
+        Order order = order();
+        List<Event<Order, OrderEventType, Long>> events = new ArrayList<>();
+        events.add(orderEvent(1L, OrderEventType.ORDER_CREATED, order));
+        events.add(orderEvent(2L, OrderEventType.ACCOUNT_CONNECTED, order));
+
+        assertThat(serialize(new Events<>(1L, fixtureEvents))).isEqualTo(serialize(new Events<>(1L, events)));
+    }
+
+    private JsonNode serialize(Object resource) {
+        return objectMapper.valueToTree(resource);
+    }
+
+    private demo.benchmark.order.Order fixtureOrder() {
+        demo.benchmark.order.Order order = new demo.benchmark.order.Order(1L, 1L);
+        order.setStatus(demo.benchmark.order.OrderStatus.RESERVATION_PENDING);
+        order.setCreatedAt(1L);
+        order.setLastModified(1L);
+
+        demo.benchmark.order.Address address = new demo.benchmark.order.Address("1600 Amphitheatre Parkway", null,
+                "CA", "Mountain View", "United States", 94043);
+        address.setAddressType(demo.benchmark.order.AddressType.SHIPPING);
+        order.setShippingAddress(address);
+
+        // Line items are kept in a set, so a single item serializes in a predictable order
+        order.getLineItems().add(new demo.benchmark.order.LineItem("Product 0", "SKU-0", 2, 9.99, .06));
+        return order;
+    }
+
+    private Order order() {
+        Address address = new Address("1600 Amphitheatre Parkway", null, "CA", "Mountain View", "United States",
+                94043);
+        address.setAddressType(AddressType.SHIPPING);
+
+        Order order = new Order(1L, address);
+        order.setIdentity(1L);
+        order.setStatus(OrderStatus.RESERVATION_PENDING);
+        order.setCreatedAt(1L);
+        order.setLastModified(1L);
+        order.getLineItems().add(new LineItem("Product 0", "SKU-0", 2, 9.99, .06));
+        return order;
+    }
+
+    private OrderEvent orderEvent(Long eventId, OrderEventType type, Order order) {
+        OrderEvent event = new OrderEvent(type, order);
+        event.setEventId(eventId);
+        event.setCreatedAt(eventId);
+        event.setLastModified(eventId);
+        return event;
+    }
+}
@@ -0,0 +1,115 @@
+package demo.order;
+
+import demo.config.JpaConfig;
+import demo.event.BasicEventService;
+import demo.event.EventService;
+import demo.event.EventSource;
+import demo.order.action.CompleteReservation;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.order.domain.OrderModule;
+import demo.order.domain.OrderService;
+import demo.order.domain.OrderStatus;
+import demo.order.domain.ReservationTally;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventRepository;
+import demo.payment.domain.PaymentService;
+import demo.reservation.domain.ReservationStatus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the reservation of an {@link Order} is completed from its {@link ReservationTally}, without fetching
+ * its reservations from the warehouse service.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, OrderService.class, OrderModule.class, CompleteReservation.class,
+        OrderReservationTallyTests.EventServiceConfig.class})
+public class OrderReservationTallyTests {
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void orderIsReservedOnceAllUnitsSucceeded() {
+        Order order = createPendingOrder();
+
+        order = order.completeReservation(1L, ReservationStatus.RESERVATION_SUCCEEDED, null);
+        assertEquals(OrderStatus.RESERVATION_PENDING, order.getStatus());
+
+        // A redelivered reservation is only counted once
+        order = order.completeReservation(1L, ReservationStatus.RESERVATION_SUCCEEDED, null);
+        assertEquals(OrderStatus.RESERVATION_PENDING, order.getStatus());
+        assertEquals(Long.valueOf(1L), order.getReservationTally().getSucceeded());
+
+        order = order.completeReservation(2L, ReservationStatus.RESERVATION_SUCCEEDED, 2);
+        assertEquals(OrderStatus.RESERVATION_SUCCEEDED, order.getStatus());
+        assertEquals(Long.valueOf(3L), orderService.get(order.getIdentity()).getReservationTally().getSucceeded());
+    }
+
+    @Test
+    public void orderFailsOnFirstFailedReservation() {
+        Order order = createPendingOrder();
+
+        order = order.completeReservation(1L, ReservationStatus.RESERVATION_SUCCEEDED, null);
+        order = order.completeReservation(2L, ReservationStatus.RESERVATION_FAILED, null);
+
+        assertEquals(OrderStatus.RESERVATION_FAILED, order.getStatus());
+        assertEquals(Integer.valueOf(1), order.getReservationTally().getFailed());
+    }
+
+    private Order createPendingOrder() {
+        Order order = new Order();
+        order.setLineItems(new HashSet<>(Arrays.asList(new LineItem("Item 1", "SKU-001", 2, 10.0, 0.0),
+                new LineItem("Item 2", "SKU-002", 1, 10.0, 0.0))));
+        order.setStatus(OrderStatus.RESERVATION_PENDING);
+        order.setReservationTally(new ReservationTally(3L));
+        return orderService.create(order);
+    }
+
+    @TestConfiguration
+    static class EventServiceConfig {
+
+        @Bean
+        public EventService<OrderEvent, Long> eventService(OrderEventRepository orderEventRepository) {
+            return new BasicEventService<>(orderEventRepository, new EventSource(new QueueChannel()),
+                    new RestTemplate());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package demo.order;
+
+import demo.config.JpaConfig;
+import demo.event.BasicEventService;
+import demo.event.EventService;
+import demo.event.EventSource;
+import demo.order.action.ReserveInventory;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.order.domain.OrderModule;
+import demo.order.domain.OrderService;
+import demo.order.domain.OrderStatus;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventRepository;
+import demo.payment.domain.PaymentService;
+import demo.warehouse.domain.FulfilmentPlan;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.domain.WarehouseService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that the shipments of an {@link Order} that were reserved are released when the reservation of another
+ * shipment fails.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, OrderService.class, OrderModule.class, ReserveInventory.class,
+        OrderReserveInventoryTests.EventServiceConfig.class})
+public class OrderReserveInventoryTests {
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @MockBean
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void failedShipmentReleasesReservedShipments() {
+        Order order = new Order();
+        order.setLineItems(new HashSet<>(Arrays.asList(new LineItem("Item 1", "SKU-001", 1, 10.0, 0.0),
+                new LineItem("Item 2", "SKU-002", 1, 10.0, 0.0))));
+        order.setStatus(OrderStatus.ACCOUNT_CONNECTED);
+        order = orderService.create(order);
+
+        FulfilmentPlan plan = new FulfilmentPlan();
+        plan.setShipments(Arrays.asList(shipment(1L, new LineItem("Item 1", "SKU-001", 1, 10.0, 0.0)),
+                shipment(2L, new LineItem("Item 2", "SKU-002", 1, 10.0, 0.0))));
+
+        CompletableFuture<Warehouse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Could not reserve inventory"));
+
+        when(warehouseService.planFulfilment(any(Order.class))).thenReturn(plan);
+        when(warehouseService.reserveInventoryAsync(eq(1L), any(Order.class)))
+                .thenReturn(CompletableFuture.completedFuture(new Warehouse()));
+        when(warehouseService.reserveInventoryAsync(eq(2L), any(Order.class))).thenReturn(failed);
+
+        order = order.reserveInventory();
+
+        assertEquals(OrderStatus.ACCOUNT_CONNECTED, order.getStatus());
+        verify(warehouseService).releaseInventory(1L, order.getIdentity());
+        verify(warehouseService, never()).releaseInventory(eq(2L), anyLong());
+    }
+
+    private static FulfilmentPlan.Shipment shipment(Long warehouseId, LineItem lineItem) {
+        FulfilmentPlan.Shipment shipment = new FulfilmentPlan.Shipment();
+        shipment.setWarehouseId(warehouseId);
+        shipment.setLineItems(Collections.singletonList(lineItem));
+        return shipment;
+    }
+
+    @TestConfiguration
+    static class EventServiceConfig {
+
+        @Bean
+        public EventService<OrderEvent, Long> eventService(OrderEventRepository orderEventRepository) {
+            return new BasicEventService<>(orderEventRepository, new EventSource(new QueueChannel()),
+                    new RestTemplate());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package demo.config;
+
+import demo.order.snapshot.InMemorySnapshotStore;
+import demo.order.snapshot.SnapshotStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the {@link SnapshotStore} used to resume state machine replication from the last applied event
+ * of an order. Register a different {@link SnapshotStore} bean to persist snapshots outside of this process.
+ *
+ * @author kbastani
+ */
+@Configuration
+public class SnapshotConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(SnapshotStore.class)
+    public SnapshotStore snapshotStore(@Value("${order.snapshot.capacity:10000}") int capacity) {
+        return new InMemorySnapshotStore(capacity);
+    }
+}
@@ -1,6 +1,7 @@
 package demo.config;
 
 import demo.function.*;
+import demo.hypermedia.HypermediaClient;
 import demo.order.domain.Order;
 import demo.order.domain.OrderStatus;
 import demo.order.event.OrderEvent;
@@ -11,20 +12,21 @@ import demo.payment.domain.Payment;
 import demo.reservation.domain.Reservation;
 import demo.reservation.domain.ReservationStatus;
 import demo.reservation.domain.Reservations;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 
-import java.net.URI;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -45,6 +47,37 @@ import java.util.Map;
 public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderStatus, OrderEventType> {
 
     final private Logger log = Logger.getLogger(StateMachineConfig.class);
+    final private HypermediaClient hypermediaClient;
+
+    public StateMachineConfig(HypermediaClient hypermediaClient) {
+        this.hypermediaClient = hypermediaClient;
+    }
+
+    /**
+     * Creates a bounded pool of pre-built state machines that are reused for each replicated {@link OrderEvent}.
+     *
+     * @param stateMachineFactory is the factory used to build the state machines of the pool
+     * @param poolSize            is the number of pre-built state machines
+     * @return the {@link StateMachinePool} for {@link Order} state machines
+     */
+    @Bean
+    public StateMachinePool<OrderStatus, OrderEventType> orderStateMachinePool(
+            StateMachineFactory<OrderStatus, OrderEventType> stateMachineFactory,
+            @Value("${statemachine.pool.size:20}") int poolSize) {
+        return new StateMachinePool<>("order", stateMachineFactory, poolSize);
+    }
+
+    /**
+     * Creates the metrics of the replication of {@link Order} aggregates from their event logs.
+     *
+     * @param logLengthThreshold is the length of an event log above which a warning is logged
+     * @return the {@link ReplayMetrics} for {@link Order} aggregates
+     */
+    @Bean
+    public ReplayMetrics<OrderEventType> orderReplayMetrics(
+            @Value("${replay.log-length.warn-threshold:500}") int logLengthThreshold) {
+        return new ReplayMetrics<>("order", logLengthThreshold);
+    }
 
     /**
      * Configures the initial conditions of a new in-memory {@link StateMachine} for {@link Order}.
@@ -188,14 +221,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
                 new OrderCreated(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
                     // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Order.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("order").getHref(), Order.class);
                 }));
     }
 
@@ -205,14 +231,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
                 new PaymentPending(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
                     // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Order.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("order").getHref(), Order.class);
                 }));
     }
 
@@ -222,14 +241,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
                 new ReservationPending(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
                     // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Order.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("order").getHref(), Order.class);
                 }));
     }
 
@@ -238,38 +250,25 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
         return context -> applyEvent(context,
                 new PaymentFailed(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
-                    // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
+                    String orderHref = event.getLink("order").getHref();
 
                     // Release the inventory reservations
-                    Reservations reservations = traverson.follow("self", "reservations")
-                            .toObject(Reservations.class);
+                    Reservations reservations = hypermediaClient.follow(orderHref, Reservations.class,
+                            "reservations");
 
                     reservations.getContent().stream()
                             .filter(r -> r.getStatus() == ReservationStatus.RESERVATION_SUCCEEDED)
                             .parallel()
-                            .forEach(r -> {
-                                Traverson res = new Traverson(
-                                        URI.create(r.getLink("self").getHref()),
-                                        MediaTypes.HAL_JSON
-                                );
-
-                                res.follow("self", "commands", "releaseInventory")
-                                        .toObject(Reservation.class);
-                            });
+                            .forEach(r -> hypermediaClient.follow(r.getLink("self").getHref(), Reservation.class,
+                                    "commands", "releaseInventory"));
 
-                    return traverson.follow("self", "commands", "completeOrder")
-                            .toEntity(Order.class)
-                            .getBody();
+                    return hypermediaClient.follow(orderHref, Order.class, "commands", "completeOrder");
                 }));
     }
 
     @Bean
     public Action<OrderStatus, OrderEventType> paymentSucceeded() {
-        return context -> applyEvent(context, new PaymentSucceeded(context));
+        return context -> applyEvent(context, new PaymentSucceeded(context, hypermediaClient));
     }
 
     @Bean
@@ -278,15 +277,9 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
                 new PaymentConnected(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
 
-                    // Create a traverson for the root order
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
                     // Traverse to the process payment link
-                    return traverson.follow("self", "commands", "processPayment")
-                            .toObject(Order.class);
+                    return hypermediaClient.follow(event.getLink("order").getHref(), Order.class, "commands",
+                            "processPayment");
                 }));
     }
 
@@ -295,35 +288,23 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
         return context -> applyEvent(context,
                 new PaymentCreated(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
-                    // Get the order resource for the event
-                    Traverson paymentResource = new Traverson(
-                            URI.create(event.getLink("payment").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    Traverson orderResource = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
+                    String orderHref = event.getLink("order").getHref();
 
-                    Order order = orderResource.follow("self")
-                            .toObject(Order.class);
+                    // Get the order resource for the event
+                    Order order = hypermediaClient.get(orderHref, Order.class);
 
                     Map<String, Object> template = new HashMap<>();
                     template.put("orderId", order.getIdentity());
 
                     // Connect payment to order
-                    Payment payment = paymentResource.follow("self", "commands", "connectOrder")
-                            .withTemplateParameters(template)
-                            .toObject(Payment.class);
+                    Payment payment = hypermediaClient.follow(event.getLink("payment").getHref(), Payment.class,
+                            template, "commands", "connectOrder");
 
                     template = new HashMap<>();
                     template.put("paymentId", payment.getPaymentId());
 
                     // Connect order to payment
-                    order = orderResource.follow("commands", "connectPayment")
-                            .withTemplateParameters(template)
-                            .toObject(Order.class);
+                    order = hypermediaClient.follow(orderHref, Order.class, template, "commands", "connectPayment");
 
                     return order;
                 }));
@@ -335,15 +316,8 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
                 new ReservationAdded(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
 
-                    // Create a traverson for the root order
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Order.class)
-                            .getBody();
+                    // Get the order resource for the event
+                    return hypermediaClient.get(event.getLink("order").getHref(), Order.class);
                 }));
     }
 
@@ -352,15 +326,9 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
         return context -> applyEvent(context,
                 new ReservationSucceeded(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
-                    // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
                     // Create a payment
-                    return traverson.follow("self", "commands", "createPayment")
-                            .toObject(Order.class);
+                    return hypermediaClient.follow(event.getLink("order").getHref(), Order.class, "commands",
+                            "createPayment");
                 }));
     }
 
@@ -369,32 +337,21 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
         return context -> applyEvent(context,
                 new ReservationFailed(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
-                    // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
+                    String orderHref = event.getLink("order").getHref();
 
-                    Order order = traverson.follow("self", "commands", "completeOrder")
-                            .toEntity(Order.class)
-                            .getBody();
+                    Order order = hypermediaClient.follow(orderHref, Order.class, "commands", "completeOrder");
 
                     // Release the reservations
-                    Reservations reservations = traverson.follow("self", "reservations")
-                            .toObject(Reservations.class);
+                    Reservations reservations = hypermediaClient.follow(orderHref, Reservations.class,
+                            "reservations");
 
                     reservations.getContent().stream()
                             .filter(r -> r.getStatus() != ReservationStatus.RESERVATION_FAILED)
                             .parallel()
                             .forEach(r -> {
                                 try {
-                                    Traverson res = new Traverson(
-                                            URI.create(r.getLink("self").getHref()),
-                                            MediaTypes.HAL_JSON
-                                    );
-
-                                    res.follow("self", "commands", "releaseInventory")
-                                            .toObject(Reservation.class);
+                                    hypermediaClient.follow(r.getLink("self").getHref(), Reservation.class,
+                                            "commands", "releaseInventory");
                                 } catch (Exception ex) {
                                     log.error("Could not release inventory for reservation", ex);
                                 }
@@ -410,26 +367,20 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<OrderS
         return context -> applyEvent(context,
                 new AccountConnected(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("order").getHref());
-                    // Get the order resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
                     // Reserve inventory for order
-                    return traverson.follow("self", "commands", "reserveInventory")
-                            .toObject(Order.class);
+                    return hypermediaClient.follow(event.getLink("order").getHref(), Order.class, "commands",
+                            "reserveInventory");
                 }));
     }
 
     @Bean
     public Action<OrderStatus, OrderEventType> orderFailed() {
-        return context -> applyEvent(context, new OrderFailed(context));
+        return context -> applyEvent(context, new OrderFailed(context, hypermediaClient));
     }
 
     @Bean
     public Action<OrderStatus, OrderEventType> orderSucceeded() {
-        return context -> applyEvent(context, new OrderSucceeded(context));
+        return context -> applyEvent(context, new OrderSucceeded(context, hypermediaClient));
     }
 
 }
@@ -1,27 +1,21 @@
 package demo.function;
 
+import demo.hypermedia.HypermediaClient;
 import demo.order.domain.Order;
 import demo.order.domain.OrderStatus;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEventType;
 import org.apache.log4j.Logger;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 
-import java.net.URI;
-import java.util.function.Function;
-
 public class OrderFailed extends OrderFunction {
 
     final private Logger log = Logger.getLogger(OrderFailed.class);
+    final private HypermediaClient hypermediaClient;
 
-    public OrderFailed(StateContext<OrderStatus, OrderEventType> context) {
-        this(context, null);
-    }
-
-    public OrderFailed(StateContext<OrderStatus, OrderEventType> context, Function<OrderEvent, Order> lambda) {
-        super(context, lambda);
+    public OrderFailed(StateContext<OrderStatus, OrderEventType> context, HypermediaClient hypermediaClient) {
+        super(context, null);
+        this.hypermediaClient = hypermediaClient;
     }
 
     /**
@@ -36,13 +30,8 @@ public class OrderFailed extends OrderFunction {
 
         log.info("Executing workflow for order failed...");
 
-        // Create a traverson for the root order
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("order").getHref()),
-                MediaTypes.HAL_JSON
-        );
-
-        order = traverson.follow("self").toObject(Order.class);
+        // Get the order resource attached to the event
+        order = hypermediaClient.get(event.getLink("order").getHref(), Order.class);
 
         context.getExtendedState().getVariables().put("order", order);
 
@@ -1,29 +1,21 @@
 package demo.function;
 
+import demo.hypermedia.HypermediaClient;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEventType;
 import demo.order.domain.Order;
 import demo.order.domain.OrderStatus;
 import org.apache.log4j.Logger;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
-import org.springframework.http.RequestEntity;
 import org.springframework.statemachine.StateContext;
-import org.springframework.web.client.RestTemplate;
-
-import java.net.URI;
-import java.util.function.Function;
 
 public class PaymentSucceeded extends OrderFunction {
 
     final private Logger log = Logger.getLogger(PaymentSucceeded.class);
+    final private HypermediaClient hypermediaClient;
 
-    public PaymentSucceeded(StateContext<OrderStatus, OrderEventType> context) {
-        this(context, null);
-    }
-
-    public PaymentSucceeded(StateContext<OrderStatus, OrderEventType> context, Function<OrderEvent, Order> lambda) {
-        super(context, lambda);
+    public PaymentSucceeded(StateContext<OrderStatus, OrderEventType> context, HypermediaClient hypermediaClient) {
+        super(context, null);
+        this.hypermediaClient = hypermediaClient;
     }
 
     /**
@@ -38,23 +30,15 @@ public class PaymentSucceeded extends OrderFunction {
 
         log.info("Executing workflow for payment succeeded...");
 
-        // Create a traverson for the root order
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("order").getHref()),
-                MediaTypes.HAL_JSON
-        );
-
         // Get the order resource attached to the event
-        order = traverson.follow("self")
-                .toEntity(Order.class)
-                .getBody();
+        order = hypermediaClient.get(event.getLink("order").getHref(), Order.class);
 
         // Set the order to a pending state
         order = setOrderPaymentSucceededStatus(event, order);
 
         if (order.getStatus() == OrderStatus.PAYMENT_SUCCEEDED) {
-            order = traverson.follow("self", "commands", "completeOrder")
-                    .toObject(Order.class);
+            order = hypermediaClient.follow(event.getLink("order").getHref(), Order.class, "commands",
+                    "completeOrder");
         }
 
         context.getExtendedState().getVariables().put("order", order);
@@ -72,16 +56,9 @@ public class PaymentSucceeded extends OrderFunction {
     private Order setOrderPaymentSucceededStatus(OrderEvent event, Order order) {
         // Set the account status to pending
         order.setStatus(OrderStatus.PAYMENT_SUCCEEDED);
-        RestTemplate restTemplate = new RestTemplate();
-
-        // Create a new request entity
-        RequestEntity<Order> requestEntity = RequestEntity.put(
-                URI.create(event.getLink("order").getHref()))
-                .contentType(MediaTypes.HAL_JSON)
-                .body(order);
 
         // Update the account entity's status
-        order = restTemplate.exchange(requestEntity, Order.class).getBody();
+        order = hypermediaClient.put(event.getLink("order").getHref(), order, Order.class);
 
         return order;
     }
@@ -1,38 +1,47 @@
 package demo.order;
 
+import demo.domain.EventDigest;
+import demo.hypermedia.HypermediaClient;
 import demo.order.domain.Order;
 import demo.order.domain.OrderStatus;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEventType;
 import demo.order.event.OrderEvents;
+import demo.order.snapshot.OrderStateSnapshot;
+import demo.order.snapshot.SnapshotStore;
+import demo.state.ReplayMetrics;
 import org.apache.log4j.Logger;
 import org.springframework.cloud.client.ServiceInstance;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 public class StateFactory {
 
     final private Logger log = Logger.getLogger(StateFactory.class);
     final private StateService stateService;
-    final private RestTemplate restTemplate;
+    final private HypermediaClient hypermediaClient;
     final private DiscoveryClient discoveryClient;
+    final private SnapshotStore snapshotStore;
+    final private ReplayMetrics<OrderEventType> replayMetrics;
 
-    public StateFactory(StateService stateService, RestTemplate restTemplate, DiscoveryClient discoveryClient) {
+    public StateFactory(StateService stateService, HypermediaClient hypermediaClient, DiscoveryClient discoveryClient,
+                        SnapshotStore snapshotStore, ReplayMetrics<OrderEventType> replayMetrics) {
         this.stateService = stateService;
-        this.restTemplate = restTemplate;
+        this.hypermediaClient = hypermediaClient;
         this.discoveryClient = discoveryClient;
+        this.snapshotStore = snapshotStore;
+        this.replayMetrics = replayMetrics;
     }
 
     public Order apply(OrderEvent orderEvent) {
@@ -55,10 +64,14 @@ public class StateFactory {
                 .replaceAll(a -> Objects.equals(a.getRel(), "self") ? new Link(selfHref
                         .toString(), "self") : a);
 
-        StateMachine<OrderStatus, OrderEventType> stateMachine = getStateMachine(orderEvent);
-        stateMachine.stop();
+        StateMachine<OrderStatus, OrderEventType> stateMachine = replicate(orderEvent);
 
-        return stateMachine.getExtendedState().get("order", Order.class);
+        try {
+            return stateMachine.getExtendedState().get("order", Order.class);
+        } finally {
+            // Return the state machine to the pool
+            stateService.release(stateMachine);
+        }
     }
 
     private URI getLoadBalanceUri(ServiceInstance serviceInstance, URI uri) {
@@ -67,49 +80,178 @@ public class StateFactory {
                 .replace(":" + uri.getPort(), ":" + String.valueOf(serviceInstance.getPort())));
     }
 
-    private StateMachine<OrderStatus, OrderEventType> getStateMachine(OrderEvent orderEvent) {
+    /**
+     * Replicates the state of an {@link Order} and applies the supplied {@link OrderEvent}, fetching the events of
+     * the {@link Order} that must be replayed from the link of the event.
+     *
+     * @param orderEvent is the {@link OrderEvent} to apply
+     * @return the replicated {@link StateMachine}
+     */
+    StateMachine<OrderStatus, OrderEventType> replicate(OrderEvent orderEvent) {
+        ReplayMetrics.Replay replay = replayMetrics.begin(orderEvent.getType());
+
+        try {
+            return getStateMachine(orderEvent, replay);
+        } catch (RuntimeException ex) {
+            replay.fail();
+            throw ex;
+        }
+    }
+
+    private StateMachine<OrderStatus, OrderEventType> getStateMachine(OrderEvent orderEvent,
+                                                                      ReplayMetrics.Replay replay) {
+        log.info(String.format("Order event received: %s", orderEvent.getId()));
+        OrderStateSnapshot snapshot = snapshotStore.find(getIdentity(orderEvent.getLink("order")));
+        OrderEvents eventLog = getEventLog(orderEvent, snapshot, replay);
+        StateMachine<OrderStatus, OrderEventType> stateMachine = replicate(orderEvent, eventLog, snapshot, replay);
+        replay.complete(orderEvent.getLink("order").getHref(), eventLog.getContent().size());
+        return stateMachine;
+    }
+
+    /**
+     * Replicates the state of an {@link Order} from its event log and applies the supplied {@link OrderEvent}.
+     * If a snapshot exists for the order, only the events that were appended after the snapshot are replayed.
+     *
+     * @param orderEvent is the {@link OrderEvent} to apply
+     * @param eventLog   is the event log of the {@link Order} attached to the {@link OrderEvent}
+     * @return the replicated {@link StateMachine}
+     */
+    StateMachine<OrderStatus, OrderEventType> replicate(OrderEvent orderEvent, OrderEvents eventLog) {
+        ReplayMetrics.Replay replay = replayMetrics.begin(orderEvent.getType());
+        StateMachine<OrderStatus, OrderEventType> stateMachine = replicate(orderEvent, eventLog,
+                snapshotStore.find(getIdentity(orderEvent.getLink("order"))), replay);
+        replay.complete(orderEvent.getLink("order").getHref(), eventLog.getContent().size());
+        return stateMachine;
+    }
+
+    private StateMachine<OrderStatus, OrderEventType> replicate(OrderEvent orderEvent, OrderEvents eventLog,
+                                                                OrderStateSnapshot snapshot,
+                                                                ReplayMetrics.Replay replay) {
         Link eventId = orderEvent.getId();
-        log.info(String.format("Order event received: %s", eventId));
+        Long orderId = getIdentity(orderEvent.getLink("order"));
 
         StateMachine<OrderStatus, OrderEventType> stateMachine;
-        Map<String, Object> contextMap;
-        OrderEvents eventLog;
+        Map<String, Object> contextMap = getEventHeaders(orderEvent);
+
+        List<OrderEvent> events = eventLog.getContent().stream()
+                .sorted(Comparator.comparing(OrderEvent::getCreatedAt)
+                        .thenComparing(e -> getIdentity(e.getId())))
+                .collect(Collectors.toList());
+
+        OrderEvent currentEvent = events.stream()
+                .filter(e -> e.getId().equals(eventId))
+                .findFirst()
+                .orElse(null);
+
+        // Resume from the snapshot only if the current event has not already been applied to it
+        if (snapshot != null && currentEvent != null &&
+                snapshot.compareTo(currentEvent.getCreatedAt(), getIdentity(currentEvent.getId())) > 0) {
+            stateMachine = stateService.newStateMachine(snapshot.getStatus());
+            events = events.stream()
+                    .filter(e -> snapshot.compareTo(e.getCreatedAt(), getIdentity(e.getId())) > 0)
+                    .collect(Collectors.toList());
+        } else {
+            stateMachine = stateService.newStateMachine();
+        }
 
-        eventLog = getEventLog(orderEvent);
-        contextMap = getEventHeaders(orderEvent);
-        stateMachine = stateService.newStateMachine();
+        try {
+            // Replicate the aggregate state
+            for (OrderEvent e : events) {
+                boolean current = e.getId().equals(eventId);
 
-        // Replicate the aggregate state
-        eventLog.getContent().stream()
-                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
-                .forEach(e -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), e.getId()
-                        .equals(eventId) ? new MessageHeaders(contextMap) : new MessageHeaders(null))));
+                if (current) {
+                    // Apply the current event, which runs the action of its transition
+                    replay.action(() -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                            new MessageHeaders(contextMap))));
+                } else {
+                    stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), new MessageHeaders(null)));
+                }
+
+                // Take a snapshot of the replicated state after the current event is applied
+                if (current) {
+                    snapshotStore.save(new OrderStateSnapshot(orderId, getIdentity(e.getId()), e.getCreatedAt(),
+                            stateMachine.getState().getId()));
+                }
+            }
+        } catch (RuntimeException ex) {
+            // Return the state machine to the pool, since it never reaches the caller
+            stateService.release(stateMachine);
+            throw ex;
+        }
 
         return stateMachine;
     }
 
+    private Long getIdentity(Link link) {
+        String href = link.getHref();
+        return Long.valueOf(href.substring(href.lastIndexOf("/") + 1));
+    }
+
     private Map<String, Object> getEventHeaders(OrderEvent orderEvent) {
         Map<String, Object> headerMap = new HashMap<>();
         headerMap.put("event", orderEvent);
         return headerMap;
     }
 
-    private OrderEvents getEventLog(OrderEvent event) {
+    /**
+     * Gets the event log of the {@link Order} attached to the supplied {@link OrderEvent}. The digest embedded in
+     * the event message is used when it contains every event that must be replayed, either because it covers the
+     * whole event log or because the events it leaves out have already been applied to the snapshot. Otherwise, if
+     * a snapshot exists, only the events that were appended after the snapshot are fetched with the {@code after}
+     * cursor of the event log. The whole event log is fetched if there is no snapshot, or if the current event is
+     * not in the tail because it was already applied to the snapshot.
+     *
+     * @param event    is the {@link OrderEvent} to apply
+     * @param snapshot is the snapshot of the {@link Order} or {@literal null} if none exists
+     * @param replay   measures the time to fetch the event log
+     * @return the event log of the {@link Order}
+     */
+    private OrderEvents getEventLog(OrderEvent event, OrderStateSnapshot snapshot, ReplayMetrics.Replay replay) {
+        EventDigest<OrderEventType> digest = event.getDigest();
 
-        // Replace the host and port of the link with an available instance
-        URI orderHref = URI.create(event.getLink("order")
-                .getHref());
+        if (digest != null && digest.contains(event.getId())) {
+            if (digest.isComplete() || isCoveredBySnapshot(event, digest, snapshot))
+                return new OrderEvents(digest.toEvents(event.getId(), OrderEvent::new,
+                        OrderEvent::setCreatedAt));
 
-        // Follow the hypermedia link to fetch the attached order
-        Traverson traverson = new Traverson(orderHref,
-                MediaTypes.HAL_JSON
-        );
+            log.info(String.format("Event digest has gaps, fetching the event log: %s", event.getId()));
+        }
 
-        traverson.setRestOperations(restTemplate);
+        if (snapshot != null) {
+            // Get the events of the attached order resource that were appended after the snapshot
+            OrderEvents eventLog = replay.fetch(() -> hypermediaClient.get(getEventsAfter(event, snapshot),
+                    OrderEvents.class));
+
+            if (eventLog.getContent().stream().anyMatch(e -> e.getId().equals(event.getId())))
+                return eventLog;
+
+            log.info(String.format("Event was already applied to the snapshot, fetching the event log: %s",
+                    event.getId()));
+        }
 
         // Get the event log for the attached order resource
-        return traverson.follow("events")
-                .toEntity(OrderEvents.class)
-                .getBody();
+        return replay.fetch(() -> hypermediaClient.follow(event.getLink("order").getHref(), OrderEvents.class,
+                "events"));
+    }
+
+    private String getEventsAfter(OrderEvent event, OrderStateSnapshot snapshot) {
+        URI events = hypermediaClient.getLink(event.getLink("order").getHref(), "events").expand();
+
+        return UriComponentsBuilder.fromUri(events)
+                .queryParam("after", snapshot.getEventId())
+                .toUriString();
+    }
+
+    private boolean isCoveredBySnapshot(OrderEvent event, EventDigest<OrderEventType> digest,
+                                        OrderStateSnapshot snapshot) {
+        if (snapshot == null || digest.getEvents().isEmpty())
+            return false;
+
+        EventDigest.Entry<OrderEventType> current = digest.getEntry(event.getId());
+        EventDigest.Entry<OrderEventType> first = digest.getEvents().get(0);
+
+        // The current event must be replayed on top of the snapshot, and the digest must not start after it
+        return snapshot.compareTo(current.getCreatedAt(), current.getEventId()) > 0 &&
+                snapshot.compareTo(first.getCreatedAt(), first.getEventId()) <= 0;
     }
 }
@@ -5,14 +5,12 @@ import demo.order.domain.OrderStatus;
 import demo.order.event.OrderEventType;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEvents;
+import demo.state.StateMachinePool;
 import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 /**
- * The {@link StateService} provides factory access to get new state machines for
+ * The {@link StateService} provides pooled access to state machines for
  * replicating the state of an {@link Order} from {@link OrderEvents}.
  *
  * @author kbastani
@@ -20,26 +18,39 @@ import java.util.UUID;
 @Service
 public class StateService {
 
-    private final StateMachineFactory<OrderStatus, OrderEventType> factory;
+    private final StateMachinePool<OrderStatus, OrderEventType> stateMachinePool;
 
-    public StateService(StateMachineFactory<OrderStatus, OrderEventType> factory) {
-        this.factory = factory;
+    public StateService(StateMachinePool<OrderStatus, OrderEventType> stateMachinePool) {
+        this.stateMachinePool = stateMachinePool;
     }
 
     /**
-     * Create a new state machine that is initially configured and ready for replicating
+     * Acquire a state machine that is initially configured and ready for replicating
      * the state of an {@link Order} from a sequence of {@link OrderEvent}.
      *
-     * @return a new instance of {@link StateMachine}
+     * @return a started instance of {@link StateMachine}
      */
     public StateMachine<OrderStatus, OrderEventType> newStateMachine() {
-        // Create a new state machine in its initial state
-        StateMachine<OrderStatus, OrderEventType> stateMachine =
-                factory.getStateMachine(UUID.randomUUID().toString());
+        return stateMachinePool.acquire();
+    }
 
-        // Start the new state machine
-        stateMachine.start();
+    /**
+     * Acquire a state machine that is restored to a previously replicated {@link OrderStatus}, so that
+     * only the {@link OrderEvent}s applied after that state need to be replayed.
+     *
+     * @param status is the {@link OrderStatus} to restore the state machine to
+     * @return a started instance of {@link StateMachine}
+     */
+    public StateMachine<OrderStatus, OrderEventType> newStateMachine(OrderStatus status) {
+        return stateMachinePool.acquire(status);
+    }
 
-        return stateMachine;
+    /**
+     * Release a state machine after replication has completed, so that it can be reused.
+     *
+     * @param stateMachine is the {@link StateMachine} to release
+     */
+    public void release(StateMachine<OrderStatus, OrderEventType> stateMachine) {
+        stateMachinePool.release(stateMachine);
     }
 }
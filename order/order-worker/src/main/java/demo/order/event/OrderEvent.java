@@ -2,11 +2,13 @@ package demo.order.event;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import demo.domain.AbstractEntity;
+import demo.domain.EventDigest;
 import org.springframework.hateoas.Link;
 
 public class OrderEvent extends AbstractEntity {
 
     private OrderEventType type;
+    private EventDigest<OrderEventType> digest;
 
     public OrderEvent() {
     }
@@ -23,6 +25,14 @@ public class OrderEvent extends AbstractEntity {
         this.type = type;
     }
 
+    public EventDigest<OrderEventType> getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest<OrderEventType> digest) {
+        this.digest = digest;
+    }
+
     @JsonIgnore
     @Override
     public Link getId() {
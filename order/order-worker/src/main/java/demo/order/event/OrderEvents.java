@@ -1,7 +1,14 @@
 package demo.order.event;
 
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resources;
 
 public class OrderEvents extends Resources<OrderEvent> {
 
+    public OrderEvents() {
+    }
+
+    public OrderEvents(Iterable<OrderEvent> content, Link... links) {
+        super(content, links);
+    }
 }
@@ -0,0 +1,47 @@
+package demo.order.snapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-process {@link SnapshotStore} that keeps a bounded number of snapshots. When the capacity is exceeded,
+ * the snapshot of the least recently replicated order is evicted and will be rebuilt from its event log.
+ *
+ * @author kbastani
+ */
+public class InMemorySnapshotStore implements SnapshotStore {
+
+    private final Map<Long, OrderStateSnapshot> snapshots;
+
+    public InMemorySnapshotStore(int capacity) {
+        this.snapshots = new LinkedHashMap<Long, OrderStateSnapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, OrderStateSnapshot> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public synchronized OrderStateSnapshot find(Long orderId) {
+        return snapshots.get(orderId);
+    }
+
+    @Override
+    public synchronized void save(OrderStateSnapshot snapshot) {
+        OrderStateSnapshot current = snapshots.get(snapshot.getOrderId());
+
+        // Only move the snapshot forward in the event log
+        if (current == null || current.compareTo(snapshot.getCreatedAt(), snapshot.getEventId()) > 0)
+            snapshots.put(snapshot.getOrderId(), snapshot);
+    }
+
+    @Override
+    public synchronized void evict(Long orderId) {
+        snapshots.remove(orderId);
+    }
+
+    public synchronized int size() {
+        return snapshots.size();
+    }
+}
@@ -0,0 +1,86 @@
+package demo.order.snapshot;
+
+import demo.order.domain.Order;
+import demo.order.domain.OrderStatus;
+import demo.order.event.OrderEvent;
+
+/**
+ * An {@link OrderStateSnapshot} captures the replicated {@link OrderStatus} of an {@link Order} after a
+ * known {@link OrderEvent} was applied. Replication can resume from a snapshot instead of replaying the
+ * full event log of the {@link Order}.
+ *
+ * @author kbastani
+ */
+public class OrderStateSnapshot {
+
+    private Long orderId;
+    private Long eventId;
+    private Long createdAt;
+    private OrderStatus status;
+
+    public OrderStateSnapshot() {
+    }
+
+    public OrderStateSnapshot(Long orderId, Long eventId, Long createdAt, OrderStatus status) {
+        this.orderId = orderId;
+        this.eventId = eventId;
+        this.createdAt = createdAt;
+        this.status = status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Compares the position of an event in the ordered event log to the last event applied to this snapshot.
+     * Events are ordered by their creation time, and then by their identifier.
+     *
+     * @param createdAt is the creation time of the event
+     * @param eventId   is the unique identifier of the event
+     * @return a positive number if the event was appended after this snapshot, zero if it is the last applied
+     * event, and a negative number if the event is already contained in this snapshot
+     */
+    public int compareTo(Long createdAt, Long eventId) {
+        int result = createdAt.compareTo(this.createdAt);
+        return result != 0 ? result : eventId.compareTo(this.eventId);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStateSnapshot{" +
+                "orderId=" + orderId +
+                ", eventId=" + eventId +
+                ", createdAt=" + createdAt +
+                ", status=" + status +
+                '}';
+    }
+}
@@ -0,0 +1,36 @@
+package demo.order.snapshot;
+
+import demo.order.domain.Order;
+
+/**
+ * A {@link SnapshotStore} keeps the most recent {@link OrderStateSnapshot} of each replicated {@link Order}.
+ * The default implementation is {@link InMemorySnapshotStore}, which can be replaced with a persistent store
+ * by registering another {@link SnapshotStore} bean.
+ *
+ * @author kbastani
+ */
+public interface SnapshotStore {
+
+    /**
+     * Retrieves the most recent snapshot for an {@link Order}.
+     *
+     * @param orderId is the unique identifier of the {@link Order}
+     * @return the snapshot for the {@link Order} or {@literal null} if none was found
+     */
+    OrderStateSnapshot find(Long orderId);
+
+    /**
+     * Saves a snapshot for an {@link Order}. A snapshot that is older than the snapshot already stored for the
+     * same {@link Order} must be discarded.
+     *
+     * @param snapshot is the snapshot to save
+     */
+    void save(OrderStateSnapshot snapshot);
+
+    /**
+     * Removes the snapshot for an {@link Order}.
+     *
+     * @param orderId is the unique identifier of the {@link Order}
+     */
+    void evict(Long orderId);
+}
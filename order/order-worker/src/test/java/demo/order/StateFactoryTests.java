@@ -0,0 +1,404 @@
+package demo.order;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.config.StateMachineConfig;
+import demo.hypermedia.HypermediaClient;
+import demo.order.domain.OrderStatus;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventType;
+import demo.order.event.OrderEvents;
+import demo.order.snapshot.InMemorySnapshotStore;
+import demo.order.snapshot.OrderStateSnapshot;
+import demo.order.snapshot.SnapshotStore;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.hal.Jackson2HalModule;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.listener.StateMachineListenerAdapter;
+import org.springframework.statemachine.transition.Transition;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StateMachineConfig.class)
+@ActiveProfiles("test")
+public class StateFactoryTests {
+
+    private static final Logger log = Logger.getLogger(StateFactoryTests.class);
+    private static final int EVENT_COUNT = 100;
+
+    private static HttpServer orderServer;
+    private static String orderHref;
+    private static volatile int logLength;
+    private static final AtomicInteger fetchedEvents = new AtomicInteger();
+
+    @Autowired
+    private StateMachineFactory<OrderStatus, OrderEventType> factory;
+
+    private AtomicInteger transitions;
+    private CountingStateService stateService;
+    private ReplayMetrics<OrderEventType> replayMetrics;
+
+    /**
+     * Starts a stub of the order-web service that serves the hypermedia resources traversed by the order
+     * functions, so that the applied events complete their state transitions. The event log of the order contains
+     * the first {@code logLength} events, and the number of events that it returns is counted.
+     */
+    @BeforeClass
+    public static void startOrderServer() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        orderServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        orderHref = String.format("http://127.0.0.1:%d/v1/orders/1", orderServer.getAddress().getPort());
+
+        String order = String.format("{\"orderId\":1,\"_links\":{\"self\":{\"href\":\"%s\"}," +
+                "\"commands\":{\"href\":\"%s/commands\"},\"events\":{\"href\":\"%s/events\"}}}", orderHref,
+                orderHref, orderHref);
+        String commands = String.format("{\"_links\":{\"reserveInventory\":{\"href\":\"%s/commands" +
+                "/reserveInventory\"}}}", orderHref);
+
+        orderServer.createContext("/v1/orders/1", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getQuery();
+            byte[] body = (path.endsWith("/commands") ? commands : path.endsWith("/events") ?
+                    getEventLog(query == null ? 0 : Integer.valueOf(query.substring("after=".length()))) : order)
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", MediaTypes.HAL_JSON_VALUE);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+
+        orderServer.start();
+    }
+
+    @AfterClass
+    public static void stopOrderServer() {
+        orderServer.stop(0);
+    }
+
+    private static String getEventLog(int after) {
+        List<String> events = new ArrayList<>();
+
+        for (int i = after + 1; i <= logLength; i++) {
+            events.add(String.format("{\"type\":\"%s\",\"createdAt\":%d,\"_links\":{\"self\":{\"href\":" +
+                    "\"%s/events/%d\"},\"order\":{\"href\":\"%s\"}}}", getEventType(i), i, orderHref, i, orderHref));
+        }
+
+        fetchedEvents.addAndGet(events.size());
+        return String.format("{\"_embedded\":{\"orderEvents\":[%s]},\"_links\":{\"self\":{\"href\":" +
+                "\"%s/events\"}}}", String.join(",", events), orderHref);
+    }
+
+    @Before
+    public void setup() {
+        transitions = new AtomicInteger();
+        stateService = new CountingStateService(new StateMachinePool<>("order", factory, 1), transitions);
+        replayMetrics = new ReplayMetrics<>("order", 500);
+    }
+
+    @Test
+    public void testReplicationResumesFromSnapshot() {
+        InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore(10);
+        StateFactory stateFactory = new StateFactory(stateService, null, null, snapshotStore, replayMetrics);
+        List<OrderEvent> events = getEvents(4);
+
+        stateFactory.replicate(events.get(0), getEventLog(events, 1));
+        stateFactory.replicate(events.get(1), getEventLog(events, 2));
+
+        OrderStateSnapshot snapshot = snapshotStore.find(1L);
+        assertEquals(Long.valueOf(2L), snapshot.getEventId());
+        assertEquals(OrderStatus.ACCOUNT_CONNECTED, snapshot.getStatus());
+
+        transitions.set(0);
+        StateMachine<OrderStatus, OrderEventType> stateMachine =
+                stateFactory.replicate(events.get(2), getEventLog(events, 3));
+
+        // Only the event appended after the snapshot is replayed
+        assertEquals(1, transitions.get());
+        assertEquals(OrderStatus.RESERVATION_PENDING, stateMachine.getState().getId());
+        assertEquals(Long.valueOf(3L), snapshotStore.find(1L).getEventId());
+    }
+
+    @Test
+    public void testReplicationReplaysFullLogForAppliedEvent() {
+        InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore(10);
+        StateFactory stateFactory = new StateFactory(stateService, null, null, snapshotStore, replayMetrics);
+        List<OrderEvent> events = getEvents(3);
+
+        stateFactory.replicate(events.get(2), getEventLog(events, 3));
+
+        transitions.set(0);
+        StateMachine<OrderStatus, OrderEventType> stateMachine =
+                stateFactory.replicate(events.get(1), getEventLog(events, 3));
+
+        // An event delivered out of order is applied by replaying the full event log
+        assertEquals(3, transitions.get());
+        assertEquals(OrderStatus.RESERVATION_PENDING, stateMachine.getState().getId());
+        assertEquals(Long.valueOf(3L), snapshotStore.find(1L).getEventId());
+    }
+
+    @Test
+    public void testReplicationRecordsReplayMetrics() {
+        StateFactory stateFactory = new StateFactory(stateService, null, null, new InMemorySnapshotStore(10),
+                replayMetrics);
+        List<OrderEvent> events = getEvents(3);
+
+        stateFactory.replicate(events.get(0), getEventLog(events, 1));
+        stateFactory.replicate(events.get(2), getEventLog(events, 3));
+
+        Map<String, Number> metrics = replayMetrics.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+
+        assertEquals(1L, metrics.get("replay.order.ORDER_CREATED.count"));
+        assertEquals(1L, metrics.get("replay.order.RESERVATION_PENDING.count"));
+        assertEquals(3.0, metrics.get("replay.order.RESERVATION_PENDING.log-length.max"));
+        assertEquals(0L, metrics.get("replay.order.RESERVATION_PENDING.failures"));
+        assertTrue(metrics.containsKey("replay.order.RESERVATION_PENDING.action-ms.p99"));
+
+        // The event logs were supplied with the events, so none were fetched
+        assertFalse(metrics.containsKey("replay.order.RESERVATION_PENDING.fetch-ms.p99"));
+    }
+
+    @Test
+    public void testFailedReplicationReleasesStateMachine() {
+        StateMachinePool<OrderStatus, OrderEventType> stateMachinePool = new StateMachinePool<>("order", factory, 1);
+        StateFactory stateFactory = new StateFactory(new CountingStateService(stateMachinePool, transitions), null,
+                null, new FailingSnapshotStore(), replayMetrics);
+        List<OrderEvent> events = getEvents(1);
+
+        try {
+            stateFactory.replicate(events.get(0), getEventLog(events, 1));
+            fail("Expected the snapshot of the replicated state to fail");
+        } catch (IllegalStateException ex) {
+            // The state machine that was acquired for the replay must be returned to the pool
+            assertEquals(1, stateMachinePool.size());
+        }
+    }
+
+    @Test
+    public void testReplicationFetchesEventsAfterSnapshot() {
+        InMemorySnapshotStore snapshotStore = new InMemorySnapshotStore(10);
+        StateFactory stateFactory = new StateFactory(stateService, getHypermediaClient(), null, snapshotStore,
+                replayMetrics);
+        List<OrderEvent> events = getEvents(4);
+
+        logLength = 2;
+        stateService.release(stateFactory.replicate(events.get(1)));
+        assertEquals(Long.valueOf(2L), snapshotStore.find(1L).getEventId());
+
+        logLength = 4;
+        fetchedEvents.set(0);
+        transitions.set(0);
+        StateMachine<OrderStatus, OrderEventType> stateMachine = stateFactory.replicate(events.get(3));
+
+        // Only the events appended after the snapshot are fetched and replayed
+        assertEquals(2, fetchedEvents.get());
+        assertEquals(2, transitions.get());
+        assertEquals(OrderStatus.RESERVATION_PENDING, stateMachine.getState().getId());
+        stateService.release(stateMachine);
+
+        fetchedEvents.set(0);
+        transitions.set(0);
+        stateMachine = stateFactory.replicate(events.get(2));
+
+        // An event that was already applied to the snapshot is not in the tail, so the full event log is fetched
+        assertEquals(4, fetchedEvents.get());
+        assertEquals(4, transitions.get());
+        stateService.release(stateMachine);
+    }
+
+    @Test
+    public void benchmarkReplicationCostPerEvent() {
+        HypermediaClient hypermediaClient = getHypermediaClient();
+        List<OrderEvent> events = getEvents(EVENT_COUNT);
+
+        // Warm up the state machine factory and the HTTP client
+        replayEventLog(new StateFactory(stateService, hypermediaClient, null, new InMemorySnapshotStore(10),
+                replayMetrics), events);
+
+        long[] snapshotReplay = replayEventLog(new StateFactory(stateService, hypermediaClient, null,
+                new InMemorySnapshotStore(10), replayMetrics), events);
+        long[] fullReplay = replayEventLog(new StateFactory(stateService, hypermediaClient, null,
+                new DisabledSnapshotStore(), replayMetrics), events);
+
+        log.info(String.format("Replication cost per event (snapshot): first 10 events %d µs, last 10 events %d µs",
+                snapshotReplay[0] / 1000, snapshotReplay[1] / 1000));
+        log.info(String.format("Replication cost per event (full replay): first 10 events %d µs, last 10 events %d µs",
+                fullReplay[0] / 1000, fullReplay[1] / 1000));
+
+        // Snapshot replication fetches and replays a single event regardless of the length of the event log
+        assertEquals(EVENT_COUNT, snapshotReplay[2]);
+        assertEquals(EVENT_COUNT, snapshotReplay[3]);
+        assertEquals(EVENT_COUNT * (EVENT_COUNT + 1) / 2, fullReplay[2]);
+        assertEquals(EVENT_COUNT * (EVENT_COUNT + 1) / 2, fullReplay[3]);
+    }
+
+    /**
+     * Applies each event of the supplied event log in order, as if each event was received by the worker, fetching
+     * the events to replay from the stub of the order-web service.
+     *
+     * @return the mean nanoseconds for the first 10 events, the mean nanoseconds for the last 10 events, the total
+     * number of replayed transitions and the total number of fetched events
+     */
+    private long[] replayEventLog(StateFactory stateFactory, List<OrderEvent> events) {
+        long[] elapsed = new long[events.size()];
+        transitions.set(0);
+        fetchedEvents.set(0);
+
+        for (int i = 0; i < events.size(); i++) {
+            logLength = i + 1;
+            long start = System.nanoTime();
+            stateService.release(stateFactory.replicate(events.get(i)));
+            elapsed[i] = System.nanoTime() - start;
+        }
+
+        long first = 0, last = 0;
+        for (int i = 0; i < 10; i++) {
+            first += elapsed[i];
+            last += elapsed[events.size() - 1 - i];
+        }
+
+        return new long[]{first / 10, last / 10, transitions.get(), fetchedEvents.get()};
+    }
+
+    /**
+     * Creates a {@link HypermediaClient} that reads HAL resources, as the client of the worker does once the
+     * hypermedia support of the application has registered its message converters.
+     */
+    private HypermediaClient getHypermediaClient() {
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(new ObjectMapper()
+                .registerModule(new Jackson2HalModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        converter.setSupportedMediaTypes(Collections.singletonList(MediaTypes.HAL_JSON));
+
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getMessageConverters().removeIf(c -> c instanceof MappingJackson2HttpMessageConverter);
+        restTemplate.getMessageConverters().add(converter);
+        return new HypermediaClient(restTemplate);
+    }
+
+    private List<OrderEvent> getEvents(int count) {
+        List<OrderEvent> events = new ArrayList<>();
+
+        for (int i = 1; i <= count; i++) {
+            OrderEvent event = new OrderEvent(getEventType(i));
+            event.setCreatedAt((long) i);
+            event.add(new Link(orderHref + "/events/" + i, Link.REL_SELF));
+            event.add(new Link(orderHref, "order"));
+            events.add(event);
+        }
+
+        return events;
+    }
+
+    private static OrderEventType getEventType(int i) {
+        switch (i) {
+            case 1:
+                return OrderEventType.ORDER_CREATED;
+            case 2:
+                return OrderEventType.ACCOUNT_CONNECTED;
+            case 3:
+                return OrderEventType.RESERVATION_PENDING;
+            default:
+                return OrderEventType.RESERVATION_ADDED;
+        }
+    }
+
+    private OrderEvents getEventLog(List<OrderEvent> events, int length) {
+        return new OrderEvents(new ArrayList<>(events.subList(0, length)));
+    }
+
+    static class CountingStateService extends StateService {
+
+        private final AtomicInteger transitions;
+        private final Set<StateMachine<OrderStatus, OrderEventType>> stateMachines =
+                Collections.newSetFromMap(new IdentityHashMap<>());
+
+        CountingStateService(StateMachinePool<OrderStatus, OrderEventType> stateMachinePool,
+                             AtomicInteger transitions) {
+            super(stateMachinePool);
+            this.transitions = transitions;
+        }
+
+        @Override
+        public StateMachine<OrderStatus, OrderEventType> newStateMachine() {
+            return count(super.newStateMachine());
+        }
+
+        @Override
+        public StateMachine<OrderStatus, OrderEventType> newStateMachine(OrderStatus status) {
+            return count(super.newStateMachine(status));
+        }
+
+        private StateMachine<OrderStatus, OrderEventType> count(StateMachine<OrderStatus, OrderEventType>
+                                                                        stateMachine) {
+            // Pooled state machines are reused, so each machine is only registered once
+            if (stateMachines.add(stateMachine)) {
+                stateMachine.addStateListener(new StateMachineListenerAdapter<OrderStatus, OrderEventType>() {
+                    @Override
+                    public void transitionEnded(Transition<OrderStatus, OrderEventType> transition) {
+                        transitions.incrementAndGet();
+                    }
+                });
+            }
+            return stateMachine;
+        }
+    }
+
+    static class DisabledSnapshotStore implements SnapshotStore {
+
+        @Override
+        public OrderStateSnapshot find(Long orderId) {
+            return null;
+        }
+
+        @Override
+        public void save(OrderStateSnapshot snapshot) {
+        }
+
+        @Override
+        public void evict(Long orderId) {
+        }
+    }
+
+    static class FailingSnapshotStore extends DisabledSnapshotStore {
+
+        @Override
+        public void save(OrderStateSnapshot snapshot) {
+            throw new IllegalStateException("The snapshot store is unavailable");
+        }
+    }
+}
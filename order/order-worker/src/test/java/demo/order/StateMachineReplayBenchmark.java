@@ -0,0 +1,91 @@
+package demo.order;
+
+import demo.config.StateMachineConfig;
+import demo.order.domain.OrderStatus;
+import demo.order.event.OrderEventType;
+import demo.state.StateMachinePool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the replay of an order's event log through a pooled state machine of the {@link StateMachineConfig}, as
+ * the {@link StateFactory} replays the events that precede the event it applies. The event log starts like the log
+ * of an order that is reserving its inventory and continues with a reservation for every later event. Run the main
+ * method from the test classpath, which writes the results as JSON to {@code target/jmh-replay.json}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StateMachineReplayBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int eventCount;
+
+    private AnnotationConfigApplicationContext context;
+    private StateMachinePool<OrderStatus, OrderEventType> stateMachinePool;
+    private List<OrderEventType> events;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        context = new AnnotationConfigApplicationContext(StateMachineConfig.class);
+        stateMachinePool = context.getBean(StateMachinePool.class);
+        events = new ArrayList<>();
+
+        for (int i = 1; i <= eventCount; i++) {
+            switch (i) {
+                case 1:
+                    events.add(OrderEventType.ORDER_CREATED);
+                    break;
+                case 2:
+                    events.add(OrderEventType.ACCOUNT_CONNECTED);
+                    break;
+                case 3:
+                    events.add(OrderEventType.RESERVATION_PENDING);
+                    break;
+                default:
+                    events.add(OrderEventType.RESERVATION_ADDED);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OrderStatus replay() {
+        StateMachine<OrderStatus, OrderEventType> stateMachine = stateMachinePool.acquire();
+
+        for (OrderEventType event : events) {
+            stateMachine.sendEvent(MessageBuilder.createMessage(event, new MessageHeaders(null)));
+        }
+
+        OrderStatus status = stateMachine.getState().getId();
+        stateMachinePool.release(stateMachine);
+        return status;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StateMachineReplayBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-replay.json")
+                .build()).run();
+    }
+}
@@ -0,0 +1,166 @@
+package demo.order.event;
+
+import com.sun.net.httpserver.HttpServer;
+import demo.order.snapshot.SnapshotStore;
+import org.apache.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Sends {@link OrderEvent} messages through the test binder to measure the throughput of the worker when the
+ * event log is embedded in the message, compared to fetching the event log from the order-web service.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@ActiveProfiles({"test", "development"})
+public class OrderEventProcessorTests {
+
+    private static final Logger log = Logger.getLogger(OrderEventProcessorTests.class);
+    private static final int MESSAGE_COUNT = 200;
+
+    private static HttpServer orderServer;
+    private static String ordersHref;
+    private static final AtomicInteger eventLogRequests = new AtomicInteger();
+
+    @MockBean
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private Sink sink;
+
+    @Autowired
+    private SnapshotStore snapshotStore;
+
+    /**
+     * Starts a stub of the order-web service that serves an order and its event log for any order id.
+     */
+    @BeforeClass
+    public static void startOrderServer() throws IOException {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        orderServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ordersHref = String.format("http://127.0.0.1:%d/v1/orders", orderServer.getAddress().getPort());
+
+        orderServer.createContext("/v1/orders", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String[] segments = path.split("/");
+            String orderHref = ordersHref + "/" + segments[3];
+            String body;
+
+            if (path.endsWith("/events")) {
+                eventLogRequests.incrementAndGet();
+                body = String.format("{\"_embedded\":{\"orderEvents\":[{\"type\":\"ORDER_CREATED\"," +
+                        "\"createdAt\":1,\"_links\":{\"self\":{\"href\":\"%s/events/%s\"}}}]}}", orderHref, segments[3]);
+            } else {
+                body = String.format("{\"orderId\":%s,\"status\":\"ORDER_CREATED\",\"_links\":{\"self\":{\"href\":" +
+                        "\"%s\"},\"events\":{\"href\":\"%s/events\"}}}", segments[3], orderHref, orderHref);
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", MediaTypes.HAL_JSON_VALUE);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+
+        orderServer.start();
+    }
+
+    @AfterClass
+    public static void stopOrderServer() {
+        orderServer.stop(0);
+    }
+
+    @Before
+    public void setup() {
+        given(discoveryClient.getInstances("order-web")).willReturn(Collections.singletonList(
+                new DefaultServiceInstance("order-web", "127.0.0.1", orderServer.getAddress().getPort(), false)));
+        eventLogRequests.set(0);
+    }
+
+    @Test
+    public void testEventLogIsReadFromCompleteDigest() {
+        send(1L, 1L, "{\"count\":1,\"events\":[{\"eventId\":1,\"type\":\"ORDER_CREATED\",\"createdAt\":1}]}");
+
+        assertEquals(0, eventLogRequests.get());
+        assertNotNull(snapshotStore.find(1L));
+    }
+
+    @Test
+    public void testEventLogIsFetchedWhenDigestHasGaps() {
+        snapshotStore.evict(2L);
+        send(2L, 2L, "{\"count\":2,\"events\":[{\"eventId\":2,\"type\":\"ORDER_CREATED\",\"createdAt\":1}]}");
+
+        assertEquals(1, eventLogRequests.get());
+    }
+
+    @Test
+    public void benchmarkDigestThroughput() {
+        // Warm up the message conversion and the HTTP client
+        sendMessages(1000, true);
+        sendMessages(1000, false);
+
+        long digest = sendMessages(2000, true);
+        int digestRequests = eventLogRequests.getAndSet(0);
+        long http = sendMessages(3000, false);
+        int httpRequests = eventLogRequests.getAndSet(0);
+
+        log.info(String.format("Embedded event log: %d messages/s, HTTP event log: %d messages/s",
+                MESSAGE_COUNT * 1000000000L / digest, MESSAGE_COUNT * 1000000000L / http));
+
+        // Replication from the digest does not call back into order-web for the event log
+        assertEquals(0, digestRequests);
+        assertEquals(MESSAGE_COUNT, httpRequests);
+    }
+
+    /**
+     * Sends a message for each of a range of new orders.
+     *
+     * @return the elapsed nanoseconds
+     */
+    private long sendMessages(long firstOrderId, boolean embedDigest) {
+        eventLogRequests.set(0);
+        long start = System.nanoTime();
+
+        for (long orderId = firstOrderId; orderId < firstOrderId + MESSAGE_COUNT; orderId++) {
+            send(orderId, orderId, embedDigest ? String.format("{\"count\":1,\"events\":[{\"eventId\":%d," +
+                    "\"type\":\"ORDER_CREATED\",\"createdAt\":1}]}", orderId) : null);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private void send(Long orderId, Long eventId, String digest) {
+        String orderHref = ordersHref + "/" + orderId;
+        String payload = String.format("{\"type\":\"ORDER_CREATED\",\"createdAt\":1,%s\"_links\":{\"self\":" +
+                        "{\"href\":\"%s/events/%d\"},\"order\":{\"href\":\"%s\"}}}",
+                digest != null ? "\"digest\":" + digest + "," : "", orderHref, eventId, orderHref);
+
+        sink.input().send(MessageBuilder.withPayload(payload)
+                .setHeader("contentType", MediaType.APPLICATION_JSON_VALUE)
+                .build());
+    }
+}
@@ -0,0 +1,67 @@
+package demo.state;
+
+import demo.config.StateMachineConfig;
+import demo.order.domain.OrderStatus;
+import demo.order.event.OrderEventType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = StateMachineConfig.class)
+@ActiveProfiles("test")
+public class StateMachinePoolTests {
+
+    @Autowired
+    private StateMachineFactory<OrderStatus, OrderEventType> factory;
+
+    @Test
+    public void testReleasedStateMachineIsResetAndReused() {
+        StateMachinePool<OrderStatus, OrderEventType> pool = new StateMachinePool<>("order", factory, 1);
+
+        StateMachine<OrderStatus, OrderEventType> stateMachine = pool.acquire(OrderStatus.RESERVATION_PENDING);
+        assertEquals(OrderStatus.RESERVATION_PENDING, stateMachine.getState().getId());
+        stateMachine.getExtendedState().getVariables().put("order", new Object());
+        pool.release(stateMachine);
+
+        StateMachine<OrderStatus, OrderEventType> reused = pool.acquire();
+        assertSame(stateMachine, reused);
+        assertEquals(OrderStatus.ORDER_CREATED, reused.getState().getId());
+        assertTrue(reused.getExtendedState().getVariables().isEmpty());
+        assertEquals(2, pool.getHits());
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        StateMachinePool<OrderStatus, OrderEventType> pool = new StateMachinePool<>("order", factory, 1);
+
+        StateMachine<OrderStatus, OrderEventType> first = pool.acquire();
+        StateMachine<OrderStatus, OrderEventType> second = pool.acquire();
+        assertNotSame(first, second);
+
+        pool.release(first);
+        pool.release(second);
+
+        Map<String, Number> metrics = pool.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+
+        assertEquals(1, metrics.get("statemachine.order.pool.size"));
+        assertEquals(1, metrics.get("statemachine.order.pool.capacity"));
+        assertEquals(1L, metrics.get("statemachine.order.pool.hit"));
+        assertEquals(1L, metrics.get("statemachine.order.pool.miss"));
+    }
+}
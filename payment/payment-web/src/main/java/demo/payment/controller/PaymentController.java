@@ -1,7 +1,7 @@
 package demo.payment.controller;
 
+import demo.event.EventCursor;
 import demo.event.EventService;
-import demo.event.Events;
 import demo.payment.domain.Payment;
 import demo.payment.domain.PaymentService;
 import demo.payment.event.PaymentEvent;
@@ -70,8 +70,10 @@ public class PaymentController {
     }
 
     @RequestMapping(path = "/payments/{id}/events", method = RequestMethod.GET)
-    public ResponseEntity getPaymentEvents(@PathVariable Long id) {
-        return Optional.ofNullable(getPaymentEventResources(id))
+    public ResponseEntity getPaymentEvents(@PathVariable Long id,
+                                           @RequestParam(value = "after", required = false) Long after,
+                                           @RequestParam(value = "since", required = false) Long since) {
+        return Optional.of(EventCursor.find(eventService, id, after, since))
                 .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("Could not get payment events"));
     }
@@ -188,10 +190,6 @@ public class PaymentController {
         return eventService.findOne(eventId);
     }
 
-    private Events getPaymentEventResources(Long id) {
-        return eventService.find(id);
-    }
-
     private LinkBuilder linkBuilder(String name, Long id) {
         Method method;
 
@@ -220,7 +218,8 @@ public class PaymentController {
 
         if (!payment.hasLink("events")) {
             // Add get events link
-            payment.add(linkBuilder("getPaymentEvents", payment.getIdentity()).withRel("events"));
+            payment.add(linkTo(PaymentController.class).slash("payments").slash(payment.getIdentity())
+                    .slash("events").withRel("events"));
         }
 
         // Add remote payment link
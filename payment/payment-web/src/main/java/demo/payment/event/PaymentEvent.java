@@ -21,11 +21,13 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(indexes = { @Index(name = "IDX_PAYMENT_EVENT", columnList = "entity_id") })
+@Table(indexes = { @Index(name = "IDX_PAYMENT_EVENT", columnList = "entity_id, createdAt") })
 public class PaymentEvent extends Event<Payment, PaymentEventType, Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "payment_event")
+    @TableGenerator(name = "payment_event", table = "id_generator", pkColumnValue = "payment_event",
+            allocationSize = 50)
     private Long eventId;
 
     @Enumerated(EnumType.STRING)
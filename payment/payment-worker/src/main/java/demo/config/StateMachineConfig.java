@@ -3,23 +3,24 @@ package demo.config;
 import demo.event.PaymentEvent;
 import demo.event.PaymentEventType;
 import demo.function.*;
+import demo.hypermedia.HypermediaClient;
 import demo.payment.Payment;
 import demo.payment.PaymentStatus;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
-import org.springframework.web.client.RestTemplate;
 
-import java.net.URI;
 import java.util.EnumSet;
 
 /**
@@ -38,6 +39,37 @@ import java.util.EnumSet;
 public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<PaymentStatus, PaymentEventType> {
 
     final private Logger log = Logger.getLogger(StateMachineConfig.class);
+    final private HypermediaClient hypermediaClient;
+
+    public StateMachineConfig(HypermediaClient hypermediaClient) {
+        this.hypermediaClient = hypermediaClient;
+    }
+
+    /**
+     * Creates a bounded pool of pre-built state machines that are reused for each replicated {@link PaymentEvent}.
+     *
+     * @param stateMachineFactory is the factory used to build the state machines of the pool
+     * @param poolSize            is the number of pre-built state machines
+     * @return the {@link StateMachinePool} for {@link Payment} state machines
+     */
+    @Bean
+    public StateMachinePool<PaymentStatus, PaymentEventType> paymentStateMachinePool(
+            StateMachineFactory<PaymentStatus, PaymentEventType> stateMachineFactory,
+            @Value("${statemachine.pool.size:20}") int poolSize) {
+        return new StateMachinePool<>("payment", stateMachineFactory, poolSize);
+    }
+
+    /**
+     * Creates the metrics of the replication of {@link Payment} aggregates from their event logs.
+     *
+     * @param logLengthThreshold is the length of an event log above which a warning is logged
+     * @return the {@link ReplayMetrics} for {@link Payment} aggregates
+     */
+    @Bean
+    public ReplayMetrics<PaymentEventType> paymentReplayMetrics(
+            @Value("${replay.log-length.warn-threshold:500}") int logLengthThreshold) {
+        return new ReplayMetrics<>("payment", logLengthThreshold);
+    }
 
     /**
      * Configures the initial conditions of a new in-memory {@link StateMachine} for {@link Payment}.
@@ -90,13 +122,13 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Paymen
                     .source(PaymentStatus.PAYMENT_PROCESSED)
                     .target(PaymentStatus.PAYMENT_SUCCEEDED)
                     .event(PaymentEventType.PAYMENT_SUCCEEDED)
-                    .action(paymentSucceeded(new RestTemplate()))
+                    .action(paymentSucceeded())
                     .and()
                     .withExternal()
                     .source(PaymentStatus.PAYMENT_PROCESSED)
                     .target(PaymentStatus.PAYMENT_FAILED)
                     .event(PaymentEventType.PAYMENT_FAILED)
-                    .action(paymentFailed(new RestTemplate()));
+                    .action(paymentFailed());
         } catch (Exception e) {
             throw new RuntimeException("Could not configure state machine transitions", e);
         }
@@ -140,14 +172,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Paymen
                 new PaymentCreated(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("payment").getHref());
                     // Get the payment resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("payment").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Payment.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("payment").getHref(), Payment.class);
                 }));
     }
 
@@ -157,14 +182,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Paymen
                 new OrderConnected(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("payment").getHref());
                     // Get the payment resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("payment").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Payment.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("payment").getHref(), Payment.class);
                 }));
     }
 
@@ -174,14 +192,7 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Paymen
                 new PaymentPending(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("payment").getHref());
                     // Get the payment resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("payment").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Payment.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("payment").getHref(), Payment.class);
                 }));
     }
 
@@ -191,48 +202,34 @@ public class StateMachineConfig extends EnumStateMachineConfigurerAdapter<Paymen
                 new PaymentProcessed(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("payment").getHref());
                     // Get the payment resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("payment").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Payment.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("payment").getHref(), Payment.class);
                 }));
     }
 
     @Bean
-    public Action<PaymentStatus, PaymentEventType> paymentSucceeded(RestTemplate restTemplate) {
+    public Action<PaymentStatus, PaymentEventType> paymentSucceeded() {
         return context -> applyEvent(context,
                 new PaymentSucceeded(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("payment").getHref());
-                    return updatePaymentStatus(restTemplate, event, PaymentStatus.PAYMENT_SUCCEEDED);
+                    return updatePaymentStatus(event, PaymentStatus.PAYMENT_SUCCEEDED);
                 }));
     }
 
     @Bean
-    public Action<PaymentStatus, PaymentEventType> paymentFailed(RestTemplate restTemplate) {
+    public Action<PaymentStatus, PaymentEventType> paymentFailed() {
         return context -> applyEvent(context,
                 new PaymentFailed(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("payment").getHref());
-                    return updatePaymentStatus(restTemplate, event, PaymentStatus.PAYMENT_FAILED);
+                    return updatePaymentStatus(event, PaymentStatus.PAYMENT_FAILED);
                 }));
     }
 
-    private Payment updatePaymentStatus(RestTemplate restTemplate, PaymentEvent event, PaymentStatus status) {
+    private Payment updatePaymentStatus(PaymentEvent event, PaymentStatus status) {
         // Get the payment resource for the event
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("payment").getHref()),
-                MediaTypes.HAL_JSON
-        );
-
-        Payment payment = traverson.follow("self")
-                .toEntity(Payment.class)
-                .getBody();
+        Payment payment = hypermediaClient.get(event.getLink("payment").getHref(), Payment.class);
 
         payment.setStatus(status);
-        restTemplate.put(payment.getLink("self").getHref(), payment);
+        hypermediaClient.put(payment.getLink("self").getHref(), payment, Payment.class);
         return payment;
     }
 }
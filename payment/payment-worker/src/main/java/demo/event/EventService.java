@@ -1,17 +1,17 @@
 package demo.event;
 
+import demo.domain.EventDigest;
+import demo.hypermedia.HypermediaClient;
 import demo.payment.Payment;
 import demo.payment.PaymentStatus;
+import demo.state.ReplayMetrics;
 import demo.state.StateMachineService;
 import org.apache.log4j.Logger;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,9 +20,14 @@ public class EventService {
 
     final private Logger log = Logger.getLogger(EventService.class);
     final private StateMachineService stateMachineService;
+    final private HypermediaClient hypermediaClient;
+    final private ReplayMetrics<PaymentEventType> replayMetrics;
 
-    public EventService(StateMachineService stateMachineService) {
+    public EventService(StateMachineService stateMachineService, HypermediaClient hypermediaClient,
+                        ReplayMetrics<PaymentEventType> replayMetrics) {
         this.stateMachineService = stateMachineService;
+        this.hypermediaClient = hypermediaClient;
+        this.replayMetrics = replayMetrics;
     }
 
     public Payment apply(PaymentEvent paymentEvent) {
@@ -31,20 +36,38 @@ public class EventService {
 
         log.info("Payment event received: " + paymentEvent.getLink("self").getHref());
 
+        ReplayMetrics.Replay replay = replayMetrics.begin(paymentEvent.getType());
+
         // Generate a state machine for computing the state of the payment resource
         StateMachine<PaymentStatus, PaymentEventType> stateMachine =
                 stateMachineService.getStateMachine();
 
-        // Follow the hypermedia link to fetch the attached payment
-        Traverson traverson = new Traverson(
-                URI.create(paymentEvent.getLink("payment").getHref()),
-                MediaTypes.HAL_JSON
-        );
+        try {
+            try {
+                replicate(paymentEvent, stateMachine, replay);
+            } catch (RuntimeException ex) {
+                replay.fail();
+                throw ex;
+            }
+
+            // Get result
+            Map<Object, Object> context = stateMachine.getExtendedState()
+                    .getVariables();
+
+            // Get the payment result
+            result = (Payment) context.getOrDefault("payment", null);
+        } finally {
+            // Return the state machine to the pool
+            stateMachineService.release(stateMachine);
+        }
+
+        return result;
+    }
 
+    private void replicate(PaymentEvent paymentEvent, StateMachine<PaymentStatus, PaymentEventType> stateMachine,
+                           ReplayMetrics.Replay replay) {
         // Get the event log for the attached payment resource
-        PaymentEvents events = traverson.follow("events")
-                .toEntity(PaymentEvents.class)
-                .getBody();
+        PaymentEvents events = getEventLog(paymentEvent, replay);
 
         // Prepare payment event message headers
         Map<String, Object> headerMap = new HashMap<>();
@@ -55,28 +78,30 @@ public class EventService {
                 .stream()
                 .sorted((a1, a2) -> a1.getCreatedAt().compareTo(a2.getCreatedAt()))
                 .forEach(e -> {
-                    MessageHeaders headers = new MessageHeaders(null);
-
                     // Check to see if this is the current event
                     if (e.getLink("self").equals(paymentEvent.getLink("self"))) {
-                        headers = new MessageHeaders(headerMap);
+                        // Apply the current event, which runs the action of its transition
+                        replay.action(() -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                new MessageHeaders(headerMap))));
+                    } else {
+                        // Send the event to the state machine
+                        stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), new MessageHeaders(null)));
                     }
-
-                    // Send the event to the state machine
-                    stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), headers));
                 });
 
+        replay.complete(paymentEvent.getLink("payment").getHref(), events.getContent().size());
+    }
 
-        // Get result
-        Map<Object, Object> context = stateMachine.getExtendedState()
-                .getVariables();
-
-        // Get the payment result
-        result = (Payment) context.getOrDefault("payment", null);
+    private PaymentEvents getEventLog(PaymentEvent paymentEvent, ReplayMetrics.Replay replay) {
+        EventDigest<PaymentEventType> digest = paymentEvent.getDigest();
 
-        // Destroy the state machine
-        stateMachine.stop();
+        // Replicate from the event log embedded in the message when it has no gaps
+        if (digest != null && digest.isComplete() && digest.contains(paymentEvent.getLink("self")))
+            return new PaymentEvents(digest.toEvents(paymentEvent.getLink("self"), PaymentEvent::new,
+                    PaymentEvent::setCreatedAt));
 
-        return result;
+        // Follow the hypermedia link to fetch the attached payment
+        return replay.fetch(() -> hypermediaClient.follow(paymentEvent.getLink("payment").getHref(),
+                PaymentEvents.class, "events"));
     }
 }
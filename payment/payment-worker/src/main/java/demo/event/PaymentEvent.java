@@ -2,6 +2,7 @@ package demo.event;
 
 import demo.payment.Payment;
 import demo.domain.BaseEntity;
+import demo.domain.EventDigest;
 
 /**
  * The domain event {@link PaymentEvent} tracks the type and state of events as
@@ -16,6 +17,7 @@ import demo.domain.BaseEntity;
 public class PaymentEvent extends BaseEntity {
 
     private PaymentEventType type;
+    private EventDigest<PaymentEventType> digest;
 
     public PaymentEvent() {
     }
@@ -32,6 +34,14 @@ public class PaymentEvent extends BaseEntity {
         this.type = type;
     }
 
+    public EventDigest<PaymentEventType> getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest<PaymentEventType> digest) {
+        this.digest = digest;
+    }
+
     @Override
     public String toString() {
         return "PaymentEvent{" +
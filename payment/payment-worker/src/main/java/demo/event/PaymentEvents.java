@@ -1,5 +1,6 @@
 package demo.event;
 
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resources;
 
 /**
@@ -8,4 +9,11 @@ import org.springframework.hateoas.Resources;
  * @author kbastani
  */
 public class PaymentEvents extends Resources<PaymentEvent> {
+
+    public PaymentEvents() {
+    }
+
+    public PaymentEvents(Iterable<PaymentEvent> content, Link... links) {
+        super(content, links);
+    }
 }
@@ -16,16 +16,14 @@
 
 package demo;
 
-import com.github.javafaker.Faker;
-import demo.account.domain.Account;
-import demo.account.domain.AccountStatus;
 import demo.account.service.AccountService;
-import demo.domain.Address;
-import demo.domain.AddressType;
 import demo.inventory.domain.Inventory;
 import demo.inventory.domain.InventoryStatus;
-import demo.order.domain.LineItem;
-import demo.order.domain.Order;
+import demo.load.LoadGenerator;
+import demo.load.LoadReport;
+import demo.load.LoadScenario;
+import demo.load.LoadTask;
+import demo.load.ScenarioOperation;
 import demo.warehouse.domain.Warehouse;
 import demo.warehouse.service.WarehouseService;
 import org.apache.log4j.Logger;
@@ -34,10 +32,11 @@ import org.springframework.integration.annotation.MessageEndpoint;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 
 @MessageEndpoint
@@ -47,12 +46,16 @@ public class LoadProcessor {
     private final LoadSimulatorProperties properties;
     private final AccountService accountService;
     private final WarehouseService warehouseService;
+    private final LoadGenerator loadGenerator;
+    private final LoadScenario loadScenario;
 
     public LoadProcessor(LoadSimulatorProperties properties, AccountService accountService,
-            WarehouseService warehouseService) {
+            WarehouseService warehouseService, LoadGenerator loadGenerator, LoadScenario loadScenario) {
         this.properties = properties;
         this.accountService = accountService;
         this.warehouseService = warehouseService;
+        this.loadGenerator = loadGenerator;
+        this.loadScenario = loadScenario;
     }
 
     @ServiceActivator(inputChannel = Processor.INPUT, outputChannel = Processor.OUTPUT)
@@ -67,8 +70,12 @@ public class LoadProcessor {
                 accountOperation(properties.getOperation(), sb);
                 break;
             case ORDER:
+                // Mix every operation of the scenario by weight
+                scenarioOperation(EnumSet.allOf(ScenarioOperation.class), sb);
                 break;
             case WAREHOUSE:
+                scenarioOperation(EnumSet.of(ScenarioOperation.CREATE_WAREHOUSE,
+                        ScenarioOperation.RESTOCK_INVENTORY), sb);
                 break;
             case INVENTORY:
                 inventoryOperation(properties.getOperation(), sb);
@@ -78,9 +85,16 @@ public class LoadProcessor {
         return sb.toString();
     }
 
-    private void inventoryOperation(Operation operation, StringBuffer sb) {
-        Faker faker = new Faker();
+    private void scenarioOperation(Set<ScenarioOperation> operations, StringBuffer sb) {
+        sb.append(loadScenario.setup(operations));
+
+        LoadReport report = loadGenerator.run(properties.getRange(), i -> loadScenario.next(operations));
 
+        sb.append(String.format("[%s scenario requests sent]\n", properties.getRange()));
+        sb.append(report);
+    }
+
+    private void inventoryOperation(Operation operation, StringBuffer sb) {
         switch (operation) {
             case CREATE:
                 Warehouse warehouse = null;
@@ -93,70 +107,52 @@ public class LoadProcessor {
 
                 if (warehouse == null) {
                     // Create the first warehouse
-                    warehouse = warehouseService.create(new Warehouse(new Address(faker.address().streetAddress(),
-                            faker.address().buildingNumber(),
-                            faker.address().state(),
-                            faker.address().city(),
-                            faker.address().country(),
-                            Integer.parseInt(faker.address().zipCode()))));
+                    warehouse = warehouseService.create(new Warehouse(loadScenario.newAddress(null)));
 
                     sb.append("[Warehouse created]\n");
                 }
 
-                List<Inventory> inventory = new ArrayList<>();
+                // Each request adds a batch of the range of inventory
+                long batchSize = properties.getLoad().getBatchSize();
+                long batches = (properties.getRange() + batchSize - 1) / batchSize;
 
-                LongStream.range(0, properties.getRange())
-                        .forEach(a -> inventory.add(new Inventory(InventoryStatus.INVENTORY_CREATED, "SKU-" + a)));
+                AtomicLong added = new AtomicLong();
 
-                List<Inventory> results = warehouseService.addInventory(inventory, 1L);
+                LoadReport report = loadGenerator.run(batches, batch -> new LoadTask("inventory.add", () -> {
+                    List<Inventory> inventory = LongStream
+                            .range(batch * batchSize, Math.min((batch + 1) * batchSize, properties.getRange()))
+                            .mapToObj(a -> new Inventory(InventoryStatus.INVENTORY_CREATED, "SKU-" + a))
+                            .collect(Collectors.toList());
 
-                sb.append(String.format("[%s inventory added to warehouse]\n", results.size()));
+                    return added.addAndGet(warehouseService.addInventory(inventory, 1L));
+                }));
+
+                sb.append(String.format("[%s inventory added to warehouse]\n", added.get()));
+                sb.append(report);
 
                 break;
         }
     }
 
     private void accountOperation(Operation operation, StringBuffer sb) {
-
-        Faker faker = new Faker();
+        LoadReport report;
 
         switch (operation) {
             case CREATE:
                 if (properties.getCommand() == Command.POST_ORDER) {
                     // Post new order to the accounts
-                    LongStream.range(1, properties.getRange() + 1)
-                            .forEach(a -> {
-                                try {
-                                    Order order = new Order(a, new Address(faker.address().streetAddress(),
-                                            faker.address().buildingNumber(),
-                                            faker.address().state(),
-                                            faker.address().city(),
-                                            faker.address().country(),
-                                            Integer.parseInt(faker.address().zipCode().substring(0, 4)),
-                                            AddressType.SHIPPING));
-
-                                    IntStream.range(0, new Random().nextInt(5))
-                                            .forEach(i -> order.getLineItems()
-                                                    .add(new LineItem(faker.commerce().productName(),
-                                                            "SKU-" + i, new Random().nextInt(3), Double
-                                                            .parseDouble(faker.commerce().price(.99, 50.0)), .06)));
-
-                                    Order result = accountService.postOrder(a, order);
-
-                                    sb.append(String.format("[New order posted to account %s]\n", a));
-                                } catch (Exception ex) {
-                                    log.error(ex);
-                                }
-                            });
+                    report = loadGenerator.run(properties.getRange(), i -> new LoadTask("order.post",
+                            () -> accountService.postOrder(i + 1, loadScenario.newOrder(i + 1))));
+
+                    sb.append(String.format("[New orders posted to %s accounts]\n", properties.getRange()));
                 } else {
-                    LongStream.range(0, properties.getRange())
-                            .forEach(a -> accountService
-                                    .create(new Account(faker.name().firstName(), faker.name().lastName(), faker
-                                            .internet()
-                                            .emailAddress(), AccountStatus.ACCOUNT_CREATED)));
+                    report = loadGenerator.run(properties.getRange(), i -> new LoadTask("account.create",
+                            () -> accountService.create(loadScenario.newAccount())));
 
                     sb.append(String.format("[%s new accounts created]\n", properties.getRange()));
                 }
+
+                sb.append(report);
                 break;
         }
     }
@@ -16,6 +16,14 @@
 
 package demo;
 
+import demo.account.service.AccountService;
+import demo.load.LoadGenerator;
+import demo.load.LoadScenario;
+import demo.order.service.OrderService;
+import demo.warehouse.service.WarehouseService;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.cloud.stream.annotation.EnableBinding;
@@ -24,6 +32,7 @@ import org.springframework.cloud.stream.messaging.Processor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
@@ -32,10 +41,43 @@ import org.springframework.web.client.RestTemplate;
 @EnableConfigurationProperties(LoadSimulatorProperties.class)
 public class LoadSimulatorConfiguration {
 
+    @Value("${http.client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${http.client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.client.connect-timeout-ms:2000}")
+    private int connectTimeout;
+
+    @Value("${http.client.read-timeout-ms:10000}")
+    private int readTimeout;
+
     @Bean
     @LoadBalanced
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        HttpClient httpClient = HttpClientBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .useSystemProperties()
+                .build();
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    public LoadGenerator loadGenerator(LoadSimulatorProperties properties) {
+        return new LoadGenerator(properties.getLoad());
+    }
+
+    @Bean
+    public LoadScenario loadScenario(LoadSimulatorProperties properties, AccountService accountService,
+            OrderService orderService, WarehouseService warehouseService) {
+        return new LoadScenario(properties, accountService, orderService, warehouseService);
     }
 
 }
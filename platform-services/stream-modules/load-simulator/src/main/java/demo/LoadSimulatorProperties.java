@@ -16,6 +16,7 @@
 
 package demo;
 
+import demo.load.WorkloadModel;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties
@@ -24,6 +25,8 @@ public class LoadSimulatorProperties {
     private Operation operation = Operation.CREATE;
     private Command command;
     private Long range = 1L;
+    private Load load = new Load();
+    private Scenario scenario = new Scenario();
 
     public Domain getDomain() {
         return domain;
@@ -56,4 +59,209 @@ public class LoadSimulatorProperties {
     public void setRange(Long range) {
         this.range = range;
     }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    public void setLoad(Load load) {
+        this.load = load;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public void setScenario(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Configures how the requests of a simulation are generated.
+     */
+    public static class Load {
+
+        /**
+         * The target rate of requests per second, or 0 to send requests as fast as the workers can.
+         */
+        private Double rate = 0.0;
+
+        /**
+         * The workload model. An open model requires a target rate.
+         */
+        private WorkloadModel model = WorkloadModel.CLOSED;
+
+        /**
+         * The number of workers that send requests concurrently.
+         */
+        private Integer workers = 8;
+
+        /**
+         * The number of inventory items that are added to a warehouse by a single request.
+         */
+        private Integer batchSize = 100;
+
+        public Double getRate() {
+            return rate;
+        }
+
+        public void setRate(Double rate) {
+            this.rate = rate;
+        }
+
+        public WorkloadModel getModel() {
+            return model;
+        }
+
+        public void setModel(WorkloadModel model) {
+            this.model = model;
+        }
+
+        public Integer getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(Integer workers) {
+            this.workers = workers;
+        }
+
+        public Integer getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(Integer batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    /**
+     * Configures the mixed workload of the order and warehouse simulations. Each request of a simulation is one of
+     * the operations of the scenario, chosen in proportion to the weights of the operations.
+     */
+    public static class Scenario {
+
+        /**
+         * The number of accounts that orders are posted to, which are created before the first simulation.
+         */
+        private Integer accounts = 10;
+
+        /**
+         * The number of warehouses that are created and stocked before the first simulation.
+         */
+        private Integer warehouses = 1;
+
+        /**
+         * The number of products of the catalog, named SKU-0 to SKU-(products - 1) by popularity.
+         */
+        private Integer products = 100;
+
+        /**
+         * The exponent of the Zipfian popularity of the products. 0 makes every product equally popular.
+         */
+        private Double zipfExponent = 0.99;
+
+        /**
+         * The units of each product that a new warehouse is stocked with.
+         */
+        private Integer initialStock = 10;
+
+        /**
+         * The units of a product that a restock adds to a warehouse.
+         */
+        private Integer restockUnits = 10;
+
+        private Integer createAccountWeight = 5;
+        private Integer postOrderWeight = 50;
+        private Integer getOrderWeight = 30;
+        private Integer createWarehouseWeight = 1;
+        private Integer restockInventoryWeight = 14;
+
+        public Integer getAccounts() {
+            return accounts;
+        }
+
+        public void setAccounts(Integer accounts) {
+            this.accounts = accounts;
+        }
+
+        public Integer getWarehouses() {
+            return warehouses;
+        }
+
+        public void setWarehouses(Integer warehouses) {
+            this.warehouses = warehouses;
+        }
+
+        public Integer getProducts() {
+            return products;
+        }
+
+        public void setProducts(Integer products) {
+            this.products = products;
+        }
+
+        public Double getZipfExponent() {
+            return zipfExponent;
+        }
+
+        public void setZipfExponent(Double zipfExponent) {
+            this.zipfExponent = zipfExponent;
+        }
+
+        public Integer getInitialStock() {
+            return initialStock;
+        }
+
+        public void setInitialStock(Integer initialStock) {
+            this.initialStock = initialStock;
+        }
+
+        public Integer getRestockUnits() {
+            return restockUnits;
+        }
+
+        public void setRestockUnits(Integer restockUnits) {
+            this.restockUnits = restockUnits;
+        }
+
+        public Integer getCreateAccountWeight() {
+            return createAccountWeight;
+        }
+
+        public void setCreateAccountWeight(Integer createAccountWeight) {
+            this.createAccountWeight = createAccountWeight;
+        }
+
+        public Integer getPostOrderWeight() {
+            return postOrderWeight;
+        }
+
+        public void setPostOrderWeight(Integer postOrderWeight) {
+            this.postOrderWeight = postOrderWeight;
+        }
+
+        public Integer getGetOrderWeight() {
+            return getOrderWeight;
+        }
+
+        public void setGetOrderWeight(Integer getOrderWeight) {
+            this.getOrderWeight = getOrderWeight;
+        }
+
+        public Integer getCreateWarehouseWeight() {
+            return createWarehouseWeight;
+        }
+
+        public void setCreateWarehouseWeight(Integer createWarehouseWeight) {
+            this.createWarehouseWeight = createWarehouseWeight;
+        }
+
+        public Integer getRestockInventoryWeight() {
+            return restockInventoryWeight;
+        }
+
+        public void setRestockInventoryWeight(Integer restockInventoryWeight) {
+            this.restockInventoryWeight = restockInventoryWeight;
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package demo.load;
+
+import demo.LoadSimulatorProperties;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Sends the requests of a simulation from a pool of workers at a target rate, and records the latency of each
+ * request by operation.
+ * <p>
+ * Every request is scheduled at {@code start + index / rate}, and its response time is measured from that time
+ * rather than from the time it was sent. A request that is held back by a slow request, either waiting for a free
+ * worker in an open model or behind the previous request of its worker in a closed model, records the time it
+ * waited, so that a stalled service is not hidden by coordinated omission. Without a target rate, requests are
+ * scheduled when they are sent.
+ *
+ * @author Kenny Bastani
+ */
+public class LoadGenerator implements DisposableBean {
+
+    private static final Logger log = Logger.getLogger(LoadGenerator.class);
+
+    private final LoadSimulatorProperties.Load properties;
+    private final ExecutorService workers;
+
+    public LoadGenerator(LoadSimulatorProperties.Load properties) {
+        Assert.isTrue(properties.getWorkers() > 0, "The load generator needs at least one worker");
+        this.properties = properties;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "load-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends a number of requests and waits for them to complete.
+     *
+     * @param requests is the number of requests to send
+     * @param tasks    creates the request with the given index
+     * @return a summary of the latencies of the requests
+     */
+    public LoadReport run(long requests, LongFunction<LoadTask> tasks) {
+        WorkloadModel model = properties.getModel();
+        double rate = properties.getRate() != null ? properties.getRate() : 0.0;
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0L;
+
+        Assert.isTrue(model != WorkloadModel.OPEN || interval > 0, "An open workload model needs a target rate");
+
+        LoadRecorder recorder = new LoadRecorder();
+        long start = System.nanoTime();
+
+        try {
+            if (model == WorkloadModel.OPEN) {
+                runOpen(requests, tasks, recorder, start, interval);
+            } else {
+                runClosed(requests, tasks, recorder, start, interval);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Load simulation was interrupted", ex);
+        }
+
+        return recorder.report(model, properties.getWorkers(), rate, System.nanoTime() - start);
+    }
+
+    private void runOpen(long requests, LongFunction<LoadTask> tasks, LoadRecorder recorder, long start,
+            long interval) throws InterruptedException {
+        CountDownLatch completed = new CountDownLatch(Math.toIntExact(requests));
+
+        long i;
+        for (i = 0; i < requests && !Thread.currentThread().isInterrupted(); i++) {
+            long scheduledAt = start + i * interval;
+            parkUntil(scheduledAt);
+            LoadTask task = tasks.apply(i);
+            workers.execute(() -> {
+                try {
+                    execute(task, scheduledAt, recorder);
+                } finally {
+                    completed.countDown();
+                }
+            });
+        }
+
+        // Requests that were never sent are not waited for
+        for (; i < requests; i++) {
+            completed.countDown();
+        }
+
+        completed.await();
+    }
+
+    private void runClosed(long requests, LongFunction<LoadTask> tasks, LoadRecorder recorder, long start,
+            long interval) throws InterruptedException {
+        AtomicLong next = new AtomicLong();
+        CountDownLatch completed = new CountDownLatch(properties.getWorkers());
+
+        for (int worker = 0; worker < properties.getWorkers(); worker++) {
+            workers.execute(() -> {
+                try {
+                    long i;
+                    while ((i = next.getAndIncrement()) < requests && !Thread.currentThread().isInterrupted()) {
+                        long scheduledAt = interval > 0 ? start + i * interval : System.nanoTime();
+                        parkUntil(scheduledAt);
+                        execute(tasks.apply(i), scheduledAt, recorder);
+                    }
+                } finally {
+                    completed.countDown();
+                }
+            });
+        }
+
+        completed.await();
+    }
+
+    private void execute(LoadTask task, long scheduledAt, LoadRecorder recorder) {
+        long sentAt = System.nanoTime();
+        try {
+            task.call();
+            recorder.success(task.getOperation(), scheduledAt, sentAt, System.nanoTime());
+        } catch (Exception ex) {
+            recorder.failure(task.getOperation());
+            log.error(String.format("Request of %s failed", task.getOperation()), ex);
+        }
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,61 @@
+package demo.load;
+
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the latency of the requests of a simulation in HDR histograms, in microseconds, by operation. Each
+ * request records two latencies:
+ * <ul>
+ * <li>the response time, from the time the request was scheduled to be sent, which corrects for coordinated
+ * omission by counting the time a request waited behind a slow request</li>
+ * <li>the service time, from the time the request was actually sent</li>
+ * </ul>
+ *
+ * @author Kenny Bastani
+ */
+class LoadRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, OperationRecorder> operations = new ConcurrentHashMap<>();
+
+    void success(String operation, long scheduledAt, long sentAt, long completedAt) {
+        OperationRecorder recorder = get(operation);
+        recorder.response.recordValue(toMicros(completedAt - scheduledAt));
+        recorder.service.recordValue(toMicros(completedAt - sentAt));
+    }
+
+    void failure(String operation) {
+        get(operation).errors.incrementAndGet();
+    }
+
+    LoadReport report(WorkloadModel model, int workers, double rate, long elapsedNanos) {
+        Map<String, LoadReport.OperationSummary> summaries = new TreeMap<>();
+        operations.forEach((name, recorder) -> summaries.put(name, new LoadReport.OperationSummary(name,
+                recorder.response.getIntervalHistogram(), recorder.service.getIntervalHistogram(),
+                recorder.errors.get())));
+        return new LoadReport(model, workers, rate, elapsedNanos, summaries.values());
+    }
+
+    private OperationRecorder get(String operation) {
+        return operations.computeIfAbsent(operation, key -> new OperationRecorder());
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static class OperationRecorder {
+
+        private final Recorder response = new Recorder(SIGNIFICANT_DIGITS);
+        private final Recorder service = new Recorder(SIGNIFICANT_DIGITS);
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
@@ -0,0 +1,110 @@
+package demo.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A summary of a simulation, with the throughput and latency percentiles of each operation.
+ *
+ * @author Kenny Bastani
+ */
+public class LoadReport {
+
+    private final WorkloadModel model;
+    private final int workers;
+    private final double rate;
+    private final long elapsedNanos;
+    private final List<OperationSummary> operations;
+
+    public LoadReport(WorkloadModel model, int workers, double rate, long elapsedNanos,
+            Collection<OperationSummary> operations) {
+        this.model = model;
+        this.workers = workers;
+        this.rate = rate;
+        this.elapsedNanos = elapsedNanos;
+        this.operations = Collections.unmodifiableList(new ArrayList<>(operations));
+    }
+
+    public WorkloadModel getModel() {
+        return model;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public List<OperationSummary> getOperations() {
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        double seconds = elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        StringBuilder sb = new StringBuilder(String.format("[%s load, %d workers, target %s, %.3f s]\n", model,
+                workers, rate > 0 ? String.format("%.1f req/s", rate) : "unlimited", seconds));
+
+        operations.forEach(operation -> {
+            Histogram response = operation.getResponseTime();
+            sb.append(String.format("[%s] %d requests, %d errors, %.1f req/s, response ms: mean=%.3f p50=%.3f " +
+                            "p90=%.3f p99=%.3f p99.9=%.3f max=%.3f, service ms: p99=%.3f\n",
+                    operation.getName(), response.getTotalCount(), operation.getErrors(),
+                    seconds > 0 ? response.getTotalCount() / seconds : 0.0, response.getMean() / 1000.0,
+                    toMillis(response, 50.0), toMillis(response, 90.0), toMillis(response, 99.0),
+                    toMillis(response, 99.9), response.getMaxValue() / 1000.0,
+                    toMillis(operation.getServiceTime(), 99.0)));
+        });
+
+        return sb.toString();
+    }
+
+    private static double toMillis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * The latencies of the successful requests of an operation, in microseconds, and the number of failed requests.
+     */
+    public static class OperationSummary {
+
+        private final String name;
+        private final Histogram responseTime;
+        private final Histogram serviceTime;
+        private final long errors;
+
+        public OperationSummary(String name, Histogram responseTime, Histogram serviceTime, long errors) {
+            this.name = name;
+            this.responseTime = responseTime;
+            this.serviceTime = serviceTime;
+            this.errors = errors;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Histogram getResponseTime() {
+            return responseTime;
+        }
+
+        public Histogram getServiceTime() {
+            return serviceTime;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package demo.load;
+
+import com.github.javafaker.Faker;
+import demo.LoadSimulatorProperties;
+import demo.account.domain.Account;
+import demo.account.domain.AccountStatus;
+import demo.account.service.AccountService;
+import demo.domain.Address;
+import demo.domain.AddressType;
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryStatus;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.order.service.OrderService;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.service.WarehouseService;
+import org.apache.log4j.Logger;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A mixed workload of account creation, order posting and lookups, warehouse creation and restocking. Each request
+ * of a simulation is one of the {@link ScenarioOperation}s, chosen in proportion to the configured weights.
+ * <p>
+ * The products of the catalog are named {@code SKU-0} to {@code SKU-(n - 1)} by popularity, and the products of
+ * orders and restocks follow a Zipfian distribution, so that a few hot products are contended by most orders. The
+ * accounts, orders and warehouses created by the scenario are remembered, so that later requests of this and the
+ * following simulations can refer to them.
+ *
+ * @author Kenny Bastani
+ */
+public class LoadScenario {
+
+    private static final Logger log = Logger.getLogger(LoadScenario.class);
+    private static final ThreadLocal<Faker> fakers = ThreadLocal.withInitial(Faker::new);
+
+    private final LoadSimulatorProperties properties;
+    private final AccountService accountService;
+    private final OrderService orderService;
+    private final WarehouseService warehouseService;
+    private final ZipfianDistribution products;
+
+    private final List<Long> accounts = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> orders = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> warehouses = Collections.synchronizedList(new ArrayList<>());
+
+    public LoadScenario(LoadSimulatorProperties properties, AccountService accountService,
+            OrderService orderService, WarehouseService warehouseService) {
+        this.properties = properties;
+        this.accountService = accountService;
+        this.orderService = orderService;
+        this.warehouseService = warehouseService;
+        this.products = new ZipfianDistribution(properties.getScenario().getProducts(),
+                properties.getScenario().getZipfExponent());
+    }
+
+    /**
+     * Creates the accounts and the stocked warehouses of the scenario that don't exist yet. The requests of the
+     * setup are not recorded.
+     *
+     * @param operations are the operations of the simulation, which decide what needs to be set up
+     * @return a description of what was created
+     */
+    public String setup(Set<ScenarioOperation> operations) {
+        LoadSimulatorProperties.Scenario scenario = properties.getScenario();
+        int createdAccounts = 0, createdWarehouses = 0;
+
+        if (operations.contains(ScenarioOperation.POST_ORDER)) {
+            while (accounts.size() < scenario.getAccounts()) {
+                createAccount();
+                createdAccounts++;
+            }
+        }
+
+        if (operations.contains(ScenarioOperation.POST_ORDER) ||
+                operations.contains(ScenarioOperation.RESTOCK_INVENTORY)) {
+            while (warehouses.size() < scenario.getWarehouses()) {
+                createWarehouse();
+                createdWarehouses++;
+            }
+        }
+
+        return String.format("[Scenario set up with %s new accounts and %s new warehouses]\n", createdAccounts,
+                createdWarehouses);
+    }
+
+    /**
+     * Creates the request of a simulation, which is one of the given operations chosen by weight.
+     *
+     * @param operations are the operations that the request can be one of
+     * @return the request
+     */
+    public LoadTask next(Set<ScenarioOperation> operations) {
+        ScenarioOperation operation = choose(operations);
+
+        switch (operation) {
+            case CREATE_ACCOUNT:
+                return new LoadTask(operation.getName(), this::createAccount);
+            case POST_ORDER:
+                return new LoadTask(operation.getName(), () -> postOrder(any(accounts, "account")));
+            case GET_ORDER:
+                // Look up an order that has been posted, or post one if there is none yet
+                return orders.isEmpty() ?
+                        new LoadTask(ScenarioOperation.POST_ORDER.getName(),
+                                () -> postOrder(any(accounts, "account"))) :
+                        new LoadTask(operation.getName(), () -> orderService.get(any(orders, "order")));
+            case CREATE_WAREHOUSE:
+                return new LoadTask(operation.getName(), this::createWarehouse);
+            case RESTOCK_INVENTORY:
+                return new LoadTask(operation.getName(), () -> restock(any(warehouses, "warehouse")));
+            default:
+                throw new IllegalArgumentException("Unknown scenario operation: " + operation);
+        }
+    }
+
+    /**
+     * Creates a new account with fake personal details.
+     *
+     * @return the new account
+     */
+    public Account newAccount() {
+        Faker faker = fakers.get();
+        return new Account(faker.name().firstName(), faker.name().lastName(), faker.internet().emailAddress(),
+                AccountStatus.ACCOUNT_CREATED);
+    }
+
+    /**
+     * Creates a new order of an account with up to four line items, whose products follow the popularity of the
+     * catalog.
+     *
+     * @param accountId is the account of the order
+     * @return the new order
+     */
+    public Order newOrder(Long accountId) {
+        Faker faker = fakers.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        Order order = new Order(accountId, newAddress(AddressType.SHIPPING));
+
+        IntStream.range(0, random.nextInt(1, 5))
+                .forEach(i -> order.getLineItems()
+                        .add(new LineItem(faker.commerce().productName(), nextProductId(), random.nextInt(1, 3),
+                                Double.parseDouble(faker.commerce().price(.99, 50.0)), .06)));
+
+        return order;
+    }
+
+    /**
+     * Creates a new address with fake details.
+     *
+     * @param addressType is the type of the address, or null
+     * @return the new address
+     */
+    public Address newAddress(AddressType addressType) {
+        Faker faker = fakers.get();
+        return new Address(faker.address().streetAddress(),
+                faker.address().buildingNumber(),
+                faker.address().state(),
+                faker.address().city(),
+                faker.address().country(),
+                Integer.parseInt(faker.address().zipCode().substring(0, 4)),
+                addressType);
+    }
+
+    private ScenarioOperation choose(Set<ScenarioOperation> operations) {
+        Map<ScenarioOperation, Integer> weights = getWeights();
+        int total = operations.stream().mapToInt(weights::get).sum();
+        Assert.isTrue(total > 0, "The operations of a simulation need a positive weight: " + operations);
+
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (ScenarioOperation operation : operations) {
+            value -= weights.get(operation);
+            if (value < 0)
+                return operation;
+        }
+
+        throw new IllegalStateException("No operation was chosen from " + operations);
+    }
+
+    private Map<ScenarioOperation, Integer> getWeights() {
+        LoadSimulatorProperties.Scenario scenario = properties.getScenario();
+        Map<ScenarioOperation, Integer> weights = new EnumMap<>(ScenarioOperation.class);
+        weights.put(ScenarioOperation.CREATE_ACCOUNT, Math.max(0, scenario.getCreateAccountWeight()));
+        weights.put(ScenarioOperation.POST_ORDER, Math.max(0, scenario.getPostOrderWeight()));
+        weights.put(ScenarioOperation.GET_ORDER, Math.max(0, scenario.getGetOrderWeight()));
+        weights.put(ScenarioOperation.CREATE_WAREHOUSE, Math.max(0, scenario.getCreateWarehouseWeight()));
+        weights.put(ScenarioOperation.RESTOCK_INVENTORY, Math.max(0, scenario.getRestockInventoryWeight()));
+        return weights;
+    }
+
+    private Account createAccount() {
+        Account account = accountService.create(newAccount());
+        if (account != null && account.getIdentity() != null)
+            accounts.add(account.getIdentity());
+        return account;
+    }
+
+    private Order postOrder(Long accountId) {
+        Order order = accountService.postOrder(accountId, newOrder(accountId));
+        if (order != null && order.getIdentity() != null)
+            orders.add(order.getIdentity());
+        return order;
+    }
+
+    private Warehouse createWarehouse() {
+        Warehouse warehouse = warehouseService.create(new Warehouse(newAddress(null)));
+        Assert.notNull(warehouse.getIdentity(), "The warehouse service did not return the new warehouse");
+
+        // Stock every product of the catalog, in batches of the configured size
+        List<Inventory> inventory = IntStream.range(0, products.getItems())
+                .mapToObj(LoadScenario::productId)
+                .flatMap(productId -> IntStream.range(0, properties.getScenario().getInitialStock())
+                        .mapToObj(unit -> new Inventory(InventoryStatus.INVENTORY_CREATED, productId)))
+                .collect(Collectors.toList());
+
+        int batchSize = properties.getLoad().getBatchSize();
+        for (int i = 0; i < inventory.size(); i += batchSize) {
+            warehouseService.addInventory(inventory.subList(i, Math.min(i + batchSize, inventory.size())),
+                    warehouse.getIdentity());
+        }
+
+        // The warehouse can only be restocked once its initial stock has been added
+        warehouses.add(warehouse.getIdentity());
+
+        log.info(String.format("Warehouse %s stocked with %s units", warehouse.getIdentity(), inventory.size()));
+
+        return warehouse;
+    }
+
+    private Long restock(Long warehouseId) {
+        String productId = nextProductId();
+        List<Inventory> inventory = IntStream.range(0, properties.getScenario().getRestockUnits())
+                .mapToObj(unit -> new Inventory(InventoryStatus.INVENTORY_CREATED, productId))
+                .collect(Collectors.toList());
+
+        return warehouseService.addInventory(inventory, warehouseId);
+    }
+
+    private String nextProductId() {
+        return productId(products.sample(ThreadLocalRandom.current()));
+    }
+
+    private static String productId(int rank) {
+        return "SKU-" + rank;
+    }
+
+    private static Long any(List<Long> ids, String name) {
+        synchronized (ids) {
+            if (ids.isEmpty())
+                throw new IllegalStateException(String.format("There is no %s to send the request to", name));
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package demo.load;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A single request of a simulation, named by the operation that its latency is recorded for.
+ *
+ * @author Kenny Bastani
+ */
+public class LoadTask {
+
+    private final String operation;
+    private final Callable<?> request;
+
+    public LoadTask(String operation, Callable<?> request) {
+        this.operation = operation;
+        this.request = request;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public Object call() throws Exception {
+        return request.call();
+    }
+}
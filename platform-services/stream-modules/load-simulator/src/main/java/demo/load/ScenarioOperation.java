@@ -0,0 +1,25 @@
+package demo.load;
+
+/**
+ * The operations of the mixed workload of a {@link LoadScenario}, named by the operation that their latency is
+ * recorded for.
+ *
+ * @author Kenny Bastani
+ */
+public enum ScenarioOperation {
+    CREATE_ACCOUNT("account.create"),
+    POST_ORDER("order.post"),
+    GET_ORDER("order.get"),
+    CREATE_WAREHOUSE("warehouse.create"),
+    RESTOCK_INVENTORY("inventory.restock");
+
+    private final String name;
+
+    ScenarioOperation(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
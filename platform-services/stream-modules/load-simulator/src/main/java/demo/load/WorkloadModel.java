@@ -0,0 +1,19 @@
+package demo.load;
+
+/**
+ * The workload models of the {@link LoadGenerator}.
+ *
+ * @author Kenny Bastani
+ */
+public enum WorkloadModel {
+    /**
+     * Requests arrive at the target rate regardless of how many requests are still in flight, and wait for a free
+     * worker when every worker is busy.
+     */
+    OPEN,
+    /**
+     * Each worker sends its next request after its previous request has completed, no sooner than the target
+     * rate allows.
+     */
+    CLOSED
+}
@@ -0,0 +1,52 @@
+package demo.load;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks from a Zipfian distribution, where the item of rank {@code k} is chosen with a probability
+ * proportional to {@code 1 / (k + 1)^exponent}. Rank 0 is the most popular item.
+ *
+ * @author Kenny Bastani
+ */
+public class ZipfianDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfianDistribution(int items, double exponent) {
+        Assert.isTrue(items > 0, "A Zipfian distribution needs at least one item");
+        Assert.isTrue(exponent >= 0, "The exponent of a Zipfian distribution cannot be negative");
+
+        cumulative = new double[items];
+        double sum = 0.0;
+        for (int k = 0; k < items; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+
+        for (int k = 0; k < items; k++) {
+            cumulative[k] /= sum;
+        }
+    }
+
+    /**
+     * @return the number of items of the distribution
+     */
+    public int getItems() {
+        return cumulative.length;
+    }
+
+    /**
+     * Samples the rank of an item.
+     *
+     * @param random is the source of randomness
+     * @return a rank between 0 and the number of items, exclusive
+     */
+    public int sample(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // A missed search returns the insertion point, which is the first rank whose cumulative probability is greater
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
@@ -18,6 +18,8 @@ import java.util.Map;
 @org.springframework.stereotype.Service
 public class OrderService {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final Logger log = Logger.getLogger(this.getClass());
     private final RestTemplate restTemplate;
 
@@ -97,7 +99,7 @@ public class OrderService {
     private String getHttpStatusMessage(RestClientResponseException ex) {
         Map<String, String> errorMap = new HashMap<>();
         try {
-            errorMap = new ObjectMapper()
+            errorMap = objectMapper
                     .readValue(ex.getResponseBodyAsString(), errorMap
                             .getClass());
         } catch (IOException e) {
@@ -7,5 +7,6 @@ package demo.warehouse.domain;
  * @author Kenny Bastani
  */
 public enum WarehouseEventType {
-    WAREHOUSE_CREATED
+    WAREHOUSE_CREATED,
+    INVENTORY_ADDED
 }
@@ -12,7 +12,6 @@ import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +19,8 @@ import java.util.Map;
 @org.springframework.stereotype.Service
 public class WarehouseService {
 
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
     private final Logger log = Logger.getLogger(this.getClass());
     private final RestTemplate restTemplate;
 
@@ -81,26 +82,32 @@ public class WarehouseService {
         return true;
     }
 
-    public List<Inventory> addInventory(List<Inventory> inventory, Long warehouseId) {
-        List<Inventory> result = new ArrayList<>();
+    /**
+     * Adds a list of inventory to a warehouse with a single request to the batch inventory endpoint.
+     *
+     * @param inventory   is the inventory to add
+     * @param warehouseId is the warehouse to add the inventory to
+     * @return the number of units of inventory that were added
+     */
+    public Long addInventory(List<Inventory> inventory, Long warehouseId) {
+        Map<?, ?> result;
         try {
-            inventory.parallelStream().forEach(item -> {
-                result.add(restTemplate.postForObject(new UriTemplate(String
-                        .format("http://warehouse-web/v1/warehouses/%s/inventory", warehouseId))
-                        .expand(), item, Inventory.class));
-            });
+            result = restTemplate.postForObject(new UriTemplate("http://warehouse-web/v1/warehouses/{id}/inventory" +
+                    "/batch")
+                    .with("id", TemplateVariable.VariableType.PATH_VARIABLE)
+                    .expand(warehouseId), inventory, Map.class);
         } catch (RestClientResponseException ex) {
             log.error("Add warehouse inventory failed", ex);
             throw new IllegalStateException(getHttpStatusMessage(ex), ex);
         }
 
-        return result;
+        return result != null ? ((Number) result.get("units")).longValue() : 0L;
     }
 
     private String getHttpStatusMessage(RestClientResponseException ex) {
         Map<String, String> errorMap = new HashMap<>();
         try {
-            errorMap = new ObjectMapper()
+            errorMap = objectMapper
                     .readValue(ex.getResponseBodyAsString(), errorMap
                             .getClass());
         } catch (IOException e) {
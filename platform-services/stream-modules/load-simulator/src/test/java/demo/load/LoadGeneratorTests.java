@@ -0,0 +1,60 @@
+package demo.load;
+
+import demo.LoadSimulatorProperties;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadGeneratorTests {
+
+    private LoadGenerator generator;
+
+    @After
+    public void tearDown() {
+        generator.destroy();
+    }
+
+    @Test
+    public void closedModelSendsEveryRequest() {
+        generator = new LoadGenerator(load(WorkloadModel.CLOSED, 0.0, 4));
+
+        LoadReport report = generator.run(100L, i -> new LoadTask(i % 10 == 0 ? "failed" : "sent", () -> {
+            if (i % 10 == 0)
+                throw new IllegalStateException("Request failed");
+            return i;
+        }));
+
+        assertThat(report.getOperations()).extracting(LoadReport.OperationSummary::getName)
+                .containsExactly("failed", "sent");
+        assertThat(report.getOperations().get(0).getErrors()).isEqualTo(10L);
+        assertThat(report.getOperations().get(1).getResponseTime().getTotalCount()).isEqualTo(90L);
+        assertThat(report.toString()).contains("[sent] 90 requests, 0 errors");
+    }
+
+    @Test
+    public void openModelCountsTheTimeRequestsWaitForAWorker() {
+        generator = new LoadGenerator(load(WorkloadModel.OPEN, 100.0, 1));
+
+        // A single worker is slower than the arrival rate, so later requests queue behind earlier ones
+        LoadReport report = generator.run(10L, i -> new LoadTask("slow", () -> {
+            Thread.sleep(50L);
+            return i;
+        }));
+
+        LoadReport.OperationSummary slow = report.getOperations().get(0);
+        assertThat(slow.getResponseTime().getTotalCount()).isEqualTo(10L);
+        assertThat(slow.getResponseTime().getMaxValue()).isGreaterThan(TimeUnit.MILLISECONDS.toMicros(300L));
+        assertThat(slow.getServiceTime().getMaxValue()).isLessThan(TimeUnit.MILLISECONDS.toMicros(300L));
+    }
+
+    private static LoadSimulatorProperties.Load load(WorkloadModel model, Double rate, Integer workers) {
+        LoadSimulatorProperties.Load load = new LoadSimulatorProperties.Load();
+        load.setModel(model);
+        load.setRate(rate);
+        load.setWorkers(workers);
+        return load;
+    }
+}
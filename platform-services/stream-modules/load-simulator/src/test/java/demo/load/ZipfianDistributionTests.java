@@ -0,0 +1,42 @@
+package demo.load;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class ZipfianDistributionTests {
+
+    private static final int SAMPLES = 100000;
+
+    @Test
+    public void popularRanksAreSampledMoreOften() {
+        long[] counts = sample(new ZipfianDistribution(100, 1.0));
+
+        // The harmonic number of 100 is about 5.187, so rank 0 is chosen about 19.3% of the time
+        assertThat(counts[0] / (double) SAMPLES).isCloseTo(0.193, within(0.01));
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[9]);
+        assertThat(counts[9]).isGreaterThan(counts[99]);
+    }
+
+    @Test
+    public void zeroExponentIsUniform() {
+        long[] counts = sample(new ZipfianDistribution(10, 0.0));
+
+        for (long count : counts) {
+            assertThat(count / (double) SAMPLES).isCloseTo(0.1, within(0.01));
+        }
+    }
+
+    private static long[] sample(ZipfianDistribution distribution) {
+        Random random = new Random(42L);
+        long[] counts = new long[distribution.getItems()];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[distribution.sample(random)]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,145 @@
+package demo.client;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class auto-configures a pooled {@link ClientHttpRequestFactory} for the {@code RestTemplate}s that call
+ * other microservices, which keeps connections alive between requests instead of opening a connection for every
+ * request, and the {@link ServiceClients} that run the asynchronous requests of each {@link RemoteService}. The
+ * {@code AsyncRestTemplate}s of the services share a pooled non-blocking client with the same limits through the
+ * {@link AsyncClientHttpRequestFactory}.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnClass(HttpClient.class)
+public class HttpClientAutoConfig {
+
+    @Value("${http.client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${http.client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.client.max-connections-per-service:16}")
+    private int maxConnectionsPerService;
+
+    @Value("${http.client.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${http.client.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${http.client.pool-timeout-ms:2000}")
+    private int poolTimeoutMs;
+
+    @Value("${http.client.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(idleTimeoutMs,
+                TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // Check that a connection is still open before reusing it after a second of inactivity
+        connectionManager.setValidateAfterInactivity(1000);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .setConnectionRequestTimeout(poolTimeoutMs)
+                        .build())
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnMissingBean
+    public ClientHttpRequestFactory clientHttpRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public CloseableHttpAsyncClient httpAsyncClient() {
+        return HttpAsyncClients.custom()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .setConnectionRequestTimeout(poolTimeoutMs)
+                        .build())
+                .build();
+    }
+
+    /**
+     * The factory is also a {@link ClientHttpRequestFactory}, which shares the pooled blocking client, so the
+     * blocking factory is the primary one.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AsyncClientHttpRequestFactory asyncClientHttpRequestFactory(CloseableHttpClient httpClient,
+            CloseableHttpAsyncClient httpAsyncClient) {
+        return new HttpComponentsAsyncClientHttpRequestFactory(httpClient, httpAsyncClient);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceClients serviceClients(Environment environment) {
+        return new ServiceClients(environment, maxConnectionsPerService);
+    }
+
+    @Configuration
+    @ConditionalOnClass({HttpClient.class, PublicMetrics.class})
+    static class HttpClientMetricsConfig {
+
+        @Bean
+        public PublicMetrics httpClientMetrics(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+            return () -> {
+                PoolStats stats = httpClientConnectionManager.getTotalStats();
+
+                Collection<Metric<?>> metrics = new ArrayList<>();
+                metrics.add(new Metric<>("http.client.leased", stats.getLeased()));
+                metrics.add(new Metric<>("http.client.available", stats.getAvailable()));
+                metrics.add(new Metric<>("http.client.pending", stats.getPending()));
+                metrics.add(new Metric<>("http.client.max", stats.getMax()));
+                return metrics;
+            };
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package demo.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.domain.Aggregate;
+import demo.domain.BaseUriLinkBuilder;
+import demo.domain.Service;
+import demo.trace.SagaTrace;
+import demo.trace.SagaTraceContext;
+import org.apache.log4j.Logger;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * A {@link RemoteService} is a {@link Service} for an {@link Aggregate} that is owned by another microservice and
+ * is accessed over HTTP. Each blocking request has a {@link CompletableFuture} variant that runs on the bounded
+ * thread pool of the remote service, so that requests to several aggregates can be made concurrently. Requests that
+ * are sent often enough to matter are made with an {@link AsyncRestTemplate} instead, which does not hold a thread
+ * while the response is pending, and the response is adapted to a {@link CompletableFuture}.
+ *
+ * @author Kenny Bastani
+ * @see ServiceClients
+ */
+public abstract class RemoteService<T extends Aggregate, ID extends Serializable> extends Service<T, ID> {
+
+    private static final Logger log = Logger.getLogger(RemoteService.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    protected final RestTemplate restTemplate;
+    private final ExecutorService executor;
+
+    protected RemoteService(RestTemplate restTemplate, ExecutorService executor) {
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<T> getAsync(ID id) {
+        return async(() -> get(id));
+    }
+
+    public CompletableFuture<T> createAsync(T entity) {
+        return async(() -> create(entity));
+    }
+
+    public CompletableFuture<T> updateAsync(T entity) {
+        return async(() -> update(entity));
+    }
+
+    public CompletableFuture<Boolean> deleteAsync(ID id) {
+        return async(() -> delete(id));
+    }
+
+    /**
+     * Run a request to the remote service asynchronously. The request attributes of the caller are not shared with
+     * the thread that runs the request, since the request may complete before it does. The hypermedia links of an
+     * aggregate are built from the base URI of the caller's request instead, and the saga trace of the caller is
+     * continued by the request.
+     *
+     * @param request is the blocking request
+     * @return a future of the response
+     */
+    protected <R> CompletableFuture<R> async(Supplier<R> request) {
+        URI baseUri = getBaseUri();
+        SagaTrace trace = SagaTraceContext.get();
+
+        return CompletableFuture.supplyAsync(() -> {
+            SagaTraceContext.begin(trace);
+            try {
+                return baseUri != null ? BaseUriLinkBuilder.withBaseUri(baseUri, request) : request.get();
+            } finally {
+                SagaTraceContext.end();
+            }
+        }, executor);
+    }
+
+    /**
+     * Adapt the response of an {@link AsyncRestTemplate} to a {@link CompletableFuture} of its body. The request
+     * body is written and the interceptors run on the calling thread, so the links of the request body and the saga
+     * trace are resolved before the call returns. An error response fails the future with an
+     * {@link IllegalStateException}, the same as the blocking requests of the service.
+     *
+     * @param response is the pending response of the remote service
+     * @param failure  is the message that is logged if the request fails
+     * @return a future of the body of the response
+     */
+    protected <R> CompletableFuture<R> async(ListenableFuture<ResponseEntity<R>> response, String failure) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+
+        response.addCallback(entity -> result.complete(entity.getBody()), ex -> {
+            log.error(failure, ex);
+
+            if (ex instanceof RestClientResponseException) {
+                result.completeExceptionally(new IllegalStateException(
+                        getHttpStatusMessage((RestClientResponseException) ex), ex));
+            } else {
+                result.completeExceptionally(ex);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Get the message of an error response of the remote service.
+     *
+     * @param ex is the exception of the error response
+     * @return the message of the error, or null if the response has no message
+     */
+    protected String getHttpStatusMessage(RestClientResponseException ex) {
+        try {
+            Object message = objectMapper.readValue(ex.getResponseBodyAsString(), Map.class).get("message");
+            return message != null ? message.toString() : null;
+        } catch (IOException e) {
+            log.debug("The error response has no message", e);
+            return null;
+        }
+    }
+
+    private static URI getBaseUri() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes))
+            return null;
+
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUri();
+    }
+}
@@ -0,0 +1,67 @@
+package demo.client;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides a bounded thread pool for each remote service that the asynchronous requests of a {@link RemoteService}
+ * run on. The size of the pool of a service limits the number of concurrent requests, and so the number of pooled
+ * connections, that an application holds to that service. It is {@code http.client.services.<service>.max-connections}
+ * or {@code http.client.max-connections-per-service} when the service is not configured.
+ *
+ * @author Kenny Bastani
+ */
+public class ServiceClients implements DisposableBean {
+
+    private final Environment environment;
+    private final int maxConnectionsPerService;
+    private final Map<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    public ServiceClients(Environment environment, int maxConnectionsPerService) {
+        this.environment = environment;
+        this.maxConnectionsPerService = maxConnectionsPerService;
+    }
+
+    /**
+     * Get the thread pool of a remote service, creating it on first use.
+     *
+     * @param serviceId is the identifier of the service, as it is registered with discovery
+     * @return the thread pool for requests to the service
+     */
+    public ExecutorService getExecutor(String serviceId) {
+        return executors.computeIfAbsent(serviceId, this::createExecutor);
+    }
+
+    /**
+     * Get the maximum number of concurrent requests to a remote service.
+     *
+     * @param serviceId is the identifier of the service
+     * @return the maximum number of concurrent requests
+     */
+    public int getMaxConnections(String serviceId) {
+        return environment.getProperty(String.format("http.client.services.%s.max-connections", serviceId),
+                Integer.class, maxConnectionsPerService);
+    }
+
+    private ExecutorService createExecutor(String serviceId) {
+        AtomicInteger count = new AtomicInteger();
+
+        return Executors.newFixedThreadPool(getMaxConnections(serviceId), runnable -> {
+            Thread thread = new Thread(runnable, serviceId + "-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executors.values().forEach(ExecutorService::shutdown);
+        executors.clear();
+    }
+}
@@ -9,17 +9,12 @@ import org.springframework.core.ResolvableType;
 import org.springframework.hateoas.*;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
-
 /**
  * An {@link Aggregate} is an entity that contains references to one or more other {@link Entity} objects. Aggregates
  * may contain a collection of references to a {@link Command}. All command references on an aggregate should be
@@ -60,6 +55,11 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
     @SuppressWarnings("unchecked")
     @JsonIgnore
     public <T extends Module<A>, A extends Aggregate<E, ID>> T getModule() throws IllegalArgumentException {
+        T module = ModuleRegistry.getModule(applicationContext, getClass());
+
+        if (module != null)
+            return module;
+
         return getModule((Class<T>) ResolvableType
                 .forClassWithGenerics(Module.class, ResolvableType.forInstance(this))
                 .getRawClass());
@@ -75,7 +75,11 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
     public <T extends Module<A>, A extends Aggregate<E, ID>> T getModule(Class<T> providerType) throws
             IllegalArgumentException {
         Assert.notNull(applicationContext, "The application context is unavailable");
-        T provider = applicationContext.getBean(providerType);
+        T provider = ModuleRegistry.getBean(applicationContext, providerType);
+
+        if (provider == null)
+            provider = applicationContext.getBean(providerType);
+
         Assert.notNull(provider, "The requested provider is not registered in the application context");
         return (T) provider;
     }
@@ -102,7 +106,7 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
      */
 
     public boolean sendAsyncEvent(E event, Link... links) {
-        return getEventService().sendAsync(appendEvent(event), links);
+        return getEventService().execute(() -> getEventService().sendAsync(appendEvent(event), links));
     }
 
     @Transactional
@@ -115,6 +119,36 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
         return event;
     }
 
+    /**
+     * Append a list of new {@link Event}s to the {@link Aggregate} and send them asynchronously, in the order of the
+     * list. The events are appended with {@link #appendEvents(List)}.
+     *
+     * @param events are the {@link Event}s to append to the {@link Aggregate} entity
+     * @return true if every {@link Event} message was sent successfully
+     */
+    public boolean sendAsyncEvents(List<E> events, Link... links) {
+        return getEventService().execute(() -> appendEvents(events).stream()
+                .map(event -> getEventService().sendAsync(event, links))
+                .reduce(true, Boolean::logicalAnd));
+    }
+
+    /**
+     * Append a list of new {@link Event}s to the {@link Aggregate}. The events are saved together, so that the inserts
+     * can be batched, and the {@link Aggregate} is updated once instead of once for every {@link Event}.
+     *
+     * @param events are the {@link Event}s to append to the {@link Aggregate} entity
+     * @return the newly appended {@link Event}s
+     */
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<E> appendEvents(List<E> events) {
+        events.forEach(event -> event.setEntity(this));
+        List<E> result = getEventService().save(events);
+        getEvents().addAll(result);
+        getEntityService().update(this);
+        return result;
+    }
+
     @Override
     public List<Link> getLinks() {
         List<Link> links = super.getLinks()
@@ -127,35 +161,18 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
         return links;
     }
 
+    /**
+     * Retrieves the links of the {@link Command}s that can be applied to this {@link Aggregate}. The commands of an
+     * aggregate type are resolved once by the {@link CommandRegistry}.
+     *
+     * @return the command links of this aggregate
+     */
     @JsonIgnore
     public CommandResources getCommands() {
         CommandResources commandResources = new CommandResources();
 
-        // Get command annotations on the aggregate
-        List<Command> commands = Arrays.stream(this.getClass()
-                .getMethods())
-                .filter(a -> a.isAnnotationPresent(Command.class))
-                .map(a -> a.getAnnotation(Command.class))
-                .collect(Collectors.toList());
-
         // Compile the collection of command links
-        List<Link> commandLinks = commands.stream()
-                .map(a -> Arrays.stream(ReflectionUtils.getAllDeclaredMethods(a.controller()))
-                        .filter(m -> m.getName()
-                                .equalsIgnoreCase(a.method()))
-                        .findFirst()
-                        .orElseGet(null))
-                .map(m -> {
-                    String uri = linkTo(m, getIdentity()).withRel(m.getName())
-                            .getHref();
-
-                    return new Link(new UriTemplate(uri, new TemplateVariables(Arrays.stream(m.getParameters())
-                            .filter(p -> p.isAnnotationPresent(RequestParam.class))
-                            .map(p -> new TemplateVariable(p.getAnnotation(RequestParam.class)
-                                    .value(), TemplateVariable.VariableType.REQUEST_PARAM))
-                            .toArray(TemplateVariable[]::new))), m.getName());
-                })
-                .collect(Collectors.toList());
+        List<Link> commandLinks = CommandRegistry.getLinks(getClass(), getIdentity());
 
         commandResources.add(commandLinks);
 
@@ -0,0 +1,83 @@
+package demo.domain;
+
+import org.springframework.hateoas.LinkBuilder;
+import org.springframework.hateoas.core.AnnotationMappingDiscoverer;
+import org.springframework.hateoas.core.LinkBuilderSupport;
+import org.springframework.hateoas.core.MappingDiscoverer;
+import org.springframework.hateoas.mvc.ControllerLinkBuilder;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.function.Supplier;
+
+/**
+ * Builds links to the mapping of a controller. {@link ControllerLinkBuilder} resolves the base URI of its links from
+ * the current request, so work that runs outside of a request, such as a background task, supplies the base URI that
+ * the service is reachable on with {@link #withBaseUri(URI, Supplier)}, and the links of the aggregates and events it
+ * sends are built from that URI instead.
+ *
+ * @author Kenny Bastani
+ */
+public class BaseUriLinkBuilder extends LinkBuilderSupport<BaseUriLinkBuilder> {
+
+    private static final MappingDiscoverer DISCOVERER = new AnnotationMappingDiscoverer(RequestMapping.class);
+    private static final ThreadLocal<URI> baseUri = new ThreadLocal<>();
+
+    BaseUriLinkBuilder(UriComponentsBuilder builder) {
+        super(builder);
+    }
+
+    /**
+     * Creates a link builder for the mapping of a controller, relative to the base URI that the current thread
+     * builds links from, or to the current request if no base URI is supplied.
+     *
+     * @param controller is the controller to build links to
+     * @return a link builder for the mapping of the controller
+     */
+    public static LinkBuilder linkTo(Class<?> controller) {
+        URI uri = baseUri.get();
+
+        if (uri == null)
+            return ControllerLinkBuilder.linkTo(controller);
+
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUri(uri);
+        String mapping = DISCOVERER.getMapping(controller);
+
+        return new BaseUriLinkBuilder(mapping == null ? builder : builder.path(mapping));
+    }
+
+    /**
+     * Executes a callback that builds the links of the current thread from the supplied base URI.
+     *
+     * @param uri      is the base URI that the service is reachable on
+     * @param callback builds links outside of a request
+     * @return the result of the callback
+     */
+    public static <R> R withBaseUri(URI uri, Supplier<R> callback) {
+        Assert.notNull(uri, "The base URI of the links must not be null");
+
+        URI previous = baseUri.get();
+        baseUri.set(uri);
+
+        try {
+            return callback.get();
+        } finally {
+            if (previous != null)
+                baseUri.set(previous);
+            else
+                baseUri.remove();
+        }
+    }
+
+    @Override
+    protected BaseUriLinkBuilder getThis() {
+        return this;
+    }
+
+    @Override
+    protected BaseUriLinkBuilder createNewInstance(UriComponentsBuilder builder) {
+        return new BaseUriLinkBuilder(builder);
+    }
+}
@@ -0,0 +1,177 @@
+package demo.domain;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.TemplateVariable;
+import org.springframework.hateoas.TemplateVariables;
+import org.springframework.hateoas.UriTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static demo.domain.BaseUriLinkBuilder.linkTo;
+
+/**
+ * A registry of the {@link Command}s that are declared on each {@link Aggregate} type. Resolving the controller
+ * method and the request parameters of a {@link Command} requires reflection, so the registry resolves the commands
+ * of an {@link Aggregate} type once and caches them. The commands of every {@link Module}'s aggregate are resolved
+ * when the application starts, and other aggregate types are resolved when they are first requested.
+ *
+ * @author Kenny Bastani
+ * @see Aggregate#getCommands()
+ */
+public class CommandRegistry implements SmartInitializingSingleton, ApplicationContextAware {
+
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{[^}]+}");
+    private static final ConcurrentMap<Class<?>, List<CommandLink>> commands = new ConcurrentHashMap<>();
+
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        applicationContext.getBeansOfType(Module.class).values().stream()
+                .map(module -> ResolvableType.forClass(module.getClass()).as(Module.class).resolveGeneric(0))
+                .filter(aggregateType -> aggregateType != null)
+                .forEach(CommandRegistry::getCommands);
+    }
+
+    /**
+     * Retrieves the {@link Command}s of an {@link Aggregate} type, resolving them if they are not cached yet.
+     *
+     * @param aggregateType is the {@link Aggregate} type that declares the commands
+     * @return the commands of the aggregate type
+     */
+    public static List<CommandLink> getCommands(Class<?> aggregateType) {
+        return commands.computeIfAbsent(aggregateType, CommandRegistry::resolveCommands);
+    }
+
+    /**
+     * Builds the links of the {@link Command}s of an {@link Aggregate}, relative to the current request. The base URI
+     * of each controller is built once per call.
+     *
+     * @param aggregateType is the {@link Aggregate} type that declares the commands
+     * @param identity      is the identity of the {@link Aggregate}
+     * @return the links of the commands
+     */
+    public static List<Link> getLinks(Class<?> aggregateType, Object identity) {
+        Map<Class<?>, String> baseUris = new HashMap<>();
+
+        return getCommands(aggregateType).stream()
+                .map(command -> command.toLink(baseUris.computeIfAbsent(command.getController(),
+                        controller -> linkTo(controller).toString()), identity))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Resolves the {@link Command}s of an {@link Aggregate} type by reflecting on the aggregate and its controllers.
+     *
+     * @param aggregateType is the {@link Aggregate} type that declares the commands
+     * @return the commands of the aggregate type
+     */
+    public static List<CommandLink> resolveCommands(Class<?> aggregateType) {
+        return Collections.unmodifiableList(Arrays.stream(aggregateType.getMethods())
+                .filter(a -> a.isAnnotationPresent(Command.class))
+                .map(a -> a.getAnnotation(Command.class))
+                .map(a -> {
+                    Method method = Arrays.stream(ReflectionUtils.getAllDeclaredMethods(a.controller()))
+                            .filter(m -> m.getName()
+                                    .equalsIgnoreCase(a.method()))
+                            .findFirst()
+                            .orElse(null);
+
+                    Assert.notNull(method, String.format("The command method %s does not exist on %s", a.method(),
+                            a.controller().getName()));
+
+                    return new CommandLink(a.controller(), method);
+                })
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * The resolved link metadata of a {@link Command}. Building the link of a command for an {@link Aggregate} only
+     * requires the identity of the aggregate to be substituted into the cached path of the controller method, so the
+     * mapping of a command method may not have a path variable other than the identity.
+     */
+    public static class CommandLink {
+
+        private final Class<?> controller;
+        private final String rel;
+        private final String pathPrefix;
+        private final String pathSuffix;
+        private final TemplateVariables templateVariables;
+
+        CommandLink(Class<?> controller, Method method) {
+            RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+            String path = mapping != null && mapping.path().length > 0 ? mapping.path()[0] : "";
+
+            if (!path.isEmpty() && !path.startsWith("/"))
+                path = "/" + path;
+
+            // The identity of the aggregate is the only path variable of the command mapping
+            Matcher matcher = PATH_VARIABLE.matcher(path);
+
+            if (matcher.find()) {
+                this.pathPrefix = path.substring(0, matcher.start());
+                this.pathSuffix = path.substring(matcher.end());
+
+                Assert.isTrue(!matcher.find(), String.format("The command method %s of %s must have at most one " +
+                        "path variable, which is the identity of the aggregate", method.getName(),
+                        controller.getName()));
+            } else {
+                this.pathPrefix = path;
+                this.pathSuffix = null;
+            }
+
+            this.controller = controller;
+            this.rel = method.getName();
+            this.templateVariables = new TemplateVariables(Arrays.stream(method.getParameters())
+                    .filter(p -> p.isAnnotationPresent(RequestParam.class))
+                    .map(p -> new TemplateVariable(p.getAnnotation(RequestParam.class)
+                            .value(), TemplateVariable.VariableType.REQUEST_PARAM))
+                    .toArray(TemplateVariable[]::new));
+        }
+
+        public Class<?> getController() {
+            return controller;
+        }
+
+        public String getRel() {
+            return rel;
+        }
+
+        /**
+         * Builds the templated link of the command for an {@link Aggregate}.
+         *
+         * @param baseUri  is the URI of the controller for the current request
+         * @param identity is the identity of the {@link Aggregate}
+         * @return the link of the command
+         */
+        public Link toLink(String baseUri, Object identity) {
+            String uri = pathSuffix != null ? baseUri + pathPrefix + identity + pathSuffix : baseUri + pathPrefix;
+            return new Link(new UriTemplate(uri, templateVariables), rel);
+        }
+    }
+}
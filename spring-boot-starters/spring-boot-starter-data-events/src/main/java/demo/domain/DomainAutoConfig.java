@@ -0,0 +1,27 @@
+package demo.domain;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class auto-configures the registries that resolve the {@link Command}s, {@link Module}s and {@link Action}s
+ * of the domain model once, instead of on every request.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+public class DomainAutoConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public CommandRegistry commandRegistry() {
+        return new CommandRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ModuleRegistry moduleRegistry() {
+        return new ModuleRegistry();
+    }
+}
@@ -0,0 +1,128 @@
+package demo.domain;
+
+import org.springframework.beans.BeansException;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.util.ClassUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable lookup table of the {@link Module} and {@link Action} beans of an application context, which is
+ * built when the context is refreshed. Looking up a bean by its type in the application context resolves the bean
+ * definitions of the context on every call, which is the dominant cost of dispatching a {@link Command} to its
+ * {@link Action}. The lookup table reduces that to a single map read.
+ * <p>
+ * Beans are indexed by their class and by each of their superclasses, as long as the class identifies a single
+ * bean. Types that are not in the table are looked up in the application context as before.
+ *
+ * @author Kenny Bastani
+ * @see Aggregate#getModule(Class)
+ * @see Service#getAction(Class)
+ */
+public class ModuleRegistry implements ApplicationListener<ApplicationContextEvent>, ApplicationContextAware {
+
+    private static final Map<ApplicationContext, Lookup> lookups = new ConcurrentHashMap<>();
+
+    private ApplicationContext applicationContext;
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationContextEvent event) {
+        // Events of child contexts are propagated to this context, but their beans are indexed by their own registry
+        if (event.getApplicationContext() != applicationContext)
+            return;
+
+        if (event instanceof ContextRefreshedEvent) {
+            lookups.put(applicationContext, new Lookup(applicationContext));
+        } else if (event instanceof ContextClosedEvent) {
+            lookups.remove(applicationContext);
+        }
+    }
+
+    /**
+     * Retrieves a {@link Module} or {@link Action} bean by its type.
+     *
+     * @param applicationContext is the application context that contains the bean
+     * @param type               is the type of the bean
+     * @return the bean, or {@literal null} if the type is not indexed for the application context
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T getBean(ApplicationContext applicationContext, Class<T> type) {
+        Lookup lookup = applicationContext != null ? lookups.get(applicationContext) : null;
+        return lookup != null ? (T) lookup.beans.get(type) : null;
+    }
+
+    /**
+     * Retrieves the {@link Module} that manages an {@link Aggregate} type.
+     *
+     * @param applicationContext is the application context that contains the {@link Module}
+     * @param aggregateType      is the type of the {@link Aggregate}, or a subclass of it such as a persistence proxy
+     * @return the {@link Module}, or {@literal null} if no single module is indexed for the aggregate type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Module> T getModule(ApplicationContext applicationContext, Class<?> aggregateType) {
+        Lookup lookup = applicationContext != null ? lookups.get(applicationContext) : null;
+
+        if (lookup == null)
+            return null;
+
+        for (Class<?> type = aggregateType; type != null && type != Aggregate.class; type = type.getSuperclass()) {
+            Module module = lookup.modules.get(type);
+            if (module != null)
+                return (T) module;
+        }
+
+        return null;
+    }
+
+    private static class Lookup {
+
+        private final Map<Class<?>, Object> beans;
+        private final Map<Class<?>, Module> modules;
+
+        Lookup(ApplicationContext applicationContext) {
+            Map<Class<?>, Object> beans = new HashMap<>();
+            Map<Class<?>, Module> modules = new HashMap<>();
+            Set<Class<?>> ambiguous = new HashSet<>();
+
+            applicationContext.getBeansOfType(Module.class, false, true).values().forEach(module -> {
+                index(beans, ambiguous, module, Module.class);
+
+                Class<?> aggregateType = ResolvableType.forClass(ClassUtils.getUserClass(module))
+                        .as(Module.class).resolveGeneric(0);
+
+                if (aggregateType != null && modules.putIfAbsent(aggregateType, module) != null)
+                    ambiguous.add(aggregateType);
+            });
+
+            applicationContext.getBeansOfType(Action.class, false, true).values()
+                    .forEach(action -> index(beans, ambiguous, action, Action.class));
+
+            ambiguous.forEach(beans::remove);
+            ambiguous.forEach(modules::remove);
+
+            this.beans = Collections.unmodifiableMap(beans);
+            this.modules = Collections.unmodifiableMap(modules);
+        }
+
+        private static void index(Map<Class<?>, Object> beans, Set<Class<?>> ambiguous, Object bean, Class<?>
+                baseType) {
+            for (Class<?> type = ClassUtils.getUserClass(bean); type != null && baseType.isAssignableFrom(type);
+                 type = type.getSuperclass()) {
+                if (beans.putIfAbsent(type, bean) != null)
+                    ambiguous.add(type);
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ public abstract class Service<T extends Aggregate, ID extends Serializable> impl
 
     @SuppressWarnings("unchecked")
     public <A extends Action<T>> A getAction(Class<? extends A> clazz) {
-        return applicationContext.getBean(clazz);
+        A action = ModuleRegistry.getBean(applicationContext, clazz);
+        return action != null ? action : applicationContext.getBean(clazz);
     }
 }
@@ -1,10 +1,16 @@
 package demo.event;
 
 import demo.domain.Aggregate;
+import demo.trace.SagaTrace;
+import demo.trace.SagaTraceRecorder;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.hateoas.Resource;
@@ -12,12 +18,19 @@ import org.springframework.http.MediaType;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.ResponseEntity;
 import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Event service implementation of {@link EventService} for managing {@link Event} entities.
@@ -30,11 +43,31 @@ import java.net.URI;
 @SuppressWarnings("unchecked")
 public class BasicEventService<T extends Event, ID extends Serializable> implements EventService<T, ID> {
 
+    /**
+     * The message header that carries the identity of the entity an event applies to. Producer bindings use it as
+     * the partition key, so that every event of an entity is delivered in order to the same consumer.
+     */
+    public static final String AGGREGATE_ID_HEADER = "aggregateId";
+
     private static final Logger log = Logger.getLogger(BasicEventService.class);
+    private static final Pageable EVENT_LOG_ORDER = new PageRequest(0, Integer.MAX_VALUE,
+            new Sort(Sort.Direction.ASC, "createdAt", "eventId"));
 
     @Value("${events.worker:http://localhost:8080/v1/events}")
     private String eventsWorker;
 
+    @Value("${events.digest.enabled:false}")
+    private boolean digestEnabled;
+
+    @Value("${events.digest.max-size:100}")
+    private int digestMaxSize;
+
+    @Autowired(required = false)
+    private EventOutbox eventOutbox;
+
+    @Autowired(required = false)
+    private SagaTraceRecorder sagaTraceRecorder;
+
     private final EventRepository<T, ID> eventRepository;
     private final EventSource eventSource;
     private final RestTemplate restTemplate;
@@ -68,10 +101,92 @@ public class BasicEventService<T extends Event, ID extends Serializable> impleme
     }
 
     public <S extends T> Boolean sendAsync(S event, Link... links) {
-        return eventSource.getChannel()
-                .send(MessageBuilder.withPayload(event)
-                        .setHeader("contentType", MediaType.APPLICATION_JSON_UTF8_VALUE)
-                        .build());
+        // Embed the event log so that consumers can replicate the entity without fetching it over HTTP
+        if (digestEnabled && event.getDigest() == null)
+            event.setDigest(getDigest(event));
+
+        return publish(eventSource.getChannel(), createMessage(event));
+    }
+
+    public <S extends T> Boolean sendAsyncBatch(List<S> events, Link... links) {
+        if (eventSource.getBatchChannel() == null)
+            return events.stream()
+                    .map(event -> sendAsync(event, links))
+                    .reduce(true, Boolean::logicalAnd);
+
+        if (digestEnabled)
+            events.stream()
+                    .filter(event -> event.getDigest() == null)
+                    .forEach(event -> event.setDigest(getDigest(event)));
+
+        return publish(eventSource.getBatchChannel(), createBatchMessage(events));
+    }
+
+    public <R> R execute(Supplier<R> callback) {
+        return eventOutbox != null ? eventOutbox.execute(callback) : callback.get();
+    }
+
+    /**
+     * Publishes a message to a message channel. If the event outbox is enabled, the message is written to the
+     * {@link EventOutbox} instead and published by the {@link EventOutboxRelay} after the transaction commits.
+     *
+     * @param channel is the message channel to publish the message to
+     * @param message is the message to publish
+     * @return a flag indicating if the message was sent or written to the outbox successfully
+     */
+    protected Boolean publish(MessageChannel channel, Message<?> message) {
+        if (eventOutbox != null) {
+            eventOutbox.add(channel, message);
+            return true;
+        }
+
+        return channel.send(message);
+    }
+
+    /**
+     * Creates the message that publishes the supplied event to an event stream. The message is keyed by the
+     * identity of the entity the event applies to, and carries the {@link SagaTrace} that the event continues.
+     *
+     * @param event is the {@link Event} to publish
+     * @return a message with the event as its JSON payload
+     */
+    protected <S extends T> Message<S> createMessage(S event) {
+        MessageBuilder<S> builder = MessageBuilder.withPayload(event)
+                .setHeader("contentType", MediaType.APPLICATION_JSON_UTF8_VALUE);
+
+        if (event.getEntity() != null && event.getEntity().getIdentity() != null)
+            builder.setHeader(AGGREGATE_ID_HEADER, event.getEntity().getIdentity());
+
+        if (sagaTraceRecorder != null)
+            builder.setHeader(SagaTrace.MESSAGE_HEADER, sagaTraceRecorder.record(event).toString());
+
+        return builder.build();
+    }
+
+    /**
+     * Creates the message that publishes a batch of events to an event stream as a JSON array. The message is keyed
+     * by the identity of the entity the first event applies to, so the whole batch is delivered to one consumer.
+     * Each event of the batch continues the {@link SagaTrace} in turn, and the message carries the trace of the last.
+     *
+     * @param events are the {@link Event}s to publish, in order
+     * @return a message with the events as its JSON payload
+     */
+    protected <S extends T> Message<List<S>> createBatchMessage(List<S> events) {
+        MessageBuilder<List<S>> builder = MessageBuilder.withPayload(events)
+                .setHeader("contentType", MediaType.APPLICATION_JSON_UTF8_VALUE);
+
+        events.stream()
+                .filter(event -> event.getEntity() != null && event.getEntity().getIdentity() != null)
+                .findFirst()
+                .ifPresent(event -> builder.setHeader(AGGREGATE_ID_HEADER, event.getEntity().getIdentity()));
+
+        if (sagaTraceRecorder != null)
+            events.stream()
+                    .map(sagaTraceRecorder::record)
+                    .reduce((first, second) -> second)
+                    .ifPresent(trace -> builder.setHeader(SagaTrace.MESSAGE_HEADER, trace.toString()));
+
+        return builder.build();
     }
 
     public <S extends T> S save(S event) {
@@ -84,6 +199,12 @@ public class BasicEventService<T extends Event, ID extends Serializable> impleme
         return save(event);
     }
 
+    public <S extends T> List<S> save(Iterable<S> events) {
+        List<S> result = new ArrayList<>();
+        eventRepository.save(events).forEach(result::add);
+        return result;
+    }
+
     public <S extends ID> T findOne(S id) {
         return eventRepository.findOne(id);
     }
@@ -93,4 +214,55 @@ public class BasicEventService<T extends Event, ID extends Serializable> impleme
                 new PageRequest(0, Integer.MAX_VALUE))
                 .getContent());
     }
+
+    public <E extends Events> E findAfter(ID entityId, ID eventId) {
+        T event = eventRepository.findEventByEntityIdAndEventId(entityId, eventId);
+
+        // A cursor from the event log of another entity would silently skip events of this one
+        if (event == null)
+            throw new InvalidEventCursorException(String.format("Event %s is not in the event log of entity %s",
+                    eventId, entityId));
+
+        if (event.getCreatedAt() == null)
+            return find(entityId);
+
+        // Events created in the same instant as the cursor are skipped up to and including the cursor
+        List<T> events = eventRepository.findEventsByEntityIdAndCreatedAtGreaterThanEqual(entityId,
+                event.getCreatedAt(), EVENT_LOG_ORDER).getContent();
+
+        int cursor = events.stream()
+                .map(Event::getEventId)
+                .collect(Collectors.toList())
+                .indexOf(eventId);
+
+        return (E) new Events(entityId, events.subList(cursor + 1, events.size()));
+    }
+
+    public <E extends Events> E findSince(ID entityId, Long createdAt) {
+        return (E) new Events(entityId, eventRepository.findEventsByEntityIdAndCreatedAtGreaterThan(entityId,
+                createdAt, EVENT_LOG_ORDER).getContent());
+    }
+
+    /**
+     * Creates a digest of the most recent events in the event log of the entity that the supplied event applies to.
+     * At most {@code events.digest.max-size} events are included in the digest.
+     *
+     * @param event is the {@link Event} that will carry the digest
+     * @return an {@link EventDigest} of the entity's event log
+     */
+    protected EventDigest getDigest(T event) {
+        ID entityId = (ID) event.getEntity().getIdentity();
+
+        Page<T> page = eventRepository.findEventsByEntityId(entityId, new PageRequest(0, digestMaxSize,
+                new Sort(Sort.Direction.DESC, "createdAt", "eventId")));
+
+        List<EventDigest.Entry> entries = page.getContent().stream()
+                .map(e -> new EventDigest.Entry(e.getEventId(), e.getType(), e.getCreatedAt()))
+                .collect(Collectors.toList());
+
+        // The page is fetched from the end of the event log, so reverse it back into creation order
+        Collections.reverse(entries);
+
+        return new EventDigest(page.getTotalElements(), entries);
+    }
 }
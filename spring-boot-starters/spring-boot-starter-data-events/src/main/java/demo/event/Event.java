@@ -1,5 +1,6 @@
 package demo.event;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import demo.domain.Aggregate;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.ResourceSupport;
@@ -22,6 +23,8 @@ import java.util.stream.Collectors;
  */
 public abstract class Event<T extends Aggregate, E, ID extends Serializable> extends ResourceSupport {
 
+    private EventDigest digest;
+
     public Event() {
     }
 
@@ -45,6 +48,21 @@ public abstract class Event<T extends Aggregate, E, ID extends Serializable> ext
 
     public abstract void setLastModified(Long lastModified);
 
+    /**
+     * The digest of the entity's event log that is embedded in asynchronous event messages, or {@literal null} if
+     * the event log is not embedded.
+     *
+     * @return the {@link EventDigest} for this {@link Event}
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public EventDigest getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest digest) {
+        this.digest = digest;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List<Link> getLinks() {
@@ -0,0 +1,44 @@
+package demo.event;
+
+import java.io.Serializable;
+
+/**
+ * Resolves the cursor parameters of the {@code /events} endpoint of an entity. A consumer that has already read
+ * part of an event log passes either {@code after}, the id of the last {@link Event} it has read, or {@code since},
+ * the creation time of that {@link Event}, to fetch only the tail of the event log. Without a cursor the full
+ * event log is returned.
+ *
+ * @author Kenny Bastani
+ * @see EventService#findAfter(Serializable, Serializable)
+ * @see EventService#findSince(Serializable, Long)
+ */
+public final class EventCursor {
+
+    private EventCursor() {
+    }
+
+    /**
+     * Retrieves the {@link Event}s of an entity that follow the supplied cursor.
+     *
+     * @param eventService is the {@link EventService} of the entity's {@link Event}s
+     * @param entityId     is the unique identifier of the entity
+     * @param after        is the id of the last {@link Event} read, or {@literal null}
+     * @param since        is the exclusive lower bound of the event creation time, or {@literal null}
+     * @return a {@link Events} containing the {@link Event}s that follow the cursor
+     * @throws InvalidEventCursorException if both cursors are supplied, or if {@code after} does not reference an
+     *                                     {@link Event} of the entity
+     */
+    public static <T extends Event, ID extends Serializable> Events find(EventService<T, ID> eventService,
+                                                                         ID entityId, ID after, Long since) {
+        if (after != null && since != null)
+            throw new InvalidEventCursorException("Only one of the 'after' and 'since' cursors can be supplied");
+
+        if (after != null)
+            return eventService.findAfter(entityId, after);
+
+        if (since != null)
+            return eventService.findSince(entityId, since);
+
+        return eventService.find(entityId);
+    }
+}
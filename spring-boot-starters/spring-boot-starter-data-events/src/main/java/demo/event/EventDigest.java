@@ -0,0 +1,114 @@
+package demo.event;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact summary of the event log of an entity that is embedded in an {@link Event} message. A consumer can
+ * replicate the state of the entity from the digest without fetching the event log over HTTP, as long as the
+ * digest contains every event of the log.
+ *
+ * @author Kenny Bastani
+ * @see BasicEventService
+ */
+public class EventDigest implements Serializable {
+
+    private Long count;
+    private List<Entry> events = new ArrayList<>();
+
+    public EventDigest() {
+    }
+
+    public EventDigest(Long count, List<Entry> events) {
+        this.count = count;
+        this.events = events;
+    }
+
+    /**
+     * The total number of events in the event log of the entity. If this is greater than the number of
+     * {@link #getEvents()}, the digest only contains the most recent events of the log.
+     *
+     * @return the length of the event log
+     */
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    /**
+     * The most recent events of the event log, ordered by the time they were created.
+     *
+     * @return a list of digest entries
+     */
+    public List<Entry> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<Entry> events) {
+        this.events = events;
+    }
+
+    @Override
+    public String toString() {
+        return "EventDigest{" +
+                "count=" + count +
+                ", events=" + events +
+                '}';
+    }
+
+    /**
+     * A single {@link Event} of an {@link EventDigest}.
+     */
+    public static class Entry implements Serializable {
+
+        private Serializable eventId;
+        private Object type;
+        private Long createdAt;
+
+        public Entry() {
+        }
+
+        public Entry(Serializable eventId, Object type, Long createdAt) {
+            this.eventId = eventId;
+            this.type = type;
+            this.createdAt = createdAt;
+        }
+
+        public Serializable getEventId() {
+            return eventId;
+        }
+
+        public void setEventId(Serializable eventId) {
+            this.eventId = eventId;
+        }
+
+        public Object getType() {
+            return type;
+        }
+
+        public void setType(Object type) {
+            this.type = type;
+        }
+
+        public Long getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "eventId=" + eventId +
+                    ", type=" + type +
+                    ", createdAt=" + createdAt +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package demo.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.trace.SagaTrace;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The event outbox decouples the request that raises an asynchronous {@link Event} from the latency of the message
+ * broker. Instead of being sent to their message channel, {@link Event} messages are written to an outbox table in
+ * the same transaction as the {@link Event} itself. The {@link EventOutboxRelay} publishes the messages from the
+ * outbox in the background.
+ *
+ * @author Kenny Bastani
+ * @see BasicEventService
+ * @see EventOutboxRelay
+ */
+public class EventOutbox {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationContext applicationContext;
+    private volatile Map<MessageChannel, String> channelNames;
+
+    public EventOutbox(OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, ApplicationContext applicationContext) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Executes a callback that appends and sends events in a single transaction, so that the {@link Event}s and
+     * their {@link OutboxMessage}s are committed or rolled back together.
+     *
+     * @param callback appends and sends the events
+     * @return the result of the callback
+     */
+    public <R> R execute(Supplier<R> callback) {
+        return transactionTemplate.execute(status -> callback.get());
+    }
+
+    /**
+     * Writes a message to the outbox. The message is published to the supplied channel by the
+     * {@link EventOutboxRelay} once the current transaction has been committed.
+     *
+     * @param channel is the message channel to publish the message to
+     * @param message is the message with an {@link Event} payload
+     * @return the {@link OutboxMessage} that was written to the outbox
+     */
+    public OutboxMessage add(MessageChannel channel, Message<?> message) {
+        Object aggregateId = message.getHeaders().get(BasicEventService.AGGREGATE_ID_HEADER);
+        Object sagaTrace = message.getHeaders().get(SagaTrace.MESSAGE_HEADER);
+        String payload;
+
+        try {
+            payload = objectMapper.writeValueAsString(message.getPayload());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("The event could not be written to the outbox", ex);
+        }
+
+        return outboxMessageRepository.save(new OutboxMessage(getChannelName(channel),
+                aggregateId != null ? aggregateId.toString() : null, sagaTrace != null ? sagaTrace.toString() : null,
+                payload));
+    }
+
+    /**
+     * Retrieves the message channel with the supplied bean name.
+     *
+     * @param name is the bean name of the message channel
+     * @return the message channel
+     */
+    public MessageChannel getChannel(String name) {
+        return applicationContext.getBean(name, MessageChannel.class);
+    }
+
+    /**
+     * Resolves the bean name of a message channel, so that the channel can be looked up again by the relay.
+     *
+     * @param channel is the message channel
+     * @return the bean name of the channel
+     * @throws IllegalArgumentException if the channel is not registered in the application context
+     */
+    private String getChannelName(MessageChannel channel) {
+        if (channelNames == null) {
+            Map<MessageChannel, String> names = new IdentityHashMap<>();
+            applicationContext.getBeansOfType(MessageChannel.class).forEach((name, bean) -> names.put(bean, name));
+            channelNames = names;
+        }
+
+        String name = channelNames.get(channel);
+        Assert.notNull(name, "The message channel is not registered in the application context");
+        return name;
+    }
+
+    TransactionTemplate getTransactionTemplate() {
+        return transactionTemplate;
+    }
+
+    OutboxMessageRepository getOutboxMessageRepository() {
+        return outboxMessageRepository;
+    }
+}
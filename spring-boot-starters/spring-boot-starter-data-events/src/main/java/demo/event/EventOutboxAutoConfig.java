@@ -0,0 +1,72 @@
+package demo.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * This class auto-configures the {@link EventOutbox} and its {@link EventOutboxRelay} when
+ * {@code events.outbox.enabled} is set.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnClass(EntityManager.class)
+@ConditionalOnProperty(prefix = "events.outbox", name = "enabled")
+public class EventOutboxAutoConfig {
+
+    @Value("${events.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${events.outbox.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${events.outbox.claim-timeout-ms:30000}")
+    private long claimTimeoutMs;
+
+    @Bean
+    public EventOutbox eventOutbox(OutboxMessageRepository outboxMessageRepository, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, ApplicationContext applicationContext) {
+        return new EventOutbox(outboxMessageRepository, objectMapper, transactionManager, applicationContext);
+    }
+
+    @Bean
+    public EventOutboxRelay eventOutboxRelay(EventOutbox eventOutbox) {
+        return new EventOutboxRelay(eventOutbox, batchSize, lingerMs, claimTimeoutMs);
+    }
+
+    // Applications that scan the demo package pick up this class on its own, so it repeats the outbox condition
+    @Configuration
+    @ConditionalOnClass(PublicMetrics.class)
+    @ConditionalOnProperty(prefix = "events.outbox", name = "enabled")
+    static class EventOutboxMetricsConfig {
+
+        @Bean
+        public PublicMetrics eventOutboxMetrics(OutboxMessageRepository outboxMessageRepository,
+                EventOutboxRelay eventOutboxRelay) {
+            return () -> {
+                OutboxMessage oldest = outboxMessageRepository.findFirstByOrderByIdAsc();
+                long lag = oldest != null ? System.currentTimeMillis() - oldest.getCreatedAt() : 0L;
+
+                Collection<Metric<?>> metrics = new ArrayList<>();
+                metrics.add(new Metric<>("events.outbox.pending", outboxMessageRepository.count()));
+                metrics.add(new Metric<>("events.outbox.lag", lag));
+                metrics.add(new Metric<>("events.outbox.published", eventOutboxRelay.getPublished()));
+                metrics.add(new Metric<>("events.outbox.failed", eventOutboxRelay.getFailed()));
+                metrics.add(new Metric<>("events.outbox.last-lag", eventOutboxRelay.getLastLag()));
+                return metrics;
+            };
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package demo.event;
+
+import demo.trace.SagaTrace;
+import org.apache.log4j.Logger;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the messages of the {@link EventOutbox} to their message channels in the background. The relay polls the
+ * outbox every {@code events.outbox.linger-ms} and publishes the pending messages in the order they were written, in
+ * batches of at most {@code events.outbox.batch-size} messages.
+ * <p>
+ * Every instance of a service runs a relay, so a batch is claimed before it is published. A relay only claims the
+ * oldest messages of the outbox, and backs off while another relay holds a claim on any of them, which keeps the
+ * messages in order. A message is removed from the outbox after it is published, and the claim of a relay that
+ * stops before removing its messages expires after {@code events.outbox.claim-timeout-ms}, which means that a
+ * message is published at least once.
+ *
+ * @author Kenny Bastani
+ * @see EventOutbox
+ */
+public class EventOutboxRelay implements SmartLifecycle {
+
+    private static final Logger log = Logger.getLogger(EventOutboxRelay.class);
+
+    private final String relayId = UUID.randomUUID().toString();
+    private final EventOutbox eventOutbox;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long claimTimeoutMs;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastLag;
+    private volatile ScheduledExecutorService executor;
+
+    public EventOutboxRelay(EventOutbox eventOutbox, int batchSize, long lingerMs, long claimTimeoutMs) {
+        this.eventOutbox = eventOutbox;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.claimTimeoutMs = claimTimeoutMs;
+    }
+
+    /**
+     * Publishes every message that is pending in the outbox.
+     *
+     * @return the number of messages that were published
+     */
+    public int relay() {
+        int count = 0;
+        int batch;
+
+        do {
+            batch = publishBatch();
+            count += batch;
+        } while (batch == batchSize);
+
+        return count;
+    }
+
+    private int publishBatch() {
+        OutboxMessageRepository repository = eventOutbox.getOutboxMessageRepository();
+        List<OutboxMessage> claimed = eventOutbox.getTransactionTemplate().execute(status -> claimBatch());
+        List<Long> sent = new ArrayList<>();
+
+        for (OutboxMessage outboxMessage : claimed) {
+            try {
+                eventOutbox.getChannel(outboxMessage.getChannel()).send(getMessage(outboxMessage));
+            } catch (Exception ex) {
+                // Keep the remaining messages in order until the next attempt
+                log.error("Could not publish " + outboxMessage, ex);
+                failed.incrementAndGet();
+                break;
+            }
+
+            sent.add(outboxMessage.getId());
+            lastLag = System.currentTimeMillis() - outboxMessage.getCreatedAt();
+        }
+
+        if (!claimed.isEmpty()) {
+            eventOutbox.getTransactionTemplate().execute(status -> {
+                if (!sent.isEmpty())
+                    repository.deleteClaimed(sent, relayId);
+
+                // Messages that could not be published are released to be claimed by the next attempt
+                return repository.release(relayId);
+            });
+        }
+
+        published.addAndGet(sent.size());
+
+        return sent.size();
+    }
+
+    /**
+     * Claims the oldest batch of messages in the outbox. The claim is committed before the messages are published,
+     * so that the relays of other instances skip the batch instead of publishing it again.
+     *
+     * @return the claimed messages in the order they were written, or an empty list if another relay holds a claim
+     * on any of the oldest messages
+     */
+    private List<OutboxMessage> claimBatch() {
+        OutboxMessageRepository repository = eventOutbox.getOutboxMessageRepository();
+        List<OutboxMessage> candidates = repository.findAll(new PageRequest(0, batchSize,
+                new Sort(Sort.Direction.ASC, "id"))).getContent();
+
+        if (candidates.isEmpty())
+            return Collections.emptyList();
+
+        List<Long> ids = candidates.stream()
+                .map(OutboxMessage::getId)
+                .collect(Collectors.toList());
+
+        long now = System.currentTimeMillis();
+
+        if (repository.claim(ids, relayId, now, now - claimTimeoutMs) < ids.size()) {
+            // Publishing a later batch ahead of the one claimed by another relay would reorder the messages
+            repository.release(relayId);
+            return Collections.emptyList();
+        }
+
+        return candidates;
+    }
+
+    private Message<String> getMessage(OutboxMessage outboxMessage) {
+        MessageBuilder<String> builder = MessageBuilder.withPayload(outboxMessage.getPayload())
+                .setHeader("contentType", MediaType.APPLICATION_JSON_UTF8_VALUE);
+
+        if (outboxMessage.getAggregateId() != null)
+            builder.setHeader(BasicEventService.AGGREGATE_ID_HEADER, outboxMessage.getAggregateId());
+
+        if (outboxMessage.getSagaTrace() != null)
+            builder.setHeader(SagaTrace.MESSAGE_HEADER, outboxMessage.getSagaTrace());
+
+        return builder.build();
+    }
+
+    /**
+     * The id that the relay claims messages with, which is unique to each instance of a service.
+     *
+     * @return the id of the relay
+     */
+    public String getRelayId() {
+        return relayId;
+    }
+
+    /**
+     * The number of messages that were published since the relay was started.
+     *
+     * @return the number of published messages
+     */
+    public long getPublished() {
+        return published.get();
+    }
+
+    /**
+     * The number of attempts to publish a message that failed since the relay was started.
+     *
+     * @return the number of failed attempts
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * The time in milliseconds between writing the most recently published message to the outbox and publishing it.
+     *
+     * @return the publishing lag of the last message
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null)
+            return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                relay();
+            } catch (Exception ex) {
+                log.error("Could not relay the event outbox", ex);
+            }
+        }, lingerMs, lingerMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null)
+            return;
+
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(lingerMs + 5000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        executor = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        // Start after and stop before the message channel bindings
+        return Integer.MAX_VALUE - 1;
+    }
+}
@@ -18,4 +18,37 @@ import java.io.Serializable;
 @NoRepositoryBean
 public interface EventRepository<E extends Event, ID extends Serializable> extends PagingAndSortingRepository<E, ID> {
     Page<E> findEventsByEntityId(@Param("entityId") ID entityId, Pageable pageable);
+
+    /**
+     * Retrieves an event from the event log of an entity.
+     *
+     * @param entityId is the unique identifier of the entity
+     * @param eventId  is the unique identifier of the event
+     * @return the event or {@literal null} if the entity has no event with the supplied id
+     */
+    E findEventByEntityIdAndEventId(@Param("entityId") ID entityId, @Param("eventId") ID eventId);
+
+    /**
+     * Retrieves the events of an entity that were created after the supplied time. Events are returned in the order
+     * they were appended to the event log.
+     *
+     * @param entityId  is the unique identifier of the entity
+     * @param createdAt is the exclusive lower bound of the event creation time
+     * @param pageable  is the page request, which should be sorted by creation time and event id
+     * @return a page of events created after the supplied time
+     */
+    Page<E> findEventsByEntityIdAndCreatedAtGreaterThan(@Param("entityId") ID entityId,
+            @Param("createdAt") Long createdAt, Pageable pageable);
+
+    /**
+     * Retrieves the events of an entity that were created at or after the supplied time. Events are returned in the
+     * order they were appended to the event log.
+     *
+     * @param entityId  is the unique identifier of the entity
+     * @param createdAt is the inclusive lower bound of the event creation time
+     * @param pageable  is the page request, which should be sorted by creation time and event id
+     * @return a page of events created at or after the supplied time
+     */
+    Page<E> findEventsByEntityIdAndCreatedAtGreaterThanEqual(@Param("entityId") ID entityId,
+            @Param("createdAt") Long createdAt, Pageable pageable);
 }
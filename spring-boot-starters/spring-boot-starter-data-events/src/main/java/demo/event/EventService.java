@@ -4,6 +4,8 @@ import demo.domain.Aggregate;
 import org.springframework.hateoas.Link;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Service interface for managing {@link Event} entities.
@@ -31,6 +33,24 @@ public interface EventService<T extends Event, ID extends Serializable> {
      */
     <S extends T> Boolean sendAsync(S event, Link... links);
 
+    /**
+     * Raises a batch of asynchronous domain events. The {@link Event}s are published in order as a single message
+     * to the batch channel of the {@link EventSource}, or one message at a time if the event source has no batch
+     * channel.
+     *
+     * @return a flag indicating if the {@link Event} messages were sent successfully
+     */
+    <S extends T> Boolean sendAsyncBatch(List<S> events, Link... links);
+
+    /**
+     * Executes a callback that appends and asynchronously sends {@link Event}s as a single unit of work. If the event
+     * outbox is enabled, the callback runs in a transaction, so that the {@link Event}s and their outbox messages
+     * are committed together.
+     *
+     * @return the result of the callback
+     */
+    <R> R execute(Supplier<R> callback);
+
     /**
      * Saves a given event entity. Use the returned instance for further operations as the save operation might have
      * changed the entity instance completely.
@@ -47,6 +67,14 @@ public interface EventService<T extends Event, ID extends Serializable> {
      */
     <S extends T> S save(ID id, S event);
 
+    /**
+     * Saves all given event entities in a single unit of work, which allows the inserts to be sent to the database
+     * as a JDBC batch. Use the returned instances for further operations.
+     *
+     * @return the saved event entities
+     */
+    <S extends T> List<S> save(Iterable<S> events);
+
     /**
      * Retrieves an {@link Event} entity by its id.
      *
@@ -60,4 +88,26 @@ public interface EventService<T extends Event, ID extends Serializable> {
      * @return a {@link Events} containing a collection of {@link Event}s
      */
     <E extends Events> E find(ID entityId);
+
+    /**
+     * Retrieves the {@link Event}s of an entity that were appended after the {@link Event} with the supplied id. The
+     * events are ordered by their creation time, which allows a consumer to fetch only the tail of an event log it
+     * has already read.
+     *
+     * @param entityId is the unique identifier of the entity
+     * @param eventId  is the unique identifier of the last {@link Event} read by the consumer
+     * @return a {@link Events} containing the {@link Event}s appended after the supplied {@link Event}
+     * @throws InvalidEventCursorException if the {@link Event} is not in the event log of the entity
+     */
+    <E extends Events> E findAfter(ID entityId, ID eventId);
+
+    /**
+     * Retrieves the {@link Event}s of an entity that were created after the supplied time, ordered by their creation
+     * time.
+     *
+     * @param entityId  is the unique identifier of the entity
+     * @param createdAt is the exclusive lower bound of the event creation time
+     * @return a {@link Events} containing the {@link Event}s created after the supplied time
+     */
+    <E extends Events> E findSince(ID entityId, Long createdAt);
 }
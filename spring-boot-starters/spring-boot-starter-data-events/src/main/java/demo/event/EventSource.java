@@ -5,12 +5,26 @@ import org.springframework.messaging.MessageChannel;
 public class EventSource {
 
     private MessageChannel channel;
+    private MessageChannel batchChannel;
 
     public EventSource(MessageChannel channel) {
         this.channel = channel;
     }
 
+    /**
+     * @param channel      is the channel that single {@link Event} messages are published to
+     * @param batchChannel is the channel that batches of {@link Event}s are published to as a single message
+     */
+    public EventSource(MessageChannel channel, MessageChannel batchChannel) {
+        this.channel = channel;
+        this.batchChannel = batchChannel;
+    }
+
     public MessageChannel getChannel() {
         return channel;
     }
+
+    public MessageChannel getBatchChannel() {
+        return batchChannel;
+    }
 }
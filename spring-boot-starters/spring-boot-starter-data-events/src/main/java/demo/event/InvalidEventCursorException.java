@@ -0,0 +1,19 @@
+package demo.event;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the cursor of an event log query does not reference an {@link Event} of the queried entity, or when
+ * more than one cursor is supplied. The request is answered with {@code 400 Bad Request}.
+ *
+ * @author Kenny Bastani
+ * @see EventCursor
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidEventCursorException extends IllegalArgumentException {
+
+    public InvalidEventCursorException(String message) {
+        super(message);
+    }
+}
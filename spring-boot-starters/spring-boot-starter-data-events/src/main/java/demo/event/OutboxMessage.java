@@ -0,0 +1,151 @@
+package demo.event;
+
+import javax.persistence.*;
+
+/**
+ * An {@link Event} message that was written to the event outbox in the same transaction as the {@link Event} itself,
+ * and that is waiting to be published to its message channel by the {@link EventOutboxRelay}.
+ *
+ * @author Kenny Bastani
+ * @see EventOutbox
+ */
+@Entity
+@Table(name = "event_outbox", indexes = {@Index(name = "IDX_EVENT_OUTBOX", columnList = "createdAt")})
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private String channel;
+
+    private String aggregateId;
+
+    private String sagaTrace;
+
+    @Lob
+    private String payload;
+
+    private Long createdAt;
+
+    private String claimedBy;
+
+    private Long claimedAt;
+
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(String channel, String aggregateId, String sagaTrace, String payload) {
+        this.channel = channel;
+        this.aggregateId = aggregateId;
+        this.sagaTrace = sagaTrace;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * The bean name of the message channel that the message is published to.
+     *
+     * @return the name of the message channel
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * The identity of the entity that the event applies to, which is used as the partition key of the message.
+     *
+     * @return the identity of the entity or {@literal null} if the message is not keyed
+     */
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    /**
+     * The saga trace that the event continues, which is published in the header of the message.
+     *
+     * @return the value of the saga trace header or {@literal null} if the event is not traced
+     */
+    public String getSagaTrace() {
+        return sagaTrace;
+    }
+
+    public void setSagaTrace(String sagaTrace) {
+        this.sagaTrace = sagaTrace;
+    }
+
+    /**
+     * The JSON representation of the {@link Event}. The event is serialized when it is written to the outbox, since
+     * its hypermedia links can only be built while the request that raised it is in progress.
+     *
+     * @return the JSON payload of the message
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * The id of the {@link EventOutboxRelay} that has claimed the message for publishing.
+     *
+     * @return the id of the relay or {@literal null} if the message is not claimed
+     */
+    public String getClaimedBy() {
+        return claimedBy;
+    }
+
+    public void setClaimedBy(String claimedBy) {
+        this.claimedBy = claimedBy;
+    }
+
+    /**
+     * The time the message was claimed, after which the claim expires in {@code events.outbox.claim-timeout-ms}.
+     *
+     * @return the time of the claim or {@literal null} if the message is not claimed
+     */
+    public Long getClaimedAt() {
+        return claimedAt;
+    }
+
+    public void setClaimedAt(Long claimedAt) {
+        this.claimedAt = claimedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{" +
+                "id=" + id +
+                ", channel='" + channel + '\'' +
+                ", aggregateId='" + aggregateId + '\'' +
+                ", createdAt=" + createdAt +
+                ", claimedBy='" + claimedBy + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package demo.event;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+/**
+ * Repository for the {@link OutboxMessage}s of the event outbox.
+ *
+ * @author Kenny Bastani
+ * @see EventOutbox
+ */
+public interface OutboxMessageRepository extends PagingAndSortingRepository<OutboxMessage, Long> {
+
+    /**
+     * Retrieves the message that has been waiting in the outbox the longest.
+     *
+     * @return the oldest {@link OutboxMessage} or {@literal null} if the outbox is empty
+     */
+    OutboxMessage findFirstByOrderByIdAsc();
+
+    /**
+     * Claims messages for a relay. A message is only claimed if it is not claimed by another relay, or if the claim
+     * of the other relay has expired.
+     *
+     * @param ids           are the ids of the messages to claim
+     * @param relayId       is the id of the claiming {@link EventOutboxRelay}
+     * @param claimedAt     is the time of the claim
+     * @param expiredBefore is the time before which the claims of other relays have expired
+     * @return the number of messages that were claimed
+     */
+    @Modifying
+    @Query("update OutboxMessage m set m.claimedBy = :relayId, m.claimedAt = :claimedAt where m.id in :ids and " +
+            "(m.claimedBy is null or m.claimedBy = :relayId or m.claimedAt < :expiredBefore)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("relayId") String relayId,
+              @Param("claimedAt") Long claimedAt, @Param("expiredBefore") Long expiredBefore);
+
+    /**
+     * Releases every message that is claimed by a relay, so that it can be claimed again.
+     *
+     * @param relayId is the id of the {@link EventOutboxRelay}
+     * @return the number of messages that were released
+     */
+    @Modifying
+    @Query("update OutboxMessage m set m.claimedBy = null, m.claimedAt = null where m.claimedBy = :relayId")
+    int release(@Param("relayId") String relayId);
+
+    /**
+     * Removes published messages that are still claimed by the relay that published them.
+     *
+     * @param ids     are the ids of the published messages
+     * @param relayId is the id of the {@link EventOutboxRelay}
+     * @return the number of messages that were removed
+     */
+    @Modifying
+    @Query("delete from OutboxMessage m where m.id in :ids and m.claimedBy = :relayId")
+    int deleteClaimed(@Param("ids") Collection<Long> ids, @Param("relayId") String relayId);
+}
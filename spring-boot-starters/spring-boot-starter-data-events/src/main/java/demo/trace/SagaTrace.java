@@ -0,0 +1,131 @@
+package demo.trace;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.UUID;
+
+/**
+ * A {@link SagaTrace} correlates the events of a saga that crosses several microservices, such as the lifecycle of
+ * an order. It is carried from service to service in the {@link #MESSAGE_HEADER} of event messages and the
+ * {@link #HTTP_HEADER} of requests, and records the first event of the saga and the last event before the current
+ * hop, so that the time of each transition can be measured where the next event is raised.
+ * <p>
+ * Times are taken from the wall clock of each service, so the timings include the clock skew between hosts.
+ *
+ * @author Kenny Bastani
+ * @see SagaTraceRecorder
+ */
+public class SagaTrace {
+
+    /**
+     * The header of an event message that carries the trace.
+     */
+    public static final String MESSAGE_HEADER = "sagaTrace";
+
+    /**
+     * The header of an HTTP request that carries the trace.
+     */
+    public static final String HTTP_HEADER = "X-Saga-Trace";
+
+    private static final String SEPARATOR = ";";
+
+    private final String traceId;
+    private final String origin;
+    private final long startedAt;
+    private final String lastEvent;
+    private final long lastAt;
+
+    public SagaTrace(String traceId, String origin, long startedAt, String lastEvent, long lastAt) {
+        Assert.hasText(traceId, "A saga trace must have an identifier");
+        this.traceId = traceId;
+        this.origin = origin;
+        this.startedAt = startedAt;
+        this.lastEvent = lastEvent;
+        this.lastAt = lastAt;
+    }
+
+    /**
+     * Starts a new trace with the first event of a saga.
+     *
+     * @param event is the name of the first event
+     * @param time  is the time the event was raised, in milliseconds since the epoch
+     * @return a new trace
+     */
+    public static SagaTrace start(String event, long time) {
+        return new SagaTrace(UUID.randomUUID().toString(), event, time, event, time);
+    }
+
+    /**
+     * Continues the trace with the next event of the saga.
+     *
+     * @param event is the name of the next event
+     * @param time  is the time the event was raised, in milliseconds since the epoch
+     * @return the trace with the supplied event as its last event
+     */
+    public SagaTrace next(String event, long time) {
+        return new SagaTrace(traceId, origin, startedAt, event, time);
+    }
+
+    /**
+     * Parses the value of a trace header.
+     *
+     * @param value is the value of the header
+     * @return the trace, or {@literal null} if the value is empty or malformed
+     */
+    public static SagaTrace parse(String value) {
+        if (!StringUtils.hasText(value))
+            return null;
+
+        String[] parts = value.split(SEPARATOR);
+
+        if (parts.length != 5)
+            return null;
+
+        try {
+            return new SagaTrace(parts[0], parts[1], Long.parseLong(parts[2]), parts[3], Long.parseLong(parts[4]));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * @return the name of the first event of the saga
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the time of the first event of the saga, in milliseconds since the epoch
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return the name of the last event that was raised in the saga
+     */
+    public String getLastEvent() {
+        return lastEvent;
+    }
+
+    /**
+     * @return the time of the last event that was raised in the saga, in milliseconds since the epoch
+     */
+    public long getLastAt() {
+        return lastAt;
+    }
+
+    /**
+     * @return the value of the trace header
+     */
+    @Override
+    public String toString() {
+        return String.join(SEPARATOR, traceId, origin, String.valueOf(startedAt), lastEvent, String.valueOf(lastAt));
+    }
+}
@@ -0,0 +1,76 @@
+package demo.trace;
+
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.client.AsyncRestTemplate;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * This class auto-configures the tracing of sagas across microservices. The {@link SagaTrace} of a saga is read
+ * from incoming requests by the {@link SagaTraceFilter}, added to the requests of every {@link RestTemplate} and
+ * {@link AsyncRestTemplate} by the {@link SagaTraceInterceptor}, and published with each event by the
+ * {@code BasicEventService}, which records the transition in the {@link SagaTraceRecorder}.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnClass(Recorder.class)
+@ConditionalOnProperty(prefix = "saga.trace", name = "enabled", matchIfMissing = true)
+public class SagaTraceAutoConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SagaTraceRecorder sagaTraceRecorder() {
+        return new SagaTraceRecorder();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication
+    public FilterRegistrationBean sagaTraceFilter() {
+        FilterRegistrationBean registration = new FilterRegistrationBean(new SagaTraceFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public static BeanPostProcessor sagaTraceRestTemplatePostProcessor() {
+        SagaTraceInterceptor interceptor = new SagaTraceInterceptor();
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RestTemplate)
+                    ((RestTemplate) bean).getInterceptors().add(interceptor);
+                else if (bean instanceof AsyncRestTemplate)
+                    ((AsyncRestTemplate) bean).getInterceptors().add(interceptor);
+
+                return bean;
+            }
+        };
+    }
+
+    @Configuration
+    @ConditionalOnClass(AbstractEndpoint.class)
+    static class SagaTraceEndpointConfig {
+
+        @Bean
+        public SagaTraceEndpoint sagaTraceEndpoint(SagaTraceRecorder sagaTraceRecorder) {
+            return new SagaTraceEndpoint(sagaTraceRecorder);
+        }
+    }
+}
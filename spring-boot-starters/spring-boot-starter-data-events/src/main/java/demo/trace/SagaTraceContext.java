@@ -0,0 +1,52 @@
+package demo.trace;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the {@link SagaTrace} of the work that the current thread does on behalf of a saga, such as handling an HTTP
+ * request. The trace is scoped between {@link #begin(SagaTrace)} and {@link #end()}, and the events that are raised
+ * within the scope continue the trace. Outside of a scope, each event starts a trace of its own.
+ *
+ * @author Kenny Bastani
+ */
+public abstract class SagaTraceContext {
+
+    private static final ThreadLocal<AtomicReference<SagaTrace>> current = new ThreadLocal<>();
+
+    /**
+     * Begins a trace scope on the current thread.
+     *
+     * @param trace is the trace that the scope continues, or {@literal null} to start a new trace with the first
+     *              event that is raised
+     */
+    public static void begin(SagaTrace trace) {
+        current.set(new AtomicReference<>(trace));
+    }
+
+    /**
+     * Ends the trace scope of the current thread.
+     */
+    public static void end() {
+        current.remove();
+    }
+
+    /**
+     * @return the trace of the current thread, or {@literal null} if there is none
+     */
+    public static SagaTrace get() {
+        AtomicReference<SagaTrace> trace = current.get();
+        return trace != null ? trace.get() : null;
+    }
+
+    /**
+     * Replaces the trace of the current thread, if the thread is in a trace scope.
+     *
+     * @param trace is the trace of the last event that was raised
+     */
+    public static void set(SagaTrace trace) {
+        AtomicReference<SagaTrace> scope = current.get();
+
+        if (scope != null)
+            scope.set(trace);
+    }
+}
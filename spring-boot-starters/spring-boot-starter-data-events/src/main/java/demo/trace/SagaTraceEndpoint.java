@@ -0,0 +1,50 @@
+package demo.trace;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the timings of the {@link SagaTraceRecorder} on the {@code /sagas} actuator endpoint. The endpoint lists
+ * the percentiles of each transition in milliseconds, under {@code hops} for the transitions between consecutive
+ * events and under {@code sagas} for the transitions from the first event of a saga.
+ *
+ * @author Kenny Bastani
+ */
+public class SagaTraceEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final SagaTraceRecorder sagaTraceRecorder;
+
+    public SagaTraceEndpoint(SagaTraceRecorder sagaTraceRecorder) {
+        super("sagas");
+        this.sagaTraceRecorder = sagaTraceRecorder;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hops", getTimings(sagaTraceRecorder.getHops()));
+        result.put("sagas", getTimings(sagaTraceRecorder.getSagas()));
+        return result;
+    }
+
+    private static Map<String, Object> getTimings(Map<String, Histogram> histograms) {
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        histograms.forEach((transition, histogram) -> {
+            Map<String, Object> timings = new LinkedHashMap<>();
+            timings.put("count", histogram.getTotalCount());
+            timings.put("mean", histogram.getMean());
+            timings.put("p50", histogram.getValueAtPercentile(50.0));
+            timings.put("p90", histogram.getValueAtPercentile(90.0));
+            timings.put("p99", histogram.getValueAtPercentile(99.0));
+            timings.put("p999", histogram.getValueAtPercentile(99.9));
+            timings.put("max", histogram.getMaxValue());
+            result.put(transition, timings);
+        });
+
+        return result;
+    }
+}
@@ -0,0 +1,29 @@
+package demo.trace;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Begins a {@link SagaTraceContext} scope for each HTTP request, which continues the trace of the
+ * {@link SagaTrace#HTTP_HEADER} of the request, if it has one.
+ *
+ * @author Kenny Bastani
+ */
+public class SagaTraceFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain
+            filterChain) throws ServletException, IOException {
+        SagaTraceContext.begin(SagaTrace.parse(request.getHeader(SagaTrace.HTTP_HEADER)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SagaTraceContext.end();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package demo.trace;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+
+/**
+ * Adds the {@link SagaTrace} of the current thread to the requests of a {@code RestTemplate} or an
+ * {@code AsyncRestTemplate}, so that the events that are raised by the requested service continue the trace. The
+ * interceptors of an {@code AsyncRestTemplate} run on the thread that sends the request.
+ *
+ * @author Kenny Bastani
+ */
+public class SagaTraceInterceptor implements ClientHttpRequestInterceptor, AsyncClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        addTrace(request);
+        return execution.execute(request, body);
+    }
+
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest request, byte[] body,
+            AsyncClientHttpRequestExecution execution) throws IOException {
+        addTrace(request);
+        return execution.executeAsync(request, body);
+    }
+
+    private static void addTrace(HttpRequest request) {
+        SagaTrace trace = SagaTraceContext.get();
+
+        if (trace != null)
+            request.getHeaders().set(SagaTrace.HTTP_HEADER, trace.toString());
+    }
+}
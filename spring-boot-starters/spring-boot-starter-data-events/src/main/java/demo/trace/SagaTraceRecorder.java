@@ -0,0 +1,109 @@
+package demo.trace;
+
+import demo.event.Event;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the time of the transitions between the events of a saga in HDR histograms. Each event that continues a
+ * {@link SagaTrace} records two transitions, in milliseconds:
+ * <ul>
+ * <li>the hop from the last event of the saga to the event, which shows the hop that dominates a saga</li>
+ * <li>the span from the first event of the saga to the event, such as {@code ORDER_CREATED} to
+ * {@code ORDER_SUCCEEDED}</li>
+ * </ul>
+ * Events are named by the simple name of their type's class and the type, such as
+ * {@code OrderEventType.ORDER_CREATED}, since the same type name is used by the events of several aggregates.
+ *
+ * @author Kenny Bastani
+ * @see SagaTraceEndpoint
+ */
+public class SagaTraceRecorder {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final ConcurrentMap<String, Transition> hops = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Transition> sagas = new ConcurrentHashMap<>();
+
+    /**
+     * Records an event that is about to be published. The event continues the trace of the current thread, or
+     * starts a new trace if the thread has none, and becomes the last event of the trace.
+     *
+     * @param event is the event that is published
+     * @return the trace that is published with the event
+     */
+    public SagaTrace record(Event<?, ?, ?> event) {
+        String name = getName(event.getType());
+        long now = System.currentTimeMillis();
+
+        SagaTrace trace = SagaTraceContext.get();
+        SagaTrace next;
+
+        if (trace == null) {
+            next = SagaTrace.start(name, now);
+        } else {
+            record(hops, trace.getLastEvent(), name, now - trace.getLastAt());
+            record(sagas, trace.getOrigin(), name, now - trace.getStartedAt());
+            next = trace.next(name, now);
+        }
+
+        SagaTraceContext.set(next);
+
+        return next;
+    }
+
+    /**
+     * @return a snapshot of the hops between consecutive events, by transition
+     */
+    public Map<String, Histogram> getHops() {
+        return snapshot(hops);
+    }
+
+    /**
+     * @return a snapshot of the spans from the first event of a saga to each later event, by transition
+     */
+    public Map<String, Histogram> getSagas() {
+        return snapshot(sagas);
+    }
+
+    private void record(ConcurrentMap<String, Transition> transitions, String from, String to, long millis) {
+        // Clock skew between hosts can make a hop appear to end before it started
+        transitions.computeIfAbsent(from + " -> " + to, key -> new Transition()).recorder
+                .recordValue(Math.max(0L, millis));
+    }
+
+    private Map<String, Histogram> snapshot(ConcurrentMap<String, Transition> transitions) {
+        Map<String, Histogram> result = new TreeMap<>();
+        transitions.forEach((name, transition) -> result.put(name, transition.snapshot()));
+        return result;
+    }
+
+    private static String getName(Object type) {
+        if (type instanceof Enum)
+            return ((Enum<?>) type).getDeclaringClass().getSimpleName() + "." + ((Enum<?>) type).name();
+
+        return String.valueOf(type);
+    }
+
+    /**
+     * A transition is recorded without locking, and the recorded values are accumulated into a histogram of the
+     * whole run when a snapshot is taken.
+     */
+    private static class Transition {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram interval;
+
+        synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return total.copy();
+        }
+    }
+}
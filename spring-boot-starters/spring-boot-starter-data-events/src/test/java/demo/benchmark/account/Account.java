@@ -0,0 +1,137 @@
+package demo.benchmark.account;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import demo.domain.Aggregate;
+import demo.domain.Command;
+import org.springframework.hateoas.Link;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * An account aggregate with the fields, commands and links of the account service's {@code Account}, without its
+ * persistence mapping. Its commands are declared for their links and are not dispatched.
+ *
+ * @author Kenny Bastani
+ */
+public class Account extends Aggregate<AccountEvent, Long> {
+
+    private Long id;
+    private Long createdAt;
+    private Long lastModified;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private AccountStatus status;
+    private List<AccountEvent> events = new ArrayList<>();
+
+    public Account() {
+        this.status = AccountStatus.ACCOUNT_CREATED;
+    }
+
+    public Account(Long id, String firstName, String lastName, String email) {
+        this();
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    @JsonProperty("accountId")
+    @Override
+    public Long getIdentity() {
+        return id;
+    }
+
+    public void setIdentity(Long id) {
+        this.id = id;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public AccountStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AccountStatus status) {
+        this.status = status;
+    }
+
+    @Override
+    public List<AccountEvent> getEvents() {
+        return events;
+    }
+
+    @Command(method = "activate", controller = AccountController.class)
+    public Account activate() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "archive", controller = AccountController.class)
+    public Account archive() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "confirm", controller = AccountController.class)
+    public Account confirm() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "suspend", controller = AccountController.class)
+    public Account suspend() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "postOrder", controller = AccountController.class)
+    public Account postOrder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Link getId() {
+        return linkTo(AccountController.class)
+                .slash("accounts")
+                .slash(getIdentity())
+                .withSelfRel();
+    }
+}
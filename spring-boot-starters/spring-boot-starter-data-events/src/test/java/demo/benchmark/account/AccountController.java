@@ -0,0 +1,43 @@
+package demo.benchmark.account;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Declares the command mappings of the account service's controller, which the links of the {@link Account}
+ * commands are built from. The benchmarks don't serve requests.
+ *
+ * @author Kenny Bastani
+ */
+@RestController
+@RequestMapping("/v1")
+public class AccountController {
+
+    @RequestMapping(path = "/accounts/{id}/commands/confirm")
+    public ResponseEntity confirm(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/accounts/{id}/commands/activate")
+    public ResponseEntity activate(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/accounts/{id}/commands/suspend")
+    public ResponseEntity suspend(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/accounts/{id}/commands/archive")
+    public ResponseEntity archive(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/accounts/{id}/commands/postOrder", method = RequestMethod.POST)
+    public ResponseEntity postOrder(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,84 @@
+package demo.benchmark.account;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import demo.event.Event;
+import org.springframework.hateoas.Link;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+public class AccountEvent extends Event<Account, AccountEventType, Long> {
+
+    private Long eventId;
+    private AccountEventType type;
+    private Account entity;
+    private Long createdAt;
+    private Long lastModified;
+
+    public AccountEvent() {
+    }
+
+    public AccountEvent(Long eventId, AccountEventType type, Account entity) {
+        this.eventId = eventId;
+        this.type = type;
+        this.entity = entity;
+        this.createdAt = eventId;
+        this.lastModified = eventId;
+    }
+
+    @Override
+    public Long getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    @Override
+    public AccountEventType getType() {
+        return type;
+    }
+
+    @Override
+    public void setType(AccountEventType type) {
+        this.type = type;
+    }
+
+    @Override
+    @JsonIgnore
+    public Account getEntity() {
+        return entity;
+    }
+
+    @Override
+    public void setEntity(Account entity) {
+        this.entity = entity;
+    }
+
+    @Override
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public Link getId() {
+        return linkTo(AccountController.class).slash("accounts").slash(getEntity().getIdentity()).slash("events")
+                .slash(getEventId()).withSelfRel();
+    }
+}
@@ -0,0 +1,9 @@
+package demo.benchmark.account;
+
+public enum AccountEventType {
+    ACCOUNT_CREATED,
+    ACCOUNT_CONFIRMED,
+    ACCOUNT_ACTIVATED,
+    ACCOUNT_SUSPENDED,
+    ACCOUNT_ARCHIVED
+}
@@ -0,0 +1,10 @@
+package demo.benchmark.account;
+
+public enum AccountStatus {
+    ACCOUNT_CREATED,
+    ACCOUNT_PENDING,
+    ACCOUNT_CONFIRMED,
+    ACCOUNT_ACTIVE,
+    ACCOUNT_SUSPENDED,
+    ACCOUNT_ARCHIVED
+}
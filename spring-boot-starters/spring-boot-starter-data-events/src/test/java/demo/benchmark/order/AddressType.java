@@ -0,0 +1,6 @@
+package demo.benchmark.order;
+
+public enum AddressType {
+    SHIPPING,
+    BILLING
+}
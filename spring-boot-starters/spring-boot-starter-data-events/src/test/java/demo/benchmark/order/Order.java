@@ -0,0 +1,165 @@
+package demo.benchmark.order;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import demo.domain.Aggregate;
+import demo.domain.Command;
+import org.springframework.hateoas.Link;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * An order aggregate with the fields, commands and links of the order service's {@code Order}, without its
+ * persistence mapping. Its commands are declared for their links and are not dispatched.
+ *
+ * @author Kenny Bastani
+ */
+public class Order extends Aggregate<OrderEvent, Long> {
+
+    private Long id;
+    private Long createdAt;
+    private Long lastModified;
+    private OrderStatus status;
+    private Set<LineItem> lineItems = new HashSet<>();
+    private Address shippingAddress;
+    private Long accountId, paymentId;
+    private List<OrderEvent> events = new ArrayList<>();
+
+    public Order() {
+        this.status = OrderStatus.ORDER_CREATED;
+    }
+
+    public Order(Long id, Long accountId) {
+        this();
+        this.id = id;
+        this.accountId = accountId;
+    }
+
+    @JsonProperty("orderId")
+    @Override
+    public Long getIdentity() {
+        return id;
+    }
+
+    public void setIdentity(Long id) {
+        this.id = id;
+    }
+
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Set<LineItem> getLineItems() {
+        return lineItems;
+    }
+
+    public void setLineItems(Set<LineItem> lineItems) {
+        this.lineItems = lineItems;
+    }
+
+    public Address getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public void setShippingAddress(Address shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(Long paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    @Override
+    public List<OrderEvent> getEvents() {
+        return events;
+    }
+
+    @Command(method = "connectAccount", controller = OrderController.class)
+    public Order connectAccount(Long accountId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "connectPayment", controller = OrderController.class)
+    public Order connectPayment(Long paymentId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "createPayment", controller = OrderController.class)
+    public Order createPayment() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "processPayment", controller = OrderController.class)
+    public Order processPayment() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "reserveInventory", controller = OrderController.class)
+    public Order reserveInventory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "addReservation", controller = OrderController.class)
+    public Order addReservation(Long reservationId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "completeReservation", controller = OrderController.class)
+    public Order completeReservation(Long reservationId, String reservationStatus, Integer quantity) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "completeOrder", controller = OrderController.class)
+    public Order completeOrder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Command(method = "updateOrderStatus", controller = OrderController.class)
+    public Order updateOrderStatus(OrderStatus orderStatus) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Link getId() {
+        return linkTo(OrderController.class)
+                .slash("orders")
+                .slash(getIdentity())
+                .withSelfRel();
+    }
+}
@@ -0,0 +1,67 @@
+package demo.benchmark.order;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Declares the command mappings of the order service's controller, which the links of the {@link Order} commands
+ * are built from. The benchmarks don't serve requests.
+ *
+ * @author Kenny Bastani
+ */
+@RestController
+@RequestMapping("/v1")
+public class OrderController {
+
+    @RequestMapping(path = "/orders/{id}/commands/connectAccount")
+    public ResponseEntity connectAccount(@PathVariable Long id, @RequestParam(value = "accountId") Long accountId) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/connectPayment")
+    public ResponseEntity connectPayment(@PathVariable Long id, @RequestParam(value = "paymentId") Long paymentId) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/createPayment")
+    public ResponseEntity createPayment(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/processPayment")
+    public ResponseEntity processPayment(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/reserveInventory")
+    public ResponseEntity reserveInventory(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/addReservation")
+    public ResponseEntity addReservation(@PathVariable Long id,
+            @RequestParam(value = "reservationId") Long reservationId) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/completeReservation")
+    public ResponseEntity completeReservation(@PathVariable Long id,
+            @RequestParam(value = "reservationId", required = false) Long reservationId,
+            @RequestParam(value = "reservationStatus", required = false) String reservationStatus,
+            @RequestParam(value = "quantity", required = false) Integer quantity) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/orders/{id}/commands/completeOrder")
+    public ResponseEntity completeOrder(@PathVariable Long id) {
+        return ResponseEntity.noContent().build();
+    }
+
+    @RequestMapping(path = "/order/{id}/commands/updateOrderStatus")
+    public ResponseEntity updateOrderStatus(@PathVariable Long id, @RequestParam(value = "status") OrderStatus status) {
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,84 @@
+package demo.benchmark.order;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import demo.event.Event;
+import org.springframework.hateoas.Link;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+public class OrderEvent extends Event<Order, OrderEventType, Long> {
+
+    private Long eventId;
+    private OrderEventType type;
+    private Order entity;
+    private Long createdAt;
+    private Long lastModified;
+
+    public OrderEvent() {
+    }
+
+    public OrderEvent(Long eventId, OrderEventType type, Order entity) {
+        this.eventId = eventId;
+        this.type = type;
+        this.entity = entity;
+        this.createdAt = eventId;
+        this.lastModified = eventId;
+    }
+
+    @Override
+    public Long getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    @Override
+    public OrderEventType getType() {
+        return type;
+    }
+
+    @Override
+    public void setType(OrderEventType type) {
+        this.type = type;
+    }
+
+    @Override
+    @JsonIgnore
+    public Order getEntity() {
+        return entity;
+    }
+
+    @Override
+    public void setEntity(Order entity) {
+        this.entity = entity;
+    }
+
+    @Override
+    public Long getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public void setCreatedAt(Long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    @Override
+    public Link getId() {
+        return linkTo(OrderController.class).slash("orders").slash(getEntity().getIdentity()).slash("events")
+                .slash(getEventId()).withSelfRel();
+    }
+}
@@ -0,0 +1,17 @@
+package demo.benchmark.order;
+
+public enum OrderStatus {
+    ORDER_CREATED,
+    ACCOUNT_CONNECTED,
+    RESERVATION_PENDING,
+    INVENTORY_RESERVED,
+    RESERVATION_SUCCEEDED,
+    RESERVATION_FAILED,
+    PAYMENT_CREATED,
+    PAYMENT_CONNECTED,
+    PAYMENT_PENDING,
+    PAYMENT_SUCCEEDED,
+    PAYMENT_FAILED,
+    ORDER_SUCCEEDED,
+    ORDER_FAILED
+}
@@ -0,0 +1,39 @@
+package demo.domain;
+
+import org.junit.Test;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BaseUriLinkBuilderTests {
+
+    @Test
+    public void linksAreBuiltFromTheBaseUriWithoutARequest() {
+        assertThat(RequestContextHolder.getRequestAttributes()).isNull();
+
+        String href = BaseUriLinkBuilder.withBaseUri(URI.create("http://10.0.0.7:8081"),
+                () -> BaseUriLinkBuilder.linkTo(ThingController.class).slash("things").slash(42L).withSelfRel()
+                        .getHref());
+
+        assertThat(href).isEqualTo("http://10.0.0.7:8081/v1/things/42");
+    }
+
+    @Test
+    public void baseUriIsOnlyUsedByTheCallback() {
+        BaseUriLinkBuilder.withBaseUri(URI.create("http://10.0.0.7:8081"), () -> null);
+
+        // Without a base URI or a request there is nothing to build the link from
+        assertThatThrownBy(() -> BaseUriLinkBuilder.linkTo(ThingController.class))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @RestController
+    @RequestMapping("/v1")
+    static class ThingController {
+    }
+}
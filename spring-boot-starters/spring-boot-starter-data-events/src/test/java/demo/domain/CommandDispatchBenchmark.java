@@ -0,0 +1,59 @@
+package demo.domain;
+
+import demo.domain.ProviderTests.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of dispatching a {@link Command} to its {@link Action}, with the {@link ModuleRegistry}
+ * and with bean lookups in the application context. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandDispatchBenchmark {
+
+    @Param({"true", "false"})
+    private boolean moduleRegistry;
+
+    private AnnotationConfigApplicationContext context;
+    private EmptyAggregate aggregate;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(EmptyConfiguration.class, EmptyProvider.class, EmptyService.class, EmptyAction.class,
+                EmptyController.class);
+
+        if (moduleRegistry)
+            context.register(ModuleRegistry.class);
+
+        context.refresh();
+        aggregate = new EmptyAggregate(0L, AggregateStatus.CREATED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AggregateStatus dispatchCommand() {
+        aggregate.emptyAction();
+        return aggregate.getStatus();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommandDispatchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
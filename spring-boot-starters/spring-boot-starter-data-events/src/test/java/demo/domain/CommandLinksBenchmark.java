@@ -0,0 +1,87 @@
+package demo.domain;
+
+import demo.domain.ProviderTests.EmptyAggregate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.TemplateVariable;
+import org.springframework.hateoas.TemplateVariables;
+import org.springframework.hateoas.UriTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+
+/**
+ * Compares building the command links of an {@link Aggregate} from the {@link CommandRegistry} with the previous
+ * implementation of {@link Aggregate#getCommands()}, which resolved the controller method of each {@link Command}
+ * reflectively and built its link with {@code linkTo(method, id)} on every call. Run the main method from the test
+ * classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandLinksBenchmark {
+
+    private EmptyAggregate aggregate;
+
+    @Setup
+    public void setup() {
+        // Command links are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        aggregate = new EmptyAggregate(1L, ProviderTests.AggregateStatus.CREATED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<Link> commandRegistry() {
+        return CommandRegistry.getLinks(aggregate.getClass(), aggregate.getIdentity());
+    }
+
+    @Benchmark
+    public List<Link> controllerLinkBuilder() {
+        List<Command> commands = Arrays.stream(aggregate.getClass().getMethods())
+                .filter(a -> a.isAnnotationPresent(Command.class))
+                .map(a -> a.getAnnotation(Command.class))
+                .collect(Collectors.toList());
+
+        return commands.stream()
+                .map(a -> Arrays.stream(ReflectionUtils.getAllDeclaredMethods(a.controller()))
+                        .filter(m -> m.getName().equalsIgnoreCase(a.method()))
+                        .findFirst()
+                        .orElse(null))
+                .map(m -> {
+                    String uri = linkTo(m, aggregate.getIdentity()).withRel(m.getName()).getHref();
+
+                    return new Link(new UriTemplate(uri, new TemplateVariables(Arrays.stream(m.getParameters())
+                            .filter(p -> p.isAnnotationPresent(RequestParam.class))
+                            .map(p -> new TemplateVariable(p.getAnnotation(RequestParam.class).value(),
+                                    TemplateVariable.VariableType.REQUEST_PARAM))
+                            .toArray(TemplateVariable[]::new))), m.getName());
+                })
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CommandLinksBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
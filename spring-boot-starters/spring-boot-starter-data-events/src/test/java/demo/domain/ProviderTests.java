@@ -20,6 +20,8 @@ import java.util.function.Consumer;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotNull;
+import static junit.framework.TestCase.assertSame;
+import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = {ProviderTests.class, ProviderTests.EmptyConfiguration.class, ProviderTests.EmptyProvider.class, ProviderTests.EmptyService.class, ProviderTests.EmptyAction.class})
@@ -82,10 +84,34 @@ public class ProviderTests {
         Assert.notEmpty(aggregate.getCommands().getLinks());
     }
 
+    @Test
+    public void testModuleRegistryResolvesBeans() {
+        EmptyAggregate aggregate = new EmptyAggregate(0L, AggregateStatus.CREATED);
+        assertSame(context.getBean(EmptyProvider.class), ModuleRegistry.getModule(context, EmptyAggregate.class));
+        assertSame(context.getBean(EmptyProvider.class), aggregate.getModule());
+        assertSame(context.getBean(EmptyAction.class), ModuleRegistry.getBean(context, EmptyAction.class));
+        assertSame(context.getBean(EmptyAction.class), ModuleRegistry.getBean(context, Action.class));
+    }
+
+    @Test
+    public void testCommandLinksAreResolvedOnce() {
+        EmptyAggregate aggregate = new EmptyAggregate(1L, AggregateStatus.CREATED);
+        Link link = aggregate.getCommands().getLink("emptyAction");
+        assertEquals("http://localhost/v1/empty/1{?q}", link.getHref());
+        assertEquals(linkTo(EmptyController.class).slash("empty").slash(1L).toString(), link.expand().getHref());
+        assertSame(CommandRegistry.getCommands(EmptyAggregate.class), CommandRegistry.getCommands(EmptyAggregate.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCommandWithSeveralPathVariablesIsRejected() {
+        CommandRegistry.resolveCommands(NestedCommandAggregate.class);
+    }
+
     private void load(Class<?> provider, String... environment) {
         AnnotationConfigApplicationContext applicationContext = new AnnotationConfigApplicationContext();
         EnvironmentTestUtils.addEnvironment(applicationContext, environment);
-        applicationContext.register(EmptyConfiguration.class, provider, EmptyService.class, EmptyAction.class, EmptyController.class);
+        applicationContext.register(EmptyConfiguration.class, provider, EmptyService.class, EmptyAction.class, EmptyController.class,
+                ModuleRegistry.class);
         applicationContext.refresh();
         this.context = applicationContext;
     }
@@ -130,6 +156,13 @@ public class ProviderTests {
         }
     }
 
+    public static class NestedCommandAggregate {
+
+        @Command(controller = EmptyController.class, method = "nestedAction")
+        public void nestedAction() {
+        }
+    }
+
     @Getter
     @RequiredArgsConstructor
     public static class EmptyProvider extends Module<EmptyAggregate> {
@@ -193,6 +226,11 @@ public class ProviderTests {
         public EmptyAggregate emptyAction(@PathVariable("id") Long id, @RequestParam("q") String query) {
             return provider.getEmptyService().getEmptyAggregate(id);
         }
+
+        @RequestMapping(value = "/empty/{id}/nested/{nestedId}", method = RequestMethod.GET)
+        public EmptyAggregate nestedAction(@PathVariable("id") Long id, @PathVariable("nestedId") Long nestedId) {
+            return provider.getEmptyService().getEmptyAggregate(id);
+        }
     }
 
     public enum AggregateStatus {
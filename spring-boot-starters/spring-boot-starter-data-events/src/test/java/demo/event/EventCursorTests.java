@@ -0,0 +1,97 @@
+package demo.event;
+
+import demo.domain.EmptyEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventCursorTests {
+
+    private EventRepository<LogEvent, Long> eventRepository;
+    private EventService<LogEvent, Long> eventService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        eventRepository = mock(EventRepository.class);
+        eventService = new BasicEventService<>(eventRepository, null, null);
+    }
+
+    @Test
+    public void afterCursorReturnsTheTailOfTheEventLog() {
+        LogEvent cursor = new LogEvent(2L, 20L);
+        when(eventRepository.findEventByEntityIdAndEventId(1L, 2L)).thenReturn(cursor);
+        when(eventRepository.findEventsByEntityIdAndCreatedAtGreaterThanEqual(eq(1L), eq(20L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(cursor, new LogEvent(3L, 20L), new LogEvent(4L, 30L))));
+
+        Events events = EventCursor.find(eventService, 1L, 2L, null);
+
+        assertThat(events.getContent()).extracting("eventId").containsExactly(3L, 4L);
+    }
+
+    @Test(expected = InvalidEventCursorException.class)
+    public void afterCursorOfAnotherEntityIsRejected() {
+        // The repository only finds the cursor in the event log of the entity it belongs to
+        when(eventRepository.findEventByEntityIdAndEventId(1L, 2L)).thenReturn(null);
+
+        EventCursor.find(eventService, 1L, 2L, null);
+    }
+
+    @Test
+    public void sinceCursorReturnsTheEventsCreatedAfterIt() {
+        when(eventRepository.findEventsByEntityIdAndCreatedAtGreaterThan(eq(1L), eq(20L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(new LogEvent(4L, 30L))));
+
+        Events events = EventCursor.find(eventService, 1L, null, 20L);
+
+        assertThat(events.getContent()).extracting("eventId").containsExactly(4L);
+    }
+
+    @Test
+    public void noCursorReturnsTheFullEventLog() {
+        when(eventRepository.findEventsByEntityId(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(new LogEvent(1L, 10L), new LogEvent(2L, 20L))));
+
+        Events events = EventCursor.find(eventService, 1L, null, null);
+
+        assertThat(events.getContent()).hasSize(2);
+        verify(eventRepository).findEventsByEntityId(eq(1L), any(Pageable.class));
+    }
+
+    @Test(expected = InvalidEventCursorException.class)
+    public void bothCursorsAreRejected() {
+        EventCursor.find(eventService, 1L, 2L, 20L);
+    }
+
+    static class LogEvent extends EmptyEvent {
+
+        private final Long eventId;
+        private final Long createdAt;
+
+        LogEvent(Long eventId, Long createdAt) {
+            this.eventId = eventId;
+            this.createdAt = createdAt;
+        }
+
+        @Override
+        public Serializable getEventId() {
+            return eventId;
+        }
+
+        @Override
+        public Long getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package demo.trace;
+
+import demo.domain.EmptyEvent;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SagaTraceRecorderTests {
+
+    private final SagaTraceRecorder recorder = new SagaTraceRecorder();
+
+    @After
+    public void tearDown() {
+        SagaTraceContext.end();
+    }
+
+    @Test
+    public void eventsInScopeContinueTheTrace() {
+        SagaTraceContext.begin(null);
+
+        SagaTrace created = recorder.record(new TypedEvent(Type.ORDER_CREATED));
+        SagaTrace connected = recorder.record(new TypedEvent(Type.ACCOUNT_CONNECTED));
+
+        assertThat(connected.getTraceId()).isEqualTo(created.getTraceId());
+        assertThat(connected.getOrigin()).isEqualTo("Type.ORDER_CREATED");
+        assertThat(connected.getLastEvent()).isEqualTo("Type.ACCOUNT_CONNECTED");
+        assertThat(recorder.getHops()).containsOnlyKeys("Type.ORDER_CREATED -> Type.ACCOUNT_CONNECTED");
+        assertThat(recorder.getSagas().get("Type.ORDER_CREATED -> Type.ACCOUNT_CONNECTED").getTotalCount())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    public void traceFromHeaderIsContinued() {
+        SagaTrace trace = SagaTrace.start("Type.ORDER_CREATED", System.currentTimeMillis() - 100L);
+        SagaTraceContext.begin(SagaTrace.parse(trace.toString()));
+
+        recorder.record(new TypedEvent(Type.ACCOUNT_CONNECTED));
+
+        assertThat(SagaTraceContext.get().getTraceId()).isEqualTo(trace.getTraceId());
+        assertThat(recorder.getHops().get("Type.ORDER_CREATED -> Type.ACCOUNT_CONNECTED").getMaxValue())
+                .isGreaterThanOrEqualTo(100L);
+    }
+
+    @Test
+    public void eventsOutOfScopeStartTheirOwnTrace() {
+        SagaTrace first = recorder.record(new TypedEvent(Type.ORDER_CREATED));
+        SagaTrace second = recorder.record(new TypedEvent(Type.ORDER_CREATED));
+
+        assertThat(first.getTraceId()).isNotEqualTo(second.getTraceId());
+        assertThat(recorder.getHops()).isEmpty();
+        assertThat(SagaTrace.parse("malformed")).isNull();
+    }
+
+    enum Type {
+        ORDER_CREATED, ACCOUNT_CONNECTED
+    }
+
+    static class TypedEvent extends EmptyEvent {
+
+        private final Type type;
+
+        TypedEvent(Type type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package demo.domain;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceSupport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A compact summary of an aggregate's event log that is embedded in an event message by the web tier. When the
+ * digest has no gaps, the state of the aggregate can be replicated from the digest without fetching the event
+ * log over HTTP.
+ *
+ * @param <T> is the type of the events in the digest
+ * @author kbastani
+ */
+public class EventDigest<T> {
+
+    private Long count;
+    private List<Entry<T>> events = new ArrayList<>();
+
+    public EventDigest() {
+    }
+
+    public EventDigest(Long count, List<Entry<T>> events) {
+        this.count = count;
+        this.events = events;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public List<Entry<T>> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<Entry<T>> events) {
+        this.events = events;
+    }
+
+    /**
+     * Checks whether the digest contains every event of the event log.
+     *
+     * @return true if no events of the event log were left out of the digest
+     */
+    public boolean isComplete() {
+        return count != null && events != null && events.size() == count;
+    }
+
+    /**
+     * Checks whether the digest contains the event with the supplied identity link.
+     *
+     * @param eventId is the self link of the event
+     * @return true if the event is part of the digest
+     */
+    public boolean contains(Link eventId) {
+        return getEntry(eventId) != null;
+    }
+
+    /**
+     * Gets the entry of the event with the supplied identity link.
+     *
+     * @param eventId is the self link of the event
+     * @return the entry for the event or {@literal null} if the event is not part of the digest
+     */
+    public Entry<T> getEntry(Link eventId) {
+        Long id = getIdentity(eventId);
+        return events == null ? null : events.stream()
+                .filter(e -> id.equals(e.getEventId()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Expands the digest into events that can be replayed. The self link of each event is derived from the self
+     * link of the event that carried the digest.
+     *
+     * @param eventId      is the self link of the event that carried the digest
+     * @param eventFactory creates a new event for the supplied event type
+     * @param createdAt    sets the creation time of an event
+     * @param <E>          is the event entity type
+     * @return the events of the digest in the order they were created
+     */
+    public <E extends ResourceSupport> List<E> toEvents(Link eventId, Function<T, E> eventFactory,
+            BiConsumer<E, Long> createdAt) {
+        String href = eventId.getHref();
+        String eventsHref = href.substring(0, href.lastIndexOf("/") + 1);
+
+        return events.stream().map(entry -> {
+            E event = eventFactory.apply(entry.getType());
+            createdAt.accept(event, entry.getCreatedAt());
+            event.add(new Link(eventsHref + entry.getEventId(), Link.REL_SELF));
+            return event;
+        }).collect(Collectors.toList());
+    }
+
+    private Long getIdentity(Link link) {
+        String href = link.getHref();
+        return Long.valueOf(href.substring(href.lastIndexOf("/") + 1));
+    }
+
+    @Override
+    public String toString() {
+        return "EventDigest{" +
+                "count=" + count +
+                ", events=" + events +
+                '}';
+    }
+
+    public static class Entry<T> {
+
+        private Long eventId;
+        private T type;
+        private Long createdAt;
+
+        public Entry() {
+        }
+
+        public Entry(Long eventId, T type, Long createdAt) {
+            this.eventId = eventId;
+            this.type = type;
+            this.createdAt = createdAt;
+        }
+
+        public Long getEventId() {
+            return eventId;
+        }
+
+        public void setEventId(Long eventId) {
+            this.eventId = eventId;
+        }
+
+        public T getType() {
+            return type;
+        }
+
+        public void setType(T type) {
+            this.type = type;
+        }
+
+        public Long getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Long createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "eventId=" + eventId +
+                    ", type=" + type +
+                    ", createdAt=" + createdAt +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package demo.hypermedia;
+
+import org.apache.log4j.Logger;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.UriTemplate;
+import org.springframework.hateoas.client.Traverson;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestOperations;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A hypermedia client that compiles the relation paths that are followed from a resource into link templates.
+ * Following a relation path with a {@link Traverson} requests every resource on the path, which means that
+ * following {@code self -> commands -> completeOrder} from an order takes four requests. The first time a relation
+ * path is followed from a type of resource, the path is walked once and the resulting link is cached as a template
+ * of the identity of the resource. Following the same path from another resource of the same type expands the
+ * template locally and only issues the final request.
+ * <p>
+ * Only links that are nested under the starting resource are compiled, because links to other resources, such as
+ * the order of a reservation, cannot be derived from the identity of the starting resource. Those paths are walked
+ * every time. All requests share the supplied {@link RestOperations}, which should be backed by a connection pool.
+ * <p>
+ * The number of compiled templates, hits and misses of the client are exposed as actuator metrics.
+ *
+ * @author kbastani
+ */
+public class HypermediaClient implements PublicMetrics {
+
+    private static final Logger log = Logger.getLogger(HypermediaClient.class);
+
+    private final RestOperations restOperations;
+    private final ConcurrentMap<String, LinkTemplate> templates = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public HypermediaClient(RestOperations restOperations) {
+        this.restOperations = restOperations;
+    }
+
+    /**
+     * Gets a resource.
+     *
+     * @param href is the URI of the resource
+     * @param type is the type of the resource
+     * @return the resource
+     */
+    public <T> T get(String href, Class<T> type) {
+        return exchange(URI.create(href), HttpMethod.GET, null, type);
+    }
+
+    /**
+     * Replaces a resource.
+     *
+     * @param href     is the URI of the resource
+     * @param resource is the new state of the resource
+     * @param type     is the type of the resource
+     * @return the updated resource
+     */
+    public <T> T put(String href, T resource, Class<T> type) {
+        return exchange(URI.create(href), HttpMethod.PUT, resource, type);
+    }
+
+    /**
+     * Follows a relation path from a resource and gets the resource at the end of the path.
+     *
+     * @param href is the URI of the starting resource
+     * @param type is the type of the resource at the end of the path
+     * @param rels are the relations to follow
+     * @return the resource at the end of the path
+     */
+    public <T> T follow(String href, Class<T> type, String... rels) {
+        return follow(href, type, Collections.emptyMap(), rels);
+    }
+
+    /**
+     * Follows a relation path from a resource and gets the resource at the end of the path, expanding the
+     * templated link of the last relation with the supplied parameters.
+     *
+     * @param href       is the URI of the starting resource
+     * @param type       is the type of the resource at the end of the path
+     * @param parameters are the template parameters of the last link
+     * @param rels       are the relations to follow
+     * @return the resource at the end of the path
+     */
+    public <T> T follow(String href, Class<T> type, Map<String, Object> parameters, String... rels) {
+        URI uri = getLink(href, rels).expand(parameters);
+
+        try {
+            return exchange(uri, HttpMethod.GET, null, type);
+        } catch (RestClientException ex) {
+            // The request is not retried, because the link may be a command that is not idempotent
+            templates.remove(getKey(href, rels));
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the templated link at the end of a relation path, without requesting it.
+     *
+     * @param href is the URI of the starting resource
+     * @param rels are the relations to follow
+     * @return the templated link at the end of the path
+     */
+    public UriTemplate getLink(String href, String... rels) {
+        int index = href.lastIndexOf('/');
+        String key = getKey(href, rels);
+        LinkTemplate template = templates.get(key);
+
+        if (template != null) {
+            hits.incrementAndGet();
+            return template.expand(href.substring(index + 1));
+        }
+
+        misses.incrementAndGet();
+
+        Link link = new Traverson(URI.create(href), MediaTypes.HAL_JSON)
+                .setRestOperations(restOperations)
+                .follow(rels)
+                .asTemplatedLink();
+
+        // Compile the link only if it is derived from the identity of the starting resource
+        if (link.getHref().equals(href) || link.getHref().startsWith(href + "/") ||
+                link.getHref().startsWith(href + "{")) {
+            templates.putIfAbsent(key, new LinkTemplate(href.substring(0, index + 1),
+                    link.getHref().substring(href.length())));
+        } else {
+            log.debug(String.format("Link is not nested under %s: %s", href, link.getHref()));
+        }
+
+        return new UriTemplate(link.getHref());
+    }
+
+    private <T> T exchange(URI uri, HttpMethod method, Object body, Class<T> type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(Collections.singletonList(MediaTypes.HAL_JSON));
+
+        if (body != null)
+            headers.setContentType(MediaTypes.HAL_JSON);
+
+        return restOperations.exchange(new RequestEntity<>(body, headers, method, uri), type).getBody();
+    }
+
+    private String getKey(String href, String... rels) {
+        // Resources of the same type share the URI of their collection
+        return href.substring(0, href.lastIndexOf('/') + 1) + "{id}/" + String.join("/", rels);
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("hypermedia.client.templates", templates.size()),
+                new Metric<>("hypermedia.client.hit", hits.get()),
+                new Metric<>("hypermedia.client.miss", misses.get()));
+    }
+
+    /**
+     * A compiled link that is expanded with the identity of the resource that it was followed from.
+     */
+    private static class LinkTemplate {
+
+        private final String prefix;
+        private final String suffix;
+
+        LinkTemplate(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        UriTemplate expand(String identity) {
+            return new UriTemplate(prefix + identity + suffix);
+        }
+    }
+}
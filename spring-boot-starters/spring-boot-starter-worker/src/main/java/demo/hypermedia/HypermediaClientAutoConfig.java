@@ -0,0 +1,79 @@
+package demo.hypermedia;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.integration.config.GlobalChannelInterceptor;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class auto-configures the {@link HypermediaClient} that the state machine functions of a worker use to follow
+ * links between resources. Its {@link RestTemplate} is backed by a pool of persistent HTTP connections, which is
+ * configured with the same {@code http.client.*} properties as the pooled client of the web services. The saga
+ * trace of the event that is being handled is added to each request by the {@link SagaTraceInterceptor}.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnClass({HttpClient.class, GlobalChannelInterceptor.class})
+public class HypermediaClientAutoConfig {
+
+    @Value("${http.client.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${http.client.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.client.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${http.client.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${http.client.pool-timeout-ms:2000}")
+    private int poolTimeoutMs;
+
+    @Value("${http.client.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Bean
+    @GlobalChannelInterceptor
+    @ConditionalOnMissingBean
+    public SagaTraceInterceptor sagaTraceInterceptor() {
+        return new SagaTraceInterceptor();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RestTemplate restTemplate(SagaTraceInterceptor sagaTraceInterceptor) {
+        HttpClient httpClient = HttpClients.custom()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setSocketTimeout(readTimeoutMs)
+                        .setConnectionRequestTimeout(poolTimeoutMs)
+                        .build())
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .useSystemProperties()
+                .build();
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(sagaTraceInterceptor);
+        return restTemplate;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public HypermediaClient hypermediaClient(RestTemplate restTemplate) {
+        return new HypermediaClient(restTemplate);
+    }
+}
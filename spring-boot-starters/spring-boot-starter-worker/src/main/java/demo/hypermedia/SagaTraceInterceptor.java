@@ -0,0 +1,74 @@
+package demo.hypermedia;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+
+import java.io.IOException;
+
+/**
+ * Carries the saga trace of an event message over to the requests that the worker sends while it handles the
+ * event. The trace header of the message is held for the current thread while the message is dispatched to its
+ * listener, and added to the requests of the {@link HypermediaClient}, so that the events raised by the requests
+ * continue the saga.
+ *
+ * @author kbastani
+ */
+public class SagaTraceInterceptor extends ChannelInterceptorAdapter implements ClientHttpRequestInterceptor {
+
+    public static final String MESSAGE_HEADER = "sagaTrace";
+    public static final String HTTP_HEADER = "X-Saga-Trace";
+
+    private static final ThreadLocal<String> trace = new ThreadLocal<>();
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        Object header = message.getHeaders().get(MESSAGE_HEADER);
+
+        if (header != null)
+            trace.set(header.toString());
+
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        if (message.getHeaders().containsKey(MESSAGE_HEADER))
+            trace.remove();
+    }
+
+    /**
+     * Wraps a task so that it holds the saga trace of the current thread while it runs on another thread.
+     *
+     * @param task is the task to run with the saga trace of the caller
+     * @return the wrapped task
+     */
+    public static Runnable propagate(Runnable task) {
+        String header = trace.get();
+
+        return () -> {
+            if (header != null)
+                trace.set(header);
+            try {
+                task.run();
+            } finally {
+                trace.remove();
+            }
+        };
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String header = trace.get();
+
+        if (header != null)
+            request.getHeaders().set(HTTP_HEADER, header);
+
+        return execution.execute(request, body);
+    }
+}
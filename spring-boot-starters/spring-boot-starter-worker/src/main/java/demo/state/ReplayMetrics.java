@@ -0,0 +1,191 @@
+package demo.state;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.apache.log4j.Logger;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Measures the replication of an aggregate from its event log for each type of event that is received. The
+ * measurements are tagged by the name of the aggregate and the type of the event, and are exposed as actuator
+ * metrics prefixed with {@code replay.<aggregate>.<event type>}:
+ * <ul>
+ * <li>{@code log-length} is the number of events in the event log</li>
+ * <li>{@code replay-ms} is the time to replicate the state from the event log, without fetching it</li>
+ * <li>{@code fetch-ms} is the time to fetch the event log over HTTP, when it is not embedded in the event</li>
+ * <li>{@code action-ms} is the time to apply the received event, which runs the action of its transition</li>
+ * <li>{@code count} and {@code failures} are the number of events that were applied and that failed</li>
+ * </ul>
+ * An event log that is longer than the warning threshold is logged with its aggregate, so that aggregates with
+ * pathological histories are found before they stall a consumer.
+ *
+ * @param <E> is the type of the event
+ * @author kbastani
+ */
+public class ReplayMetrics<E> implements PublicMetrics {
+
+    private static final Logger log = Logger.getLogger(ReplayMetrics.class);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String name;
+    private final int logLengthThreshold;
+    private final ConcurrentMap<String, Measures> measures = new ConcurrentHashMap<>();
+
+    public ReplayMetrics(String name, int logLengthThreshold) {
+        this.name = name;
+        this.logLengthThreshold = logLengthThreshold;
+    }
+
+    /**
+     * Begins to measure the replication of an aggregate for a received event.
+     *
+     * @param eventType is the type of the received event
+     * @return the {@link Replay} that measures the replication
+     */
+    public Replay begin(E eventType) {
+        return new Replay(measures.computeIfAbsent(String.valueOf(eventType), key -> new Measures()),
+                name, logLengthThreshold);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        Collection<Metric<?>> metrics = new ArrayList<>();
+
+        measures.forEach((eventType, measure) -> {
+            String prefix = "replay." + name + "." + eventType + ".";
+            metrics.add(new Metric<>(prefix + "count", measure.count.get()));
+            metrics.add(new Metric<>(prefix + "failures", measure.failures.get()));
+            addMetrics(metrics, prefix + "log-length", measure.logLength.snapshot(), 1.0);
+            addMetrics(metrics, prefix + "replay-ms", measure.replay.snapshot(), 1000.0);
+            addMetrics(metrics, prefix + "fetch-ms", measure.fetch.snapshot(), 1000.0);
+            addMetrics(metrics, prefix + "action-ms", measure.action.snapshot(), 1000.0);
+        });
+
+        return metrics;
+    }
+
+    private static void addMetrics(Collection<Metric<?>> metrics, String name, Histogram histogram, double scale) {
+        if (histogram.getTotalCount() == 0)
+            return;
+
+        metrics.add(new Metric<>(name + ".mean", histogram.getMean() / scale));
+        metrics.add(new Metric<>(name + ".p50", histogram.getValueAtPercentile(50.0) / scale));
+        metrics.add(new Metric<>(name + ".p99", histogram.getValueAtPercentile(99.0) / scale));
+        metrics.add(new Metric<>(name + ".max", histogram.getMaxValue() / scale));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(0L, nanos));
+    }
+
+    /**
+     * Measures the replication of an aggregate for a single received event.
+     */
+    public static class Replay {
+
+        private final Measures measures;
+        private final String name;
+        private final int logLengthThreshold;
+        private final long startedAt = System.nanoTime();
+        private long fetchNanos;
+
+        private Replay(Measures measures, String name, int logLengthThreshold) {
+            this.measures = measures;
+            this.name = name;
+            this.logLengthThreshold = logLengthThreshold;
+        }
+
+        /**
+         * Fetches the event log of the aggregate over HTTP.
+         *
+         * @param request is the request that fetches the event log
+         * @return the event log
+         */
+        public <T> T fetch(Supplier<T> request) {
+            long start = System.nanoTime();
+            try {
+                return request.get();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                fetchNanos += elapsed;
+                measures.fetch.record(micros(elapsed));
+            }
+        }
+
+        /**
+         * Applies the received event to the replicated state machine.
+         *
+         * @param action sends the received event to the state machine
+         */
+        public void action(Runnable action) {
+            long start = System.nanoTime();
+            try {
+                action.run();
+            } finally {
+                measures.action.record(micros(System.nanoTime() - start));
+            }
+        }
+
+        /**
+         * Completes the replication of the aggregate.
+         *
+         * @param aggregate is the link of the aggregate
+         * @param logLength is the number of events in the event log of the aggregate
+         */
+        public void complete(String aggregate, int logLength) {
+            measures.replay.record(micros(System.nanoTime() - startedAt - fetchNanos));
+            measures.logLength.record(logLength);
+            measures.count.incrementAndGet();
+
+            if (logLength > logLengthThreshold)
+                log.warn(String.format("The event log of %s %s has grown to %d events", name, aggregate, logLength));
+        }
+
+        /**
+         * Counts a replication of the aggregate that failed.
+         */
+        public void fail() {
+            measures.failures.incrementAndGet();
+        }
+    }
+
+    private static class Measures {
+
+        private final Measure logLength = new Measure();
+        private final Measure replay = new Measure();
+        private final Measure fetch = new Measure();
+        private final Measure action = new Measure();
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+    }
+
+    /**
+     * A measure is recorded without locking, and the recorded values are accumulated into a histogram of the whole
+     * run when the metrics are read.
+     */
+    private static class Measure {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        private Histogram interval;
+
+        void record(long value) {
+            recorder.recordValue(value);
+        }
+
+        synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return total.copy();
+        }
+    }
+}
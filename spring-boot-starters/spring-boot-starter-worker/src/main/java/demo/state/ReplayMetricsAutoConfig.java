@@ -0,0 +1,26 @@
+package demo.state;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class auto-configures the {@link ReplayMetricsEndpoint} that exposes the {@link ReplayMetrics} of the state
+ * machines of a worker.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+public class ReplayMetricsAutoConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplayMetricsEndpoint replayMetricsEndpoint(ObjectProvider<List<ReplayMetrics<?>>> replayMetrics) {
+        List<ReplayMetrics<?>> metrics = replayMetrics.getIfAvailable();
+        return new ReplayMetricsEndpoint(metrics != null ? metrics : Collections.emptyList());
+    }
+}
@@ -0,0 +1,32 @@
+package demo.state;
+
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes the metrics of the {@link ReplayMetrics} of a worker on the {@code /replay} actuator endpoint. The
+ * endpoint is not sensitive, so that the dashboard can aggregate the replay metrics of the workers without access
+ * to the {@code /metrics} endpoint, which stays sensitive.
+ *
+ * @author Kenny Bastani
+ */
+public class ReplayMetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+    private final List<ReplayMetrics<?>> replayMetrics;
+
+    public ReplayMetricsEndpoint(List<ReplayMetrics<?>> replayMetrics) {
+        super("replay", false);
+        this.replayMetrics = replayMetrics;
+    }
+
+    @Override
+    public Map<String, Object> invoke() {
+        Map<String, Object> result = new TreeMap<>();
+        replayMetrics.forEach(metrics -> metrics.metrics()
+                .forEach(metric -> result.put(metric.getName(), metric.getValue())));
+        return result;
+    }
+}
@@ -0,0 +1,126 @@
+package demo.state;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of pre-built {@link StateMachine}s. Building a state machine from its configuration allocates
+ * the complete state and transition graph, so machines are reset to their initial state and reused instead of
+ * being discarded after each replicated event. When the pool is empty a new machine is built by the
+ * {@link StateMachineFactory}, and machines that are released to a full pool are discarded.
+ * <p>
+ * The size, capacity, hits and misses of the pool are exposed as actuator metrics.
+ *
+ * @param <S> is the type of the state
+ * @param <E> is the type of the event
+ * @author kbastani
+ */
+public class StateMachinePool<S, E> implements PublicMetrics {
+
+    private final String name;
+    private final int capacity;
+    private final StateMachineFactory<S, E> factory;
+    private final BlockingQueue<StateMachine<S, E>> stateMachines;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public StateMachinePool(String name, StateMachineFactory<S, E> factory, int capacity) {
+        this.name = name;
+        this.capacity = capacity;
+        this.factory = factory;
+        this.stateMachines = new ArrayBlockingQueue<>(capacity);
+
+        // Pre-build the state machines of the pool
+        for (int i = 0; i < capacity; i++) {
+            stateMachines.offer(factory.getStateMachine(UUID.randomUUID().toString()));
+        }
+    }
+
+    /**
+     * Acquires a started state machine in its initial state.
+     *
+     * @return a started {@link StateMachine}
+     */
+    public StateMachine<S, E> acquire() {
+        return acquire(null);
+    }
+
+    /**
+     * Acquires a started state machine that is restored to the supplied state.
+     *
+     * @param state is the state to restore the state machine to, or {@literal null} for the initial state
+     * @return a started {@link StateMachine}
+     */
+    public StateMachine<S, E> acquire(S state) {
+        StateMachine<S, E> stateMachine = stateMachines.poll();
+
+        if (stateMachine != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            stateMachine = factory.getStateMachine(UUID.randomUUID().toString());
+        }
+
+        if (state != null)
+            reset(stateMachine, state);
+
+        stateMachine.start();
+
+        return stateMachine;
+    }
+
+    /**
+     * Stops the state machine and returns it to the pool in its initial state. The state machine must not be
+     * used after it has been released. State machines that have an error are discarded.
+     *
+     * @param stateMachine is the {@link StateMachine} to release
+     */
+    public void release(StateMachine<S, E> stateMachine) {
+        stateMachine.stop();
+
+        if (stateMachine.hasStateMachineError())
+            return;
+
+        stateMachine.getExtendedState().getVariables().clear();
+        reset(stateMachine, stateMachine.getInitialState().getId());
+        stateMachines.offer(stateMachine);
+    }
+
+    public int size() {
+        return stateMachines.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        String prefix = "statemachine." + name + ".pool.";
+        return Arrays.asList(
+                new Metric<>(prefix + "size", stateMachines.size()),
+                new Metric<>(prefix + "capacity", capacity),
+                new Metric<>(prefix + "hit", hits.get()),
+                new Metric<>(prefix + "miss", misses.get()));
+    }
+
+    private void reset(StateMachine<S, E> stateMachine, S state) {
+        stateMachine.getStateMachineAccessor()
+                .doWithAllRegions(access -> access.resetStateMachine(
+                        new DefaultStateMachineContext<>(state, null, null, null)));
+    }
+}
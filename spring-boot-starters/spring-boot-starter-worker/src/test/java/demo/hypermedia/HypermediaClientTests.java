@@ -0,0 +1,97 @@
+package demo.hypermedia;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Counts the requests that the {@link HypermediaClient} sends to a stub of the order-web service when it follows
+ * the command links of orders.
+ */
+public class HypermediaClientTests {
+
+    private HttpServer server;
+    private String ordersHref;
+    private AtomicInteger requests = new AtomicInteger();
+    private HypermediaClient hypermediaClient;
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        ordersHref = String.format("http://127.0.0.1:%d/v1/orders", server.getAddress().getPort());
+
+        server.createContext("/v1/orders", exchange -> {
+            requests.incrementAndGet();
+            String[] segments = exchange.getRequestURI().getPath().split("/");
+            String orderHref = ordersHref + "/" + segments[3];
+            String body;
+
+            if (segments.length == 4) {
+                body = String.format("{\"orderId\":%s,\"_links\":{\"self\":{\"href\":\"%s\"},\"commands\":" +
+                        "{\"href\":\"%s/commands\"},\"account\":{\"href\":\"%s/account\"}}}", segments[3], orderHref,
+                        orderHref, ordersHref.replace("orders", "accounts/1"));
+            } else if (segments.length == 5) {
+                body = String.format("{\"_links\":{\"connectPayment\":{\"href\":\"%s/commands/connectPayment" +
+                        "{?paymentId}\",\"templated\":true}}}", orderHref);
+            } else {
+                String query = exchange.getRequestURI().getQuery();
+                body = String.format("{\"orderId\":%s,\"query\":\"%s\"}", segments[3], query);
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", MediaTypes.HAL_JSON_VALUE);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+
+        server.start();
+        hypermediaClient = new HypermediaClient(new RestTemplate());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCommandLinkIsExpandedLocally() {
+        Map<?, ?> order = hypermediaClient.follow(ordersHref + "/1", Map.class,
+                Collections.singletonMap("paymentId", 7), "commands", "connectPayment");
+
+        assertEquals(1, order.get("orderId"));
+        assertEquals("paymentId=7", order.get("query"));
+        assertEquals(3, requests.getAndSet(0));
+
+        order = hypermediaClient.follow(ordersHref + "/2", Map.class,
+                Collections.singletonMap("paymentId", 8), "commands", "connectPayment");
+
+        assertEquals(2, order.get("orderId"));
+        assertEquals("paymentId=8", order.get("query"));
+        assertEquals(1, requests.get());
+        assertEquals(1, hypermediaClient.getHits());
+        assertEquals(1, hypermediaClient.getMisses());
+    }
+
+    @Test
+    public void testLinkToOtherResourceIsNotCompiled() {
+        hypermediaClient.getLink(ordersHref + "/1", "account");
+        hypermediaClient.getLink(ordersHref + "/2", "account");
+
+        assertEquals(2, requests.get());
+        assertEquals(0, hypermediaClient.size());
+        assertEquals(2, hypermediaClient.getMisses());
+    }
+}
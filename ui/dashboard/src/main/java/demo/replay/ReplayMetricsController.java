@@ -0,0 +1,96 @@
+package demo.replay;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregates the replay metrics of the worker instances that are registered with discovery, which each instance
+ * exposes on its {@code /replay} endpoint, while its {@code /metrics} endpoint stays sensitive. The counts of the
+ * instances are summed, and the other statistics take the value of the slowest instance, since percentiles cannot
+ * be merged from their summaries.
+ *
+ * @author Kenny Bastani
+ */
+@RestController
+@RequestMapping("/v1")
+public class ReplayMetricsController {
+
+    private static final Log log = LogFactory.getLog(ReplayMetricsController.class);
+    private static final String PREFIX = "replay.";
+
+    private final DiscoveryClient discoveryClient;
+    private final String[] workers;
+    private final RestTemplate restTemplate;
+
+    public ReplayMetricsController(DiscoveryClient discoveryClient,
+            @Value("${replay.workers:order-worker,payment-worker,warehouse-worker,account-worker}") String[] workers,
+            @Value("${replay.timeout-millis:2000}") int timeoutMillis) {
+        this.discoveryClient = discoveryClient;
+        this.workers = workers;
+
+        // The instances are addressed directly, so the load balanced rest template can't be used
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    @GetMapping(path = "/replay/metrics")
+    public ResponseEntity<Map<String, Object>> getReplayMetrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String worker : workers)
+            result.put(worker, getWorkerMetrics(worker));
+        return ResponseEntity.ok(result);
+    }
+
+    private Map<String, Object> getWorkerMetrics(String worker) {
+        Map<String, Number> metrics = new TreeMap<>();
+        List<ServiceInstance> instances = discoveryClient.getInstances(worker);
+        int unavailable = 0;
+
+        for (ServiceInstance instance : instances) {
+            try {
+                Map<?, ?> instanceMetrics = restTemplate.getForObject(instance.getUri().resolve("/replay"),
+                        Map.class);
+
+                if (instanceMetrics != null)
+                    instanceMetrics.forEach((name, value) -> {
+                        if (String.valueOf(name).startsWith(PREFIX) && value instanceof Number)
+                            merge(metrics, String.valueOf(name), (Number) value);
+                    });
+            } catch (RestClientException ex) {
+                log.warn("Could not fetch the replay metrics of " + instance.getUri(), ex);
+                unavailable++;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("instances", instances.size());
+        result.put("unavailable", unavailable);
+        result.put("metrics", metrics);
+        return result;
+    }
+
+    private static void merge(Map<String, Number> metrics, String name, Number value) {
+        if (name.endsWith(".count") || name.endsWith(".failures"))
+            metrics.merge(name, value.longValue(), (first, second) -> first.longValue() + second.longValue());
+        else
+            metrics.merge(name, value.doubleValue(), (first, second) ->
+                    Math.max(first.doubleValue(), second.doubleValue()));
+    }
+}
@@ -35,7 +35,7 @@ public class EventConfig {
 
     @Bean
     public EventSource reservationChannel(ReservationEventSource eventSource) {
-        return new EventSource(eventSource.output());
+        return new EventSource(eventSource.output(), eventSource.batchOutput());
     }
 
     @Bean
@@ -0,0 +1,45 @@
+package demo.config;
+
+import demo.inventory.queue.InventoryQueue;
+import demo.inventory.queue.InventoryQueueReconciler;
+import demo.inventory.queue.LocalInventoryQueue;
+import demo.inventory.queue.RedisInventoryQueue;
+import demo.inventory.repository.InventoryRepository;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the {@link InventoryQueue} of pending inventory when {@code inventory.queue.type} is set to
+ * {@code redis}, or to {@code local} for a single instance or tests.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "inventory.queue", name = "type")
+public class InventoryQueueConfig {
+
+    @Value("${inventory.queue.shards:8}")
+    private int shards;
+
+    @Value("${inventory.queue.reconcile-ms:60000}")
+    private long reconcileMs;
+
+    @Bean
+    @ConditionalOnProperty(prefix = "inventory.queue", name = "type", havingValue = "redis")
+    public InventoryQueue redisInventoryQueue(RedissonClient redissonClient) {
+        return new RedisInventoryQueue(redissonClient, shards);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "inventory.queue", name = "type", havingValue = "local")
+    public InventoryQueue localInventoryQueue() {
+        return new LocalInventoryQueue(shards);
+    }
+
+    @Bean
+    public InventoryQueueReconciler inventoryQueueReconciler(InventoryQueue inventoryQueue,
+            InventoryRepository inventoryRepository) {
+        return new InventoryQueueReconciler(inventoryQueue, inventoryRepository, reconcileMs);
+    }
+}
@@ -0,0 +1,56 @@
+package demo.config;
+
+import demo.reservation.domain.ReservationStatus;
+import demo.reservation.lease.ReservationLeaseReaper;
+import demo.reservation.lease.ReservationLeaseService;
+import demo.reservation.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Configures the {@link ReservationLeaseReaper} that releases reservations which are stuck pending after their
+ * lease of {@code reservation.lease.duration-ms} has expired, unless {@code reservation.lease.reaper-enabled} is
+ * set to false, and publishes its metrics.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "reservation.lease", name = "reaper-enabled", matchIfMissing = true)
+public class ReservationLeaseConfig {
+
+    @Value("${reservation.lease.batch-size:100}")
+    private int batchSize;
+
+    @Value("${reservation.lease.reap-ms:10000}")
+    private long reapMs;
+
+    @Bean
+    public ReservationLeaseReaper reservationLeaseReaper(ReservationLeaseService reservationLeaseService,
+            DiscoveryClient discoveryClient) {
+        return new ReservationLeaseReaper(reservationLeaseService, discoveryClient, batchSize, reapMs);
+    }
+
+    @Bean
+    public PublicMetrics reservationLeaseMetrics(ReservationRepository reservationRepository,
+            ReservationLeaseReaper reservationLeaseReaper) {
+        return () -> {
+            Collection<Metric<?>> metrics = new ArrayList<>();
+            metrics.add(new Metric<>("reservation.lease.expired", reservationRepository
+                    .countByStatusAndLeaseExpiresAtLessThan(ReservationStatus.RESERVATION_PENDING,
+                            System.currentTimeMillis())));
+            metrics.add(new Metric<>("reservation.lease.reclaimed", reservationLeaseReaper.getReclaimed()));
+            metrics.add(new Metric<>("reservation.lease.reclaimed-inventory",
+                    reservationLeaseReaper.getReclaimedInventory()));
+            metrics.add(new Metric<>("reservation.lease.reaps", reservationLeaseReaper.getReaps()));
+            metrics.add(new Metric<>("reservation.lease.last-reap-ms", reservationLeaseReaper.getLastReapMs()));
+            metrics.add(new Metric<>("reservation.lease.max-reap-ms", reservationLeaseReaper.getMaxReapMs()));
+            return metrics;
+        };
+    }
+}
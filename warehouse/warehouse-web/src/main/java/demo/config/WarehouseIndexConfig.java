@@ -0,0 +1,51 @@
+package demo.config;
+
+import demo.inventory.domain.InventoryMode;
+import demo.inventory.repository.InventoryRepository;
+import demo.inventory.repository.InventoryStockRepository;
+import demo.warehouse.index.MostStockRanking;
+import demo.warehouse.index.NearestWarehouseRanking;
+import demo.warehouse.index.WarehouseInventoryIndex;
+import demo.warehouse.index.WarehouseRanking;
+import demo.warehouse.repository.WarehouseRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the {@link WarehouseInventoryIndex} that finds the warehouses for an order in memory when
+ * {@code warehouse.index.enabled} is set. The warehouses are ranked by {@code warehouse.index.ranking}, which is
+ * either {@code most-stock} or {@code nearest}, unless a {@link WarehouseRanking} bean is supplied.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "warehouse.index", name = "enabled")
+public class WarehouseIndexConfig {
+
+    @Value("${inventory.mode:unit}")
+    private String inventoryMode;
+
+    @Value("${warehouse.index.resync-ms:60000}")
+    private long resyncMs;
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "warehouse.index", name = "ranking", havingValue = "nearest")
+    public WarehouseRanking nearestWarehouseRanking(WarehouseRepository warehouseRepository) {
+        return new NearestWarehouseRanking(warehouseRepository);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public WarehouseRanking mostStockRanking() {
+        return new MostStockRanking();
+    }
+
+    @Bean
+    public WarehouseInventoryIndex warehouseInventoryIndex(InventoryRepository inventoryRepository,
+            InventoryStockRepository inventoryStockRepository, WarehouseRanking warehouseRanking) {
+        return new WarehouseInventoryIndex(inventoryRepository, inventoryStockRepository,
+                InventoryMode.valueOf(inventoryMode.trim().toUpperCase()), warehouseRanking, resyncMs);
+    }
+}
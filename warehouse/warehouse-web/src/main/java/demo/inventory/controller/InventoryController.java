@@ -1,7 +1,7 @@
 package demo.inventory.controller;
 
+import demo.event.EventCursor;
 import demo.event.EventService;
-import demo.event.Events;
 import demo.inventory.domain.Inventory;
 import demo.inventory.domain.InventoryService;
 import demo.inventory.domain.InventoryStatus;
@@ -67,8 +67,10 @@ public class InventoryController {
     }
 
     @RequestMapping(path = "/inventory/{id}/events")
-    public ResponseEntity getInventoryEvents(@PathVariable Long id) {
-        return Optional.of(getInventoryEventResources(id))
+    public ResponseEntity getInventoryEvents(@PathVariable Long id,
+                                             @RequestParam(value = "after", required = false) Long after,
+                                             @RequestParam(value = "since", required = false) Long since) {
+        return Optional.of(EventCursor.find(eventService, id, after, since))
                 .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("Could not get inventory events"));
     }
@@ -172,10 +174,6 @@ public class InventoryController {
         return eventService.findOne(eventId);
     }
 
-    private Events getInventoryEventResources(Long id) {
-        return eventService.find(id);
-    }
-
     private LinkBuilder linkBuilder(String name, Long id) {
         Method method;
 
@@ -204,7 +202,8 @@ public class InventoryController {
 
         if (!inventory.hasLink("events")) {
             // Add get events link
-            inventory.add(linkBuilder("getInventoryEvents", inventory.getIdentity()).withRel("events"));
+            inventory.add(linkTo(InventoryController.class).slash("inventory").slash(inventory.getIdentity())
+                    .slash("events").withRel("events"));
         }
 
         if (inventory.getReservation() != null && !inventory.hasLink("reservation")) {
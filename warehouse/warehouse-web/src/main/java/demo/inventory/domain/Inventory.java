@@ -16,12 +16,14 @@ import org.springframework.hateoas.Link;
 
 import javax.persistence.*;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 @Entity
+@Table(indexes = @Index(name = "IDX_INVENTORY_LEASE", columnList = "status, leaseExpiresAt"))
 public class Inventory extends AbstractEntity<InventoryEvent, Long> {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "inventory")
+    @TableGenerator(name = "inventory", table = "id_generator", pkColumnValue = "inventory", allocationSize = 50)
     private Long id;
 
     private String productId;
@@ -37,6 +39,9 @@ public class Inventory extends AbstractEntity<InventoryEvent, Long> {
     @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     private Warehouse warehouse;
 
+    @JsonIgnore
+    private Long leaseExpiresAt;
+
     public Inventory() {
         this.status = InventoryStatus.INVENTORY_CREATED;
     }
@@ -84,6 +89,22 @@ public class Inventory extends AbstractEntity<InventoryEvent, Long> {
         this.warehouse = warehouse;
     }
 
+    /**
+     * Get the time at which the lease of claimed inventory expires. Inventory is leased when it is claimed for a
+     * reservation and the lease ends once it is connected to the reservation, so inventory that is still claimed
+     * without a reservation after its lease has expired is released by the
+     * {@link demo.reservation.lease.ReservationLeaseReaper}.
+     *
+     * @return the expiry of the lease in epoch milliseconds, or null if the inventory is not leased
+     */
+    public Long getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Long leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
     @Command(method = "reserve", controller = InventoryController.class)
     public Inventory reserve(Long reservationId) {
         return getAction(ReserveInventory.class)
@@ -0,0 +1,202 @@
+package demo.inventory.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.inventory.queue.InventoryQueue;
+import demo.inventory.repository.InventoryRepository;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.domain.WarehouseService;
+import demo.warehouse.event.WarehouseEvent;
+import demo.warehouse.event.WarehouseEventType;
+import demo.warehouse.index.WarehouseInventoryIndex;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adds inventory to a {@link Warehouse} in bulk from a stream of JSON items, which is either a JSON array or
+ * newline-delimited JSON. Each item has a {@code productId} and an optional {@code quantity} of units, which
+ * defaults to one, so a single {@link Inventory} resource is also a valid item.
+ * <p>
+ * The stream is parsed one item at a time and committed in chunks of {@code inventory.ingest.chunk-size} units, so
+ * the payload is never held in memory. Each chunk is inserted in JDBC batches in its own transaction, which relies
+ * on the table generated ids of {@link Inventory}, since Hibernate does not batch identity inserts. Each chunk raises a
+ * single {@link WarehouseEventType#INVENTORY_ADDED} event instead of an event for every unit. In
+ * {@link InventoryMode#UNIT} mode the units are created available for reservation, which is the state that the
+ * warehouse worker would otherwise move each unit to after its created event.
+ *
+ * @author Kenny Bastani
+ */
+@Service
+public class InventoryIngestService {
+
+    private final Logger log = Logger.getLogger(InventoryIngestService.class);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
+    private final WarehouseService warehouseService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final InventoryQueue inventoryQueue;
+    private final WarehouseInventoryIndex warehouseInventoryIndex;
+
+    public InventoryIngestService(InventoryRepository inventoryRepository, InventoryService inventoryService,
+            WarehouseService warehouseService, EntityManager entityManager, PlatformTransactionManager
+            transactionManager, ObjectMapper objectMapper, @Value("${inventory.ingest.chunk-size:1000}") int
+            chunkSize, ObjectProvider<InventoryQueue> inventoryQueue, ObjectProvider<WarehouseInventoryIndex>
+            warehouseInventoryIndex) {
+        Assert.isTrue(chunkSize > 0, "The ingest chunk size must be positive");
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryService = inventoryService;
+        this.warehouseService = warehouseService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.inventoryQueue = inventoryQueue.getIfAvailable();
+        this.warehouseInventoryIndex = warehouseInventoryIndex.getIfAvailable();
+    }
+
+    /**
+     * Add the inventory items of a JSON array or newline-delimited JSON stream to a warehouse. Chunks that were
+     * committed before an error in the stream stay committed.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param inputStream is the stream of inventory items
+     * @return the number of units and chunks that were added
+     * @throws IOException if the stream could not be read or contains malformed JSON
+     */
+    public InventoryIngestion ingest(Long warehouseId, InputStream inputStream) throws IOException {
+        Assert.notNull(warehouseService.get(warehouseId), "Warehouse for the identifier could not be found");
+
+        InventoryIngestion ingestion = new InventoryIngestion(warehouseId);
+        Map<String, Long> chunk = new LinkedHashMap<>();
+        long chunkUnits = 0L;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+
+            if (token == JsonToken.START_ARRAY)
+                token = parser.nextToken();
+
+            while (token == JsonToken.START_OBJECT) {
+                Item item = parser.readValueAs(Item.class);
+                Assert.hasText(item.getProductId(), "Inventory items must contain a product identifier");
+
+                long quantity = item.getQuantity() != null ? item.getQuantity() : 1L;
+                Assert.isTrue(quantity > 0, "Inventory items must have a positive quantity");
+
+                // Split the item across chunks, so that a chunk never holds more than the chunk size
+                while (quantity > 0) {
+                    long units = Math.min(quantity, chunkSize - chunkUnits);
+                    chunk.merge(item.getProductId(), units, Long::sum);
+                    chunkUnits += units;
+                    quantity -= units;
+
+                    if (chunkUnits == chunkSize) {
+                        commit(warehouseId, chunk, chunkUnits, ingestion);
+                        chunk.clear();
+                        chunkUnits = 0L;
+                    }
+                }
+
+                token = parser.nextToken();
+            }
+
+            Assert.isTrue(token == null || token == JsonToken.END_ARRAY,
+                    "Inventory must be a JSON array or newline-delimited JSON objects");
+        }
+
+        if (chunkUnits > 0)
+            commit(warehouseId, chunk, chunkUnits, ingestion);
+
+        log.info(String.format("Ingested %s", ingestion));
+
+        return ingestion;
+    }
+
+    private void commit(Long warehouseId, Map<String, Long> chunk, long units, InventoryIngestion ingestion) {
+        List<Inventory> inventory = transactionTemplate.execute(status -> {
+            Warehouse warehouse = warehouseService.get(warehouseId);
+            List<Inventory> result = new ArrayList<>();
+
+            if (inventoryService.getInventoryMode() == InventoryMode.COUNTED) {
+                chunk.forEach((productId, quantity) -> inventoryService.addStock(warehouseId, productId, quantity));
+            } else {
+                chunk.forEach((productId, quantity) -> {
+                    for (long i = 0; i < quantity; i++) {
+                        Inventory unit = new Inventory();
+                        unit.setProductId(productId);
+                        unit.setWarehouse(warehouse);
+                        unit.setStatus(InventoryStatus.RESERVATION_PENDING);
+                        result.add(unit);
+                    }
+                });
+
+                inventoryRepository.save(result);
+                inventoryRepository.flush();
+            }
+
+            WarehouseEvent event = new WarehouseEvent(WarehouseEventType.INVENTORY_ADDED, warehouse);
+            event.setQuantity(units);
+            warehouse.sendAsyncEvent(event);
+
+            // Detach the chunk, so that the persistence context does not grow with the stream
+            entityManager.flush();
+            entityManager.clear();
+
+            return result;
+        });
+
+        inventory.forEach(unit -> {
+            if (inventoryQueue != null)
+                inventoryQueue.offer(warehouseId, unit.getProductId(), unit.getIdentity());
+        });
+
+        // Counted stock adjusts the index itself
+        if (warehouseInventoryIndex != null && inventoryService.getInventoryMode() == InventoryMode.UNIT)
+            chunk.forEach((productId, quantity) -> warehouseInventoryIndex.adjust(warehouseId, productId, quantity));
+
+        ingestion.setUnits(ingestion.getUnits() + units);
+        ingestion.setChunks(ingestion.getChunks() + 1);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Item {
+
+        private String productId;
+        private Long quantity;
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public void setProductId(String productId) {
+            this.productId = productId;
+        }
+
+        public Long getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Long quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
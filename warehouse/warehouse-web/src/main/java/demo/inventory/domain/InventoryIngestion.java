@@ -0,0 +1,62 @@
+package demo.inventory.domain;
+
+import demo.warehouse.domain.Warehouse;
+
+/**
+ * The result of ingesting a batch of {@link Inventory} into a {@link Warehouse}.
+ *
+ * @author Kenny Bastani
+ * @see InventoryIngestService
+ */
+public class InventoryIngestion {
+
+    private Long warehouseId;
+    private long units;
+    private int chunks;
+
+    public InventoryIngestion() {
+    }
+
+    public InventoryIngestion(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    /**
+     * @return the number of units of inventory that were added to the warehouse
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    /**
+     * @return the number of chunks that were committed, each with a single warehouse event
+     */
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryIngestion{" +
+                "warehouseId=" + warehouseId +
+                ", units=" + units +
+                ", chunks=" + chunks +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package demo.inventory.domain;
+
+/**
+ * Describes how the stock of a warehouse is recorded.
+ * <p>
+ * {@link #UNIT} records each physical unit as an {@link Inventory} aggregate, which is reserved by its own
+ * reservation. {@link #COUNTED} records the stock of a product in a warehouse as an {@link InventoryStock} ledger
+ * entry, which is reserved by a single reservation per order line item.
+ *
+ * @author Kenny Bastani
+ */
+public enum InventoryMode {
+    UNIT,
+    COUNTED
+}
@@ -2,24 +2,80 @@ package demo.inventory.domain;
 
 import demo.domain.Service;
 import demo.inventory.repository.InventoryRepository;
+import demo.inventory.queue.InventoryQueue;
+import demo.inventory.repository.InventoryStockRepository;
+import demo.warehouse.index.WarehouseInventoryIndex;
 import demo.reservation.domain.Reservation;
+import demo.reservation.repository.ReservationRepository;
 import org.apache.log4j.Logger;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 public class InventoryService extends Service<Inventory, Long> {
 
     private final Logger log = Logger.getLogger(InventoryService.class);
     private final InventoryRepository inventoryRepository;
-    private final RedissonClient redissonClient;
+    private final InventoryStockRepository inventoryStockRepository;
+    private final ReservationRepository reservationRepository;
+    private final InventoryMode inventoryMode;
+    private final int claimWindow;
+    private final int claimAttempts;
+    private final long leaseMs;
+    private final InventoryQueue inventoryQueue;
+    private final WarehouseInventoryIndex warehouseInventoryIndex;
+    private final TransactionTemplate newTransactionTemplate;
+    private final TransactionTemplate candidateTransactionTemplate;
 
-    public InventoryService(InventoryRepository inventoryRepository, RedissonClient redissonClient) {
+    public InventoryService(InventoryRepository inventoryRepository, InventoryStockRepository
+            inventoryStockRepository, ReservationRepository reservationRepository, @Value("${inventory.mode:unit}") String inventoryMode,
+            @Value("${inventory.claim-window:32}") int claimWindow, @Value("${inventory.claim-attempts:8}")
+            int claimAttempts, @Value("${reservation.lease.duration-ms:30000}") long leaseMs,
+            ObjectProvider<InventoryQueue> inventoryQueue, ObjectProvider<WarehouseInventoryIndex>
+            warehouseInventoryIndex, PlatformTransactionManager transactionManager) {
         this.inventoryRepository = inventoryRepository;
-        this.redissonClient = redissonClient;
+        this.inventoryStockRepository = inventoryStockRepository;
+        this.reservationRepository = reservationRepository;
+        this.inventoryMode = InventoryMode.valueOf(inventoryMode.trim().toUpperCase());
+        this.claimWindow = claimWindow;
+        this.claimAttempts = claimAttempts;
+        this.leaseMs = leaseMs;
+        this.inventoryQueue = inventoryQueue.getIfAvailable();
+        this.warehouseInventoryIndex = warehouseInventoryIndex.getIfAvailable();
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // Each window of candidates must see the claims that other transactions have committed since the last one
+        this.candidateTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.candidateTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.candidateTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.candidateTransactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Get the {@link InventoryMode} that describes how the stock of a warehouse is recorded, which is configured
+     * with {@code inventory.mode}.
+     *
+     * @return the {@link InventoryMode} of the warehouse service
+     */
+    public InventoryMode getInventoryMode() {
+        return inventoryMode;
     }
 
     /**
@@ -65,7 +121,21 @@ public class InventoryService extends Service<Inventory, Long> {
         currentInventory.setReservation(inventory.getReservation());
         currentInventory.setWarehouse(inventory.getWarehouse());
 
-        return inventoryRepository.saveAndFlush(currentInventory);
+        // The lease of claimed inventory ends once it is connected to a reservation or released
+        if (currentInventory.getStatus() != InventoryStatus.RESERVATION_CONNECTED ||
+                currentInventory.getReservation() != null)
+            currentInventory.setLeaseExpiresAt(null);
+
+        currentInventory = inventoryRepository.saveAndFlush(currentInventory);
+
+        if (inventoryQueue != null && currentInventory.getStatus() == InventoryStatus.RESERVATION_PENDING &&
+                currentInventory.getWarehouse() != null) {
+            // Make the inventory available to the next reservation of its product
+            inventoryQueue.offer(currentInventory.getWarehouse().getIdentity(), currentInventory.getProductId(),
+                    currentInventory.getIdentity());
+        }
+
+        return currentInventory;
     }
 
     /**
@@ -90,42 +160,278 @@ public class InventoryService extends Service<Inventory, Long> {
         Assert.notNull(reservation.getWarehouse(), "Reservation must be connected to a warehouse");
         Assert.notNull(reservation.getProductId(), "Reservation must contain a valid product identifier");
 
-        Boolean reserved = false;
-        Inventory inventory = null;
+        Inventory inventory = claimInventory(reservation.getWarehouse().getIdentity(), reservation.getProductId());
 
-        while (!reserved) {
-            inventory = inventoryRepository
-                    .findFirstInventoryByWarehouseIdAndProductIdAndStatus(reservation.getWarehouse()
-                            .getIdentity(), reservation.getProductId(), InventoryStatus.RESERVATION_PENDING);
-            if (inventory != null) {
-                // Acquire lock
-                RLock inventoryLock = redissonClient
-                        .getLock(String.format("inventory_%s", inventory.getIdentity().toString()));
+        if (inventory != null) {
+            // Reserve the inventory
+            inventory = inventory.reserve(reservation.getIdentity());
+        }
 
-                Boolean lock = false;
+        return inventory;
+    }
 
-                try {
-                    lock = inventoryLock.tryLock(1, 5000, TimeUnit.MILLISECONDS);
-                } catch (InterruptedException e) {
-                    log.error("Interrupted while acquiring lock on inventory", e);
-                }
+    /**
+     * Claim an {@link Inventory} of a product that is pending a reservation by moving it to
+     * {@link InventoryStatus#RESERVATION_CONNECTED}. A window of pending inventory is fetched and each candidate is
+     * claimed with a conditional update, starting at a random candidate so that concurrent claimers of the same
+     * product try different rows. A claim that loses the race to another claimer moves on to the next candidate.
+     * When every candidate of a window is lost, a new window is fetched after a randomized backoff, for at most
+     * {@code inventory.claim-attempts} windows. Each window is fetched in its own read committed transaction, so
+     * that it never returns candidates which were already claimed in a snapshot of the caller's transaction.
+     * <p>
+     * When an {@link InventoryQueue} is configured, candidates are popped from the queue of the product first, and
+     * the database is only queried once the queue is empty.
+     * <p>
+     * The claimed inventory is leased for {@code reservation.lease.duration-ms}, so that inventory which is never
+     * connected to its reservation is released when the lease expires.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @return the claimed {@link Inventory}, or null if the product is out of stock
+     * @throws IllegalStateException if every window of candidates was claimed concurrently
+     */
+    public Inventory claimInventory(Long warehouseId, String productId) {
+        if (inventoryQueue != null) {
+            Long id;
+
+            while ((id = inventoryQueue.poll(warehouseId, productId)) != null) {
+                Inventory inventory = claim(id);
+
+                if (inventory != null)
+                    return inventory;
+            }
+        }
+
+        for (int attempt = 1; attempt <= claimAttempts; attempt++) {
+            List<Long> candidates = candidateTransactionTemplate.execute(status -> inventoryRepository
+                    .findInventoryIds(warehouseId, productId, InventoryStatus.RESERVATION_PENDING,
+                            new PageRequest(0, claimWindow)));
 
-                if (lock) {
-                    inventory.setStatus(InventoryStatus.RESERVATION_CONNECTED);
-                    inventory = update(inventory);
+            if (candidates.isEmpty())
+                return null;
 
-                    // Reserve the inventory
-                    inventory = inventory.reserve(reservation.getIdentity());
+            int offset = ThreadLocalRandom.current().nextInt(candidates.size());
 
-                    inventoryLock.unlock();
-                }
+            for (int i = 0; i < candidates.size(); i++) {
+                Inventory inventory = claim(candidates.get((offset + i) % candidates.size()));
 
-                reserved = lock;
-            } else {
-                reserved = true;
+                if (inventory != null)
+                    return inventory;
             }
+
+            log.debug(String.format("All %s candidates of product %s were claimed concurrently, retrying",
+                    candidates.size(), productId));
+
+            backoff(attempt);
+        }
+
+        throw new IllegalStateException(String.format("Could not claim inventory of product %s in warehouse %s " +
+                "after %s attempts, every candidate was claimed concurrently", productId, warehouseId, claimAttempts));
+    }
+
+    private void backoff(int attempt) {
+        try {
+            // Spread out the next attempts of claimers that lost the same window
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1L << Math.min(attempt, 6)) + 1L);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while claiming inventory", ex);
         }
+    }
+
+    private Inventory claim(Long id) {
+        long leaseExpiresAt = System.currentTimeMillis() + leaseMs;
 
+        if (inventoryRepository.claimInventory(id, InventoryStatus.RESERVATION_PENDING,
+                InventoryStatus.RESERVATION_CONNECTED, leaseExpiresAt) == 0)
+            return null;
+
+        Inventory inventory = get(id);
+        inventory.setStatus(InventoryStatus.RESERVATION_CONNECTED);
+        inventory.setLeaseExpiresAt(leaseExpiresAt);
         return inventory;
     }
+
+    /**
+     * Add units of a product to the {@link InventoryStock} of a warehouse, creating the stock entry if the product
+     * has not been stocked in the warehouse before.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @param quantity    is the number of units to add
+     * @return the updated {@link InventoryStock}
+     */
+    @Transactional
+    public InventoryStock addStock(Long warehouseId, String productId, Long quantity) {
+        Assert.notNull(warehouseId, "Stock must be added to a warehouse");
+        Assert.notNull(productId, "Stock must contain a valid product identifier");
+        Assert.isTrue(quantity != null && quantity > 0, "Stock quantity must be greater than zero");
+
+        if (inventoryStockRepository.addStock(warehouseId, productId, quantity) == 0) {
+            createStock(warehouseId, productId);
+            Assert.state(inventoryStockRepository.addStock(warehouseId, productId, quantity) == 1,
+                    "The stock entry of the product could not be created");
+        }
+
+        adjustIndex(warehouseId, productId, quantity);
+
+        return getStock(warehouseId, productId);
+    }
+
+    /**
+     * Create an empty {@link InventoryStock} entry for a product in a warehouse. The entry is inserted in its own
+     * transaction, since a concurrent caller that stocks the same product first makes the insert violate the unique
+     * constraint of the entry, which would otherwise roll back the transaction of the caller.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     */
+    private void createStock(Long warehouseId, String productId) {
+        try {
+            newTransactionTemplate.execute(status -> inventoryStockRepository.saveAndFlush(
+                    new InventoryStock(warehouseId, productId, 0L)));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug(String.format("Stock of product %s in warehouse %s was created concurrently", productId,
+                    warehouseId));
+        }
+    }
+
+    /**
+     * Get the {@link InventoryStock} of a product in a warehouse.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @return the {@link InventoryStock} or null if the product is not stocked in the warehouse
+     */
+    public InventoryStock getStock(Long warehouseId, String productId) {
+        return inventoryStockRepository.findByWarehouseIdAndProductId(warehouseId, productId);
+    }
+
+    /**
+     * Get the {@link InventoryStock} of every product in a warehouse.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @return the stock entries of the warehouse
+     */
+    public List<InventoryStock> getStock(Long warehouseId) {
+        return inventoryStockRepository.findByWarehouseId(warehouseId);
+    }
+
+    /**
+     * Reserve the quantity of a {@link Reservation} from the {@link InventoryStock} of its warehouse. The available
+     * units are decremented with a single conditional update, so concurrent reservations never oversell the stock.
+     * The reservation is marked as holding the units in the same transaction, so that units which are reserved for a
+     * reservation that never completes can be returned by the lease reaper.
+     *
+     * @param reservation is the reservation to reserve stock for
+     * @return true if the stock was reserved, or false if there are not enough available units
+     */
+    @Transactional
+    public boolean reserveStock(Reservation reservation) {
+        Assert.notNull(reservation.getWarehouse(), "Reservation must be connected to a warehouse");
+        Assert.notNull(reservation.getProductId(), "Reservation must contain a valid product identifier");
+
+        if (inventoryStockRepository.reserveStock(reservation.getWarehouse().getIdentity(),
+                reservation.getProductId(), reservation.getQuantity().longValue()) == 0)
+            return false;
+
+        reservationRepository.markStockReserved(reservation.getIdentity());
+        reservation.setStockReserved(true);
+
+        adjustIndex(reservation.getWarehouse().getIdentity(), reservation.getProductId(),
+                -reservation.getQuantity().longValue());
+        return true;
+    }
+
+    /**
+     * Return the quantity of a {@link Reservation} to the available units of the {@link InventoryStock} of its
+     * warehouse, if they are held for the reservation.
+     *
+     * @param reservation is the reservation to release stock for
+     * @return true if the stock was released, or false if no units are held for the reservation
+     * @throws IllegalStateException if the reserved units of the stock do not cover the reservation
+     */
+    @Transactional
+    public boolean releaseStock(Reservation reservation) {
+        Assert.notNull(reservation.getWarehouse(), "Reservation must be connected to a warehouse");
+        Assert.notNull(reservation.getProductId(), "Reservation must contain a valid product identifier");
+
+        // Only the transaction that clears the marker returns the units, so they are never returned twice
+        if (reservationRepository.clearStockReserved(reservation.getIdentity()) == 0)
+            return false;
+
+        Assert.state(inventoryStockRepository.releaseStock(reservation.getWarehouse().getIdentity(),
+                reservation.getProductId(), reservation.getQuantity().longValue()) == 1,
+                "The reserved units of the stock do not cover the reservation");
+
+        reservation.setStockReserved(false);
+
+        adjustIndex(reservation.getWarehouse().getIdentity(), reservation.getProductId(),
+                reservation.getQuantity().longValue());
+        return true;
+    }
+
+    /**
+     * Find the warehouses that have enough available stock of every one of the supplied products.
+     *
+     * @param quantities are the number of units that are requested of each product
+     * @return the unique identifiers of the warehouses, in ascending order
+     */
+    public List<Long> findWarehousesWithStock(Map<String, Long> quantities) {
+        Map<Long, Map<String, Long>> availability = getAvailability(quantities.keySet());
+
+        return availability.entrySet().stream()
+                .filter(warehouse -> quantities.entrySet().stream()
+                        .allMatch(quantity -> warehouse.getValue().getOrDefault(quantity.getKey(), 0L) >=
+                                quantity.getValue()))
+                .map(Map.Entry::getKey)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the number of units of the supplied products that are available for a reservation in each warehouse.
+     *
+     * @param productIds are the product identifiers
+     * @return the number of available units of each product, for each warehouse
+     */
+    public Map<Long, Map<String, Long>> getAvailability(Collection<String> productIds) {
+        List<Object[]> rows = inventoryMode == InventoryMode.COUNTED ?
+                inventoryStockRepository.findAvailableStock(productIds) :
+                inventoryRepository.countInventoryByStatusAndProductIds(InventoryStatus.RESERVATION_PENDING,
+                        productIds);
+
+        Map<Long, Map<String, Long>> availability = new HashMap<>();
+        rows.forEach(row -> availability.computeIfAbsent((Long) row[0], key -> new HashMap<>())
+                .put((String) row[1], ((Number) row[2]).longValue()));
+
+        return availability;
+    }
+
+    /**
+     * Adjust the available units of a product in the {@link WarehouseInventoryIndex} once the change to the stock is
+     * committed, so that a change which is rolled back, such as the stock of a failed ingest chunk, never reaches the
+     * index. Changes to counted stock are not sent as events, so the indexes of other instances of the service only
+     * see them when they are rebuilt every {@code warehouse.index.resync-ms}.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @param delta       is the number of units that became available, or negative if units were taken
+     */
+    private void adjustIndex(Long warehouseId, String productId, long delta) {
+        if (warehouseInventoryIndex == null)
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            warehouseInventoryIndex.adjust(warehouseId, productId, delta);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                warehouseInventoryIndex.adjust(warehouseId, productId, delta);
+            }
+        });
+    }
 }
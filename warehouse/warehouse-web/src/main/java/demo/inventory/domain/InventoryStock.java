@@ -0,0 +1,88 @@
+package demo.inventory.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+
+/**
+ * A stock ledger entry that counts the available and reserved units of a product in a warehouse. Stock entries
+ * are used instead of {@link Inventory} aggregates when the warehouse is in {@link InventoryMode#COUNTED} mode.
+ * The counters are only changed by conditional updates in the repository, which reserve or release a quantity
+ * atomically.
+ *
+ * @author Kenny Bastani
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"warehouseId", "productId"}))
+public class InventoryStock {
+    @Id
+    @GeneratedValue
+    @JsonIgnore
+    private Long id;
+
+    private Long warehouseId;
+
+    private String productId;
+
+    private Long available;
+
+    private Long reserved;
+
+    public InventoryStock() {
+        this.available = 0L;
+        this.reserved = 0L;
+    }
+
+    public InventoryStock(Long warehouseId, String productId, Long available) {
+        this();
+        this.warehouseId = warehouseId;
+        this.productId = productId;
+        this.available = available;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getWarehouseId() {
+        return warehouseId;
+    }
+
+    public void setWarehouseId(Long warehouseId) {
+        this.warehouseId = warehouseId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public Long getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Long available) {
+        this.available = available;
+    }
+
+    public Long getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(Long reserved) {
+        this.reserved = reserved;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryStock{" +
+                "warehouseId=" + warehouseId +
+                ", productId='" + productId + '\'' +
+                ", available=" + available +
+                ", reserved=" + reserved +
+                '}';
+    }
+}
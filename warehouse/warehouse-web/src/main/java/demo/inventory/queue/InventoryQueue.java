@@ -0,0 +1,128 @@
+package demo.inventory.queue;
+
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryStatus;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A queue of the identifiers of the {@link Inventory} that is pending a reservation, kept for each product of a
+ * warehouse. Popping an identifier is a single atomic operation, which lets concurrent reservations of the same
+ * product find a free unit without querying the database for it. Each queue is split into shards so that a hot
+ * product is spread over several keys. An identifier is always offered to the same shard, and consumers poll the
+ * shards starting at a random one.
+ * <p>
+ * The queue is a hint rather than the source of truth. An identifier that was popped must still be claimed from the
+ * database, and identifiers of inventory that is no longer {@link InventoryStatus#RESERVATION_PENDING} are dropped
+ * when the claim fails.
+ *
+ * @author Kenny Bastani
+ * @see InventoryQueueReconciler
+ */
+public abstract class InventoryQueue {
+
+    private final int shards;
+
+    protected InventoryQueue(int shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Offer the identifier of a pending {@link Inventory} to the queue of its product.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @param inventoryId is the unique identifier of the inventory
+     */
+    public void offer(Long warehouseId, String productId, Long inventoryId) {
+        getShard(warehouseId, productId, (int) Math.floorMod(inventoryId, (long) shards)).offer(inventoryId);
+    }
+
+    /**
+     * Pop the identifier of a pending {@link Inventory} from the queue of a product.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @return the unique identifier of the inventory, or null if the queue is empty
+     */
+    public Long poll(Long warehouseId, String productId) {
+        int offset = ThreadLocalRandom.current().nextInt(shards);
+
+        for (int i = 0; i < shards; i++) {
+            Long inventoryId = getShard(warehouseId, productId, (offset + i) % shards).poll();
+
+            if (inventoryId != null)
+                return inventoryId;
+        }
+
+        return null;
+    }
+
+    /**
+     * Reconcile the queue of a product with the inventory that is pending in the database. Pending inventory that is
+     * missing from the queue is offered, and identifiers of inventory that is no longer pending are removed.
+     *
+     * @param warehouseId  is the unique identifier of the warehouse
+     * @param productId    is the product identifier
+     * @param inventoryIds are the unique identifiers of the pending inventory of the product
+     * @return the number of identifiers that were offered
+     */
+    public int reconcile(Long warehouseId, String productId, Collection<Long> inventoryIds) {
+        Set<Long> pending = new HashSet<>(inventoryIds);
+        Set<Long> queued = new HashSet<>();
+
+        for (int i = 0; i < shards; i++) {
+            Queue<Long> shard = getShard(warehouseId, productId, i);
+            Set<Long> stale = shard.stream()
+                    .filter(inventoryId -> !pending.contains(inventoryId))
+                    .collect(Collectors.toSet());
+
+            if (!stale.isEmpty())
+                shard.removeAll(stale);
+
+            queued.addAll(shard);
+        }
+
+        pending.removeAll(queued);
+        pending.forEach(inventoryId -> offer(warehouseId, productId, inventoryId));
+
+        return pending.size();
+    }
+
+    /**
+     * Get the number of identifiers in the queue of a product.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @return the number of queued identifiers
+     */
+    public int size(Long warehouseId, String productId) {
+        return IntStream.range(0, shards)
+                .map(i -> getShard(warehouseId, productId, i).size())
+                .sum();
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    protected String getKey(Long warehouseId, String productId, int shard) {
+        return String.format("inventory_queue_%s_%s_%s", warehouseId, productId, shard);
+    }
+
+    /**
+     * Get a shard of the queue of a product.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @param shard       is the index of the shard
+     * @return the shard
+     */
+    protected abstract Queue<Long> getShard(Long warehouseId, String productId, int shard);
+}
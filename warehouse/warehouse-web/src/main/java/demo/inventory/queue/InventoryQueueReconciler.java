@@ -0,0 +1,114 @@
+package demo.inventory.queue;
+
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.repository.InventoryRepository;
+import org.apache.log4j.Logger;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the {@link InventoryQueue} from the {@link Inventory} that is pending a reservation in the database when
+ * the application starts, and reconciles it every {@code inventory.queue.reconcile-ms} afterwards. Reconciling
+ * recovers identifiers that were lost from the queue, such as the inventory of a reservation that failed after its
+ * identifier was popped.
+ *
+ * @author Kenny Bastani
+ */
+public class InventoryQueueReconciler implements SmartLifecycle {
+
+    private static final Logger log = Logger.getLogger(InventoryQueueReconciler.class);
+
+    private final InventoryQueue inventoryQueue;
+    private final InventoryRepository inventoryRepository;
+    private final long reconcileMs;
+    private volatile ScheduledExecutorService executor;
+
+    public InventoryQueueReconciler(InventoryQueue inventoryQueue, InventoryRepository inventoryRepository,
+            long reconcileMs) {
+        this.inventoryQueue = inventoryQueue;
+        this.inventoryRepository = inventoryRepository;
+        this.reconcileMs = reconcileMs;
+    }
+
+    /**
+     * Reconciles the queue of every product that has pending inventory.
+     *
+     * @return the number of identifiers that were offered to the queue
+     */
+    public int reconcile() {
+        Map<List<Object>, List<Long>> pending = new HashMap<>();
+
+        inventoryRepository.findInventoryIdsByStatus(InventoryStatus.RESERVATION_PENDING)
+                .forEach(row -> pending.computeIfAbsent(Arrays.asList(row[0], row[1]), key -> new ArrayList<>())
+                        .add((Long) row[2]));
+
+        int offered = pending.entrySet().stream()
+                .mapToInt(e -> inventoryQueue.reconcile((Long) e.getKey().get(0), (String) e.getKey().get(1),
+                        e.getValue()))
+                .sum();
+
+        if (offered > 0)
+            log.info(String.format("Offered %s pending inventory to the inventory queue", offered));
+
+        return offered;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null)
+            return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-queue-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (Exception ex) {
+                log.error("Could not reconcile the inventory queue", ex);
+            }
+        }, 0, reconcileMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null)
+            return;
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
@@ -0,0 +1,26 @@
+package demo.inventory.queue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An {@link InventoryQueue} that keeps each shard in memory. The queue is not shared between instances of the
+ * warehouse service, which makes it suitable for tests and a single instance only.
+ *
+ * @author Kenny Bastani
+ */
+public class LocalInventoryQueue extends InventoryQueue {
+
+    private final ConcurrentMap<String, Queue<Long>> queues = new ConcurrentHashMap<>();
+
+    public LocalInventoryQueue(int shards) {
+        super(shards);
+    }
+
+    @Override
+    protected Queue<Long> getShard(Long warehouseId, String productId, int shard) {
+        return queues.computeIfAbsent(getKey(warehouseId, productId, shard), key -> new ConcurrentLinkedQueue<>());
+    }
+}
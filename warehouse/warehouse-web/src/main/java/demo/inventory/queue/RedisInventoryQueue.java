@@ -0,0 +1,27 @@
+package demo.inventory.queue;
+
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.LongCodec;
+
+import java.util.Queue;
+
+/**
+ * An {@link InventoryQueue} that keeps each shard in a Redis list, which is shared by every instance of the
+ * warehouse service.
+ *
+ * @author Kenny Bastani
+ */
+public class RedisInventoryQueue extends InventoryQueue {
+
+    private final RedissonClient redissonClient;
+
+    public RedisInventoryQueue(RedissonClient redissonClient, int shards) {
+        super(shards);
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    protected Queue<Long> getShard(Long warehouseId, String productId, int shard) {
+        return redissonClient.getQueue(getKey(warehouseId, productId, shard), LongCodec.INSTANCE);
+    }
+}
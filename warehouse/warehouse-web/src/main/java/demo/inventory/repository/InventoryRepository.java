@@ -2,10 +2,55 @@ package demo.inventory.repository;
 
 import demo.inventory.domain.Inventory;
 import demo.inventory.domain.InventoryStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Inventory findFirstInventoryByWarehouseIdAndProductIdAndStatus(@Param("warehouseId") Long warehouseId,
             @Param("productId") String productId, @Param("status") InventoryStatus status);
+
+    @Query("select i.id from Inventory i where i.warehouse.id = :warehouseId and i.productId = :productId " +
+            "and i.status = :status order by i.id")
+    List<Long> findInventoryIds(@Param("warehouseId") Long warehouseId, @Param("productId") String productId,
+            @Param("status") InventoryStatus status, Pageable pageable);
+
+    @Query("select i.warehouse.id, i.productId, i.id from Inventory i where i.status = :status")
+    List<Object[]> findInventoryIdsByStatus(@Param("status") InventoryStatus status);
+
+    @Query("select i.warehouse.id, i.productId, count(i) from Inventory i where i.status in :statuses " +
+            "group by i.warehouse.id, i.productId")
+    List<Object[]> countInventoryByStatus(@Param("statuses") Collection<InventoryStatus> statuses);
+
+    @Query("select i.warehouse.id, i.productId, count(i) from Inventory i where i.status = :status " +
+            "and i.productId in :productIds group by i.warehouse.id, i.productId")
+    List<Object[]> countInventoryByStatusAndProductIds(@Param("status") InventoryStatus status,
+            @Param("productIds") Collection<String> productIds);
+
+    Inventory findInventoryByReservationId(@Param("reservationId") Long reservationId);
+
+    @Query("select i.id from Inventory i where i.status = :status and i.reservation is null " +
+            "and i.leaseExpiresAt < :now order by i.leaseExpiresAt")
+    List<Long> findExpiredLeases(@Param("status") InventoryStatus status, @Param("now") Long now,
+            Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update Inventory i set i.status = :claimed, i.leaseExpiresAt = :leaseExpiresAt " +
+            "where i.id = :id and i.status = :status")
+    int claimInventory(@Param("id") Long id, @Param("status") InventoryStatus status,
+            @Param("claimed") InventoryStatus claimed, @Param("leaseExpiresAt") Long leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update Inventory i set i.status = :released, i.leaseExpiresAt = null where i.id = :id " +
+            "and i.status = :status and i.reservation is null and i.leaseExpiresAt < :now")
+    int releaseExpiredLease(@Param("id") Long id, @Param("status") InventoryStatus status,
+            @Param("released") InventoryStatus released, @Param("now") Long now);
 }
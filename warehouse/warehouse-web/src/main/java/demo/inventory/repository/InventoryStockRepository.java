@@ -0,0 +1,42 @@
+package demo.inventory.repository;
+
+import demo.inventory.domain.InventoryStock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryStockRepository extends JpaRepository<InventoryStock, Long> {
+    InventoryStock findByWarehouseIdAndProductId(@Param("warehouseId") Long warehouseId,
+            @Param("productId") String productId);
+
+    List<InventoryStock> findByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update InventoryStock s set s.available = s.available + :quantity " +
+            "where s.warehouseId = :warehouseId and s.productId = :productId")
+    int addStock(@Param("warehouseId") Long warehouseId, @Param("productId") String productId,
+            @Param("quantity") Long quantity);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update InventoryStock s set s.available = s.available - :quantity, s.reserved = s.reserved + :quantity " +
+            "where s.warehouseId = :warehouseId and s.productId = :productId and s.available >= :quantity")
+    int reserveStock(@Param("warehouseId") Long warehouseId, @Param("productId") String productId,
+            @Param("quantity") Long quantity);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update InventoryStock s set s.available = s.available + :quantity, s.reserved = s.reserved - :quantity " +
+            "where s.warehouseId = :warehouseId and s.productId = :productId and s.reserved >= :quantity")
+    int releaseStock(@Param("warehouseId") Long warehouseId, @Param("productId") String productId,
+            @Param("quantity") Long quantity);
+
+    @Query("select s.warehouseId, s.productId, s.available from InventoryStock s where s.available > 0")
+    List<Object[]> findAvailableStock();
+
+    @Query("select s.warehouseId, s.productId, s.available from InventoryStock s where s.available > 0 " +
+            "and s.productId in :productIds")
+    List<Object[]> findAvailableStock(@Param("productIds") Collection<String> productIds);
+}
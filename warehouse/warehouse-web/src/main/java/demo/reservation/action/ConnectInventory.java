@@ -19,6 +19,7 @@ import org.springframework.hateoas.UriTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -50,6 +51,9 @@ public class ConnectInventory extends Action<Reservation> {
         reservation.setStatus(ReservationStatus.RESERVATION_PENDING);
         reservation = reservationService.update(reservation);
 
+        if (reservation.getQuantity() != null)
+            return reserveStock(reservation, reservationService);
+
         // Get available inventory and connect reservation in an atomic transaction
         Inventory inventory = inventoryService.findAvailableInventory(reservation);
 
@@ -109,6 +113,50 @@ public class ConnectInventory extends Action<Reservation> {
         return reservation;
     }
 
+    /**
+     * Reserves the quantity of a reservation from the counted stock of its warehouse.
+     *
+     * @param reservation        is the pending reservation
+     * @param reservationService is the service of the reservation
+     * @return the succeeded reservation
+     */
+    private Reservation reserveStock(Reservation reservation, ReservationService reservationService) {
+        if (!inventoryService.reserveStock(reservation)) {
+            // Stock is insufficient, fail the reservation process
+            reservation.setStatus(ReservationStatus.RESERVATION_FAILED);
+            reservation = reservationService.update(reservation);
+
+            // Trigger reservation failed event
+            reservation.sendAsyncEvent(new ReservationEvent(RESERVATION_FAILED, reservation));
+
+            // Throw the out of stock exception
+            throw new OutOfStockException("Stock for reservation is unavailable in warehouse: "
+                    .concat(reservation.getId().toString()));
+        }
+
+        try {
+            reservation.setStatus(ReservationStatus.RESERVATION_SUCCEEDED);
+            reservation = reservationService.update(reservation);
+        } catch (Exception ex) {
+            log.error("Could not connect reservation to order", ex);
+
+            // Return the reserved units to the stock
+            inventoryService.releaseStock(reservation);
+            reservation.setStatus(ReservationStatus.ORDER_CONNECTED);
+            reservationService.update(reservation);
+
+            throw ex;
+        }
+
+        Link orderLink = getRemoteLink("order-web", "/v1/orders/{id}", reservation.getOrderId(), "order");
+
+        // Append both events with a single update of the reservation
+        reservation.sendAsyncEvents(Arrays.asList(new ReservationEvent(INVENTORY_CONNECTED, reservation),
+                new ReservationEvent(RESERVATION_SUCCEEDED, reservation)), orderLink);
+
+        return reservation;
+    }
+
     private Link getRemoteLink(String service, String relative, Object identifier, String rel) {
         Link result = null;
         List<ServiceInstance> serviceInstances = discoveryClient.getInstances(service);
@@ -40,6 +40,7 @@ public class ReleaseInventory extends Action<Reservation> {
         ReservationService reservationService = reservation.getModule(ReservationModule.class).getDefaultService();
 
         Inventory inventory = reservation.getInventory();
+        boolean stockReserved = reservation.isStockReserved();
 
         try {
             // Remove the inventory and set the reservation to failed
@@ -67,6 +68,11 @@ public class ReleaseInventory extends Action<Reservation> {
                 // Trigger the inventory released event
                 inventory.sendAsyncEvent(new InventoryEvent(INVENTORY_RELEASED, inventory));
             }
+
+            if (stockReserved && reservation.getStatus() == ReservationStatus.RESERVATION_FAILED) {
+                // Return the reserved units to the counted stock of the warehouse
+                inventoryService.releaseStock(reservation);
+            }
         }
 
         return reservation;
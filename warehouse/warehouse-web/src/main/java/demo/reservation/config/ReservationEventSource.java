@@ -5,7 +5,11 @@ import org.springframework.messaging.MessageChannel;
 
 public interface ReservationEventSource {
     String OUTPUT = "reservation";
+    String BATCH_OUTPUT = "reservation-batch";
 
     @Output(ReservationEventSource.OUTPUT)
     MessageChannel output();
+
+    @Output(ReservationEventSource.BATCH_OUTPUT)
+    MessageChannel batchOutput();
 }
@@ -1,7 +1,7 @@
 package demo.reservation.controller;
 
+import demo.event.EventCursor;
 import demo.event.EventService;
-import demo.event.Events;
 import demo.inventory.controller.InventoryController;
 import demo.reservation.domain.Reservation;
 import demo.reservation.domain.ReservationService;
@@ -67,8 +67,10 @@ public class ReservationController {
     }
 
     @RequestMapping(path = "/reservations/{id}/events")
-    public ResponseEntity getReservationEvents(@PathVariable Long id) {
-        return Optional.of(getReservationEventResources(id))
+    public ResponseEntity getReservationEvents(@PathVariable Long id,
+                                               @RequestParam(value = "after", required = false) Long after,
+                                               @RequestParam(value = "since", required = false) Long since) {
+        return Optional.of(EventCursor.find(eventService, id, after, since))
                 .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("Could not get reservation events"));
     }
@@ -186,10 +188,6 @@ public class ReservationController {
         return eventService.findOne(eventId);
     }
 
-    private Events getReservationEventResources(Long id) {
-        return eventService.find(id);
-    }
-
     private LinkBuilder linkBuilder(String name, Long id) {
         Method method;
 
@@ -218,7 +216,8 @@ public class ReservationController {
 
         if (!reservation.hasLink("events")) {
             // Add get events link
-            reservation.add(linkBuilder("getReservationEvents", reservation.getIdentity()).withRel("events"));
+            reservation.add(linkTo(ReservationController.class).slash("reservations").slash(reservation.getIdentity())
+                    .slash("events").withRel("events"));
         }
 
         // Add remote order link
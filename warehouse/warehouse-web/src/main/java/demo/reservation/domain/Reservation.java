@@ -1,6 +1,7 @@
 package demo.reservation.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import demo.domain.AbstractEntity;
 import demo.domain.Aggregate;
@@ -17,12 +18,14 @@ import org.springframework.hateoas.Link;
 
 import javax.persistence.*;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 @Entity
+@Table(indexes = @Index(name = "IDX_RESERVATION_LEASE", columnList = "status, leaseExpiresAt"))
 public class Reservation extends AbstractEntity<ReservationEvent, Long> {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservation")
+    @TableGenerator(name = "reservation", table = "id_generator", pkColumnValue = "reservation", allocationSize = 50)
     private Long id;
 
     @Enumerated(value = EnumType.STRING)
@@ -40,6 +43,15 @@ public class Reservation extends AbstractEntity<ReservationEvent, Long> {
 
     private Long orderId;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer quantity;
+
+    @JsonIgnore
+    private Long leaseExpiresAt;
+
+    @JsonIgnore
+    private boolean stockReserved;
+
     public Reservation() {
         this.status = ReservationStatus.RESERVATION_CREATED;
     }
@@ -57,6 +69,11 @@ public class Reservation extends AbstractEntity<ReservationEvent, Long> {
         this.orderId = orderId;
     }
 
+    public Reservation(String productId, Long orderId, Warehouse warehouse, Integer quantity) {
+        this(productId, orderId, warehouse);
+        this.quantity = quantity;
+    }
+
     @JsonProperty("reservationId")
     @Override
     public Long getIdentity() {
@@ -108,6 +125,49 @@ public class Reservation extends AbstractEntity<ReservationEvent, Long> {
         this.productId = productId;
     }
 
+    /**
+     * Get the number of units that are reserved from the counted stock of the warehouse. Reservations of unit
+     * inventory reserve a single {@link Inventory} and do not have a quantity.
+     *
+     * @return the number of units of the reservation, or null for a reservation of unit inventory
+     */
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    /**
+     * Get the time at which the lease of a pending reservation expires. A reservation that is still pending after
+     * its lease has expired is released by the {@link demo.reservation.lease.ReservationLeaseReaper}.
+     *
+     * @return the expiry of the lease in epoch milliseconds, or null if the reservation is not pending
+     */
+    public Long getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(Long leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    /**
+     * Check whether the quantity of the reservation is currently held in the reserved units of the counted stock of
+     * its warehouse. The flag is written in the transaction that reserves or releases the stock, so a reservation
+     * that is stuck pending still records whether its units must be returned.
+     *
+     * @return true if the units of the reservation are reserved from the counted stock
+     */
+    public boolean isStockReserved() {
+        return stockReserved;
+    }
+
+    public void setStockReserved(boolean stockReserved) {
+        this.stockReserved = stockReserved;
+    }
+
     @Command(method = "connectInventory", controller = ReservationController.class)
     public Reservation connectInventory() {
         return getAction(ConnectInventory.class)
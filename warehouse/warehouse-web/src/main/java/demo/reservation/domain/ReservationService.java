@@ -5,20 +5,26 @@ import demo.reservation.event.ReservationEvent;
 import demo.reservation.event.ReservationEventService;
 import demo.reservation.event.ReservationEventType;
 import demo.reservation.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.Link;
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 public class ReservationService extends Service<Reservation, Long> {
 
     private final ReservationRepository reservationRepository;
     private final ReservationEventService reservationEventService;
+    private final long leaseMs;
 
     public ReservationService(ReservationRepository reservationRepository, ReservationEventService
-            reservationEventService) {
+            reservationEventService, @Value("${reservation.lease.duration-ms:30000}") long leaseMs) {
         this.reservationRepository = reservationRepository;
         this.reservationEventService = reservationEventService;
+        this.leaseMs = leaseMs;
     }
 
     /**
@@ -46,7 +52,9 @@ public class ReservationService extends Service<Reservation, Long> {
     }
 
     /**
-     * Update an {@link Reservation} entity with the supplied identifier.
+     * Update an {@link Reservation} entity with the supplied identifier. A reservation that moves to
+     * {@link ReservationStatus#RESERVATION_PENDING} is leased for {@code reservation.lease.duration-ms}, and the
+     * lease ends when it leaves the pending state.
      *
      * @param reservation is the {@link Reservation} containing updated fields
      * @return the updated {@link Reservation} entity
@@ -64,6 +72,12 @@ public class ReservationService extends Service<Reservation, Long> {
         currentReservation.setProductId(reservation.getProductId());
         currentReservation.setWarehouse(reservation.getWarehouse());
         currentReservation.setInventory(reservation.getInventory());
+        currentReservation.setQuantity(reservation.getQuantity());
+
+        if (currentReservation.getStatus() != ReservationStatus.RESERVATION_PENDING)
+            currentReservation.setLeaseExpiresAt(null);
+        else if (currentReservation.getLeaseExpiresAt() == null)
+            currentReservation.setLeaseExpiresAt(System.currentTimeMillis() + leaseMs);
 
         return reservationRepository.saveAndFlush(currentReservation);
     }
@@ -80,15 +94,75 @@ public class ReservationService extends Service<Reservation, Long> {
         return true;
     }
 
+    /**
+     * Create a list of new {@link Reservation} entities. The reservations and their created events are inserted in
+     * JDBC batches and the events are published as a single message.
+     *
+     * @param reservations are the {@link Reservation}s to create
+     * @return the newly created {@link Reservation}s
+     */
     public List<Reservation> create(List<Reservation> reservations) {
         Assert.notEmpty(reservations, "Reservation list must not be empty");
-        List<Reservation> reservationList = this.reservationRepository.save(reservations);
 
-        // Trigger reservation created events
-        reservationList
-                .forEach(r -> r.sendAsyncEvent(new ReservationEvent(ReservationEventType.RESERVATION_CREATED, r)));
+        return reservationEventService.execute(() -> {
+            List<Reservation> reservationList = this.reservationRepository.save(reservations);
+
+            // Trigger reservation created events
+            appendEvents(reservationList, reservationList.stream()
+                    .map(r -> new ReservationEvent(ReservationEventType.RESERVATION_CREATED, r))
+                    .collect(Collectors.toList()));
+
+            return reservationList;
+        });
+    }
+
+    /**
+     * Create a list of new {@link Reservation} entities and request inventory for each of them. This is the bulk
+     * equivalent of creating each reservation and sending its created and requested events one by one: the
+     * reservations and all of their events are inserted in JDBC batches, each reservation is updated once, and the
+     * events are published in order as a single message.
+     *
+     * @param reservations are the {@link Reservation}s to create
+     * @param links        are the links to add to each requested event, such as the order of the reservations
+     * @return the newly created {@link Reservation}s
+     */
+    public List<Reservation> request(List<Reservation> reservations, Link... links) {
+        Assert.notEmpty(reservations, "Reservation list must not be empty");
+
+        return reservationEventService.execute(() -> {
+            List<Reservation> reservationList = this.reservationRepository.save(reservations);
+            List<ReservationEvent> events = new ArrayList<>();
+
+            reservationList.forEach(r -> {
+                ReservationEvent requested = new ReservationEvent(ReservationEventType.RESERVATION_REQUESTED, r);
+                requested.add(links);
+
+                events.add(new ReservationEvent(ReservationEventType.RESERVATION_CREATED, r));
+                events.add(requested);
+            });
+
+            appendEvents(reservationList, events);
+
+            return reservationList;
+        });
+    }
+
+    /**
+     * Append events to their {@link Reservation}s and send them as a batch. The events are saved together and each
+     * reservation is updated once, instead of once for every event.
+     *
+     * @param reservations are the reservations that the events apply to
+     * @param events       are the events to append, in order
+     * @return true if the batch was sent successfully
+     */
+    private boolean appendEvents(List<Reservation> reservations, List<ReservationEvent> events) {
+        List<ReservationEvent> result = reservationEventService.save(events);
+        result.forEach(e -> e.getEntity().getEvents().add(e));
+
+        reservationRepository.save(reservations);
+        reservationRepository.flush();
 
-        return reservationList;
+        return reservationEventService.sendAsyncBatch(result);
     }
 
     public Reservations findReservationsByOrderId(Long orderId) {
@@ -11,7 +11,7 @@ import org.springframework.hateoas.Link;
 
 import javax.persistence.*;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 /**
  * The domain event {@link ReservationEvent} tracks the type and state of events as applied to the {@link Reservation} domain
@@ -23,11 +23,13 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(indexes = { @Index(name = "IDX_RESERVATION_EVENT", columnList = "entity_id") })
+@Table(indexes = { @Index(name = "IDX_RESERVATION_EVENT", columnList = "entity_id, createdAt") })
 public class ReservationEvent extends Event<Reservation, ReservationEventType, Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservation_event")
+    @TableGenerator(name = "reservation_event", table = "id_generator", pkColumnValue = "reservation_event",
+            allocationSize = 50)
     private Long eventId;
 
     @Enumerated(EnumType.STRING)
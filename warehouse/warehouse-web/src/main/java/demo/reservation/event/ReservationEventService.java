@@ -4,27 +4,35 @@ import demo.event.BasicEventService;
 import demo.event.EventSource;
 import org.springframework.cloud.stream.messaging.Source;
 import org.springframework.hateoas.Link;
-import org.springframework.http.MediaType;
-import org.springframework.integration.support.MessageBuilder;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+
 public class ReservationEventService extends BasicEventService<ReservationEvent, Long> {
 
     private final Source source;
+    private final boolean batched;
 
     public ReservationEventService(ReservationEventRepository reservationEventRepository, EventSource eventSource,
             RestTemplate restTemplate, Source source) {
         super(reservationEventRepository, eventSource, restTemplate);
         this.source = source;
+        this.batched = eventSource.getBatchChannel() != null;
     }
 
     @Override
     public <S extends ReservationEvent> Boolean sendAsync(S event, Link... links) {
         // Send a duplicate event to the warehouse stream group output channel for data flow
-        source.output()
-                .send(MessageBuilder.withPayload(event)
-                        .setHeader("contentType", MediaType.APPLICATION_JSON_UTF8_VALUE)
-                        .build());
+        publish(source.output(), createMessage(event));
         return super.sendAsync(event, links);
     }
+
+    @Override
+    public <S extends ReservationEvent> Boolean sendAsyncBatch(List<S> events, Link... links) {
+        // The data flow stream consumes single events, so only the reservation channel receives the batch
+        if (batched)
+            events.forEach(event -> publish(source.output(), createMessage(event)));
+
+        return super.sendAsyncBatch(events, links);
+    }
 }
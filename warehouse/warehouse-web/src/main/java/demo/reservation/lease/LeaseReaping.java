@@ -0,0 +1,54 @@
+package demo.reservation.lease;
+
+import demo.inventory.domain.Inventory;
+import demo.reservation.domain.Reservation;
+
+/**
+ * The result of releasing the expired leases of pending {@link Reservation}s and claimed {@link Inventory}.
+ *
+ * @author Kenny Bastani
+ * @see ReservationLeaseService
+ */
+public class LeaseReaping {
+
+    private int reservations;
+    private int inventory;
+
+    public LeaseReaping() {
+    }
+
+    public LeaseReaping(int reservations, int inventory) {
+        this.reservations = reservations;
+        this.inventory = inventory;
+    }
+
+    /**
+     * @return the number of pending reservations that were failed after their lease expired
+     */
+    public int getReservations() {
+        return reservations;
+    }
+
+    public void setReservations(int reservations) {
+        this.reservations = reservations;
+    }
+
+    /**
+     * @return the number of units of inventory that were made available for reservation again
+     */
+    public int getInventory() {
+        return inventory;
+    }
+
+    public void setInventory(int inventory) {
+        this.inventory = inventory;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaseReaping{" +
+                "reservations=" + reservations +
+                ", inventory=" + inventory +
+                '}';
+    }
+}
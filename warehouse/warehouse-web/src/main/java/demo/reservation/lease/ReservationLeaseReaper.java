@@ -0,0 +1,167 @@
+package demo.reservation.lease;
+
+import demo.domain.BaseUriLinkBuilder;
+import demo.inventory.domain.Inventory;
+import demo.reservation.domain.Reservation;
+import org.apache.log4j.Logger;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Releases the expired leases of pending {@link Reservation}s and claimed {@link Inventory} every
+ * {@code reservation.lease.reap-ms}, in batches of {@code reservation.lease.batch-size} until the batch of
+ * reservations is no longer full.
+ * <p>
+ * A reap runs outside of a request, so the hypermedia links of the events that a release sends are built with a
+ * {@link BaseUriLinkBuilder} from the URI that the instance registers with discovery, which is the host that the
+ * warehouse worker follows the links to.
+ *
+ * @author Kenny Bastani
+ * @see ReservationLeaseService
+ */
+public class ReservationLeaseReaper implements SmartLifecycle {
+
+    private static final Logger log = Logger.getLogger(ReservationLeaseReaper.class);
+
+    private final ReservationLeaseService reservationLeaseService;
+    private final DiscoveryClient discoveryClient;
+    private final int batchSize;
+    private final long reapMs;
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final AtomicLong reclaimedInventory = new AtomicLong();
+    private final AtomicLong reaps = new AtomicLong();
+    private final AtomicLong lastReapMs = new AtomicLong();
+    private final AtomicLong maxReapMs = new AtomicLong();
+    private volatile ScheduledExecutorService executor;
+
+    public ReservationLeaseReaper(ReservationLeaseService reservationLeaseService, DiscoveryClient discoveryClient,
+            int batchSize, long reapMs) {
+        this.reservationLeaseService = reservationLeaseService;
+        this.discoveryClient = discoveryClient;
+        this.batchSize = batchSize;
+        this.reapMs = reapMs;
+    }
+
+    /**
+     * Releases expired leases until a batch is no longer full.
+     *
+     * @return the number of reservations and units of inventory that were released
+     */
+    public LeaseReaping reap() {
+        long start = System.currentTimeMillis();
+
+        // The port is only known once the container has started, since it is random by default
+        LeaseReaping result = BaseUriLinkBuilder.withBaseUri(discoveryClient.getLocalServiceInstance().getUri(), () -> {
+            LeaseReaping total = new LeaseReaping();
+            LeaseReaping reaping;
+
+            do {
+                reaping = reservationLeaseService.reap(batchSize);
+                total.setReservations(total.getReservations() + reaping.getReservations());
+                total.setInventory(total.getInventory() + reaping.getInventory());
+            } while (reaping.getReservations() == batchSize);
+
+            return total;
+        });
+
+        long latency = System.currentTimeMillis() - start;
+
+        reclaimed.addAndGet(result.getReservations());
+        reclaimedInventory.addAndGet(result.getInventory());
+        reaps.incrementAndGet();
+        lastReapMs.set(latency);
+        maxReapMs.accumulateAndGet(latency, Math::max);
+
+        return result;
+    }
+
+    /**
+     * @return the number of pending reservations that were failed after their lease expired
+     */
+    public long getReclaimed() {
+        return reclaimed.get();
+    }
+
+    /**
+     * @return the number of units of inventory that were made available again after a lease expired
+     */
+    public long getReclaimedInventory() {
+        return reclaimedInventory.get();
+    }
+
+    /**
+     * @return the number of completed reaps
+     */
+    public long getReaps() {
+        return reaps.get();
+    }
+
+    /**
+     * @return the time in milliseconds that the last reap took to release all expired leases
+     */
+    public long getLastReapMs() {
+        return lastReapMs.get();
+    }
+
+    /**
+     * @return the longest time in milliseconds that a reap took to release all expired leases
+     */
+    public long getMaxReapMs() {
+        return maxReapMs.get();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null)
+            return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-lease-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                reap();
+            } catch (Exception ex) {
+                log.error("Could not release expired reservation leases", ex);
+            }
+        }, reapMs, reapMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null)
+            return;
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
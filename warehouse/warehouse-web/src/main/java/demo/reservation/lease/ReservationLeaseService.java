@@ -0,0 +1,154 @@
+package demo.reservation.lease;
+
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.event.InventoryEvent;
+import demo.inventory.event.InventoryEventType;
+import demo.inventory.queue.InventoryQueue;
+import demo.inventory.repository.InventoryRepository;
+import demo.reservation.domain.Reservation;
+import demo.reservation.domain.ReservationService;
+import demo.reservation.domain.ReservationStatus;
+import demo.reservation.event.ReservationEvent;
+import demo.reservation.event.ReservationEventType;
+import demo.reservation.repository.ReservationRepository;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * Releases the expired leases of {@link Reservation}s that are stuck in
+ * {@link ReservationStatus#RESERVATION_PENDING} and of {@link Inventory} that was claimed but never connected to its
+ * reservation. Both leases are found with a range scan of the {@code (status, leaseExpiresAt)} index, oldest first,
+ * and each lease is released in its own transaction.
+ * <p>
+ * A released reservation is failed with a {@link ReservationEventType#RESERVATION_FAILED} event and its inventory is
+ * released with an {@link InventoryEventType#INVENTORY_RELEASED} event, which is what releasing the inventory of the
+ * reservation with a command would do. The units of a reservation of counted stock are returned if the reservation
+ * is marked as holding them, since the marker is written in the transaction that reserved the units.
+ *
+ * @author Kenny Bastani
+ */
+@Service
+public class ReservationLeaseService {
+
+    private final Logger log = Logger.getLogger(ReservationLeaseService.class);
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationService reservationService;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryService inventoryService;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryQueue inventoryQueue;
+
+    public ReservationLeaseService(ReservationRepository reservationRepository, ReservationService
+            reservationService, InventoryRepository inventoryRepository, InventoryService inventoryService,
+            PlatformTransactionManager transactionManager, ObjectProvider<InventoryQueue> inventoryQueue) {
+        this.reservationRepository = reservationRepository;
+        this.reservationService = reservationService;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryService = inventoryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.inventoryQueue = inventoryQueue.getIfAvailable();
+    }
+
+    /**
+     * Release a batch of expired reservation leases, followed by a batch of expired inventory leases.
+     *
+     * @param limit is the maximum number of reservations, and of inventory, to release
+     * @return the number of reservations and units of inventory that were released
+     */
+    public LeaseReaping reap(int limit) {
+        Assert.isTrue(limit > 0, "The lease batch size must be positive");
+
+        long now = System.currentTimeMillis();
+        LeaseReaping reaping = new LeaseReaping();
+
+        reservationRepository.findExpiredLeases(ReservationStatus.RESERVATION_PENDING, now, new PageRequest(0, limit))
+                .forEach(id -> {
+                    try {
+                        Integer units = transactionTemplate.execute(status -> releaseReservation(id, now));
+
+                        if (units != null) {
+                            reaping.setReservations(reaping.getReservations() + 1);
+                            reaping.setInventory(reaping.getInventory() + units);
+                        }
+                    } catch (Exception ex) {
+                        log.error(String.format("Could not release the expired lease of reservation %s", id), ex);
+                    }
+                });
+
+        inventoryRepository.findExpiredLeases(InventoryStatus.RESERVATION_CONNECTED, now, new PageRequest(0, limit))
+                .forEach(id -> {
+                    // Inventory without a reservation has no events to send, so it is released in place
+                    if (inventoryRepository.releaseExpiredLease(id, InventoryStatus.RESERVATION_CONNECTED,
+                            InventoryStatus.RESERVATION_PENDING, now) > 0) {
+                        reaping.setInventory(reaping.getInventory() + 1);
+                        offer(inventoryRepository.findOne(id));
+                    }
+                });
+
+        if (reaping.getReservations() > 0 || reaping.getInventory() > 0)
+            log.info(String.format("Released expired leases %s", reaping));
+
+        return reaping;
+    }
+
+    /**
+     * Fail a pending reservation whose lease has expired and release its inventory. The reservation is failed with
+     * a conditional update, so that its events are only sent by the instance that moved it out of
+     * {@link ReservationStatus#RESERVATION_PENDING}, and not for a reservation that completed in the meantime.
+     *
+     * @return the number of units of inventory or stock that were released, or null if the lease is no longer
+     * expired
+     */
+    private Integer releaseReservation(Long id, long now) {
+        Reservation reservation = reservationService.get(id);
+
+        if (reservation == null)
+            return null;
+
+        Inventory inventory = reservation.getInventory() != null ? reservation.getInventory() :
+                inventoryRepository.findInventoryByReservationId(id);
+        Long inventoryId = inventory != null ? inventory.getIdentity() : null;
+
+        if (reservationRepository.failExpiredLease(id, ReservationStatus.RESERVATION_PENDING,
+                ReservationStatus.RESERVATION_FAILED, now) != 1)
+            return null;
+
+        // The update clears the persistence context, so the failed reservation is loaded again
+        reservation = reservationService.get(id);
+
+        // Trigger the reservation failed event
+        reservation.sendAsyncEvent(new ReservationEvent(ReservationEventType.RESERVATION_FAILED, reservation));
+
+        // Return the counted stock that was reserved before the process stopped short of completing the reservation
+        if (reservation.isStockReserved())
+            return inventoryService.releaseStock(reservation) ? reservation.getQuantity() : 0;
+
+        if (inventoryId == null)
+            return 0;
+
+        inventory = inventoryRepository.findOne(inventoryId);
+        inventory.setReservation(null);
+        inventory.setStatus(InventoryStatus.RESERVATION_PENDING);
+        inventory = inventoryService.update(inventory);
+
+        // Trigger the inventory released event
+        inventory.sendAsyncEvent(new InventoryEvent(InventoryEventType.INVENTORY_RELEASED, inventory));
+
+        return 1;
+    }
+
+    private void offer(Inventory inventory) {
+        // Make the inventory available to the next reservation of its product
+        if (inventoryQueue != null && inventory != null && inventory.getWarehouse() != null)
+            inventoryQueue.offer(inventory.getWarehouse().getIdentity(), inventory.getProductId(),
+                    inventory.getIdentity());
+    }
+}
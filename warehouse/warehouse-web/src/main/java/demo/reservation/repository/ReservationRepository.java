@@ -1,11 +1,39 @@
 package demo.reservation.repository;
 
 import demo.reservation.domain.Reservation;
+import demo.reservation.domain.ReservationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
     List<Reservation> findReservationsByOrderId(@Param("orderId") Long orderId);
-}
+
+    List<Reservation> findReservationsByOrderIdAndWarehouseId(@Param("orderId") Long orderId,
+            @Param("warehouseId") Long warehouseId);
+
+    @Query("select r.id from Reservation r where r.status = :status and r.leaseExpiresAt < :now " +
+            "order by r.leaseExpiresAt")
+    List<Long> findExpiredLeases(@Param("status") ReservationStatus status, @Param("now") Long now,
+            Pageable pageable);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Reservation r set r.status = :failed, r.inventory = null, r.leaseExpiresAt = null " +
+            "where r.id = :id and r.status = :status and r.leaseExpiresAt < :now")
+    int failExpiredLease(@Param("id") Long id, @Param("status") ReservationStatus status,
+            @Param("failed") ReservationStatus failed, @Param("now") Long now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Reservation r set r.stockReserved = true where r.id = :id")
+    int markStockReserved(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Reservation r set r.stockReserved = false where r.id = :id and r.stockReserved = true")
+    int clearStockReserved(@Param("id") Long id);
+
+    Long countByStatusAndLeaseExpiresAtLessThan(@Param("status") ReservationStatus status, @Param("now") Long now);
+}
\ No newline at end of file
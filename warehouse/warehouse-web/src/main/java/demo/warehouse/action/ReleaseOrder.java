@@ -0,0 +1,43 @@
+package demo.warehouse.action;
+
+import demo.domain.Action;
+import demo.reservation.domain.Reservation;
+import demo.reservation.domain.ReservationStatus;
+import demo.reservation.repository.ReservationRepository;
+import demo.warehouse.domain.Warehouse;
+import org.apache.log4j.Logger;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Releases the inventory that a {@link Warehouse} reserved for an order. This compensates a shipment of an order
+ * that was split across warehouses when the reservation of another shipment fails.
+ *
+ * @author Kenny Bastani
+ */
+@Service
+@Transactional
+public class ReleaseOrder extends Action<Warehouse> {
+
+    private final Logger log = Logger.getLogger(ReleaseOrder.class);
+    private final ReservationRepository reservationRepository;
+
+    public ReleaseOrder(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    public void apply(Warehouse warehouse, Long orderId) {
+        List<Reservation> reservations = reservationRepository
+                .findReservationsByOrderIdAndWarehouseId(orderId, warehouse.getIdentity());
+
+        // Release every reservation of the order that has not already failed
+        reservations.stream()
+                .filter(reservation -> reservation.getStatus() != ReservationStatus.RESERVATION_FAILED)
+                .forEach(Reservation::releaseInventory);
+
+        log.info(String.format("Released %s reservations of order %s in warehouse %s", reservations.size(),
+                orderId, warehouse.getIdentity()));
+    }
+}
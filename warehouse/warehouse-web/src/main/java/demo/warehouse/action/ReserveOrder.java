@@ -1,11 +1,11 @@
 package demo.warehouse.action;
 
 import demo.domain.Action;
+import demo.inventory.domain.InventoryMode;
+import demo.inventory.domain.InventoryService;
 import demo.order.domain.Order;
 import demo.reservation.domain.Reservation;
 import demo.reservation.domain.ReservationService;
-import demo.reservation.event.ReservationEvent;
-import demo.reservation.event.ReservationEventType;
 import demo.warehouse.domain.Warehouse;
 import org.apache.log4j.Logger;
 import org.springframework.stereotype.Service;
@@ -26,27 +26,32 @@ public class ReserveOrder extends Action<Warehouse> {
 
     private final Logger log = Logger.getLogger(ReserveOrder.class);
     private final ReservationService reservationService;
+    private final InventoryService inventoryService;
 
-    public ReserveOrder(ReservationService reservationService) {
+    public ReserveOrder(ReservationService reservationService, InventoryService inventoryService) {
         this.reservationService = reservationService;
+        this.inventoryService = inventoryService;
     }
 
     public void apply(Warehouse warehouse, Order order) {
-        // Create reservations for each order item
-        List<Reservation> reservations = order.getLineItems().stream()
-                .map(item -> IntStream.rangeClosed(1, item.getQuantity())
-                        .mapToObj(a -> new Reservation(item.getProductId(), order.getIdentity(), warehouse)))
-                .flatMap(a -> a)
-                .collect(Collectors.toList());
-
-        // Save the reservations
-        reservations = reservationService.create(reservations);
-
-        // Trigger reservation requests for each order item
-        reservations.forEach(r -> {
-            ReservationEvent event = new ReservationEvent(ReservationEventType.RESERVATION_REQUESTED, r);
-            event.add(order.getLink("self").withRel("order"));
-            r.sendAsyncEvent(event);
-        });
+        List<Reservation> reservations;
+
+        if (inventoryService.getInventoryMode() == InventoryMode.COUNTED) {
+            // Create a single reservation for the quantity of each order item
+            reservations = order.getLineItems().stream()
+                    .map(item -> new Reservation(item.getProductId(), order.getIdentity(), warehouse,
+                            item.getQuantity()))
+                    .collect(Collectors.toList());
+        } else {
+            // Create reservations for each unit of each order item
+            reservations = order.getLineItems().stream()
+                    .map(item -> IntStream.rangeClosed(1, item.getQuantity())
+                            .mapToObj(a -> new Reservation(item.getProductId(), order.getIdentity(), warehouse)))
+                    .flatMap(a -> a)
+                    .collect(Collectors.toList());
+        }
+
+        // Save the reservations and trigger reservation requests for each order item in bulk
+        reservationService.request(reservations, order.getLink("self").withRel("order"));
     }
 }
@@ -1,11 +1,14 @@
 package demo.warehouse.controller;
 
-import demo.event.Events;
+import demo.event.EventCursor;
 import demo.inventory.controller.InventoryController;
 import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryIngestService;
+import demo.inventory.domain.InventoryIngestion;
 import demo.inventory.domain.InventoryItems;
 import demo.inventory.domain.InventoryService;
 import demo.inventory.domain.InventoryStatus;
+import demo.inventory.domain.InventoryStock;
 import demo.inventory.event.InventoryEvent;
 import demo.inventory.event.InventoryEventType;
 import demo.order.domain.Order;
@@ -15,6 +18,7 @@ import demo.warehouse.event.WarehouseEvent;
 import demo.warehouse.event.WarehouseEventService;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.hateoas.LinkBuilder;
+import org.springframework.hateoas.Resources;
 import org.springframework.hateoas.Resource;
 import org.springframework.hateoas.ResourceSupport;
 import org.springframework.http.HttpStatus;
@@ -22,6 +26,9 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.Optional;
 
@@ -33,13 +40,16 @@ public class WarehouseController {
 
     private final WarehouseService warehouseService;
     private final InventoryService inventoryService;
+    private final InventoryIngestService inventoryIngestService;
     private final WarehouseEventService eventService;
     private final DiscoveryClient discoveryClient;
 
     public WarehouseController(WarehouseService warehouseService, InventoryService inventoryService,
-            WarehouseEventService eventService, DiscoveryClient discoveryClient) {
+            InventoryIngestService inventoryIngestService, WarehouseEventService eventService,
+            DiscoveryClient discoveryClient) {
         this.warehouseService = warehouseService;
         this.inventoryService = inventoryService;
+        this.inventoryIngestService = inventoryIngestService;
         this.eventService = eventService;
         this.discoveryClient = discoveryClient;
     }
@@ -73,8 +83,10 @@ public class WarehouseController {
     }
 
     @RequestMapping(path = "/warehouses/{id}/events")
-    public ResponseEntity getWarehouseEvents(@PathVariable Long id) {
-        return Optional.of(getWarehouseEventResources(id))
+    public ResponseEntity getWarehouseEvents(@PathVariable Long id,
+                                             @RequestParam(value = "after", required = false) Long after,
+                                             @RequestParam(value = "since", required = false) Long since) {
+        return Optional.of(EventCursor.find(eventService, id, after, since))
                 .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
                 .orElseThrow(() -> new RuntimeException("Could not get warehouse events"));
     }
@@ -107,6 +119,29 @@ public class WarehouseController {
                 .orElseThrow(() -> new RuntimeException("Could not add inventory"));
     }
 
+    @RequestMapping(path = "/warehouses/{id}/inventory/batch", method = RequestMethod.POST)
+    public ResponseEntity addWarehouseInventoryBatch(@PathVariable Long id, HttpServletRequest request) throws
+            IOException {
+        return Optional.of(addInventoryBatchResource(id, request.getInputStream()))
+                .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
+                .orElseThrow(() -> new RuntimeException("Could not add inventory"));
+    }
+
+    @RequestMapping(path = "/warehouses/{id}/stock")
+    public ResponseEntity getWarehouseStock(@PathVariable Long id) {
+        return Optional.of(getWarehouseStockResources(id))
+                .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
+                .orElseThrow(() -> new RuntimeException("Could not get warehouse stock"));
+    }
+
+    @RequestMapping(path = "/warehouses/{id}/stock", method = RequestMethod.POST)
+    public ResponseEntity addWarehouseStock(@PathVariable Long id, @RequestParam(value = "productId") String
+            productId, @RequestParam(value = "quantity") Long quantity) {
+        return Optional.of(addStockResource(id, productId, quantity))
+                .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
+                .orElseThrow(() -> new RuntimeException("Could not add stock"));
+    }
+
     @RequestMapping(path = "/warehouses/{id}/commands")
     public ResponseEntity getCommands(@PathVariable Long id) {
         return Optional.ofNullable(getCommandsResources(id))
@@ -121,6 +156,13 @@ public class WarehouseController {
                 .orElseThrow(() -> new RuntimeException("The command could not be applied"));
     }
 
+    @RequestMapping(path = "/warehouses/{id}/commands/releaseOrder", method = RequestMethod.POST)
+    public ResponseEntity releaseOrder(@PathVariable Long id, @RequestParam(value = "orderId") Long orderId) {
+        return Optional.ofNullable(warehouseService.get(id).releaseOrder(orderId))
+                .map(e -> new ResponseEntity<>(getWarehouseResource(e), HttpStatus.OK))
+                .orElseThrow(() -> new RuntimeException("The command could not be applied"));
+    }
+
     @RequestMapping(path = "/warehouses/search/findWarehouseWithInventory", method = RequestMethod.POST)
     public ResponseEntity findWarehouseWithInventory(@RequestBody Order order) {
         return Optional.ofNullable(warehouseService.findWarehouseForOrder(order))
@@ -128,6 +170,13 @@ public class WarehouseController {
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @RequestMapping(path = "/warehouses/search/planFulfilment", method = RequestMethod.POST)
+    public ResponseEntity planFulfilment(@RequestBody Order order) {
+        return Optional.ofNullable(warehouseService.planFulfilment(order))
+                .map(e -> new ResponseEntity<>(e, HttpStatus.OK))
+                .orElseThrow(() -> new RuntimeException("Could not plan the fulfilment of the order"));
+    }
+
     /**
      * Creates a new {@link Warehouse} entity and persists the result to the repository.
      *
@@ -213,12 +262,50 @@ public class WarehouseController {
         return inventoryResource;
     }
 
-    private WarehouseEvent getEventResource(Long eventId) {
-        return eventService.findOne(eventId);
+    private Resource<InventoryIngestion> addInventoryBatchResource(Long warehouseId, InputStream inputStream) throws
+            IOException {
+        return new Resource<>(inventoryIngestService.ingest(warehouseId, inputStream),
+                linkTo(WarehouseController.class)
+                        .slash("warehouses")
+                        .slash(warehouseId)
+                        .withRel("warehouse")
+        );
     }
 
-    private Events getWarehouseEventResources(Long id) {
-        return eventService.find(id);
+    private Resource<InventoryStock> addStockResource(Long warehouseId, String productId, Long quantity) {
+        Assert.notNull(warehouseService.get(warehouseId), "Warehouse for the identifier could not be found");
+
+        return new Resource<>(inventoryService.addStock(warehouseId, productId, quantity),
+                linkTo(WarehouseController.class)
+                        .slash("warehouses")
+                        .slash(warehouseId)
+                        .slash("stock")
+                        .withRel("stock"),
+                linkTo(WarehouseController.class)
+                        .slash("warehouses")
+                        .slash(warehouseId)
+                        .withRel("warehouse")
+        );
+    }
+
+    private Resources<InventoryStock> getWarehouseStockResources(Long id) {
+        Assert.notNull(warehouseService.get(id), "Warehouse could not be found");
+
+        return new Resources<>(inventoryService.getStock(id),
+                linkTo(WarehouseController.class)
+                        .slash("warehouses")
+                        .slash(id)
+                        .slash("stock")
+                        .withSelfRel(),
+                linkTo(WarehouseController.class)
+                        .slash("warehouses")
+                        .slash(id)
+                        .withRel("warehouse")
+        );
+    }
+
+    private WarehouseEvent getEventResource(Long eventId) {
+        return eventService.findOne(eventId);
     }
 
     private InventoryItems getWarehouseInventoryResources(Long id) {
@@ -270,7 +357,8 @@ public class WarehouseController {
 
         if (!warehouse.hasLink("events")) {
             // Add get events link
-            warehouse.add(linkBuilder("getWarehouseEvents", warehouse.getIdentity()).withRel("events"));
+            warehouse.add(linkTo(WarehouseController.class).slash("warehouses").slash(warehouse.getIdentity())
+                    .slash("events").withRel("events"));
         }
 
         if (!warehouse.hasLink("inventory")) {
@@ -8,6 +8,7 @@ import demo.domain.Command;
 import demo.domain.Module;
 import demo.inventory.domain.Inventory;
 import demo.order.domain.Order;
+import demo.warehouse.action.ReleaseOrder;
 import demo.warehouse.action.ReserveOrder;
 import demo.warehouse.controller.WarehouseController;
 import demo.warehouse.event.WarehouseEvent;
@@ -16,7 +17,7 @@ import org.springframework.hateoas.Link;
 import javax.persistence.*;
 import java.util.List;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 @Entity
 public class Warehouse extends AbstractEntity<WarehouseEvent, Long> {
@@ -81,6 +82,14 @@ public class Warehouse extends AbstractEntity<WarehouseEvent, Long> {
         return this;
     }
 
+    @JsonIgnore
+    @Command(method = "releaseOrder", controller = WarehouseController.class)
+    public Warehouse releaseOrder(Long orderId) {
+        getAction(ReleaseOrder.class)
+                .apply(this, orderId);
+        return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T extends Module<A>, A extends Aggregate<WarehouseEvent, Long>> T getModule() throws
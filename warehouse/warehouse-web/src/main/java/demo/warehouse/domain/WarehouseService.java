@@ -1,21 +1,34 @@
 package demo.warehouse.domain;
 
 import demo.domain.Service;
+import demo.inventory.domain.InventoryMode;
+import demo.inventory.domain.InventoryService;
 import demo.order.domain.LineItem;
 import demo.order.domain.Order;
+import demo.warehouse.fulfilment.FulfilmentPlan;
+import demo.warehouse.fulfilment.FulfilmentPlanner;
+import demo.warehouse.index.WarehouseInventoryIndex;
 import demo.warehouse.repository.WarehouseRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.util.Assert;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 public class WarehouseService extends Service<Warehouse, Long> {
 
     private final WarehouseRepository warehouseRepository;
+    private final InventoryService inventoryService;
+    private final WarehouseInventoryIndex warehouseInventoryIndex;
+    private final FulfilmentPlanner fulfilmentPlanner = new FulfilmentPlanner();
 
-    public WarehouseService(WarehouseRepository warehouseRepository) {
+    public WarehouseService(WarehouseRepository warehouseRepository, InventoryService inventoryService,
+            ObjectProvider<WarehouseInventoryIndex> warehouseInventoryIndex) {
         this.warehouseRepository = warehouseRepository;
+        this.inventoryService = inventoryService;
+        this.warehouseInventoryIndex = warehouseInventoryIndex.getIfAvailable();
     }
 
     /**
@@ -80,13 +93,47 @@ public class WarehouseService extends Service<Warehouse, Long> {
      * @return a {@link Warehouse} that has all line items in stock, or null if one could not be found
      */
     public Warehouse findWarehouseForOrder(Order order) {
+        if (warehouseInventoryIndex != null) {
+            return warehouseInventoryIndex.findWarehouses(order).stream()
+                    .findFirst()
+                    .map(this::get)
+                    .orElse(null);
+        }
+
         List<String> productIds = order.getLineItems().stream()
                 .map(LineItem::getProductId)
                 .distinct()
                 .collect(Collectors.toList());
 
+        if (inventoryService.getInventoryMode() == InventoryMode.COUNTED) {
+            Map<String, Long> quantities = order.getLineItems().stream()
+                    .collect(Collectors.groupingBy(LineItem::getProductId,
+                            Collectors.summingLong(item -> item.getQuantity() != null ? item.getQuantity() : 1)));
+
+            return inventoryService.findWarehousesWithStock(quantities).stream()
+                    .findFirst()
+                    .map(this::get)
+                    .orElse(null);
+        }
+
         List<Warehouse> warehouses = warehouseRepository.findAllWithInventory((long) productIds.size(), productIds);
 
         return warehouses.stream().findFirst().orElse(null);
     }
+
+    /**
+     * Plans the shipments of an {@link Order} from the fewest warehouses that have its line items in stock.
+     *
+     * @param order is the {@link Order} containing the line items to locate
+     * @return a {@link FulfilmentPlan} that splits the line items of the order across warehouses
+     */
+    public FulfilmentPlan planFulfilment(Order order) {
+        List<String> productIds = order.getLineItems().stream()
+                .map(LineItem::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        return fulfilmentPlanner.plan(order, warehouseInventoryIndex != null ?
+                warehouseInventoryIndex.getAvailability(productIds) : inventoryService.getAvailability(productIds));
+    }
 }
@@ -1,6 +1,7 @@
 package demo.warehouse.event;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import demo.event.Event;
 import demo.warehouse.controller.WarehouseController;
 import demo.warehouse.domain.Warehouse;
@@ -11,7 +12,7 @@ import org.springframework.hateoas.Link;
 
 import javax.persistence.*;
 
-import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
+import static demo.domain.BaseUriLinkBuilder.linkTo;
 
 /**
  * The domain event {@link WarehouseEvent} tracks the type and state of events as applied to the {@link Warehouse} domain
@@ -23,11 +24,13 @@ import static org.springframework.hateoas.mvc.ControllerLinkBuilder.linkTo;
  */
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(indexes = { @Index(name = "IDX_WAREHOUSE_EVENT", columnList = "entity_id") })
+@Table(indexes = { @Index(name = "IDX_WAREHOUSE_EVENT", columnList = "entity_id, createdAt") })
 public class WarehouseEvent extends Event<Warehouse, WarehouseEventType, Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "warehouse_event")
+    @TableGenerator(name = "warehouse_event", table = "id_generator", pkColumnValue = "warehouse_event",
+            allocationSize = 50)
     private Long eventId;
 
     @Enumerated(EnumType.STRING)
@@ -43,6 +46,9 @@ public class WarehouseEvent extends Event<Warehouse, WarehouseEventType, Long> {
     @LastModifiedDate
     private Long lastModified;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long quantity;
+
     public WarehouseEvent() {
     }
 
@@ -105,6 +111,18 @@ public class WarehouseEvent extends Event<Warehouse, WarehouseEventType, Long> {
         this.lastModified = lastModified;
     }
 
+    /**
+     * The number of units of inventory that an {@link WarehouseEventType#INVENTORY_ADDED} event added to the
+     * warehouse, or {@literal null} for other events.
+     */
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
     @Override
     public Link getId() {
         return linkTo(WarehouseController.class).slash("warehouses").slash(getEntity().getIdentity()).slash("events")
@@ -119,6 +137,7 @@ public class WarehouseEvent extends Event<Warehouse, WarehouseEventType, Long> {
                 ", entity=" + entity +
                 ", createdAt=" + createdAt +
                 ", lastModified=" + lastModified +
+                ", quantity=" + quantity +
                 "} " + super.toString();
     }
 }
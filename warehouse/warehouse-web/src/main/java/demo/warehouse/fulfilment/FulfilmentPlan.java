@@ -0,0 +1,72 @@
+package demo.warehouse.fulfilment;
+
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.warehouse.domain.Warehouse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A plan that splits the line items of an {@link Order} into shipments from one or more {@link Warehouse}s. Line
+ * items that no warehouse has enough units of are unfulfilled.
+ *
+ * @author Kenny Bastani
+ * @see FulfilmentPlanner
+ */
+public class FulfilmentPlan {
+
+    private List<Shipment> shipments = new ArrayList<>();
+    private List<LineItem> unfulfilled = new ArrayList<>();
+
+    public FulfilmentPlan() {
+    }
+
+    public List<Shipment> getShipments() {
+        return shipments;
+    }
+
+    public void setShipments(List<Shipment> shipments) {
+        this.shipments = shipments;
+    }
+
+    public List<LineItem> getUnfulfilled() {
+        return unfulfilled;
+    }
+
+    public void setUnfulfilled(List<LineItem> unfulfilled) {
+        this.unfulfilled = unfulfilled;
+    }
+
+    /**
+     * The line items of an order that are shipped from a single warehouse.
+     */
+    public static class Shipment {
+
+        private Long warehouseId;
+        private List<LineItem> lineItems = new ArrayList<>();
+
+        public Shipment() {
+        }
+
+        public Shipment(Long warehouseId) {
+            this.warehouseId = warehouseId;
+        }
+
+        public Long getWarehouseId() {
+            return warehouseId;
+        }
+
+        public void setWarehouseId(Long warehouseId) {
+            this.warehouseId = warehouseId;
+        }
+
+        public List<LineItem> getLineItems() {
+            return lineItems;
+        }
+
+        public void setLineItems(List<LineItem> lineItems) {
+            this.lineItems = lineItems;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package demo.warehouse.fulfilment;
+
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.warehouse.domain.Warehouse;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Splits the line items of an {@link Order} across the fewest {@link Warehouse}s that have them in stock. Finding
+ * the fewest warehouses is a set cover problem, which the planner approximates greedily: each shipment is taken from
+ * the warehouse that covers the most products that are not shipped yet, preferring the warehouse with the most
+ * units of those products when there is a tie. The line items of a product are always shipped from one warehouse.
+ * <p>
+ * The products that each warehouse is able to ship are kept in a {@link BitSet}, so each round of the planner is a
+ * bitwise intersection per warehouse.
+ *
+ * @author Kenny Bastani
+ */
+public class FulfilmentPlanner {
+
+    /**
+     * Plan the shipments of an order.
+     *
+     * @param order        is the order to fulfil
+     * @param availability is the number of available units of each product, for each warehouse
+     * @return the plan of the shipments of the order
+     */
+    public FulfilmentPlan plan(Order order, Map<Long, Map<String, Long>> availability) {
+        Map<String, List<LineItem>> lineItems = order.getLineItems().stream()
+                .collect(Collectors.groupingBy(LineItem::getProductId, LinkedHashMap::new, Collectors.toList()));
+        List<String> productIds = new ArrayList<>(lineItems.keySet());
+
+        long[] quantities = productIds.stream()
+                .mapToLong(productId -> lineItems.get(productId).stream()
+                        .mapToLong(item -> item.getQuantity() != null ? item.getQuantity() : 1)
+                        .sum())
+                .toArray();
+
+        // Index the products that each warehouse has enough units of
+        Map<Long, BitSet> coverage = new TreeMap<>();
+
+        availability.forEach((warehouseId, stock) -> {
+            BitSet products = new BitSet(productIds.size());
+
+            for (int i = 0; i < productIds.size(); i++) {
+                if (stock.getOrDefault(productIds.get(i), 0L) >= quantities[i])
+                    products.set(i);
+            }
+
+            if (!products.isEmpty())
+                coverage.put(warehouseId, products);
+        });
+
+        FulfilmentPlan plan = new FulfilmentPlan();
+        BitSet remaining = new BitSet(productIds.size());
+        remaining.set(0, productIds.size());
+
+        while (!remaining.isEmpty()) {
+            Long bestWarehouse = null;
+            BitSet bestProducts = null;
+            long bestStock = -1L;
+
+            for (Map.Entry<Long, BitSet> entry : coverage.entrySet()) {
+                BitSet products = (BitSet) entry.getValue().clone();
+                products.and(remaining);
+
+                int covered = products.cardinality();
+
+                if (covered == 0 || (bestProducts != null && covered < bestProducts.cardinality()))
+                    continue;
+
+                long stock = products.stream()
+                        .mapToLong(i -> availability.get(entry.getKey()).getOrDefault(productIds.get(i), 0L))
+                        .sum();
+
+                if (bestProducts == null || covered > bestProducts.cardinality() || stock > bestStock) {
+                    bestWarehouse = entry.getKey();
+                    bestProducts = products;
+                    bestStock = stock;
+                }
+            }
+
+            if (bestWarehouse == null)
+                break;
+
+            FulfilmentPlan.Shipment shipment = new FulfilmentPlan.Shipment(bestWarehouse);
+            bestProducts.stream().forEach(i -> shipment.getLineItems().addAll(lineItems.get(productIds.get(i))));
+            plan.getShipments().add(shipment);
+
+            remaining.andNot(bestProducts);
+            coverage.remove(bestWarehouse);
+        }
+
+        remaining.stream().forEach(i -> plan.getUnfulfilled().addAll(lineItems.get(productIds.get(i))));
+
+        return plan;
+    }
+}
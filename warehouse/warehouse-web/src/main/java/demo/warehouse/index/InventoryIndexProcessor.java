@@ -0,0 +1,51 @@
+package demo.warehouse.index;
+
+import demo.event.BasicEventService;
+import demo.inventory.domain.Inventory;
+import demo.inventory.event.InventoryEvent;
+import demo.inventory.repository.InventoryRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.annotation.EnableBinding;
+import org.springframework.cloud.stream.annotation.StreamListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+
+/**
+ * The {@link InventoryIndexProcessor} applies the {@link InventoryEvent}s of the inventory event stream to the
+ * {@link WarehouseInventoryIndex}, so that the index of each instance follows the inventory that is reserved and
+ * released by every instance of the warehouse service.
+ * <p>
+ * The {@link Inventory} of an event is not serialized with it, so it is looked up by the aggregate identifier of
+ * the message to find its warehouse and product.
+ *
+ * @author Kenny Bastani
+ */
+@EnableBinding(InventoryIndexSink.class)
+@ConditionalOnProperty(prefix = "warehouse.index", name = "enabled")
+@Profile({"cloud", "development", "docker"})
+public class InventoryIndexProcessor {
+
+    private final WarehouseInventoryIndex warehouseInventoryIndex;
+    private final InventoryRepository inventoryRepository;
+
+    public InventoryIndexProcessor(WarehouseInventoryIndex warehouseInventoryIndex, InventoryRepository
+            inventoryRepository) {
+        this.warehouseInventoryIndex = warehouseInventoryIndex;
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    @StreamListener(InventoryIndexSink.INPUT)
+    public void streamListener(@Payload InventoryEvent inventoryEvent,
+            @Header(name = BasicEventService.AGGREGATE_ID_HEADER, required = false) Long inventoryId) {
+        if (inventoryId == null)
+            return;
+
+        Inventory inventory = inventoryRepository.findOne(inventoryId);
+
+        if (inventory != null) {
+            inventoryEvent.setEntity(inventory);
+            warehouseInventoryIndex.apply(inventoryEvent);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package demo.warehouse.index;
+
+import org.springframework.cloud.stream.annotation.Input;
+import org.springframework.messaging.SubscribableChannel;
+
+/**
+ * Subscribes the {@link WarehouseInventoryIndex} of each instance to the inventory event stream. The binding has no
+ * consumer group, so that every instance receives every event.
+ *
+ * @author Kenny Bastani
+ */
+public interface InventoryIndexSink {
+    String INPUT = "inventory-index";
+
+    @Input(InventoryIndexSink.INPUT)
+    SubscribableChannel input();
+}
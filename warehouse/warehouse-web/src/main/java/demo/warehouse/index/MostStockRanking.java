@@ -0,0 +1,36 @@
+package demo.warehouse.index;
+
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Prefers the warehouses with the most available units of the products of an order, which leaves the most room for
+ * the orders that follow.
+ *
+ * @author Kenny Bastani
+ */
+public class MostStockRanking implements WarehouseRanking {
+
+    @Override
+    public List<Long> rank(List<Long> warehouseIds, Order order, WarehouseInventoryIndex index) {
+        List<String> productIds = order.getLineItems().stream()
+                .map(LineItem::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, Long> stock = warehouseIds.stream()
+                .collect(Collectors.toMap(Function.identity(), warehouseId -> productIds.stream()
+                        .mapToLong(productId -> index.getAvailable(warehouseId, productId))
+                        .sum()));
+
+        return warehouseIds.stream()
+                .sorted(Comparator.comparing(stock::get, Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,42 @@
+package demo.warehouse.index;
+
+import demo.order.domain.Order;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.repository.WarehouseRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Prefers the warehouses whose zip code is closest to the zip code of the shipping address of an order. Warehouses
+ * without an address, and all warehouses of an order without a shipping address, are ranked last.
+ *
+ * @author Kenny Bastani
+ */
+public class NearestWarehouseRanking implements WarehouseRanking {
+
+    private final WarehouseRepository warehouseRepository;
+
+    public NearestWarehouseRanking(WarehouseRepository warehouseRepository) {
+        this.warehouseRepository = warehouseRepository;
+    }
+
+    @Override
+    public List<Long> rank(List<Long> warehouseIds, Order order, WarehouseInventoryIndex index) {
+        Integer zipCode = order.getShippingAddress() != null ? order.getShippingAddress().getZipCode() : null;
+
+        if (zipCode == null)
+            return warehouseIds;
+
+        Map<Long, Long> distances = warehouseRepository.findAll(warehouseIds).stream()
+                .filter(warehouse -> warehouse.getAddress() != null && warehouse.getAddress().getZipCode() != null)
+                .collect(Collectors.toMap(Warehouse::getIdentity,
+                        warehouse -> (long) Math.abs(warehouse.getAddress().getZipCode() - zipCode)));
+
+        return warehouseIds.stream()
+                .sorted(Comparator.comparing(warehouseId -> distances.getOrDefault(warehouseId, Long.MAX_VALUE)))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,262 @@
+package demo.warehouse.index;
+
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryMode;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.event.InventoryEvent;
+import demo.inventory.repository.InventoryRepository;
+import demo.inventory.repository.InventoryStockRepository;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.warehouse.domain.Warehouse;
+import org.apache.log4j.Logger;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory index of the number of available units of each product in each {@link Warehouse}, which answers
+ * which warehouses can fulfil the line items of an {@link Order} without querying the inventory table. The
+ * warehouses of the line item that is stocked by the fewest warehouses are the first candidates, and each of the
+ * other line items removes the candidates that do not have enough units of its product.
+ * <p>
+ * The index is updated incrementally from the {@link InventoryEvent}s of the inventory event stream, by the
+ * {@link InventoryIndexProcessor}, and from the committed changes to counted stock that are made by this instance.
+ * It is rebuilt from the database when the application starts and every {@code warehouse.index.resync-ms}
+ * afterwards, which corrects changes that are not reflected by an event, such as a rolled back reservation or the
+ * counted stock that is changed by another instance.
+ *
+ * @author Kenny Bastani
+ * @see WarehouseRanking
+ */
+public class WarehouseInventoryIndex implements SmartLifecycle {
+
+    private static final Logger log = Logger.getLogger(WarehouseInventoryIndex.class);
+    private static final List<InventoryStatus> AVAILABLE = Arrays.asList(InventoryStatus.INVENTORY_CREATED,
+            InventoryStatus.RESERVATION_PENDING);
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryStockRepository inventoryStockRepository;
+    private final InventoryMode inventoryMode;
+    private final WarehouseRanking warehouseRanking;
+    private final long resyncMs;
+    private volatile ConcurrentMap<String, ConcurrentMap<Long, AtomicLong>> products = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService executor;
+
+    public WarehouseInventoryIndex(InventoryRepository inventoryRepository, InventoryStockRepository
+            inventoryStockRepository, InventoryMode inventoryMode, WarehouseRanking warehouseRanking, long resyncMs) {
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryStockRepository = inventoryStockRepository;
+        this.inventoryMode = inventoryMode;
+        this.warehouseRanking = warehouseRanking;
+        this.resyncMs = resyncMs;
+    }
+
+    /**
+     * Adjust the number of available units of a product in a warehouse.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @param delta       is the number of units that became available, or negative if units were taken
+     */
+    public void adjust(Long warehouseId, String productId, long delta) {
+        products.computeIfAbsent(productId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(warehouseId, key -> new AtomicLong())
+                .addAndGet(delta);
+    }
+
+    /**
+     * Apply an {@link InventoryEvent} to the index. A created or released {@link Inventory} is a unit that becomes
+     * available, and an {@link Inventory} that is connected to a reservation is a unit that is taken.
+     *
+     * @param event is the event of an {@link Inventory}
+     */
+    public void apply(InventoryEvent event) {
+        Inventory inventory = event.getEntity();
+
+        if (inventory == null || inventory.getWarehouse() == null || event.getType() == null)
+            return;
+
+        switch (event.getType()) {
+            case INVENTORY_CREATED:
+            case INVENTORY_RELEASED:
+                adjust(inventory.getWarehouse().getIdentity(), inventory.getProductId(), 1L);
+                break;
+            case RESERVATION_CONNECTED:
+                adjust(inventory.getWarehouse().getIdentity(), inventory.getProductId(), -1L);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Get the number of available units of a product in a warehouse.
+     *
+     * @param warehouseId is the unique identifier of the warehouse
+     * @param productId   is the product identifier
+     * @return the number of available units
+     */
+    public long getAvailable(Long warehouseId, String productId) {
+        Map<Long, AtomicLong> stock = products.get(productId);
+        AtomicLong available = stock != null ? stock.get(warehouseId) : null;
+        return available != null ? Math.max(available.get(), 0L) : 0L;
+    }
+
+    /**
+     * Get the number of available units of the supplied products in each warehouse.
+     *
+     * @param productIds are the product identifiers
+     * @return the number of available units of each product, for each warehouse
+     */
+    public Map<Long, Map<String, Long>> getAvailability(Collection<String> productIds) {
+        Map<String, ConcurrentMap<Long, AtomicLong>> products = this.products;
+        Map<Long, Map<String, Long>> availability = new HashMap<>();
+
+        productIds.stream()
+                .filter(products::containsKey)
+                .forEach(productId -> products.get(productId).forEach((warehouseId, available) -> {
+                    if (available.get() > 0)
+                        availability.computeIfAbsent(warehouseId, key -> new HashMap<>())
+                                .put(productId, available.get());
+                }));
+
+        return availability;
+    }
+
+    /**
+     * Find the warehouses that have enough available units of every line item of an {@link Order}, ranked by the
+     * {@link WarehouseRanking} of the index.
+     *
+     * @param order is the order to fulfil
+     * @return the unique identifiers of the warehouses, from the most to the least preferred
+     */
+    public List<Long> findWarehouses(Order order) {
+        Map<String, Long> quantities = order.getLineItems().stream()
+                .collect(Collectors.groupingBy(LineItem::getProductId,
+                        Collectors.summingLong(item -> item.getQuantity() != null ? item.getQuantity() : 1)));
+
+        List<Long> warehouseIds = findWarehouses(quantities);
+
+        return warehouseRanking != null && warehouseIds.size() > 1 ?
+                warehouseRanking.rank(warehouseIds, order, this) : warehouseIds;
+    }
+
+    /**
+     * Find the warehouses that have at least the supplied number of available units of each product.
+     *
+     * @param quantities are the required units of each product
+     * @return the unique identifiers of the warehouses, in no particular order
+     */
+    public List<Long> findWarehouses(Map<String, Long> quantities) {
+        Map<String, ConcurrentMap<Long, AtomicLong>> products = this.products;
+        List<Map.Entry<String, Long>> items = new ArrayList<>(quantities.entrySet());
+
+        if (items.isEmpty() || !items.stream().allMatch(item -> products.containsKey(item.getKey())))
+            return Collections.emptyList();
+
+        // Start with the product that is stocked by the fewest warehouses
+        items.sort(Comparator.comparing(item -> products.get(item.getKey()).size()));
+
+        Set<Long> candidates = null;
+
+        for (Map.Entry<String, Long> item : items) {
+            Map<Long, AtomicLong> stock = products.get(item.getKey());
+            long quantity = item.getValue();
+
+            if (candidates == null) {
+                candidates = stock.entrySet().stream()
+                        .filter(e -> e.getValue().get() >= quantity)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toSet());
+            } else {
+                candidates.removeIf(warehouseId -> {
+                    AtomicLong available = stock.get(warehouseId);
+                    return available == null || available.get() < quantity;
+                });
+            }
+
+            if (candidates.isEmpty())
+                return Collections.emptyList();
+        }
+
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * Rebuild the index from the available inventory in the database.
+     *
+     * @return the number of (warehouse, product) entries in the index
+     */
+    public int rebuild() {
+        List<Object[]> rows = inventoryMode == InventoryMode.COUNTED ? inventoryStockRepository.findAvailableStock() :
+                inventoryRepository.countInventoryByStatus(AVAILABLE);
+
+        ConcurrentMap<String, ConcurrentMap<Long, AtomicLong>> products = new ConcurrentHashMap<>();
+
+        rows.forEach(row -> products.computeIfAbsent((String) row[1], key -> new ConcurrentHashMap<>())
+                .put((Long) row[0], new AtomicLong(((Number) row[2]).longValue())));
+
+        // Adjustments that are made while the index is rebuilt are corrected by the next rebuild
+        this.products = products;
+
+        return rows.size();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null)
+            return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "warehouse-inventory-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                log.debug(String.format("Rebuilt the warehouse inventory index with %s entries", rebuild()));
+            } catch (Exception ex) {
+                log.error("Could not rebuild the warehouse inventory index", ex);
+            }
+        }, 0, resyncMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null)
+            return;
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return true;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        stop();
+        callback.run();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
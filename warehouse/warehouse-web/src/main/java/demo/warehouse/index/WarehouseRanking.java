@@ -0,0 +1,25 @@
+package demo.warehouse.index;
+
+import demo.order.domain.Order;
+import demo.warehouse.domain.Warehouse;
+
+import java.util.List;
+
+/**
+ * Orders the {@link Warehouse}s that are able to fulfil an {@link Order}, from the most to the least preferred.
+ *
+ * @author Kenny Bastani
+ * @see WarehouseInventoryIndex#findWarehouses(Order)
+ */
+public interface WarehouseRanking {
+
+    /**
+     * Rank the warehouses that can fulfil an order.
+     *
+     * @param warehouseIds are the unique identifiers of the warehouses that can fulfil the order
+     * @param order        is the order to fulfil
+     * @param index        is the index that found the warehouses
+     * @return the unique identifiers of the warehouses, from the most to the least preferred
+     */
+    List<Long> rank(List<Long> warehouseIds, Order order, WarehouseInventoryIndex index);
+}
@@ -0,0 +1,128 @@
+package demo.inventory;
+
+import demo.config.JpaConfig;
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.repository.InventoryRepository;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.repository.WarehouseRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the throughput of 24 threads that claim inventory of the same product from an H2 database. A claim
+ * window of 1 makes every claimer contend for the first pending row, which is how inventory was claimed before the
+ * window was introduced. Each claimed inventory is returned to the pool so that the number of pending rows stays
+ * constant. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(24)
+@Fork(1)
+public class InventoryClaimBenchmark {
+
+    private static final String PRODUCT_ID = "SKU-001";
+
+    @Param({"1", "32"})
+    private int claimWindow;
+
+    @Param({"64"})
+    private int units;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+    private InventoryRepository inventoryRepository;
+    private Long warehouseId;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(ClaimConfig.class)
+                .web(false)
+                .properties("spring.datasource.url=jdbc:h2:mem:claims;DB_CLOSE_ON_EXIT=FALSE",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "inventory.claim-window=" + claimWindow)
+                .run();
+
+        inventoryService = context.getBean(InventoryService.class);
+        inventoryRepository = context.getBean(InventoryRepository.class);
+
+        WarehouseRepository warehouseRepository = context.getBean(WarehouseRepository.class);
+
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        warehouseId = new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).execute(status -> {
+            Warehouse warehouse = warehouseRepository.save(new Warehouse());
+
+            IntStream.range(0, units).forEach(i -> {
+                Inventory inventory = new Inventory();
+                inventory.setProductId(PRODUCT_ID);
+                inventory.setStatus(InventoryStatus.RESERVATION_PENDING);
+                inventory.setWarehouse(warehouse);
+                inventoryRepository.save(inventory);
+            });
+
+            return warehouse.getIdentity();
+        });
+
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Inventory claimInventory() {
+        Inventory inventory = inventoryService.claimInventory(warehouseId, PRODUCT_ID);
+
+        if (inventory != null) {
+            // Return the inventory to the pool
+            inventoryRepository.claimInventory(inventory.getIdentity(), InventoryStatus.RESERVATION_CONNECTED,
+                    InventoryStatus.RESERVATION_PENDING, null);
+        }
+
+        return inventory;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(InventoryClaimBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    @Configuration
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, DataSourceAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan("demo")
+    @EnableJpaRepositories(basePackageClasses = {InventoryRepository.class, WarehouseRepository.class})
+    @Import({JpaConfig.class, InventoryService.class})
+    static class ClaimConfig {
+    }
+}
@@ -0,0 +1,125 @@
+package demo.inventory;
+
+import demo.config.JpaConfig;
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.repository.InventoryRepository;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.repository.WarehouseRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that concurrent claims of the same product never receive the same {@link Inventory}.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, InventoryService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class InventoryClaimTests {
+
+    private static final int THREADS = 24;
+    private static final int UNITS = 200;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        inventoryRepository.deleteAllInBatch();
+        warehouseRepository.deleteAllInBatch();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void concurrentClaimsReceiveDifferentInventory() throws Exception {
+        Warehouse warehouse = new TransactionTemplate(transactionManager).execute(status -> {
+            Warehouse w = warehouseRepository.save(new Warehouse());
+
+            IntStream.range(0, UNITS).forEach(i -> {
+                Inventory inventory = new Inventory();
+                inventory.setProductId("SKU-001");
+                inventory.setStatus(InventoryStatus.RESERVATION_PENDING);
+                inventory.setWarehouse(w);
+                inventoryRepository.save(inventory);
+            });
+
+            return w;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+
+        Callable<List<Long>> claimer = () -> {
+            List<Long> claimed = new ArrayList<>();
+            Inventory inventory;
+
+            while ((inventory = inventoryService.claimInventory(warehouse.getIdentity(), "SKU-001")) != null)
+                claimed.add(inventory.getIdentity());
+
+            return claimed;
+        };
+
+        for (int i = 0; i < THREADS; i++)
+            futures.add(executor.submit(claimer));
+
+        Set<Long> claimed = new HashSet<>();
+        int claims = 0;
+
+        for (Future<List<Long>> future : futures) {
+            List<Long> ids = future.get();
+            claims += ids.size();
+            claimed.addAll(ids);
+        }
+
+        executor.shutdown();
+
+        assertThat(claims).isEqualTo(UNITS);
+        assertThat(claimed).hasSize(UNITS);
+        assertThat(inventoryRepository.findFirstInventoryByWarehouseIdAndProductIdAndStatus(warehouse
+                .getIdentity(), "SKU-001", InventoryStatus.RESERVATION_PENDING)).isNull();
+    }
+}
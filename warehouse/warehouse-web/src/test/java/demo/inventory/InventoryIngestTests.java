@@ -0,0 +1,125 @@
+package demo.inventory;
+
+import demo.config.JpaConfig;
+import demo.event.EventSource;
+import demo.inventory.domain.InventoryIngestService;
+import demo.inventory.domain.InventoryIngestion;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.repository.InventoryRepository;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.domain.WarehouseModule;
+import demo.warehouse.domain.WarehouseService;
+import demo.warehouse.event.WarehouseEvent;
+import demo.warehouse.event.WarehouseEventRepository;
+import demo.warehouse.event.WarehouseEventService;
+import demo.warehouse.event.WarehouseEventType;
+import demo.warehouse.repository.WarehouseRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that inventory is ingested from a stream in chunks, with a single warehouse event per chunk.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, JacksonAutoConfiguration.class, InventoryService.class, InventoryIngestService.class,
+        WarehouseService.class, WarehouseModule.class, InventoryIngestTests.Config.class})
+@TestPropertySource(properties = "inventory.ingest.chunk-size=2")
+public class InventoryIngestTests {
+
+    @Autowired
+    private InventoryIngestService inventoryIngestService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private WarehouseEventRepository warehouseEventRepository;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void ingestNewlineDelimitedJsonInChunks() throws Exception {
+        Warehouse warehouse = warehouseRepository.saveAndFlush(new Warehouse());
+
+        InventoryIngestion ingestion = inventoryIngestService.ingest(warehouse.getIdentity(), stream(
+                "{\"productId\":\"SKU-001\",\"quantity\":3}\n{\"productId\":\"SKU-002\",\"quantity\":2}\n"));
+
+        assertThat(ingestion.getUnits()).isEqualTo(5L);
+        assertThat(ingestion.getChunks()).isEqualTo(3);
+        assertThat(inventoryRepository.findAll()).hasSize(5)
+                .extracting("status").containsOnly(InventoryStatus.RESERVATION_PENDING);
+
+        List<WarehouseEvent> events = StreamSupport.stream(warehouseEventRepository.findAll().spliterator(), false)
+                .filter(e -> e.getType() == WarehouseEventType.INVENTORY_ADDED)
+                .collect(Collectors.toList());
+
+        assertThat(events).extracting(WarehouseEvent::getQuantity).containsExactlyInAnyOrder(2L, 2L, 1L);
+    }
+
+    @Test
+    public void ingestJsonArrayOfInventory() throws Exception {
+        Warehouse warehouse = warehouseRepository.saveAndFlush(new Warehouse());
+
+        InventoryIngestion ingestion = inventoryIngestService.ingest(warehouse.getIdentity(), stream(
+                "[{\"productId\":\"SKU-001\",\"status\":\"INVENTORY_CREATED\"},{\"productId\":\"SKU-002\"}]"));
+
+        assertThat(ingestion.getUnits()).isEqualTo(2L);
+        assertThat(ingestion.getChunks()).isEqualTo(1);
+        assertThat(inventoryRepository.findAll()).extracting("productId")
+                .containsExactlyInAnyOrder("SKU-001", "SKU-002");
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        public WarehouseEventService warehouseEventService(WarehouseEventRepository repository) {
+            QueueChannel channel = new QueueChannel();
+            return new WarehouseEventService(repository, new EventSource(channel), new RestTemplate(),
+                    () -> channel);
+        }
+    }
+}
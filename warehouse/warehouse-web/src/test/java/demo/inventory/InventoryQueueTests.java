@@ -0,0 +1,148 @@
+package demo.inventory;
+
+import demo.config.InventoryQueueConfig;
+import demo.config.JpaConfig;
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.queue.InventoryQueue;
+import demo.inventory.queue.InventoryQueueReconciler;
+import demo.inventory.queue.LocalInventoryQueue;
+import demo.inventory.repository.InventoryRepository;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.repository.WarehouseRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that pending inventory is claimed from the local stand-in of the {@link InventoryQueue}, and that the queue
+ * is reconciled with the database.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, InventoryService.class, InventoryQueueConfig.class})
+@TestPropertySource(properties = {"inventory.queue.type=local", "inventory.queue.shards=4",
+        "inventory.queue.reconcile-ms=600000"})
+public class InventoryQueueTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private WarehouseRepository warehouseRepository;
+
+    @Autowired
+    private InventoryQueue inventoryQueue;
+
+    @Autowired
+    private InventoryQueueReconciler inventoryQueueReconciler;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void claimInventoryPopsPendingInventoryFromQueue() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        Inventory first = createInventory(warehouse, InventoryStatus.RESERVATION_PENDING);
+        Inventory second = createInventory(warehouse, InventoryStatus.RESERVATION_PENDING);
+
+        assertThat(inventoryQueue).isInstanceOf(LocalInventoryQueue.class);
+        assertThat(inventoryQueueReconciler.reconcile()).isEqualTo(2);
+        assertThat(inventoryQueue.size(warehouse.getIdentity(), "SKU-001")).isEqualTo(2);
+
+        Inventory claimed = inventoryService.claimInventory(warehouse.getIdentity(), "SKU-001");
+
+        assertThat(claimed.getIdentity()).isIn(first.getIdentity(), second.getIdentity());
+        assertThat(claimed.getStatus()).isEqualTo(InventoryStatus.RESERVATION_CONNECTED);
+        assertThat(inventoryQueue.size(warehouse.getIdentity(), "SKU-001")).isEqualTo(1);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void claimInventorySkipsStaleQueueEntries() {
+        // The candidates are fetched in their own transaction, so the inventory is committed
+        Warehouse warehouse = warehouseRepository.saveAndFlush(new Warehouse());
+
+        try {
+            Inventory pending = createInventory(warehouse, InventoryStatus.RESERVATION_PENDING);
+            Inventory reserved = createInventory(warehouse, InventoryStatus.INVENTORY_RESERVED);
+
+            inventoryQueue.offer(warehouse.getIdentity(), "SKU-001", reserved.getIdentity());
+
+            // The stale entry is dropped and the pending inventory is found in the database
+            assertThat(inventoryService.claimInventory(warehouse.getIdentity(), "SKU-001").getIdentity())
+                    .isEqualTo(pending.getIdentity());
+            assertThat(inventoryQueue.size(warehouse.getIdentity(), "SKU-001")).isEqualTo(0);
+            assertThat(inventoryService.claimInventory(warehouse.getIdentity(), "SKU-001")).isNull();
+        } finally {
+            inventoryRepository.deleteAllInBatch();
+            warehouseRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    public void releasedInventoryIsOfferedToQueue() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        Inventory inventory = createInventory(warehouse, InventoryStatus.INVENTORY_RESERVED);
+
+        inventory.setStatus(InventoryStatus.RESERVATION_PENDING);
+        inventoryService.update(inventory);
+
+        assertThat(inventoryQueue.poll(warehouse.getIdentity(), "SKU-001")).isEqualTo(inventory.getIdentity());
+    }
+
+    @Test
+    public void reconcileRemovesInventoryThatIsNotPending() {
+        LocalInventoryQueue queue = new LocalInventoryQueue(4);
+        queue.offer(1L, "SKU-001", 1L);
+        queue.offer(1L, "SKU-001", 2L);
+
+        assertThat(queue.reconcile(1L, "SKU-001", Arrays.asList(2L, 3L, 4L))).isEqualTo(2);
+        assertThat(queue.size(1L, "SKU-001")).isEqualTo(3);
+
+        Long[] polled = {queue.poll(1L, "SKU-001"), queue.poll(1L, "SKU-001"), queue.poll(1L, "SKU-001")};
+        assertThat(polled).containsExactlyInAnyOrder(2L, 3L, 4L);
+        assertThat(queue.poll(1L, "SKU-001")).isNull();
+    }
+
+    private Inventory createInventory(Warehouse warehouse, InventoryStatus status) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId("SKU-001");
+        inventory.setStatus(status);
+        inventory.setWarehouse(warehouse);
+        return inventoryRepository.saveAndFlush(inventory);
+    }
+}
@@ -0,0 +1,186 @@
+package demo.inventory;
+
+import demo.config.JpaConfig;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStock;
+import demo.inventory.repository.InventoryStockRepository;
+import demo.reservation.domain.Reservation;
+import demo.warehouse.domain.Warehouse;
+import demo.warehouse.index.WarehouseInventoryIndex;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Checks that the counted stock of a warehouse is reserved and released with conditional updates.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, InventoryService.class})
+@TestPropertySource(properties = "inventory.mode=counted")
+public class InventoryStockTests {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryStockRepository inventoryStockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private WarehouseInventoryIndex warehouseInventoryIndex;
+
+    @Test
+    public void addStockCreatesAndIncrementsStock() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+
+        inventoryService.addStock(warehouse.getIdentity(), "SKU-001", 5L);
+        InventoryStock stock = inventoryService.addStock(warehouse.getIdentity(), "SKU-001", 3L);
+
+        assertThat(stock.getAvailable()).isEqualTo(8L);
+        assertThat(stock.getReserved()).isEqualTo(0L);
+        assertThat(inventoryService.getStock(warehouse.getIdentity())).hasSize(1);
+    }
+
+    @Test
+    public void reserveStockFailsWhenStockIsInsufficient() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        inventoryService.addStock(warehouse.getIdentity(), "SKU-001", 5L);
+
+        assertThat(inventoryService.reserveStock(new Reservation("SKU-001", 1L, warehouse, 3))).isTrue();
+        assertThat(inventoryService.reserveStock(new Reservation("SKU-001", 2L, warehouse, 3))).isFalse();
+
+        InventoryStock stock = inventoryService.getStock(warehouse.getIdentity(), "SKU-001");
+        assertThat(stock.getAvailable()).isEqualTo(2L);
+        assertThat(stock.getReserved()).isEqualTo(3L);
+    }
+
+    @Test
+    public void releaseStockReturnsReservedUnits() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        inventoryService.addStock(warehouse.getIdentity(), "SKU-001", 5L);
+
+        Reservation reservation = new Reservation("SKU-001", 1L, warehouse, 4);
+        assertThat(inventoryService.reserveStock(reservation)).isTrue();
+        assertThat(inventoryService.releaseStock(reservation)).isTrue();
+
+        // The units of a reservation are only released once
+        assertThat(inventoryService.releaseStock(reservation)).isFalse();
+
+        InventoryStock stock = inventoryService.getStock(warehouse.getIdentity(), "SKU-001");
+        assertThat(stock.getAvailable()).isEqualTo(5L);
+        assertThat(stock.getReserved()).isEqualTo(0L);
+    }
+
+    @Test
+    public void findWarehousesWithStockMatchesAllProducts() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        inventoryService.addStock(warehouse.getIdentity(), "SKU-001", 1L);
+        inventoryService.addStock(warehouse.getIdentity(), "SKU-002", 1L);
+
+        assertThat(inventoryService.findWarehousesWithStock(quantities("SKU-001", 1L, "SKU-002", 1L)))
+                .containsExactly(warehouse.getIdentity());
+        assertThat(inventoryService.findWarehousesWithStock(quantities("SKU-001", 1L, "SKU-099", 1L))).isEmpty();
+        assertThat(inventoryService.findWarehousesWithStock(Collections.singletonMap("SKU-002", 1L)))
+                .containsExactly(warehouse.getIdentity());
+    }
+
+    @Test
+    public void findWarehousesWithStockComparesRequestedQuantity() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        inventoryService.addStock(warehouse.getIdentity(), "SKU-001", 2L);
+
+        assertThat(inventoryService.findWarehousesWithStock(Collections.singletonMap("SKU-001", 2L)))
+                .containsExactly(warehouse.getIdentity());
+        assertThat(inventoryService.findWarehousesWithStock(Collections.singletonMap("SKU-001", 3L))).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void concurrentAddStockOfANewProductCountsEveryUnit() throws Exception {
+        // Stock entries are keyed by the warehouse id only, so the warehouse does not need to exist
+        Long warehouseId = Long.MAX_VALUE;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<InventoryStock>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++)
+                results.add(executor.submit(() -> inventoryService.addStock(warehouseId, "SKU-NEW", 1L)));
+
+            for (Future<InventoryStock> result : results)
+                result.get();
+
+            assertThat(inventoryService.getStock(warehouseId, "SKU-NEW").getAvailable()).isEqualTo((long) THREADS);
+        } finally {
+            executor.shutdownNow();
+            inventoryStockRepository.deleteAllInBatch();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void indexIsOnlyAdjustedForCommittedStock() {
+        Long warehouseId = Long.MAX_VALUE;
+
+        try {
+            new TransactionTemplate(transactionManager).execute(status -> {
+                inventoryService.addStock(warehouseId, "SKU-ROLLBACK", 5L);
+
+                // The index is not adjusted before the stock is committed
+                verify(warehouseInventoryIndex, never()).adjust(anyLong(), anyString(), anyLong());
+
+                status.setRollbackOnly();
+                return null;
+            });
+
+            verify(warehouseInventoryIndex, never()).adjust(anyLong(), anyString(), anyLong());
+
+            inventoryService.addStock(warehouseId, "SKU-COMMIT", 5L);
+            verify(warehouseInventoryIndex).adjust(warehouseId, "SKU-COMMIT", 5L);
+        } finally {
+            inventoryStockRepository.deleteAllInBatch();
+        }
+    }
+
+    private static Map<String, Long> quantities(String productId, Long quantity, String otherProductId,
+                                                Long otherQuantity) {
+        Map<String, Long> quantities = new HashMap<>();
+        quantities.put(productId, quantity);
+        quantities.put(otherProductId, otherQuantity);
+        return quantities;
+    }
+}
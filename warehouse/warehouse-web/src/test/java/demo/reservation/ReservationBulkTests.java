@@ -0,0 +1,108 @@
+package demo.reservation;
+
+import demo.config.JpaConfig;
+import demo.event.EventSource;
+import demo.reservation.domain.Reservation;
+import demo.reservation.domain.ReservationService;
+import demo.reservation.event.ReservationEvent;
+import demo.reservation.event.ReservationEventRepository;
+import demo.reservation.event.ReservationEventService;
+import demo.reservation.event.ReservationEventType;
+import demo.warehouse.domain.Warehouse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.Link;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.messaging.Message;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that reservations are created and requested in bulk, with their events published as a single message.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, ReservationService.class, ReservationBulkTests.Config.class})
+public class ReservationBulkTests {
+
+    private static final QueueChannel channel = new QueueChannel();
+    private static final QueueChannel batchChannel = new QueueChannel();
+    private static final QueueChannel dataFlowChannel = new QueueChannel();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void requestPublishesCreatedAndRequestedEventsAsOneBatch() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        Link order = new Link("http://order-web/v1/orders/1").withRel("order");
+
+        List<Reservation> reservations = reservationService.request(Arrays.asList(
+                new Reservation("SKU-001", 1L, warehouse),
+                new Reservation("SKU-001", 1L, warehouse),
+                new Reservation("SKU-002", 1L, warehouse)), order);
+
+        assertThat(reservations).extracting(Reservation::getIdentity).doesNotContainNull();
+        assertThat(reservations).extracting(r -> r.getEvents().size()).containsOnly(2);
+
+        Message<?> message = batchChannel.receive(0);
+        assertThat(message).isNotNull();
+        assertThat(batchChannel.receive(0)).isNull();
+        assertThat(channel.receive(0)).isNull();
+
+        List<ReservationEvent> events = (List<ReservationEvent>) message.getPayload();
+        assertThat(events.stream().map(ReservationEvent::getType).collect(Collectors.toList())).containsExactly(
+                ReservationEventType.RESERVATION_CREATED, ReservationEventType.RESERVATION_REQUESTED,
+                ReservationEventType.RESERVATION_CREATED, ReservationEventType.RESERVATION_REQUESTED,
+                ReservationEventType.RESERVATION_CREATED, ReservationEventType.RESERVATION_REQUESTED);
+        assertThat(events.get(1).getLink("order")).isEqualTo(order);
+        assertThat(events.get(0).getLink("order")).isNull();
+
+        // The data flow stream still receives each event on its own
+        assertThat(dataFlowChannel.clear()).hasSize(6);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        public ReservationEventService reservationEventService(ReservationEventRepository repository) {
+            return new ReservationEventService(repository, new EventSource(channel, batchChannel), new RestTemplate(),
+                    () -> dataFlowChannel);
+        }
+    }
+}
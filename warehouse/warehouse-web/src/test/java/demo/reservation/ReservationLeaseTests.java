@@ -0,0 +1,189 @@
+package demo.reservation;
+
+import demo.config.JpaConfig;
+import demo.event.EventSource;
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryModule;
+import demo.inventory.domain.InventoryService;
+import demo.inventory.domain.InventoryStatus;
+import demo.inventory.domain.InventoryStock;
+import demo.inventory.event.InventoryEventRepository;
+import demo.inventory.event.InventoryEventService;
+import demo.reservation.domain.Reservation;
+import demo.reservation.domain.ReservationModule;
+import demo.reservation.domain.ReservationService;
+import demo.reservation.domain.ReservationStatus;
+import demo.reservation.event.ReservationEventRepository;
+import demo.reservation.event.ReservationEventService;
+import demo.reservation.event.ReservationEventType;
+import demo.reservation.lease.LeaseReaping;
+import demo.reservation.lease.ReservationLeaseService;
+import demo.warehouse.domain.Warehouse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that reservations and inventory which are stuck after their lease has expired are released.
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({JpaConfig.class, ReservationService.class, ReservationModule.class, InventoryService.class,
+        InventoryModule.class, ReservationLeaseService.class, ReservationLeaseTests.Config.class})
+public class ReservationLeaseTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationLeaseService reservationLeaseService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Before
+    public void setup() {
+        // Hypermedia links of the entities are built from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void pendingReservationIsLeasedUntilItCompletes() {
+        Reservation reservation = entityManager.persist(new Reservation("SKU-001", 1L,
+                entityManager.persist(new Warehouse())));
+
+        reservation.setStatus(ReservationStatus.RESERVATION_PENDING);
+        reservation = reservationService.update(reservation);
+        assertThat(reservation.getLeaseExpiresAt()).isGreaterThan(System.currentTimeMillis());
+
+        reservation.setStatus(ReservationStatus.RESERVATION_SUCCEEDED);
+        assertThat(reservationService.update(reservation).getLeaseExpiresAt()).isNull();
+    }
+
+    @Test
+    public void reapReleasesExpiredLeases() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        long expired = System.currentTimeMillis() - 1000L;
+
+        Reservation stuck = createReservation(warehouse, expired);
+        Reservation current = createReservation(warehouse, System.currentTimeMillis() + 60000L);
+        Inventory connected = createInventory(warehouse, stuck, null);
+        Inventory orphaned = createInventory(warehouse, null, expired);
+
+        LeaseReaping reaping = reservationLeaseService.reap(10);
+
+        assertThat(reaping.getReservations()).isEqualTo(1);
+        assertThat(reaping.getInventory()).isEqualTo(2);
+
+        entityManager.clear();
+
+        Reservation released = entityManager.find(Reservation.class, stuck.getIdentity());
+        assertThat(released.getStatus()).isEqualTo(ReservationStatus.RESERVATION_FAILED);
+        assertThat(released.getLeaseExpiresAt()).isNull();
+        assertThat(released.getEvents()).extracting("type").containsExactly(ReservationEventType.RESERVATION_FAILED);
+        assertThat(entityManager.find(Reservation.class, current.getIdentity()).getStatus())
+                .isEqualTo(ReservationStatus.RESERVATION_PENDING);
+
+        for (Long id : new Long[]{connected.getIdentity(), orphaned.getIdentity()}) {
+            Inventory inventory = entityManager.find(Inventory.class, id);
+            assertThat(inventory.getStatus()).isEqualTo(InventoryStatus.RESERVATION_PENDING);
+            assertThat(inventory.getReservation()).isNull();
+            assertThat(inventory.getLeaseExpiresAt()).isNull();
+        }
+
+        assertThat(reservationLeaseService.reap(10).getReservations()).isZero();
+    }
+
+    @Test
+    public void reapReturnsStockOfReservationStuckAfterReservingIt() {
+        Warehouse warehouse = entityManager.persist(new Warehouse());
+        InventoryStock stock = entityManager.persistAndFlush(new InventoryStock(warehouse.getIdentity(), "SKU-002",
+                5L));
+
+        Reservation reservation = new Reservation("SKU-002", 1L, warehouse, 3);
+        reservation.setStatus(ReservationStatus.RESERVATION_PENDING);
+        reservation.setLeaseExpiresAt(System.currentTimeMillis() - 1000L);
+        reservation = entityManager.persistAndFlush(reservation);
+
+        // The process stops after the stock is reserved, before the reservation succeeds
+        assertThat(inventoryService.reserveStock(reservation)).isTrue();
+
+        LeaseReaping reaping = reservationLeaseService.reap(10);
+
+        assertThat(reaping.getReservations()).isEqualTo(1);
+        assertThat(reaping.getInventory()).isEqualTo(3);
+
+        entityManager.clear();
+
+        Reservation released = entityManager.find(Reservation.class, reservation.getIdentity());
+        assertThat(released.getStatus()).isEqualTo(ReservationStatus.RESERVATION_FAILED);
+        assertThat(released.isStockReserved()).isFalse();
+
+        InventoryStock returned = entityManager.find(InventoryStock.class, stock.getId());
+        assertThat(returned.getAvailable()).isEqualTo(5L);
+        assertThat(returned.getReserved()).isZero();
+
+        // The units are only returned once
+        assertThat(inventoryService.releaseStock(released)).isFalse();
+    }
+
+    private Reservation createReservation(Warehouse warehouse, Long leaseExpiresAt) {
+        Reservation reservation = new Reservation("SKU-001", 1L, warehouse);
+        reservation.setStatus(ReservationStatus.RESERVATION_PENDING);
+        reservation.setLeaseExpiresAt(leaseExpiresAt);
+        return entityManager.persistAndFlush(reservation);
+    }
+
+    private Inventory createInventory(Warehouse warehouse, Reservation reservation, Long leaseExpiresAt) {
+        Inventory inventory = new Inventory();
+        inventory.setProductId("SKU-001");
+        inventory.setStatus(InventoryStatus.RESERVATION_CONNECTED);
+        inventory.setWarehouse(warehouse);
+        inventory.setReservation(reservation);
+        inventory.setLeaseExpiresAt(leaseExpiresAt);
+        return entityManager.persistAndFlush(inventory);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        public ReservationEventService reservationEventService(ReservationEventRepository repository) {
+            QueueChannel channel = new QueueChannel();
+            return new ReservationEventService(repository, new EventSource(channel), new RestTemplate(),
+                    () -> channel);
+        }
+
+        @Bean
+        public InventoryEventService inventoryEventService(InventoryEventRepository repository) {
+            QueueChannel channel = new QueueChannel();
+            return new InventoryEventService(repository, new EventSource(channel), new RestTemplate(),
+                    () -> channel);
+        }
+    }
+}
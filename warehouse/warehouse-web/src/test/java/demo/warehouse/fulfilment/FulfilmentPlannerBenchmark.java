@@ -0,0 +1,69 @@
+package demo.warehouse.fulfilment;
+
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of planning an order of 50 line items across 500 warehouses that each stock a random tenth
+ * of the products of the order. Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FulfilmentPlannerBenchmark {
+
+    @Param({"50"})
+    private int lineItems;
+
+    @Param({"500"})
+    private int warehouses;
+
+    private final FulfilmentPlanner planner = new FulfilmentPlanner();
+    private Order order;
+    private Map<Long, Map<String, Long>> availability;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        order = new Order();
+
+        for (int i = 0; i < lineItems; i++)
+            order.getLineItems().add(new LineItem("Item", "SKU-" + i, 1 + random.nextInt(3), 1.0, 0.0));
+
+        availability = new HashMap<>();
+
+        for (long warehouseId = 1; warehouseId <= warehouses; warehouseId++) {
+            Map<String, Long> stock = new HashMap<>();
+
+            for (int i = 0; i < lineItems; i++) {
+                if (random.nextInt(10) == 0)
+                    stock.put("SKU-" + i, (long) random.nextInt(10));
+            }
+
+            availability.put(warehouseId, stock);
+        }
+    }
+
+    @Benchmark
+    public FulfilmentPlan plan() {
+        return planner.plan(order, availability);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FulfilmentPlannerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
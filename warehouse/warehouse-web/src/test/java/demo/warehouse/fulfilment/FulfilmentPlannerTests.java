@@ -0,0 +1,86 @@
+package demo.warehouse.fulfilment;
+
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the {@link FulfilmentPlanner} splits an order across the fewest warehouses.
+ */
+public class FulfilmentPlannerTests {
+
+    private final FulfilmentPlanner planner = new FulfilmentPlanner();
+
+    @Test
+    public void planUsesSingleWarehouseWhenOneHasEverything() {
+        Map<Long, Map<String, Long>> availability = new HashMap<>();
+        stock(availability, 1L, "SKU-001", 5L);
+        stock(availability, 2L, "SKU-001", 5L);
+        stock(availability, 2L, "SKU-002", 5L);
+
+        FulfilmentPlan plan = planner.plan(order(item("SKU-001", 2), item("SKU-002", 1)), availability);
+
+        assertThat(plan.getShipments()).hasSize(1);
+        assertThat(plan.getShipments().get(0).getWarehouseId()).isEqualTo(2L);
+        assertThat(plan.getUnfulfilled()).isEmpty();
+    }
+
+    @Test
+    public void planSplitsOrderAcrossFewestWarehouses() {
+        Map<Long, Map<String, Long>> availability = new HashMap<>();
+        stock(availability, 1L, "SKU-001", 1L);
+        stock(availability, 2L, "SKU-002", 1L);
+        stock(availability, 3L, "SKU-002", 1L);
+        stock(availability, 3L, "SKU-003", 1L);
+        stock(availability, 4L, "SKU-001", 1L);
+        stock(availability, 4L, "SKU-004", 1L);
+
+        FulfilmentPlan plan = planner.plan(order(item("SKU-001", 1), item("SKU-002", 1), item("SKU-003", 1),
+                item("SKU-004", 1)), availability);
+
+        assertThat(plan.getShipments()).extracting(FulfilmentPlan.Shipment::getWarehouseId)
+                .containsExactlyInAnyOrder(3L, 4L);
+        assertThat(plan.getShipments().stream()
+                .flatMap(shipment -> shipment.getLineItems().stream())
+                .map(LineItem::getProductId)
+                .collect(Collectors.toList())).containsExactlyInAnyOrder("SKU-001", "SKU-002", "SKU-003", "SKU-004");
+        assertThat(plan.getUnfulfilled()).isEmpty();
+    }
+
+    @Test
+    public void planReportsLineItemsWithoutEnoughStock() {
+        Map<Long, Map<String, Long>> availability = new HashMap<>();
+        stock(availability, 1L, "SKU-001", 1L);
+        stock(availability, 2L, "SKU-001", 1L);
+        stock(availability, 2L, "SKU-002", 1L);
+
+        FulfilmentPlan plan = planner.plan(order(item("SKU-001", 2), item("SKU-002", 1)), availability);
+
+        assertThat(plan.getShipments()).hasSize(1);
+        assertThat(plan.getUnfulfilled()).extracting(LineItem::getProductId).containsExactly("SKU-001");
+    }
+
+    private static void stock(Map<Long, Map<String, Long>> availability, Long warehouseId, String productId,
+            Long available) {
+        availability.computeIfAbsent(warehouseId, key -> new HashMap<>()).put(productId, available);
+    }
+
+    private static Order order(LineItem... items) {
+        Order order = new Order();
+
+        for (LineItem item : items)
+            order.getLineItems().add(item);
+
+        return order;
+    }
+
+    private static LineItem item(String productId, int quantity) {
+        return new LineItem("Item", productId, quantity, 1.0, 0.0);
+    }
+}
@@ -0,0 +1,96 @@
+package demo.warehouse.index;
+
+import demo.inventory.domain.InventoryMode;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the warehouses for an order in the {@link WarehouseInventoryIndex} with scanning the stock of
+ * every warehouse, for 100 warehouses that each stock a random half of 10,000 products. Run the main method from the
+ * test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseInventoryIndexBenchmark {
+
+    private static final int WAREHOUSES = 100;
+    private static final int PRODUCTS = 10000;
+
+    @Param({"1", "5", "20"})
+    private int lineItems;
+
+    private WarehouseInventoryIndex index;
+    private List<Order> orders;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new WarehouseInventoryIndex(null, null, InventoryMode.UNIT, new MostStockRanking(), 60000L);
+
+        for (long warehouseId = 1; warehouseId <= WAREHOUSES; warehouseId++) {
+            for (int product = 0; product < PRODUCTS; product++) {
+                if (random.nextBoolean())
+                    index.adjust(warehouseId, "SKU-" + product, random.nextInt(20));
+            }
+        }
+
+        orders = new ArrayList<>();
+
+        for (int i = 0; i < 1024; i++) {
+            Order order = new Order();
+
+            for (int j = 0; j < lineItems; j++) {
+                order.getLineItems().add(new LineItem("Item", "SKU-" + random.nextInt(PRODUCTS), 1 + random
+                        .nextInt(3), 1.0, 0.0));
+            }
+
+            orders.add(order);
+        }
+    }
+
+    @Benchmark
+    public List<Long> indexLookup() {
+        return index.findWarehouses(nextOrder());
+    }
+
+    @Benchmark
+    public List<Long> warehouseScan() {
+        Order order = nextOrder();
+        List<Long> warehouseIds = new ArrayList<>();
+
+        // Check every line item against every warehouse, as the inventory query does
+        for (long warehouseId = 1; warehouseId <= WAREHOUSES; warehouseId++) {
+            long id = warehouseId;
+
+            if (order.getLineItems().stream()
+                    .allMatch(item -> index.getAvailable(id, item.getProductId()) >= item.getQuantity()))
+                warehouseIds.add(warehouseId);
+        }
+
+        return new MostStockRanking().rank(warehouseIds, order, index);
+    }
+
+    private Order nextOrder() {
+        return orders.get(next++ & 1023);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WarehouseInventoryIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package demo.warehouse.index;
+
+import demo.inventory.domain.Inventory;
+import demo.inventory.domain.InventoryMode;
+import demo.inventory.event.InventoryEvent;
+import demo.inventory.event.InventoryEventType;
+import demo.order.domain.LineItem;
+import demo.order.domain.Order;
+import demo.warehouse.domain.Warehouse;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the {@link WarehouseInventoryIndex} finds the warehouses that have enough units of every line item,
+ * and that it follows the {@link InventoryEvent}s of the inventory.
+ */
+public class WarehouseInventoryIndexTests {
+
+    private WarehouseInventoryIndex index;
+
+    @Before
+    public void setup() {
+        index = new WarehouseInventoryIndex(null, null, InventoryMode.UNIT, new MostStockRanking(), 60000L);
+        index.adjust(1L, "SKU-001", 2L);
+        index.adjust(1L, "SKU-002", 1L);
+        index.adjust(2L, "SKU-001", 5L);
+        index.adjust(2L, "SKU-002", 3L);
+        index.adjust(3L, "SKU-001", 10L);
+    }
+
+    @Test
+    public void findWarehousesRanksByMostStock() {
+        assertThat(index.findWarehouses(order(item("SKU-001", 1), item("SKU-002", 1)))).containsExactly(2L, 1L);
+        assertThat(index.findWarehouses(order(item("SKU-001", 1)))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    public void findWarehousesRequiresQuantityOfEveryLineItem() {
+        assertThat(index.findWarehouses(order(item("SKU-001", 3), item("SKU-002", 1)))).containsExactly(2L);
+        assertThat(index.findWarehouses(order(item("SKU-001", 3), item("SKU-002", 4)))).isEmpty();
+        assertThat(index.findWarehouses(order(item("SKU-001", 1), item("SKU-099", 1)))).isEmpty();
+    }
+
+    @Test
+    public void applyFollowsInventoryEvents() {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setIdentity(4L);
+
+        Inventory inventory = new Inventory();
+        inventory.setProductId("SKU-002");
+        inventory.setWarehouse(warehouse);
+
+        index.apply(new InventoryEvent(InventoryEventType.INVENTORY_CREATED, inventory));
+        assertThat(index.findWarehouses(Collections.singletonMap("SKU-002", 1L))).contains(4L);
+
+        index.apply(new InventoryEvent(InventoryEventType.RESERVATION_CONNECTED, inventory));
+        assertThat(index.getAvailable(4L, "SKU-002")).isEqualTo(0L);
+        assertThat(index.findWarehouses(Collections.singletonMap("SKU-002", 1L))).doesNotContain(4L);
+
+        index.apply(new InventoryEvent(InventoryEventType.INVENTORY_RELEASED, inventory));
+        assertThat(index.getAvailable(4L, "SKU-002")).isEqualTo(1L);
+    }
+
+    private static Order order(LineItem... items) {
+        Order order = new Order();
+        Collections.addAll(order.getLineItems(), items);
+        return order;
+    }
+
+    private static LineItem item(String productId, int quantity) {
+        LineItem item = new LineItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -1,21 +1,21 @@
 package demo.inventory;
 
+import demo.domain.EventDigest;
+import demo.hypermedia.HypermediaClient;
 import demo.inventory.domain.Inventory;
 import demo.inventory.domain.InventoryStatus;
 import demo.inventory.event.InventoryEvent;
 import demo.inventory.event.InventoryEventType;
 import demo.inventory.event.InventoryEvents;
+import demo.state.ReplayMetrics;
 import org.apache.log4j.Logger;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
-import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,22 +24,40 @@ public class InventoryStateFactory {
 
     final private Logger log = Logger.getLogger(InventoryStateFactory.class);
     final private InventoryStateService stateService;
+    final private HypermediaClient hypermediaClient;
+    final private ReplayMetrics<InventoryEventType> replayMetrics;
 
-    public InventoryStateFactory(InventoryStateService stateService) {
+    public InventoryStateFactory(InventoryStateService stateService, HypermediaClient hypermediaClient,
+                                 ReplayMetrics<InventoryEventType> replayMetrics) {
         this.stateService = stateService;
+        this.hypermediaClient = hypermediaClient;
+        this.replayMetrics = replayMetrics;
     }
 
     public Inventory apply(InventoryEvent inventoryEvent) {
         Assert.notNull(inventoryEvent, "Cannot apply a null event");
         Assert.notNull(inventoryEvent.getId(), "The event payload's identity link was not found");
 
-        StateMachine<InventoryStatus, InventoryEventType> stateMachine = getStateMachine(inventoryEvent);
-        stateMachine.stop();
+        ReplayMetrics.Replay replay = replayMetrics.begin(inventoryEvent.getType());
+        StateMachine<InventoryStatus, InventoryEventType> stateMachine;
 
-        return stateMachine.getExtendedState().get("inventory", Inventory.class);
+        try {
+            stateMachine = getStateMachine(inventoryEvent, replay);
+        } catch (RuntimeException ex) {
+            replay.fail();
+            throw ex;
+        }
+
+        try {
+            return stateMachine.getExtendedState().get("inventory", Inventory.class);
+        } finally {
+            // Return the state machine to the pool
+            stateService.release(stateMachine);
+        }
     }
 
-    private StateMachine<InventoryStatus, InventoryEventType> getStateMachine(InventoryEvent inventoryEvent) {
+    private StateMachine<InventoryStatus, InventoryEventType> getStateMachine(InventoryEvent inventoryEvent,
+            ReplayMetrics.Replay replay) {
         Link eventId = inventoryEvent.getId();
         log.info(String.format("Inventory event received: %s", eventId));
 
@@ -47,15 +65,31 @@ public class InventoryStateFactory {
         Map<String, Object> contextMap;
         InventoryEvents eventLog;
 
-        eventLog = getEventLog(inventoryEvent);
+        eventLog = getEventLog(inventoryEvent, replay);
         contextMap = getEventHeaders(inventoryEvent);
         stateMachine = stateService.newStateMachine();
 
-        // Replicate the aggregate state
-        eventLog.getContent().stream()
-                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
-                .forEach(e -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), e.getId()
-                        .equals(eventId) ? new MessageHeaders(contextMap) : new MessageHeaders(null))));
+        try {
+            // Replicate the aggregate state
+            eventLog.getContent().stream()
+                    .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
+                    .forEach(e -> {
+                        if (e.getId().equals(eventId)) {
+                            // Apply the current event, which runs the action of its transition
+                            replay.action(() -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                    new MessageHeaders(contextMap))));
+                        } else {
+                            stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                    new MessageHeaders(null)));
+                        }
+                    });
+
+            replay.complete(inventoryEvent.getLink("inventory").getHref(), eventLog.getContent().size());
+        } catch (RuntimeException ex) {
+            // Return the state machine to the pool, since it never reaches the caller
+            stateService.release(stateMachine);
+            throw ex;
+        }
 
         return stateMachine;
     }
@@ -66,17 +100,16 @@ public class InventoryStateFactory {
         return headerMap;
     }
 
-    private InventoryEvents getEventLog(InventoryEvent event) {
-        // Follow the hypermedia link to fetch the attached inventory
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("inventory")
-                        .getHref()),
-                MediaTypes.HAL_JSON
-        );
+    private InventoryEvents getEventLog(InventoryEvent event, ReplayMetrics.Replay replay) {
+        EventDigest<InventoryEventType> digest = event.getDigest();
+
+        // Replicate from the event log embedded in the message when it has no gaps
+        if (digest != null && digest.isComplete() && digest.contains(event.getId()))
+            return new InventoryEvents(digest.toEvents(event.getId(), InventoryEvent::new,
+                    InventoryEvent::setCreatedAt));
 
         // Get the event log for the attached inventory resource
-        return traverson.follow("events")
-                .toEntity(InventoryEvents.class)
-                .getBody();
+        return replay.fetch(() -> hypermediaClient.follow(event.getLink("inventory").getHref(),
+                InventoryEvents.class, "events"));
     }
 }
@@ -5,14 +5,12 @@ import demo.inventory.domain.InventoryStatus;
 import demo.inventory.event.InventoryEvent;
 import demo.inventory.event.InventoryEventType;
 import demo.inventory.event.InventoryEvents;
+import demo.state.StateMachinePool;
 import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 /**
- * The {@link InventoryStateService} provides factory access to get new state machines for
+ * The {@link InventoryStateService} provides pooled access to state machines for
  * replicating the state of an {@link Inventory} from {@link InventoryEvents}.
  *
  * @author kbastani
@@ -20,26 +18,28 @@ import java.util.UUID;
 @Service
 public class InventoryStateService {
 
-    private final StateMachineFactory<InventoryStatus, InventoryEventType> factory;
+    private final StateMachinePool<InventoryStatus, InventoryEventType> stateMachinePool;
 
-    public InventoryStateService(StateMachineFactory<InventoryStatus, InventoryEventType> inventoryStateMachineFactory) {
-        this.factory = inventoryStateMachineFactory;
+    public InventoryStateService(StateMachinePool<InventoryStatus, InventoryEventType> inventoryStateMachinePool) {
+        this.stateMachinePool = inventoryStateMachinePool;
     }
 
     /**
-     * Create a new state machine that is initially configured and ready for replicating
+     * Acquire a state machine that is initially configured and ready for replicating
      * the state of an {@link Inventory} from a sequence of {@link InventoryEvent}.
      *
-     * @return a new instance of {@link StateMachine}
+     * @return a started instance of {@link StateMachine}
      */
     public StateMachine<InventoryStatus, InventoryEventType> newStateMachine() {
-        // Create a new state machine in its initial state
-        StateMachine<InventoryStatus, InventoryEventType> stateMachine =
-                factory.getStateMachine(UUID.randomUUID().toString());
-
-        // Start the new state machine
-        stateMachine.start();
+        return stateMachinePool.acquire();
+    }
 
-        return stateMachine;
+    /**
+     * Release a state machine after replication has completed, so that it can be reused.
+     *
+     * @param stateMachine is the {@link StateMachine} to release
+     */
+    public void release(StateMachine<InventoryStatus, InventoryEventType> stateMachine) {
+        stateMachinePool.release(stateMachine);
     }
 }
@@ -7,20 +7,22 @@ import demo.inventory.event.InventoryEventProcessor;
 import demo.inventory.event.InventoryEventType;
 import demo.inventory.event.InventoryEvents;
 import demo.inventory.function.*;
+import demo.hypermedia.HypermediaClient;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 
-import java.net.URI;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -42,6 +44,37 @@ public class InventoryStateMachineConfig extends EnumStateMachineConfigurerAdapt
         InventoryEventType> {
 
     final private Logger log = Logger.getLogger(InventoryStateMachineConfig.class);
+    final private HypermediaClient hypermediaClient;
+
+    public InventoryStateMachineConfig(HypermediaClient hypermediaClient) {
+        this.hypermediaClient = hypermediaClient;
+    }
+
+    /**
+     * Creates a bounded pool of pre-built state machines that are reused for each replicated {@link InventoryEvent}.
+     *
+     * @param inventoryStateMachineFactory is the factory used to build the state machines of the pool
+     * @param poolSize is the number of pre-built state machines
+     * @return the {@link StateMachinePool} for {@link Inventory} state machines
+     */
+    @Bean
+    public StateMachinePool<InventoryStatus, InventoryEventType> inventoryStateMachinePool(
+            StateMachineFactory<InventoryStatus, InventoryEventType> inventoryStateMachineFactory,
+            @Value("${statemachine.pool.size:20}") int poolSize) {
+        return new StateMachinePool<>("inventory", inventoryStateMachineFactory, poolSize);
+    }
+
+    /**
+     * Creates the metrics of the replication of {@link Inventory} aggregates from their event logs.
+     *
+     * @param logLengthThreshold is the length of an event log above which a warning is logged
+     * @return the {@link ReplayMetrics} for {@link Inventory} aggregates
+     */
+    @Bean
+    public ReplayMetrics<InventoryEventType> inventoryReplayMetrics(
+            @Value("${replay.log-length.warn-threshold:500}") int logLengthThreshold) {
+        return new ReplayMetrics<>("inventory", logLengthThreshold);
+    }
 
     /**
      * Configures the initial conditions of a new in-memory {@link StateMachine} for {@link Inventory}.
@@ -131,18 +164,12 @@ public class InventoryStateMachineConfig extends EnumStateMachineConfigurerAdapt
         return context -> applyEvent(context,
                 new InventoryCreated(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("inventory").getHref());
-                    // Get the inventory resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("inventory").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
                     Map<String, Object> template = new HashMap<>();
                     template.put("status", InventoryStatus.RESERVATION_PENDING);
 
-                    return traverson.follow("self", "commands", "updateInventoryStatus")
-                            .withTemplateParameters(template)
-                            .toObject(Inventory.class);
+                    // Update the status of the inventory resource for the event
+                    return hypermediaClient.follow(event.getLink("inventory").getHref(), Inventory.class, template,
+                            "commands", "updateInventoryStatus");
                 }));
     }
 
@@ -152,14 +179,7 @@ public class InventoryStateMachineConfig extends EnumStateMachineConfigurerAdapt
                 new ReservationConnected(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("inventory").getHref());
                     // Get the inventory resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("inventory").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Inventory.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("inventory").getHref(), Inventory.class);
                 }));
     }
 
@@ -169,14 +189,7 @@ public class InventoryStateMachineConfig extends EnumStateMachineConfigurerAdapt
                 new InventoryReserved(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("inventory").getHref());
                     // Get the inventory resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("inventory").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Inventory.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("inventory").getHref(), Inventory.class);
                 }));
     }
 
@@ -186,14 +199,7 @@ public class InventoryStateMachineConfig extends EnumStateMachineConfigurerAdapt
                 new InventoryReleased(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("inventory").getHref());
                     // Get the inventory resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("inventory").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Inventory.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("inventory").getHref(), Inventory.class);
                 }));
     }
 }
@@ -1,6 +1,7 @@
 package demo.inventory.event;
 
 import demo.domain.AbstractEntity;
+import demo.domain.EventDigest;
 import demo.inventory.domain.Inventory;
 
 /**
@@ -12,6 +13,7 @@ import demo.inventory.domain.Inventory;
 public class InventoryEvent extends AbstractEntity {
 
     private InventoryEventType type;
+    private EventDigest<InventoryEventType> digest;
 
     public InventoryEvent() {
     }
@@ -28,6 +30,14 @@ public class InventoryEvent extends AbstractEntity {
         this.type = type;
     }
 
+    public EventDigest<InventoryEventType> getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest<InventoryEventType> digest) {
+        this.digest = digest;
+    }
+
     @Override
     public String toString() {
         return "InventoryEvent{" +
@@ -1,7 +1,14 @@
 package demo.inventory.event;
 
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resources;
 
 public class InventoryEvents extends Resources<InventoryEvent> {
 
+    public InventoryEvents() {
+    }
+
+    public InventoryEvents(Iterable<InventoryEvent> content, Link... links) {
+        super(content, links);
+    }
 }
@@ -1,21 +1,21 @@
 package demo.reservation;
 
+import demo.domain.EventDigest;
+import demo.hypermedia.HypermediaClient;
 import demo.reservation.domain.Reservation;
 import demo.reservation.domain.ReservationStatus;
 import demo.reservation.event.ReservationEvent;
 import demo.reservation.event.ReservationEventType;
 import demo.reservation.event.ReservationEvents;
+import demo.state.ReplayMetrics;
 import org.apache.log4j.Logger;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
-import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,22 +24,40 @@ public class ReservationStateFactory {
 
     final private Logger log = Logger.getLogger(ReservationStateFactory.class);
     final private ReservationStateService stateService;
+    final private HypermediaClient hypermediaClient;
+    final private ReplayMetrics<ReservationEventType> replayMetrics;
 
-    public ReservationStateFactory(ReservationStateService stateService) {
+    public ReservationStateFactory(ReservationStateService stateService, HypermediaClient hypermediaClient,
+                                   ReplayMetrics<ReservationEventType> replayMetrics) {
         this.stateService = stateService;
+        this.hypermediaClient = hypermediaClient;
+        this.replayMetrics = replayMetrics;
     }
 
     public Reservation apply(ReservationEvent reservationEvent) {
         Assert.notNull(reservationEvent, "Cannot apply a null event");
         Assert.notNull(reservationEvent.getId(), "The event payload's identity link was not found");
 
-        StateMachine<ReservationStatus, ReservationEventType> stateMachine = getStateMachine(reservationEvent);
-        stateMachine.stop();
+        ReplayMetrics.Replay replay = replayMetrics.begin(reservationEvent.getType());
+        StateMachine<ReservationStatus, ReservationEventType> stateMachine;
 
-        return stateMachine.getExtendedState().get("reservation", Reservation.class);
+        try {
+            stateMachine = getStateMachine(reservationEvent, replay);
+        } catch (RuntimeException ex) {
+            replay.fail();
+            throw ex;
+        }
+
+        try {
+            return stateMachine.getExtendedState().get("reservation", Reservation.class);
+        } finally {
+            // Return the state machine to the pool
+            stateService.release(stateMachine);
+        }
     }
 
-    private StateMachine<ReservationStatus, ReservationEventType> getStateMachine(ReservationEvent reservationEvent) {
+    private StateMachine<ReservationStatus, ReservationEventType> getStateMachine(ReservationEvent reservationEvent,
+            ReplayMetrics.Replay replay) {
         Link eventId = reservationEvent.getId();
         log.info(String.format("Reservation event received: %s", eventId));
 
@@ -47,15 +65,31 @@ public class ReservationStateFactory {
         Map<String, Object> contextMap;
         ReservationEvents eventLog;
 
-        eventLog = getEventLog(reservationEvent);
+        eventLog = getEventLog(reservationEvent, replay);
         contextMap = getEventHeaders(reservationEvent);
         stateMachine = stateService.newStateMachine();
 
-        // Replicate the aggregate state
-        eventLog.getContent().stream()
-                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
-                .forEach(e -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), e.getId()
-                        .equals(eventId) ? new MessageHeaders(contextMap) : new MessageHeaders(null))));
+        try {
+            // Replicate the aggregate state
+            eventLog.getContent().stream()
+                    .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
+                    .forEach(e -> {
+                        if (e.getId().equals(eventId)) {
+                            // Apply the current event, which runs the action of its transition
+                            replay.action(() -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                    new MessageHeaders(contextMap))));
+                        } else {
+                            stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                    new MessageHeaders(null)));
+                        }
+                    });
+
+            replay.complete(reservationEvent.getLink("reservation").getHref(), eventLog.getContent().size());
+        } catch (RuntimeException ex) {
+            // Return the state machine to the pool, since it never reaches the caller
+            stateService.release(stateMachine);
+            throw ex;
+        }
 
         return stateMachine;
     }
@@ -66,17 +100,16 @@ public class ReservationStateFactory {
         return headerMap;
     }
 
-    private ReservationEvents getEventLog(ReservationEvent event) {
-        // Follow the hypermedia link to fetch the attached reservation
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("reservation")
-                        .getHref()),
-                MediaTypes.HAL_JSON
-        );
+    private ReservationEvents getEventLog(ReservationEvent event, ReplayMetrics.Replay replay) {
+        EventDigest<ReservationEventType> digest = event.getDigest();
+
+        // Replicate from the event log embedded in the message when it has no gaps
+        if (digest != null && digest.isComplete() && digest.contains(event.getId()))
+            return new ReservationEvents(digest.toEvents(event.getId(), ReservationEvent::new,
+                    ReservationEvent::setCreatedAt));
 
         // Get the event log for the attached reservation resource
-        return traverson.follow("events")
-                .toEntity(ReservationEvents.class)
-                .getBody();
+        return replay.fetch(() -> hypermediaClient.follow(event.getLink("reservation").getHref(),
+                ReservationEvents.class, "events"));
     }
 }
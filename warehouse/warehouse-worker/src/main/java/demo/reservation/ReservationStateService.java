@@ -5,14 +5,12 @@ import demo.reservation.domain.ReservationStatus;
 import demo.reservation.event.ReservationEvent;
 import demo.reservation.event.ReservationEventType;
 import demo.reservation.event.ReservationEvents;
+import demo.state.StateMachinePool;
 import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 /**
- * The {@link ReservationStateService} provides factory access to get new state machines for
+ * The {@link ReservationStateService} provides pooled access to state machines for
  * replicating the state of an {@link Reservation} from {@link ReservationEvents}.
  *
  * @author kbastani
@@ -20,26 +18,28 @@ import java.util.UUID;
 @Service
 public class ReservationStateService {
 
-    private final StateMachineFactory<ReservationStatus, ReservationEventType> factory;
+    private final StateMachinePool<ReservationStatus, ReservationEventType> stateMachinePool;
 
-    public ReservationStateService(StateMachineFactory<ReservationStatus, ReservationEventType> reservationStateMachineFactory) {
-        this.factory = reservationStateMachineFactory;
+    public ReservationStateService(StateMachinePool<ReservationStatus, ReservationEventType> reservationStateMachinePool) {
+        this.stateMachinePool = reservationStateMachinePool;
     }
 
     /**
-     * Create a new state machine that is initially configured and ready for replicating
+     * Acquire a state machine that is initially configured and ready for replicating
      * the state of an {@link Reservation} from a sequence of {@link ReservationEvent}.
      *
-     * @return a new instance of {@link StateMachine}
+     * @return a started instance of {@link StateMachine}
      */
     public StateMachine<ReservationStatus, ReservationEventType> newStateMachine() {
-        // Create a new state machine in its initial state
-        StateMachine<ReservationStatus, ReservationEventType> stateMachine =
-                factory.getStateMachine(UUID.randomUUID().toString());
-
-        // Start the new state machine
-        stateMachine.start();
+        return stateMachinePool.acquire();
+    }
 
-        return stateMachine;
+    /**
+     * Release a state machine after replication has completed, so that it can be reused.
+     *
+     * @param stateMachine is the {@link StateMachine} to release
+     */
+    public void release(StateMachine<ReservationStatus, ReservationEventType> stateMachine) {
+        stateMachinePool.release(stateMachine);
     }
 }
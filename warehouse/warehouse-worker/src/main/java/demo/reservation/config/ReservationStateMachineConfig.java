@@ -8,20 +8,22 @@ import demo.reservation.event.ReservationEventProcessor;
 import demo.reservation.event.ReservationEventType;
 import demo.reservation.event.ReservationEvents;
 import demo.reservation.function.*;
+import demo.hypermedia.HypermediaClient;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 
-import java.net.URI;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -47,6 +49,37 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
         ReservationEventType> {
 
     final private Logger log = Logger.getLogger(ReservationStateMachineConfig.class);
+    final private HypermediaClient hypermediaClient;
+
+    public ReservationStateMachineConfig(HypermediaClient hypermediaClient) {
+        this.hypermediaClient = hypermediaClient;
+    }
+
+    /**
+     * Creates a bounded pool of pre-built state machines that are reused for each replicated {@link ReservationEvent}.
+     *
+     * @param reservationStateMachineFactory is the factory used to build the state machines of the pool
+     * @param poolSize is the number of pre-built state machines
+     * @return the {@link StateMachinePool} for {@link Reservation} state machines
+     */
+    @Bean
+    public StateMachinePool<ReservationStatus, ReservationEventType> reservationStateMachinePool(
+            StateMachineFactory<ReservationStatus, ReservationEventType> reservationStateMachineFactory,
+            @Value("${statemachine.pool.size:20}") int poolSize) {
+        return new StateMachinePool<>("reservation", reservationStateMachineFactory, poolSize);
+    }
+
+    /**
+     * Creates the metrics of the replication of {@link Reservation} aggregates from their event logs.
+     *
+     * @param logLengthThreshold is the length of an event log above which a warning is logged
+     * @return the {@link ReplayMetrics} for {@link Reservation} aggregates
+     */
+    @Bean
+    public ReplayMetrics<ReservationEventType> reservationReplayMetrics(
+            @Value("${replay.log-length.warn-threshold:500}") int logLengthThreshold) {
+        return new ReplayMetrics<>("reservation", logLengthThreshold);
+    }
 
     /**
      * Configures the initial conditions of a new in-memory {@link StateMachine} for {@link Reservation}.
@@ -150,14 +183,7 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
                 new ReservationCreated(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("reservation").getHref());
                     // Get the reservation resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("reservation").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Reservation.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("reservation").getHref(), Reservation.class);
                 }));
     }
 
@@ -166,35 +192,24 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
         return context -> applyEvent(context,
                 new ReservationRequested(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("reservation").getHref());
-                    // Get the reservation resource for the event
-                    Traverson orderResource = new Traverson(
-                            URI.create(event.getLink("order").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    Traverson reservationResource = new Traverson(
-                            URI.create(event.getLink("reservation").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
+                    String reservationHref = event.getLink("reservation").getHref();
 
-                    Reservation reservation = reservationResource.follow("self")
-                            .toObject(Reservation.class);
+                    // Get the reservation resource for the event
+                    Reservation reservation = hypermediaClient.get(reservationHref, Reservation.class);
 
                     Map<String, Object> template = new HashMap<>();
                     template.put("reservationId", reservation.getIdentity());
 
                     // Connect order to reservation
-                    Order order = orderResource.follow("self", "commands", "addReservation")
-                            .withTemplateParameters(template)
-                            .toObject(Order.class);
+                    Order order = hypermediaClient.follow(event.getLink("order").getHref(), Order.class, template,
+                            "commands", "addReservation");
 
                     template = new HashMap<>();
                     template.put("orderId", order.getIdentity());
 
                     // Connect reservation to order
-                    reservation = reservationResource.follow("commands", "connectOrder")
-                            .withTemplateParameters(template)
-                            .toObject(Reservation.class);
+                    reservation = hypermediaClient.follow(reservationHref, Reservation.class, template, "commands",
+                            "connectOrder");
 
                     return reservation;
                 }));
@@ -205,15 +220,9 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
         return context -> applyEvent(context,
                 new OrderConnected(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("reservation").getHref());
-                    // Get the reservation resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("reservation").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
                     // Connect inventory to reservation
-                    return traverson.follow("self", "commands", "connectInventory")
-                            .toObject(Reservation.class);
+                    return hypermediaClient.follow(event.getLink("reservation").getHref(), Reservation.class,
+                            "commands", "connectInventory");
                 }));
     }
 
@@ -223,14 +232,7 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
                 new InventoryConnected(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("reservation").getHref());
                     // Get the reservation resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("reservation").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Reservation.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("reservation").getHref(), Reservation.class);
                 }));
     }
 
@@ -239,29 +241,22 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
         return context -> applyEvent(context,
                 new ReservationSucceeded(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("reservation").getHref());
+                    String reservationHref = event.getLink("reservation").getHref();
 
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("reservation").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    Order order = traverson.follow("self", "order").toObject(Order.class);
-                    Reservation reservation = null;
+                    Order order = hypermediaClient.follow(reservationHref, Order.class, "order");
+                    Reservation reservation = hypermediaClient.get(reservationHref, Reservation.class);
 
                     // Check order status and release inventory if it has failed
                     if (order.getStatus() == RESERVATION_FAILED || order.getStatus() == ORDER_FAILED) {
-                        reservation = traverson.follow("self", "commands", "releaseInventory")
-                                .toObject(Reservation.class);
+                        reservation = hypermediaClient.follow(reservationHref, Reservation.class, "commands",
+                                "releaseInventory");
                     } else if (order.getStatus() == RESERVATION_PENDING) {
-                        traverson.follow("self", "order", "commands", "completeReservation")
-                                .toObject(Order.class);
+                        // Count the reservation towards the order, which completes once all units are reserved
+                        hypermediaClient.follow(order.getId().getHref(), Order.class,
+                                getCompletion(reservation, ReservationStatus.RESERVATION_SUCCEEDED), "commands",
+                                "completeReservation");
                     }
 
-                    if (reservation == null)
-                        reservation = traverson.follow("self")
-                                .toEntity(Reservation.class)
-                                .getBody();
-
                     return reservation;
                 }));
     }
@@ -271,25 +266,40 @@ public class ReservationStateMachineConfig extends EnumStateMachineConfigurerAda
         return context -> applyEvent(context,
                 new ReservationFailed(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("reservation").getHref());
-
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("reservation").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
+                    String reservationHref = event.getLink("reservation").getHref();
 
                     // Get the attached order
-                    Order order = traverson.follow("self", "order").toObject(Order.class);
+                    Order order = hypermediaClient.follow(reservationHref, Order.class, "order");
+
+                    Reservation reservation = hypermediaClient.get(reservationHref, Reservation.class);
 
                     // Complete the reservation if the status is still pending
                     if (order.getStatus() == RESERVATION_PENDING) {
-                        traverson.follow("self", "order", "commands", "completeReservation")
-                                .toObject(Order.class);
+                        hypermediaClient.follow(order.getId().getHref(), Order.class,
+                                getCompletion(reservation, ReservationStatus.RESERVATION_FAILED), "commands",
+                                "completeReservation");
                     }
 
-                    return traverson.follow("self")
-                            .toEntity(Reservation.class)
-                            .getBody();
+                    return reservation;
                 }));
     }
-}
 
+    /**
+     * Get the template parameters of the complete reservation command of an order, which carry the outcome of a
+     * reservation so that the order counts it without fetching all of its reservations.
+     *
+     * @param reservation is the reservation that completed
+     * @param status      is the outcome of the reservation
+     * @return the template parameters of the command
+     */
+    private Map<String, Object> getCompletion(Reservation reservation, ReservationStatus status) {
+        Map<String, Object> template = new HashMap<>();
+        template.put("reservationId", reservation.getIdentity());
+        template.put("reservationStatus", status);
+
+        if (reservation.getQuantity() != null)
+            template.put("quantity", reservation.getQuantity());
+
+        return template;
+    }
+}
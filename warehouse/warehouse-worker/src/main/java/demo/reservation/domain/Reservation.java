@@ -14,6 +14,7 @@ public class Reservation extends AbstractEntity {
     private List<ReservationEvent> events = new ArrayList<>();
     private String productId;
     private Long orderId;
+    private Integer quantity;
 
     public Reservation() {
     }
@@ -59,6 +60,14 @@ public class Reservation extends AbstractEntity {
         this.productId = productId;
     }
 
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
     /**
      * Returns the {@link Link} with a rel of {@link Link#REL_SELF}.
      */
@@ -1,6 +1,7 @@
 package demo.reservation.event;
 
 import demo.domain.AbstractEntity;
+import demo.domain.EventDigest;
 import demo.reservation.domain.Reservation;
 
 /**
@@ -12,6 +13,7 @@ import demo.reservation.domain.Reservation;
 public class ReservationEvent extends AbstractEntity {
 
     private ReservationEventType type;
+    private EventDigest<ReservationEventType> digest;
 
     public ReservationEvent() {
     }
@@ -28,6 +30,14 @@ public class ReservationEvent extends AbstractEntity {
         this.type = type;
     }
 
+    public EventDigest<ReservationEventType> getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest<ReservationEventType> digest) {
+        this.digest = digest;
+    }
+
     @Override
     public String toString() {
         return "ReservationEvent{" +
@@ -1,12 +1,25 @@
 package demo.reservation.event;
 
+import demo.hypermedia.SagaTraceInterceptor;
 import demo.reservation.ReservationStateFactory;
 import demo.reservation.domain.Reservation;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.annotation.StreamListener;
 import org.springframework.context.annotation.Profile;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
 /**
  * The {@link ReservationEventProcessor} monitors for a variety of {@link ReservationEvent} domain
  * events for an {@link Reservation}.
@@ -16,16 +29,67 @@ import org.springframework.context.annotation.Profile;
 @EnableAutoConfiguration
 @EnableBinding(ReservationEventSink.class)
 @Profile({"cloud", "development", "docker"})
-public class ReservationEventProcessor {
+public class ReservationEventProcessor implements DisposableBean {
 
-    private ReservationStateFactory stateFactory;
+    private final Logger log = Logger.getLogger(ReservationEventProcessor.class);
+    private final ReservationStateFactory stateFactory;
+    private final ExecutorService executor;
 
-    public ReservationEventProcessor(ReservationStateFactory stateFactory) {
+    public ReservationEventProcessor(ReservationStateFactory stateFactory,
+            @Value("${reservation.batch.concurrency:8}") int concurrency) {
         this.stateFactory = stateFactory;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "reservation-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @StreamListener(ReservationEventSink.INPUT)
     public void streamListener(ReservationEvent reservationEvent) {
         stateFactory.apply(reservationEvent);
     }
+
+    /**
+     * Applies a batch of {@link ReservationEvent}s that were published as a single message. The events of each
+     * {@link Reservation} are applied in the order of the batch, and different reservations are applied in parallel
+     * on a thread pool of {@code reservation.batch.concurrency} threads that carry the saga trace of the message.
+     * <p>
+     * A failed event is logged and skips the remaining events of its reservation, without failing the other
+     * reservations of the batch.
+     *
+     * @param reservationEvents are the events of the batch, in order
+     */
+    @StreamListener(ReservationEventSink.BATCH_INPUT)
+    public void batchListener(ReservationEvent[] reservationEvents) {
+        CompletableFuture[] reservations = Arrays.stream(reservationEvents)
+                .collect(Collectors.groupingBy(e -> e.getLink("reservation").getHref(), LinkedHashMap::new,
+                        Collectors.toList()))
+                .values()
+                .stream()
+                .map(events -> CompletableFuture.runAsync(SagaTraceInterceptor.propagate(() -> apply(events)),
+                        executor))
+                .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(reservations).join();
+    }
+
+    private void apply(List<ReservationEvent> events) {
+        for (ReservationEvent event : events) {
+            try {
+                stateFactory.apply(event);
+            } catch (RuntimeException ex) {
+                log.error(String.format("Could not apply the %s event of reservation %s, skipping its remaining " +
+                        "events of the batch", event.getType(), event.getLink("reservation").getHref()), ex);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
 }
@@ -5,7 +5,11 @@ import org.springframework.messaging.SubscribableChannel;
 
 public interface ReservationEventSink {
     String INPUT = "reservation";
+    String BATCH_INPUT = "reservation-batch";
 
     @Input(ReservationEventSink.INPUT)
     SubscribableChannel input();
+
+    @Input(ReservationEventSink.BATCH_INPUT)
+    SubscribableChannel batchInput();
 }
@@ -1,7 +1,14 @@
 package demo.reservation.event;
 
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resources;
 
 public class ReservationEvents extends Resources<ReservationEvent> {
 
+    public ReservationEvents() {
+    }
+
+    public ReservationEvents(Iterable<ReservationEvent> content, Link... links) {
+        super(content, links);
+    }
 }
@@ -1,21 +1,21 @@
 package demo.warehouse;
 
+import demo.domain.EventDigest;
+import demo.hypermedia.HypermediaClient;
 import demo.warehouse.domain.Warehouse;
 import demo.warehouse.domain.WarehouseStatus;
 import demo.warehouse.event.WarehouseEvent;
 import demo.warehouse.event.WarehouseEventType;
 import demo.warehouse.event.WarehouseEvents;
+import demo.state.ReplayMetrics;
 import org.apache.log4j.Logger;
 import org.springframework.hateoas.Link;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
-import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,22 +24,40 @@ public class WarehouseStateFactory {
 
     final private Logger log = Logger.getLogger(WarehouseStateFactory.class);
     final private WarehouseStateService stateService;
+    final private HypermediaClient hypermediaClient;
+    final private ReplayMetrics<WarehouseEventType> replayMetrics;
 
-    public WarehouseStateFactory(WarehouseStateService stateService) {
+    public WarehouseStateFactory(WarehouseStateService stateService, HypermediaClient hypermediaClient,
+                                 ReplayMetrics<WarehouseEventType> replayMetrics) {
         this.stateService = stateService;
+        this.hypermediaClient = hypermediaClient;
+        this.replayMetrics = replayMetrics;
     }
 
     public Warehouse apply(WarehouseEvent warehouseEvent) {
         Assert.notNull(warehouseEvent, "Cannot apply a null event");
         Assert.notNull(warehouseEvent.getId(), "The event payload's identity link was not found");
 
-        StateMachine<WarehouseStatus, WarehouseEventType> stateMachine = getStateMachine(warehouseEvent);
-        stateMachine.stop();
+        ReplayMetrics.Replay replay = replayMetrics.begin(warehouseEvent.getType());
+        StateMachine<WarehouseStatus, WarehouseEventType> stateMachine;
 
-        return stateMachine.getExtendedState().get("warehouse", Warehouse.class);
+        try {
+            stateMachine = getStateMachine(warehouseEvent, replay);
+        } catch (RuntimeException ex) {
+            replay.fail();
+            throw ex;
+        }
+
+        try {
+            return stateMachine.getExtendedState().get("warehouse", Warehouse.class);
+        } finally {
+            // Return the state machine to the pool
+            stateService.release(stateMachine);
+        }
     }
 
-    private StateMachine<WarehouseStatus, WarehouseEventType> getStateMachine(WarehouseEvent warehouseEvent) {
+    private StateMachine<WarehouseStatus, WarehouseEventType> getStateMachine(WarehouseEvent warehouseEvent,
+            ReplayMetrics.Replay replay) {
         Link eventId = warehouseEvent.getId();
         log.info(String.format("Warehouse event received: %s", eventId));
 
@@ -47,15 +65,31 @@ public class WarehouseStateFactory {
         Map<String, Object> contextMap;
         WarehouseEvents eventLog;
 
-        eventLog = getEventLog(warehouseEvent);
+        eventLog = getEventLog(warehouseEvent, replay);
         contextMap = getEventHeaders(warehouseEvent);
         stateMachine = stateService.newStateMachine();
 
-        // Replicate the aggregate state
-        eventLog.getContent().stream()
-                .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
-                .forEach(e -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(), e.getId()
-                        .equals(eventId) ? new MessageHeaders(contextMap) : new MessageHeaders(null))));
+        try {
+            // Replicate the aggregate state
+            eventLog.getContent().stream()
+                    .sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt()))
+                    .forEach(e -> {
+                        if (e.getId().equals(eventId)) {
+                            // Apply the current event, which runs the action of its transition
+                            replay.action(() -> stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                    new MessageHeaders(contextMap))));
+                        } else {
+                            stateMachine.sendEvent(MessageBuilder.createMessage(e.getType(),
+                                    new MessageHeaders(null)));
+                        }
+                    });
+
+            replay.complete(warehouseEvent.getLink("warehouse").getHref(), eventLog.getContent().size());
+        } catch (RuntimeException ex) {
+            // Return the state machine to the pool, since it never reaches the caller
+            stateService.release(stateMachine);
+            throw ex;
+        }
 
         return stateMachine;
     }
@@ -66,17 +100,16 @@ public class WarehouseStateFactory {
         return headerMap;
     }
 
-    private WarehouseEvents getEventLog(WarehouseEvent event) {
-        // Follow the hypermedia link to fetch the attached warehouse
-        Traverson traverson = new Traverson(
-                URI.create(event.getLink("warehouse")
-                        .getHref()),
-                MediaTypes.HAL_JSON
-        );
+    private WarehouseEvents getEventLog(WarehouseEvent event, ReplayMetrics.Replay replay) {
+        EventDigest<WarehouseEventType> digest = event.getDigest();
+
+        // Replicate from the event log embedded in the message when it has no gaps
+        if (digest != null && digest.isComplete() && digest.contains(event.getId()))
+            return new WarehouseEvents(digest.toEvents(event.getId(), WarehouseEvent::new,
+                    WarehouseEvent::setCreatedAt));
 
         // Get the event log for the attached warehouse resource
-        return traverson.follow("events")
-                .toEntity(WarehouseEvents.class)
-                .getBody();
+        return replay.fetch(() -> hypermediaClient.follow(event.getLink("warehouse").getHref(),
+                WarehouseEvents.class, "events"));
     }
 }
@@ -5,14 +5,12 @@ import demo.warehouse.domain.WarehouseStatus;
 import demo.warehouse.event.WarehouseEvent;
 import demo.warehouse.event.WarehouseEventType;
 import demo.warehouse.event.WarehouseEvents;
+import demo.state.StateMachinePool;
 import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
-
 /**
- * The {@link WarehouseStateService} provides factory access to get new state machines for
+ * The {@link WarehouseStateService} provides pooled access to state machines for
  * replicating the state of an {@link Warehouse} from {@link WarehouseEvents}.
  *
  * @author kbastani
@@ -20,26 +18,28 @@ import java.util.UUID;
 @Service
 public class WarehouseStateService {
 
-    private final StateMachineFactory<WarehouseStatus, WarehouseEventType> factory;
+    private final StateMachinePool<WarehouseStatus, WarehouseEventType> stateMachinePool;
 
-    public WarehouseStateService(StateMachineFactory<WarehouseStatus, WarehouseEventType> warehouseStateMachineFactory) {
-        this.factory = warehouseStateMachineFactory;
+    public WarehouseStateService(StateMachinePool<WarehouseStatus, WarehouseEventType> warehouseStateMachinePool) {
+        this.stateMachinePool = warehouseStateMachinePool;
     }
 
     /**
-     * Create a new state machine that is initially configured and ready for replicating
+     * Acquire a state machine that is initially configured and ready for replicating
      * the state of an {@link Warehouse} from a sequence of {@link WarehouseEvent}.
      *
-     * @return a new instance of {@link StateMachine}
+     * @return a started instance of {@link StateMachine}
      */
     public StateMachine<WarehouseStatus, WarehouseEventType> newStateMachine() {
-        // Create a new state machine in its initial state
-        StateMachine<WarehouseStatus, WarehouseEventType> stateMachine =
-                factory.getStateMachine(UUID.randomUUID().toString());
-
-        // Start the new state machine
-        stateMachine.start();
+        return stateMachinePool.acquire();
+    }
 
-        return stateMachine;
+    /**
+     * Release a state machine after replication has completed, so that it can be reused.
+     *
+     * @param stateMachine is the {@link StateMachine} to release
+     */
+    public void release(StateMachine<WarehouseStatus, WarehouseEventType> stateMachine) {
+        stateMachinePool.release(stateMachine);
     }
 }
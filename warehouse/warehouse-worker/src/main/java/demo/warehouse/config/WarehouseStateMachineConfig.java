@@ -8,20 +8,22 @@ import demo.warehouse.event.WarehouseEventType;
 import demo.warehouse.event.WarehouseEvents;
 import demo.warehouse.function.WarehouseCreated;
 import demo.warehouse.function.WarehouseFunction;
+import demo.hypermedia.HypermediaClient;
+import demo.state.ReplayMetrics;
+import demo.state.StateMachinePool;
 import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.client.Traverson;
 import org.springframework.statemachine.StateContext;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.action.Action;
 import org.springframework.statemachine.config.EnableStateMachineFactory;
 import org.springframework.statemachine.config.EnumStateMachineConfigurerAdapter;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineStateConfigurer;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
 
-import java.net.URI;
 import java.util.EnumSet;
 
 /**
@@ -40,6 +42,37 @@ import java.util.EnumSet;
 public class WarehouseStateMachineConfig extends EnumStateMachineConfigurerAdapter<WarehouseStatus, WarehouseEventType> {
 
     final private Logger log = Logger.getLogger(WarehouseStateMachineConfig.class);
+    final private HypermediaClient hypermediaClient;
+
+    public WarehouseStateMachineConfig(HypermediaClient hypermediaClient) {
+        this.hypermediaClient = hypermediaClient;
+    }
+
+    /**
+     * Creates a bounded pool of pre-built state machines that are reused for each replicated {@link WarehouseEvent}.
+     *
+     * @param warehouseStateMachineFactory is the factory used to build the state machines of the pool
+     * @param poolSize is the number of pre-built state machines
+     * @return the {@link StateMachinePool} for {@link Warehouse} state machines
+     */
+    @Bean
+    public StateMachinePool<WarehouseStatus, WarehouseEventType> warehouseStateMachinePool(
+            StateMachineFactory<WarehouseStatus, WarehouseEventType> warehouseStateMachineFactory,
+            @Value("${statemachine.pool.size:20}") int poolSize) {
+        return new StateMachinePool<>("warehouse", warehouseStateMachineFactory, poolSize);
+    }
+
+    /**
+     * Creates the metrics of the replication of {@link Warehouse} aggregates from their event logs.
+     *
+     * @param logLengthThreshold is the length of an event log above which a warning is logged
+     * @return the {@link ReplayMetrics} for {@link Warehouse} aggregates
+     */
+    @Bean
+    public ReplayMetrics<WarehouseEventType> warehouseReplayMetrics(
+            @Value("${replay.log-length.warn-threshold:500}") int logLengthThreshold) {
+        return new ReplayMetrics<>("warehouse", logLengthThreshold);
+    }
 
     /**
      * Configures the initial conditions of a new in-memory {@link StateMachine} for {@link Warehouse}.
@@ -112,14 +145,7 @@ public class WarehouseStateMachineConfig extends EnumStateMachineConfigurerAdapt
                 new WarehouseCreated(context, event -> {
                     log.info(event.getType() + ": " + event.getLink("warehouse").getHref());
                     // Get the warehouse resource for the event
-                    Traverson traverson = new Traverson(
-                            URI.create(event.getLink("warehouse").getHref()),
-                            MediaTypes.HAL_JSON
-                    );
-
-                    return traverson.follow("self")
-                            .toEntity(Warehouse.class)
-                            .getBody();
+                    return hypermediaClient.get(event.getLink("warehouse").getHref(), Warehouse.class);
                 }));
     }
 }
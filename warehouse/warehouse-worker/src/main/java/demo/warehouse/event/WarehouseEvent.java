@@ -1,6 +1,7 @@
 package demo.warehouse.event;
 
 import demo.domain.AbstractEntity;
+import demo.domain.EventDigest;
 import demo.warehouse.domain.Warehouse;
 
 /**
@@ -12,6 +13,8 @@ import demo.warehouse.domain.Warehouse;
 public class WarehouseEvent extends AbstractEntity {
 
     private WarehouseEventType type;
+    private EventDigest<WarehouseEventType> digest;
+    private Long quantity;
 
     public WarehouseEvent() {
     }
@@ -28,6 +31,22 @@ public class WarehouseEvent extends AbstractEntity {
         this.type = type;
     }
 
+    public Long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Long quantity) {
+        this.quantity = quantity;
+    }
+
+    public EventDigest<WarehouseEventType> getDigest() {
+        return digest;
+    }
+
+    public void setDigest(EventDigest<WarehouseEventType> digest) {
+        this.digest = digest;
+    }
+
     @Override
     public String toString() {
         return "WarehouseEvent{" +
@@ -10,5 +10,6 @@ import demo.warehouse.domain.WarehouseStatus;
  * @author Kenny Bastani
  */
 public enum WarehouseEventType {
-    WAREHOUSE_CREATED
+    WAREHOUSE_CREATED,
+    INVENTORY_ADDED
 }
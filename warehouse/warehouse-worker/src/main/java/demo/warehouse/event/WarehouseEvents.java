@@ -1,7 +1,14 @@
 package demo.warehouse.event;
 
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.Resources;
 
 public class WarehouseEvents extends Resources<WarehouseEvent> {
 
+    public WarehouseEvents() {
+    }
+
+    public WarehouseEvents(Iterable<WarehouseEvent> content, Link... links) {
+        super(content, links);
+    }
 }